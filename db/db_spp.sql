@@ -46,6 +46,11 @@ CREATE TABLE IF NOT EXISTS `pembayaran` (
   PRIMARY KEY (`id_transaksi`),
   KEY `nis_siswa` (`nis_siswa`),
   KEY `user_input` (`user_input`),
+  KEY `idx_pembayaran_tanggal` (`tanggal_bayar`, `status_pembayaran`, `metode_pembayaran`, `jumlah_bayar`, `nis_siswa`),
+  KEY `idx_pembayaran_periode` (`bulan_tahun`, `tanggal_bayar`, `status_pembayaran`, `metode_pembayaran`, `jumlah_bayar`),
+  KEY `idx_pembayaran_status` (`status_pembayaran`, `jumlah_bayar`),
+  KEY `idx_pembayaran_keyset` (`tanggal_bayar`, `id_transaksi`),
+  FULLTEXT KEY `ft_pembayaran_cari` (`id_transaksi`, `nis_siswa`, `nama_siswa`, `bulan_tahun`) /*!50100 WITH PARSER `ngram` */ ,
   CONSTRAINT `pembayaran_ibfk_1` FOREIGN KEY (`nis_siswa`) REFERENCES `siswa` (`nis`) ON DELETE CASCADE,
   CONSTRAINT `pembayaran_ibfk_2` FOREIGN KEY (`user_input`) REFERENCES `users` (`username`) ON DELETE SET NULL
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
@@ -66,6 +71,39 @@ INSERT INTO `pembayaran` (`id_transaksi`, `nis_siswa`, `nama_siswa`, `bulan_tahu
 	('TRX2024040002', '2026003', 'Arif Setiawan', 'April 2024', 100000.00, 20000.00, 80000.00, '2024-04-05 16:00:00', 'Cash', 'Lunas', 'Potongan khusus', 'admin'),
 	('TRX20251012001019539', '2024001', 'Ahmad Rizky Pratama', 'Oktober 2025', 150000.00, 25000.00, 200000.00, '2025-10-12 00:11:41', 'Cash', 'Lunas', '', 'admin');
 
+-- Dumping structure for table db_spp.rekap_bulanan
+CREATE TABLE IF NOT EXISTS `rekap_bulanan` (
+  `periode` char(7) NOT NULL,
+  `kelas` varchar(20) NOT NULL,
+  `metode_pembayaran` varchar(20) NOT NULL,
+  `jumlah_transaksi` int NOT NULL DEFAULT '0',
+  `total_pemasukan` decimal(14,2) NOT NULL DEFAULT '0.00',
+  `diperbarui` timestamp NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`periode`,`kelas`,`metode_pembayaran`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+-- Dumping structure for table db_spp.rekap_bulanan_status
+CREATE TABLE IF NOT EXISTS `rekap_bulanan_status` (
+  `periode` char(7) NOT NULL,
+  `dihitung` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`periode`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+-- Data rekap_bulanan dan rekap_bulanan_status diisi otomatis oleh aplikasi (RekapBulananController)
+
+-- Dumping structure for table db_spp.change_log
+CREATE TABLE IF NOT EXISTS `change_log` (
+  `versi` bigint NOT NULL AUTO_INCREMENT,
+  `entitas` varchar(20) NOT NULL,
+  `kunci` varchar(50) NOT NULL,
+  `klien` char(36) NOT NULL,
+  `dibuat` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`versi`),
+  KEY `idx_change_log_dibuat` (`dibuat`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+-- Data change_log diisi otomatis oleh aplikasi (LogPerubahan)
+
 -- Dumping structure for table db_spp.potongan_spp
 CREATE TABLE IF NOT EXISTS `potongan_spp` (
   `id` int NOT NULL AUTO_INCREMENT,
@@ -112,6 +150,7 @@ CREATE TABLE IF NOT EXISTS `siswa` (
   `created_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP,
   PRIMARY KEY (`nis`),
   KEY `fk_siswa_user` (`user_id`),
+  KEY `idx_siswa_status` (`status_siswa`, `kelas`),
   CONSTRAINT `fk_siswa_user` FOREIGN KEY (`user_id`) REFERENCES `users` (`id`) ON DELETE SET NULL ON UPDATE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
 
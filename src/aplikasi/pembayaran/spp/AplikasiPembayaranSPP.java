@@ -1,5 +1,8 @@
 package aplikasi.pembayaran.spp;
 
+import aplikasi.pembayaran.spp.controller.LaporanScheduler;
+import aplikasi.pembayaran.spp.controller.LogPerubahan;
+import aplikasi.pembayaran.spp.controller.ReferensiKelas;
 import aplikasi.pembayaran.spp.model.Koneksi;
 import aplikasi.pembayaran.spp.view.LoginPage;
 import javax.swing.*;
@@ -29,6 +32,19 @@ public class AplikasiPembayaranSPP {
 
             // Setup database tables if needed
             Koneksi.setupDatabase();
+
+            // Data referensi kelas dimuat sekali di awal
+            try {
+                ReferensiKelas.getInstance().muatUlang();
+            } catch (Exception e) {
+                System.out.println("⚠️ Referensi kelas belum dimuat: " + e.getMessage());
+            }
+
+            // Generate laporan harian/bulanan terjadwal di background
+            LaporanScheduler.start();
+
+            // Pantau change_log supaya cache ikut perubahan dari komputer lain
+            LogPerubahan.start();
         } else {
             System.out.println("❌ Database connection failed");
             JOptionPane.showMessageDialog(null,
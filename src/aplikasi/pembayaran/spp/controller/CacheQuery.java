@@ -0,0 +1,257 @@
+package aplikasi.pembayaran.spp.controller;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cache hasil query kecil yang diulang persis sama (opt-in).
+ *
+ * Key = SQL + parameter. Setiap entry ditandai dengan tabel yang dibacanya
+ * (diambil dari FROM/JOIN di SQL) beserta versi tabel itu saat query jalan.
+ * Write lewat {@link #perbarui(Connection, String, Object...)} menaikkan versi
+ * tabel tujuannya; tabel pembayaran/siswa/kelas/users juga ikut versi DataVersi,
+ * jadi write lewat controller lain dan perubahan dari komputer lain
+ * (LogPerubahan) otomatis membuat entry-nya basi. Jumlah entry dibatasi
+ * (-Dspp.querycache.maks=&lt;n&gt;, default 256), yang paling lama tidak dipakai
+ * dibuang duluan (LRU).
+ *
+ * Hasil yang di-cache dipakai bersama, jadi pembaca harus mengembalikan
+ * objek yang tidak diubah lagi (angka, String, list unmodifiable).
+ */
+public final class CacheQuery {
+
+    private static final CacheQuery INSTANCE = new CacheQuery();
+
+    private static final int MAKS_ENTRY = Integer.getInteger("spp.querycache.maks", 256);
+
+    private static final Pattern TABEL_BACA = Pattern.compile(
+            "\\b(?:FROM|JOIN)\\s+`?(\\w+)`?", Pattern.CASE_INSENSITIVE);
+    private static final Pattern TABEL_TULIS = Pattern.compile(
+            "^\\s*(?:INSERT\\s+(?:IGNORE\\s+)?INTO|REPLACE\\s+INTO|UPDATE|DELETE\\s+FROM)\\s+`?(\\w+)`?",
+            Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Ubah result set jadi hasil yang disimpan
+     */
+    public interface Pembaca<T> {
+        T baca(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Versi satu tabel: counter lokal (write lewat cache ini) + DataVersi kalau ada
+     */
+    private static final class Tag {
+        final DataVersi.Tabel dataVersi;
+        final AtomicLong lokal = new AtomicLong();
+
+        Tag(String nama) {
+            DataVersi.Tabel tabel = null;
+            for (DataVersi.Tabel t : DataVersi.Tabel.values()) {
+                if (t.name().equalsIgnoreCase(nama)) {
+                    tabel = t;
+                }
+            }
+            this.dataVersi = tabel;
+        }
+
+        long versi() {
+            return lokal.get() + (dataVersi != null ? DataVersi.getVersi(dataVersi) : 0);
+        }
+    }
+
+    private static final class Entry {
+        final Object nilai;
+        final Tag[] tag;
+        final long[] versi;
+
+        Entry(Object nilai, Tag[] tag, long[] versi) {
+            this.nilai = nilai;
+            this.tag = tag;
+            this.versi = versi;
+        }
+
+        boolean masihBerlaku() {
+            for (int i = 0; i < tag.length; i++) {
+                if (tag[i].versi() != versi[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private final Map<List<Object>, Entry> entries = new LinkedHashMap<List<Object>, Entry>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<Object>, Entry> eldest) {
+            if (size() > MAKS_ENTRY) {
+                dibuang.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+    private final Map<String, Tag> tags = new ConcurrentHashMap<>();
+    private final Map<String, Tag[]> tagPerSql = new ConcurrentHashMap<>();
+
+    private final AtomicLong hit = new AtomicLong();
+    private final AtomicLong miss = new AtomicLong();
+    private final AtomicLong basi = new AtomicLong();
+    private final AtomicLong dibuang = new AtomicLong();
+
+    private CacheQuery() {
+    }
+
+    public static CacheQuery getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Jalankan query SELECT, atau ambil hasilnya dari cache kalau tabel yang
+     * dibaca belum berubah sejak terakhir dijalankan.
+     *
+     * @param params parameter query (nilai biasa atau PeriodeFilter)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T ambil(Connection conn, KendaliQuery.Jenis jenis, String sql,
+                       Pembaca<T> pembaca, Object... params) throws SQLException {
+        List<Object> kunci = kunci(sql, params);
+        synchronized (entries) {
+            Entry entry = entries.get(kunci);
+            if (entry != null) {
+                if (entry.masihBerlaku()) {
+                    hit.incrementAndGet();
+                    return (T) entry.nilai;
+                }
+                entries.remove(kunci);
+                basi.incrementAndGet();
+            }
+        }
+        miss.incrementAndGet();
+
+        // Versi dicatat sebelum query: write selama query jalan bikin entry ini langsung basi
+        Tag[] tag = tagBaca(sql);
+        long[] versi = new long[tag.length];
+        for (int i = 0; i < tag.length; i++) {
+            versi[i] = tag[i].versi();
+        }
+
+        T nilai;
+        try (PreparedStatement stmt = KendaliQuery.siapkan(conn, sql, jenis)) {
+            PeriodeFilter.bindParams(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                nilai = pembaca.baca(rs);
+            }
+        }
+
+        synchronized (entries) {
+            entries.put(kunci, new Entry(nilai, tag, versi));
+        }
+        return nilai;
+    }
+
+    /**
+     * Jalankan INSERT/UPDATE/DELETE lalu buang entry yang membaca tabel tujuannya
+     * @return jumlah baris yang berubah
+     */
+    public int perbarui(Connection conn, String sql, Object... params) throws SQLException {
+        int hasil;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            PeriodeFilter.bindParams(stmt, params);
+            hasil = stmt.executeUpdate();
+        }
+        if (hasil > 0) {
+            Matcher m = TABEL_TULIS.matcher(sql);
+            if (m.find()) {
+                invalidate(m.group(1));
+            } else {
+                // Tabel tujuan tidak dikenali, buang semua supaya aman
+                clear();
+            }
+        }
+        return hasil;
+    }
+
+    /**
+     * Buang entry yang membaca tabel ini (untuk write yang tidak lewat {@link #perbarui})
+     */
+    public void invalidate(String tabel) {
+        tag(tabel).lokal.incrementAndGet();
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    // ===== METRIK =====
+
+    public long getHit() {
+        return hit.get();
+    }
+
+    public long getMiss() {
+        return miss.get();
+    }
+
+    public double getHitRate() {
+        long total = hit.get() + miss.get();
+        return total == 0 ? 0 : (double) hit.get() / total;
+    }
+
+    public String getStatistik() {
+        int ukuran;
+        synchronized (entries) {
+            ukuran = entries.size();
+        }
+        return String.format("hit=%d miss=%d hitRate=%.1f%% entry=%d/%d basi=%d dibuang(LRU)=%d",
+                hit.get(), miss.get(), getHitRate() * 100, ukuran, MAKS_ENTRY, basi.get(), dibuang.get());
+    }
+
+    // ===== INTERNAL =====
+
+    private static List<Object> kunci(String sql, Object... params) {
+        List<Object> kunci = new ArrayList<>(params.length + 1);
+        kunci.add(sql);
+        for (Object param : params) {
+            // PeriodeFilter tidak punya equals, pakai rentang waktunya
+            kunci.add(param instanceof PeriodeFilter
+                    ? Arrays.asList(((PeriodeFilter) param).getMulai(), ((PeriodeFilter) param).getAkhir())
+                    : param);
+        }
+        return kunci;
+    }
+
+    private Tag[] tagBaca(String sql) {
+        return tagPerSql.computeIfAbsent(sql, s -> {
+            Set<String> nama = new LinkedHashSet<>();
+            Matcher m = TABEL_BACA.matcher(s);
+            while (m.find()) {
+                nama.add(m.group(1).toLowerCase(Locale.ROOT));
+            }
+            List<Tag> hasil = new ArrayList<>();
+            for (String n : nama) {
+                hasil.add(tag(n));
+            }
+            return hasil.toArray(new Tag[0]);
+        });
+    }
+
+    private Tag tag(String tabel) {
+        return tags.computeIfAbsent(tabel.toLowerCase(Locale.ROOT), Tag::new);
+    }
+}
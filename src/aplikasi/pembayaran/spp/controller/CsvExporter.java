@@ -0,0 +1,271 @@
+package aplikasi.pembayaran.spp.controller;
+
+import aplikasi.pembayaran.spp.model.Koneksi;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Export CSV/TSV seluruh riwayat pembayaran untuk auditor.
+ *
+ * Dibuat untuk jutaan baris: result set streaming (fetchSize = Integer.MIN_VALUE)
+ * di koneksi terpisah, setiap baris di-encode ke satu ByteBuffer yang dipakai ulang,
+ * lalu ditulis lewat FileChannel. Kompresi gzip opsional pakai commons-compress.
+ */
+public class CsvExporter {
+
+    public enum Format {
+        CSV(','), TSV('\t');
+
+        private final char delimiter;
+
+        Format(char delimiter) {
+            this.delimiter = delimiter;
+        }
+    }
+
+    /**
+     * Callback progress, dipanggil dari thread export
+     */
+    public interface ProgressListener {
+        void onProgress(long baris, long totalBaris, double barisPerDetik);
+    }
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final int PROGRESS_SETIAP = 5000;
+
+    private static final String[] HEADER = {
+        "id_transaksi", "nis_siswa", "nama_siswa", "bulan_tahun", "nominal_spp", "potongan",
+        "jumlah_bayar", "tanggal_bayar", "metode_pembayaran", "status_pembayaran", "keterangan", "user_input"
+    };
+
+    private static final String QUERY = "SELECT id_transaksi, nis_siswa, nama_siswa, bulan_tahun, " +
+            "nominal_spp, potongan, jumlah_bayar, tanggal_bayar, metode_pembayaran, " +
+            "status_pembayaran, keterangan, user_input " +
+            "FROM pembayaran ORDER BY tanggal_bayar, id_transaksi";
+
+    private final Format format;
+    private final boolean gzip;
+    private volatile boolean dibatalkan = false;
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private WritableByteChannel channel;
+
+    public CsvExporter(Format format, boolean gzip) {
+        this.format = format;
+        this.gzip = gzip;
+    }
+
+    /**
+     * Hentikan export yang sedang berjalan (aman dipanggil dari thread lain)
+     */
+    public void batal() {
+        dibatalkan = true;
+    }
+
+    public boolean isDibatalkan() {
+        return dibatalkan;
+    }
+
+    /**
+     * Export seluruh tabel pembayaran ke file. Kalau gagal atau dibatalkan,
+     * file setengah jadi dihapus.
+     * @return jumlah baris yang ditulis
+     * @throws CancellationException kalau export dihentikan lewat {@link #batal()}
+     */
+    public long exportPembayaran(File file, ProgressListener listener) throws SQLException, IOException {
+        boolean berhasil = false;
+        try {
+            long baris = tulis(file, listener);
+            if (baris >= 0) {
+                berhasil = true;
+                System.out.println("✅ Export " + format + " selesai: " + baris + " baris -> " + file.getName());
+                return baris;
+            }
+        } finally {
+            if (!berhasil && file.exists() && !file.delete()) {
+                System.err.println("⚠️ File export setengah jadi tidak bisa dihapus: " + file.getAbsolutePath());
+            }
+        }
+        System.out.println("ℹ️ Export " + format + " dibatalkan, " + file.getName() + " dihapus");
+        throw new CancellationException("Export dibatalkan");
+    }
+
+    // @return jumlah baris, atau -1 kalau berhenti karena dibatalkan
+    private long tulis(File file, ProgressListener listener) throws SQLException, IOException {
+        try (Connection conn = Koneksi.openConnection()) {
+            long total = hitungTotal(conn);
+
+            try (FileChannel fileChannel = FileChannel.open(file.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+                OutputStream gzipStream = null;
+                if (gzip) {
+                    gzipStream = new GzipCompressorOutputStream(Channels.newOutputStream(fileChannel));
+                    channel = Channels.newChannel(gzipStream);
+                } else {
+                    channel = fileChannel;
+                }
+
+                try (PreparedStatement stmt = conn.prepareStatement(QUERY,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    stmt.setFetchSize(Integer.MIN_VALUE);
+
+                    buffer.clear();
+                    for (int i = 0; i < HEADER.length; i++) {
+                        if (i > 0) put((byte) format.delimiter);
+                        putField(HEADER[i]);
+                    }
+                    put((byte) '\n');
+
+                    long baris = 0;
+                    long mulai = System.nanoTime();
+                    boolean terputus = false;
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        int kolom = HEADER.length;
+                        while (rs.next()) {
+                            if (dibatalkan) {
+                                terputus = true;
+                                stmt.cancel();
+                                break;
+                            }
+                            for (int i = 1; i <= kolom; i++) {
+                                if (i > 1) put((byte) format.delimiter);
+                                putField(rs.getString(i));
+                            }
+                            put((byte) '\n');
+                            baris++;
+
+                            if (listener != null && baris % PROGRESS_SETIAP == 0) {
+                                listener.onProgress(baris, total, barisPerDetik(baris, mulai));
+                            }
+                        }
+                    } catch (SQLException e) {
+                        // Setelah stmt.cancel() driver melempar "Query execution was interrupted"
+                        // saat result set streaming ditutup; itu memang akibat pembatalan
+                        if (!terputus) {
+                            throw e;
+                        }
+                    }
+
+                    if (terputus) {
+                        tutupDiam(gzipStream);
+                        return -1;
+                    }
+                    flush();
+                    if (gzipStream != null) {
+                        gzipStream.close();
+                    }
+
+                    if (listener != null) {
+                        listener.onProgress(baris, total, barisPerDetik(baris, mulai));
+                    }
+                    return baris;
+                }
+            }
+        }
+    }
+
+    private static void tutupDiam(OutputStream out) {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                // file-nya toh akan dihapus
+            }
+        }
+    }
+
+    private long hitungTotal(Connection conn) {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM pembayaran")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            System.err.println("❌ Error hitung total pembayaran: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    private static double barisPerDetik(long baris, long mulaiNano) {
+        double detik = (System.nanoTime() - mulaiNano) / 1_000_000_000.0;
+        return detik > 0 ? baris / detik : 0;
+    }
+
+    /**
+     * Tulis satu field. CSV: dikutip kalau mengandung delimiter/kutip/baris baru.
+     * TSV: tab dan baris baru diganti spasi.
+     */
+    private void putField(String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        boolean perluKutip = false;
+        if (format == Format.CSV) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                    perluKutip = true;
+                    break;
+                }
+            }
+        }
+
+        if (perluKutip) put((byte) '"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (format == Format.TSV && (c == '\t' || c == '\n' || c == '\r')) {
+                    c = ' ';
+                } else if (perluKutip && c == '"') {
+                    put((byte) '"');
+                }
+                put((byte) c);
+            } else {
+                // Karakter non-ASCII (jarang): encode sisa string sekaligus
+                putBytes(value.substring(i).getBytes(StandardCharsets.UTF_8));
+                break;
+            }
+        }
+        if (perluKutip) put((byte) '"');
+    }
+
+    private void put(byte b) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put(b);
+    }
+
+    private void putBytes(byte[] bytes) throws IOException {
+        for (byte b : bytes) {
+            if (format == Format.TSV && (b == '\t' || b == '\n' || b == '\r')) {
+                b = ' ';
+            } else if (format == Format.CSV && b == '"') {
+                put((byte) '"');
+            }
+            put(b);
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
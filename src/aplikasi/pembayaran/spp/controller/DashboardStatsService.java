@@ -0,0 +1,144 @@
+package aplikasi.pembayaran.spp.controller;
+
+import aplikasi.pembayaran.spp.model.DashboardStats;
+import aplikasi.pembayaran.spp.model.Koneksi;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sumber tunggal angka kartu dashboard (Admin, Kepsek, TU).
+ *
+ * Semua angka diambil dengan satu query (beberapa agregat di-CROSS JOIN)
+ * menjadi satu DashboardStats. Snapshot dipakai bersama semua dashboard
+ * selama TTL, jadi berapa pun dashboard yang terbuka hanya ada satu query
+ * per interval. Input pembayaran / perubahan siswa memanggil
+ * {@link #invalidate()} supaya angka langsung terbarui.
+ *
+ * Setiap snapshot ditandai generasi saat query-nya dimulai; invalidate()
+ * menaikkan generasi, jadi hasil query yang mulai sebelum write tidak pernah
+ * dipakai lagi walaupun selesainya sesudah invalidate().
+ */
+public final class DashboardStatsService {
+
+    private static final DashboardStatsService INSTANCE = new DashboardStatsService();
+
+    // TTL snapshot, bisa diatur lewat -Dspp.dashboard.ttl=<detik>
+    private static final long TTL_MILLIS = Long.getLong("spp.dashboard.ttl", 10) * 1000L;
+
+    private static final String STATS_QUERY = "SELECT saldo.total_saldo, " +
+            "hari.pemasukan_hari_ini, hari.transaksi_hari_ini, " +
+            "bulan.pemasukan_bulan_ini, bulan.transaksi_bulan_ini, bulan.siswa_lunas, " +
+            "pending.transaksi_pending, siswa.siswa_aktif " +
+            "FROM (SELECT COALESCE(SUM(jumlah_bayar), 0) as total_saldo " +
+            "      FROM pembayaran WHERE status_pembayaran = 'Lunas') saldo " +
+            "CROSS JOIN (SELECT COALESCE(SUM(jumlah_bayar), 0) as pemasukan_hari_ini, COUNT(*) as transaksi_hari_ini " +
+            "      FROM pembayaran WHERE %s) hari " +
+            "CROSS JOIN (SELECT COALESCE(SUM(jumlah_bayar), 0) as pemasukan_bulan_ini, COUNT(*) as transaksi_bulan_ini, " +
+            "      COUNT(DISTINCT CASE WHEN status_pembayaran = 'Lunas' THEN nis_siswa END) as siswa_lunas " +
+            "      FROM pembayaran WHERE %s) bulan " +
+            "CROSS JOIN (SELECT COUNT(*) as transaksi_pending " +
+            "      FROM pembayaran WHERE status_pembayaran IN ('Belum Lunas', 'Cicilan')) pending " +
+            "CROSS JOIN (SELECT COUNT(*) as siswa_aktif FROM siswa WHERE status_siswa = 'Aktif') siswa";
+
+    /**
+     * Snapshot beserta generasi saat query-nya dimulai
+     */
+    private static final class Entri {
+        final DashboardStats stats;
+        final long generasi;
+
+        Entri(DashboardStats stats, long generasi) {
+            this.stats = stats;
+            this.generasi = generasi;
+        }
+    }
+
+    private final AtomicLong generasi = new AtomicLong();
+    private volatile Entri snapshot;
+
+    private DashboardStatsService() {
+    }
+
+    public static DashboardStatsService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Snapshot terbaru; query ulang hanya kalau snapshot sudah lewat TTL.
+     * Kalau query gagal, snapshot lama (atau KOSONG) yang dikembalikan.
+     */
+    public DashboardStats getSnapshot() {
+        Entri sekarang = snapshot;
+        if (masihBerlaku(sekarang)) {
+            return sekarang.stats;
+        }
+        synchronized (this) {
+            // Dashboard lain mungkin sudah mengambil snapshot baru selama menunggu
+            sekarang = snapshot;
+            if (masihBerlaku(sekarang)) {
+                return sekarang.stats;
+            }
+            long gen = generasi.get();
+            try {
+                DashboardStats hasil = ambil();
+                snapshot = new Entri(hasil, gen);
+                return hasil;
+            } catch (SQLException e) {
+                System.err.println("❌ Error get statistik dashboard: " + e.getMessage());
+                return sekarang != null ? sekarang.stats : DashboardStats.KOSONG;
+            }
+        }
+    }
+
+    /**
+     * Buang snapshot, dashboard berikutnya yang membaca akan query ulang
+     */
+    public void invalidate() {
+        generasi.incrementAndGet();
+        snapshot = null;
+    }
+
+    private boolean masihBerlaku(Entri entri) {
+        return entri != null && entri.generasi == generasi.get()
+                && System.currentTimeMillis() - entri.stats.getWaktuDiambil() < TTL_MILLIS;
+    }
+
+    /**
+     * Query statistik dashboard untuk periode hari & bulan yang diberikan,
+     * parameternya di-bind dengan PeriodeFilter.bindParams(stmt, hariIni, bulanIni)
+     */
+    public static String getStatsQuery(PeriodeFilter hariIni, PeriodeFilter bulanIni) {
+        return String.format(STATS_QUERY, hariIni.predikat(), bulanIni.predikat());
+    }
+
+    private DashboardStats ambil() throws SQLException {
+        PeriodeFilter hariIni = PeriodeFilter.hariIni();
+        PeriodeFilter bulanIni = PeriodeFilter.bulanIni();
+        String sql = getStatsQuery(hariIni, bulanIni);
+
+        try (Connection conn = Koneksi.openConnection();
+             PreparedStatement stmt = KendaliQuery.siapkan(conn, sql, KendaliQuery.Jenis.DASHBOARD)) {
+            PeriodeFilter.bindParams(stmt, hariIni, bulanIni);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return DashboardStats.KOSONG;
+                }
+                return new DashboardStats(
+                    rs.getDouble("total_saldo"),
+                    rs.getDouble("pemasukan_hari_ini"),
+                    rs.getInt("transaksi_hari_ini"),
+                    rs.getDouble("pemasukan_bulan_ini"),
+                    rs.getInt("transaksi_bulan_ini"),
+                    rs.getInt("transaksi_pending"),
+                    rs.getInt("siswa_aktif"),
+                    rs.getInt("siswa_lunas"),
+                    System.currentTimeMillis()
+                );
+            }
+        }
+    }
+}
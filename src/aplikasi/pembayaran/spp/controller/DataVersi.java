@@ -0,0 +1,47 @@
+package aplikasi.pembayaran.spp.controller;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Nomor versi data per tabel (pembayaran, siswa, kelas, users).
+ *
+ * Setiap write yang berhasil lewat controller menaikkan versi tabelnya.
+ * Dashboard cukup membandingkan versi yang terakhir dilihat dengan versi
+ * sekarang (satu baca atomic) dan hanya query ulang kalau versinya berubah,
+ * jadi dashboard yang idle tidak menyentuh database sama sekali.
+ */
+public final class DataVersi {
+
+    public enum Tabel { PEMBAYARAN, SISWA, KELAS, USERS }
+
+    private static final AtomicLongArray VERSI = new AtomicLongArray(Tabel.values().length);
+
+    private DataVersi() {
+    }
+
+    /**
+     * Dipanggil controller setelah insert/update/delete berhasil
+     */
+    public static void naik(Tabel tabel) {
+        VERSI.incrementAndGet(tabel.ordinal());
+    }
+
+    public static long getVersi(Tabel tabel) {
+        return VERSI.get(tabel.ordinal());
+    }
+
+    /**
+     * Gabungan versi beberapa tabel, berubah kalau salah satunya berubah.
+     * Tanpa argumen = semua tabel.
+     */
+    public static long getVersi(Tabel... tabel) {
+        if (tabel.length == 0) {
+            tabel = Tabel.values();
+        }
+        long total = 0;
+        for (Tabel t : tabel) {
+            total += VERSI.get(t.ordinal());
+        }
+        return total;
+    }
+}
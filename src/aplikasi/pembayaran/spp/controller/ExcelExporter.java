@@ -0,0 +1,436 @@
+package aplikasi.pembayaran.spp.controller;
+
+import aplikasi.pembayaran.spp.model.Koneksi;
+import aplikasi.pembayaran.spp.model.TabelTransaksi;
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DataFormat;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.VerticalAlignment;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import javax.swing.table.TableModel;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Engine export Excel berbasis SXSSF (streaming).
+ *
+ * Baris ditulis langsung dari sumber data (cursor JDBC atau table model) ke
+ * SXSSFWorkbook. Hanya {@link #ROW_WINDOW} baris yang disimpan di memori,
+ * sisanya di-flush ke file sementara, jadi heap tetap konstan berapapun
+ * jumlah barisnya. Semua CellStyle dibuat sekali di awal.
+ */
+public class ExcelExporter {
+
+    public static final int ROW_WINDOW = 100;
+
+    public enum Tipe { TEKS, ANGKA, RUPIAH, TANGGAL }
+
+    /**
+     * Definisi satu kolom export
+     */
+    public static class Kolom {
+        private final String judul;
+        private final Tipe tipe;
+        private final int lebar;
+        private String sorot; // kata kunci untuk style urgent (opsional)
+
+        public Kolom(String judul, Tipe tipe, int lebar) {
+            this.judul = judul;
+            this.tipe = tipe;
+            this.lebar = lebar;
+        }
+
+        /**
+         * Sel yang teksnya mengandung kata kunci ini diberi style urgent
+         */
+        public Kolom sorot(String kataKunci) {
+            this.sorot = kataKunci;
+            return this;
+        }
+    }
+
+    /**
+     * Sumber baris untuk export, dibaca maju sekali jalan
+     */
+    public interface SumberData {
+        boolean next() throws Exception;
+        Object get(int kolom) throws Exception;
+    }
+
+    /**
+     * Sumber yang bisa memberi nilai kolom ANGKA/RUPIAH langsung sebagai double,
+     * jadi export tidak perlu membungkus setiap angka jadi Double
+     */
+    public interface SumberAngka extends SumberData {
+        double getAngka(int kolom) throws Exception;
+    }
+
+    private final String namaSheet;
+    private final String judul;
+    private final List<Kolom> kolom = new ArrayList<>();
+    private final List<String> info = new ArrayList<>();
+    private IndexedColors warnaHeader = IndexedColors.DARK_BLUE;
+
+    public ExcelExporter(String namaSheet, String judul) {
+        this.namaSheet = namaSheet;
+        this.judul = judul;
+    }
+
+    public ExcelExporter kolom(String judul, Tipe tipe, int lebar) {
+        kolom.add(new Kolom(judul, tipe, lebar));
+        return this;
+    }
+
+    public ExcelExporter kolom(Kolom k) {
+        kolom.add(k);
+        return this;
+    }
+
+    /**
+     * Baris info di bawah judul (periode, statistik, dll)
+     */
+    public ExcelExporter info(String baris) {
+        info.add(baris);
+        return this;
+    }
+
+    public ExcelExporter warnaHeader(IndexedColors warna) {
+        this.warnaHeader = warna;
+        return this;
+    }
+
+    /**
+     * Export hasil query langsung dari cursor JDBC.
+     * Query dijalankan di koneksi terpisah dengan result set streaming
+     * (fetchSize = Integer.MIN_VALUE) supaya MySQL tidak mengirim semua baris sekaligus.
+     *
+     * @param params parameter query, boleh String/angka biasa atau {@link PeriodeFilter}
+     * @return jumlah baris data yang ditulis
+     */
+    public int exportQuery(String sql, File file, Object... params) throws SQLException, IOException {
+        try (Connection conn = Koneksi.openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            PeriodeFilter.bindParams(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return export(dariResultSet(rs), file);
+            }
+        }
+    }
+
+    /**
+     * Export dari sumber data apapun
+     * @return jumlah baris data yang ditulis
+     */
+    public int export(SumberData sumber, File file) throws IOException {
+        return exportBeberapaSheet(file, new ExcelExporter[]{this}, new SumberData[]{sumber});
+    }
+
+    /**
+     * Export beberapa sheet ke satu workbook, satu exporter per sheet
+     * @return total baris data yang ditulis
+     */
+    public static int exportBeberapaSheet(File file, ExcelExporter[] sheets, SumberData[] sumber) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            int jumlah = 0;
+            for (int i = 0; i < sheets.length; i++) {
+                jumlah += sheets[i].tulisSheet(workbook, sumber[i]);
+            }
+
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                workbook.write(out);
+            }
+            return jumlah;
+        } finally {
+            // Hapus file sementara SXSSF
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private int tulisSheet(SXSSFWorkbook workbook, SumberData sumber) throws IOException {
+        Sheet sheet = workbook.createSheet(namaSheet);
+        Gaya gaya = new Gaya(workbook, warnaHeader);
+
+        for (int i = 0; i < kolom.size(); i++) {
+            sheet.setColumnWidth(i, kolom.get(i).lebar * 256);
+        }
+
+        int rowNum = 0;
+
+        // ===== TITLE =====
+        Row titleRow = sheet.createRow(rowNum++);
+        Cell titleCell = titleRow.createCell(0);
+        titleCell.setCellValue(judul);
+        titleCell.setCellStyle(gaya.title);
+        titleRow.setHeightInPoints(25);
+        if (kolom.size() > 1) {
+            sheet.addMergedRegion(new CellRangeAddress(0, 0, 0, kolom.size() - 1));
+        }
+
+        // ===== INFO =====
+        for (String baris : info) {
+            sheet.createRow(rowNum++).createCell(0).setCellValue(baris);
+        }
+        rowNum++; // Baris kosong
+
+        // ===== HEADER =====
+        Row headerRow = sheet.createRow(rowNum++);
+        headerRow.setHeightInPoints(25);
+        for (int i = 0; i < kolom.size(); i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(kolom.get(i).judul);
+            cell.setCellStyle(gaya.header);
+        }
+
+        // ===== DATA =====
+        int jumlah = 0;
+        SumberAngka sumberAngka = sumber instanceof SumberAngka ? (SumberAngka) sumber : null;
+        try {
+            while (sumber.next()) {
+                Row row = sheet.createRow(rowNum++);
+                for (int i = 0; i < kolom.size(); i++) {
+                    Kolom k = kolom.get(i);
+                    if (sumberAngka != null && (k.tipe == Tipe.RUPIAH || k.tipe == Tipe.ANGKA)) {
+                        Cell cell = row.createCell(i);
+                        cell.setCellValue(sumberAngka.getAngka(i));
+                        cell.setCellStyle(k.tipe == Tipe.RUPIAH ? gaya.currency : gaya.number);
+                    } else {
+                        tulisSel(row.createCell(i), k, sumber.get(i), gaya);
+                    }
+                }
+                jumlah++;
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Gagal membaca data export: " + e.getMessage(), e);
+        }
+        return jumlah;
+    }
+
+    private void tulisSel(Cell cell, Kolom k, Object value, Gaya gaya) {
+        if (value == null) {
+            cell.setCellStyle(gaya.data);
+            return;
+        }
+        switch (k.tipe) {
+            case RUPIAH:
+            case ANGKA:
+                Double angka = toDouble(value);
+                if (angka != null) {
+                    cell.setCellValue(angka);
+                    cell.setCellStyle(k.tipe == Tipe.RUPIAH ? gaya.currency : gaya.number);
+                    return;
+                }
+                break;
+            case TANGGAL:
+                if (value instanceof java.util.Date) {
+                    cell.setCellValue((java.util.Date) value);
+                    cell.setCellStyle(gaya.date);
+                    return;
+                }
+                if (value instanceof java.time.LocalDateTime) {
+                    cell.setCellValue((java.time.LocalDateTime) value);
+                    cell.setCellStyle(gaya.date);
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+        String teks = value.toString();
+        cell.setCellValue(teks);
+        cell.setCellStyle(k.sorot != null && teks.contains(k.sorot) ? gaya.urgent : gaya.data);
+    }
+
+    /**
+     * Angka bisa berupa Number atau teks "Rp 150.000" dari table model
+     */
+    private static Double toDouble(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        String numStr = value.toString().replace("Rp", "").replace(" ", "")
+                .replace(".", "").replace(",", ".").trim();
+        try {
+            return Double.parseDouble(numStr);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Sumber data dari ResultSet, kolom dibaca sesuai urutan SELECT
+     */
+    public static SumberData dariResultSet(final ResultSet rs) {
+        return new SumberData() {
+            @Override
+            public boolean next() throws SQLException {
+                return rs.next();
+            }
+
+            @Override
+            public Object get(int kolom) throws SQLException {
+                return rs.getObject(kolom + 1);
+            }
+        };
+    }
+
+    /**
+     * Sumber data dari list Map (hasil LaporanController), kolom diambil sesuai urutan key
+     */
+    public static SumberData dariListMap(final List<? extends java.util.Map<String, ?>> data, final String... keys) {
+        return new SumberData() {
+            private int row = -1;
+
+            @Override
+            public boolean next() {
+                return ++row < data.size();
+            }
+
+            @Override
+            public Object get(int kolom) {
+                return data.get(row).get(keys[kolom]);
+            }
+        };
+    }
+
+    /**
+     * Sumber data dari TabelTransaksi dengan urutan kolom: ID, NIS, nama, periode,
+     * tanggal, jumlah, metode, status. Jumlah dibaca langsung dari array double.
+     */
+    public static SumberData dariTabelTransaksi(final TabelTransaksi data) {
+        return new SumberAngka() {
+            private int row = -1;
+
+            @Override
+            public boolean next() {
+                return ++row < data.size();
+            }
+
+            @Override
+            public Object get(int kolom) {
+                switch (kolom) {
+                    case 0: return data.getIdTransaksi(row);
+                    case 1: return data.getNis(row);
+                    case 2: return data.getNamaSiswa(row);
+                    case 3: return data.getBulanTahun(row);
+                    case 4: return new java.util.Date(data.getTanggalBayar(row));
+                    case 5: return data.getJumlahBayar(row);
+                    case 6: return data.getMetodePembayaran(row);
+                    case 7: return data.getStatusPembayaran(row);
+                    default: return null;
+                }
+            }
+
+            @Override
+            public double getAngka(int kolom) {
+                switch (kolom) {
+                    case 5: return data.getJumlahBayar(row);
+                    default:
+                        throw new IllegalArgumentException("Kolom " + kolom + " transaksi bukan angka");
+                }
+            }
+        };
+    }
+
+    /**
+     * Sumber data dari table model Swing (data yang sudah tampil di layar)
+     */
+    public static SumberData dariTableModel(final TableModel model) {
+        return new SumberData() {
+            private int row = -1;
+
+            @Override
+            public boolean next() {
+                return ++row < model.getRowCount();
+            }
+
+            @Override
+            public Object get(int kolom) {
+                return model.getValueAt(row, kolom);
+            }
+        };
+    }
+
+    /**
+     * Kumpulan CellStyle yang dibuat sekali per workbook
+     */
+    private static class Gaya {
+        final CellStyle title, header, data, currency, number, date, urgent;
+
+        Gaya(SXSSFWorkbook workbook, IndexedColors warnaHeader) {
+            title = workbook.createCellStyle();
+            Font titleFont = workbook.createFont();
+            titleFont.setBold(true);
+            titleFont.setFontHeightInPoints((short) 16);
+            title.setFont(titleFont);
+            title.setAlignment(HorizontalAlignment.CENTER);
+
+            header = workbook.createCellStyle();
+            header.setFillForegroundColor(warnaHeader.getIndex());
+            header.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            header.setAlignment(HorizontalAlignment.CENTER);
+            header.setVerticalAlignment(VerticalAlignment.CENTER);
+            border(header);
+            Font headerFont = workbook.createFont();
+            headerFont.setColor(IndexedColors.WHITE.getIndex());
+            headerFont.setBold(true);
+            headerFont.setFontHeightInPoints((short) 11);
+            header.setFont(headerFont);
+
+            data = workbook.createCellStyle();
+            data.setVerticalAlignment(VerticalAlignment.CENTER);
+            border(data);
+
+            DataFormat format = workbook.createDataFormat();
+            currency = workbook.createCellStyle();
+            currency.cloneStyleFrom(data);
+            currency.setDataFormat(format.getFormat("Rp #,##0"));
+
+            number = workbook.createCellStyle();
+            number.cloneStyleFrom(data);
+            number.setDataFormat(format.getFormat("#,##0"));
+
+            date = workbook.createCellStyle();
+            date.cloneStyleFrom(data);
+            date.setDataFormat(format.getFormat("dd/mm/yyyy hh:mm"));
+
+            urgent = workbook.createCellStyle();
+            urgent.cloneStyleFrom(data);
+            urgent.setFillForegroundColor(IndexedColors.ROSE.getIndex());
+            urgent.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            Font urgentFont = workbook.createFont();
+            urgentFont.setBold(true);
+            urgentFont.setColor(IndexedColors.RED.getIndex());
+            urgent.setFont(urgentFont);
+        }
+
+        private static void border(CellStyle style) {
+            style.setBorderBottom(BorderStyle.THIN);
+            style.setBorderTop(BorderStyle.THIN);
+            style.setBorderLeft(BorderStyle.THIN);
+            style.setBorderRight(BorderStyle.THIN);
+        }
+    }
+}
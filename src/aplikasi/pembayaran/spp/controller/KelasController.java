@@ -46,6 +46,9 @@ public class KelasController {
 
             if (rowsAffected > 0) {
                 System.out.println("✅ Kelas berhasil ditambahkan: " + kelas.getKelas());
+                DataVersi.naik(DataVersi.Tabel.KELAS);
+                segarkanReferensi();
+                LogPerubahan.catat(connection, DataVersi.Tabel.KELAS, kelas.getKelas() + "|" + kelas.getAngkatan());
                 JOptionPane.showMessageDialog(null, 
                     "Kelas berhasil ditambahkan!", 
                     "Sukses", JOptionPane.INFORMATION_MESSAGE);
@@ -73,20 +76,12 @@ public class KelasController {
      */
     public List<Kelas> getAllKelas() {
         List<Kelas> kelasList = new ArrayList<>();
-        String sql = "SELECT * FROM kelas ORDER BY kelas, angkatan";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-
-            while (rs.next()) {
-                Kelas kelas = new Kelas();
-                kelas.setKelas(rs.getString("kelas"));
-                kelas.setAngkatan(rs.getString("angkatan"));
-                kelas.setNominalSPP(rs.getDouble("nominal_spp"));
-                
-                kelasList.add(kelas);
+        try {
+            // Dari snapshot referensi, disalin supaya form bebas mengubah objeknya
+            for (Kelas k : ReferensiKelas.getInstance().getSemua()) {
+                kelasList.add(salin(k));
             }
-            System.out.println("✅ Berhasil load " + kelasList.size() + " kelas");
 
         } catch (SQLException e) {
             System.err.println("❌ Error saat mengambil data kelas: " + e.getMessage());
@@ -105,19 +100,12 @@ public class KelasController {
      * @return The Kelas object or null if not found
      */
     public Kelas getKelas(String kelasName, String angkatan) {
-        String sql = "SELECT * FROM kelas WHERE kelas = ? AND angkatan = ?";
         Kelas kelas = null;
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, kelasName);
-            pstmt.setString(2, angkatan);
-
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                kelas = new Kelas();
-                kelas.setKelas(rs.getString("kelas"));
-                kelas.setAngkatan(rs.getString("angkatan"));
-                kelas.setNominalSPP(rs.getDouble("nominal_spp"));
+        try {
+            Kelas k = ReferensiKelas.getInstance().get(kelasName, angkatan);
+            if (k != null) {
+                kelas = salin(k);
             }
 
         } catch (SQLException e) {
@@ -143,6 +131,9 @@ public class KelasController {
 
             if (rowsAffected > 0) {
                 System.out.println("✅ Kelas berhasil diperbarui: " + kelas.getKelas());
+                DataVersi.naik(DataVersi.Tabel.KELAS);
+                segarkanReferensi();
+                LogPerubahan.catat(connection, DataVersi.Tabel.KELAS, kelas.getKelas() + "|" + kelas.getAngkatan());
                 JOptionPane.showMessageDialog(null, 
                     "Kelas berhasil diperbarui!", 
                     "Sukses", JOptionPane.INFORMATION_MESSAGE);
@@ -207,6 +198,9 @@ public class KelasController {
                 System.out.println("✅ Kelas berhasil diupdate:");
                 System.out.println("   Dari: " + originalKelas + " / " + originalAngkatan);
                 System.out.println("   Jadi: " + newKelas + " / " + newAngkatan + " / Rp " + newNominal);
+                DataVersi.naik(DataVersi.Tabel.KELAS);
+                segarkanReferensi();
+                LogPerubahan.catat(connection, DataVersi.Tabel.KELAS, newKelas + "|" + newAngkatan);
                 
                 // Don't show JOptionPane here - let FormKelas handle it
                 // JOptionPane.showMessageDialog(null, 
@@ -267,6 +261,9 @@ public class KelasController {
 
             if (rowsAffected > 0) {
                 System.out.println("✅ Kelas berhasil dihapus: " + kelasName);
+                DataVersi.naik(DataVersi.Tabel.KELAS);
+                segarkanReferensi();
+                LogPerubahan.catat(connection, DataVersi.Tabel.KELAS, kelasName + "|" + angkatan);
                 JOptionPane.showMessageDialog(null, 
                     "Kelas berhasil dihapus!", 
                     "Sukses", JOptionPane.INFORMATION_MESSAGE);
@@ -294,15 +291,8 @@ public class KelasController {
      * @return true if exists, false otherwise
      */
     public boolean isKelasExists(String kelasName, String angkatan) {
-        String sql = "SELECT COUNT(*) FROM kelas WHERE kelas = ? AND angkatan = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, kelasName);
-            pstmt.setString(2, angkatan);
-
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt(1) > 0;
-            }
+        try {
+            return ReferensiKelas.getInstance().get(kelasName, angkatan) != null;
 
         } catch (SQLException e) {
             System.err.println("❌ Error saat cek kelas: " + e.getMessage());
@@ -311,6 +301,35 @@ public class KelasController {
         return false;
     }
 
+    /**
+     * Get SPP amount per month for a class
+     * @param kelasName The class name
+     * @param angkatan The year
+     * @return The nominal SPP or null if the class is not registered
+     */
+    public Double getNominalSPP(String kelasName, String angkatan) {
+        try {
+            return ReferensiKelas.getInstance().getNominalSPP(kelasName, angkatan);
+        } catch (SQLException e) {
+            System.err.println("❌ Error saat mengambil nominal SPP: " + e.getMessage());
+        }
+        return null;
+    }
+
+    // Muat ulang snapshot referensi kelas setelah data kelas berubah
+    private void segarkanReferensi() {
+        try {
+            ReferensiKelas.getInstance().muatUlang();
+        } catch (SQLException e) {
+            System.err.println("⚠️ Gagal memuat ulang referensi kelas: " + e.getMessage());
+            ReferensiKelas.getInstance().invalidate();
+        }
+    }
+
+    private static Kelas salin(Kelas k) {
+        return new Kelas(k.getKelas(), k.getAngkatan(), k.getNominalSPP());
+    }
+
     /**
      * Check if there are students in a class
      * @param kelasName The class name
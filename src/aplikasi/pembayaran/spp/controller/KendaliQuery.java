@@ -0,0 +1,128 @@
+package aplikasi.pembayaran.spp.controller;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Timeout dan pembatalan query yang dipicu UI.
+ *
+ * Setiap query yang dibuat lewat {@link #siapkan(Connection, String, Jenis)} diberi
+ * setQueryTimeout sesuai jenisnya, dan kalau thread-nya sedang menjalankan tugas
+ * dengan token (lihat {@link #jalankan(Callable)}) statement-nya didaftarkan ke
+ * token itu. {@link #batal()} lalu memanggil Statement.cancel() untuk query yang
+ * masih jalan, jadi pencarian yang sudah digantikan pencarian baru tidak terus
+ * membebani database.
+ */
+public final class KendaliQuery {
+
+    /**
+     * Jenis query dan timeout bawaannya (detik), bisa diubah lewat system property
+     */
+    public enum Jenis {
+        /** Pencarian / filter saat user mengetik */
+        INTERAKTIF("spp.query.timeout.interaktif", 5),
+        /** Kartu & tabel dashboard */
+        DASHBOARD("spp.query.timeout.dashboard", 15),
+        /** Laporan, cetak & export */
+        LAPORAN("spp.query.timeout.laporan", 120);
+
+        private final int detik;
+
+        Jenis(String property, int bawaan) {
+            this.detik = Integer.getInteger(property, bawaan);
+        }
+
+        public int getDetik() {
+            return detik;
+        }
+    }
+
+    private static final ThreadLocal<KendaliQuery> AKTIF = new ThreadLocal<>();
+
+    private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+    private volatile boolean dibatalkan = false;
+
+    /**
+     * prepareStatement dengan timeout sesuai jenis. Kalau thread ini sedang
+     * menjalankan tugas bertoken, statement ikut dibatalkan saat token dibatalkan.
+     * Statement tetap ditutup oleh pemanggil (try-with-resources).
+     */
+    public static PreparedStatement siapkan(Connection conn, String sql, Jenis jenis) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(sql);
+        stmt.setQueryTimeout(jenis.getDetik());
+        KendaliQuery token = AKTIF.get();
+        if (token != null) {
+            token.daftar(stmt);
+        }
+        return stmt;
+    }
+
+    /**
+     * Jalankan tugas dengan token ini terpasang di thread sekarang
+     */
+    public <T> T jalankan(Callable<T> tugas) throws Exception {
+        if (dibatalkan) {
+            throw new SQLException("Query dibatalkan");
+        }
+        KendaliQuery sebelumnya = AKTIF.get();
+        AKTIF.set(this);
+        try {
+            return tugas.call();
+        } finally {
+            if (sebelumnya == null) {
+                AKTIF.remove();
+            } else {
+                AKTIF.set(sebelumnya);
+            }
+        }
+    }
+
+    /**
+     * Batalkan semua query token ini yang masih jalan; query berikutnya langsung gagal
+     */
+    public void batal() {
+        dibatalkan = true;
+        for (Statement stmt : statements) {
+            cancel(stmt);
+        }
+        statements.clear();
+    }
+
+    public boolean isDibatalkan() {
+        return dibatalkan;
+    }
+
+    private void daftar(Statement stmt) throws SQLException {
+        // Token bisa dipakai banyak query berurutan, buang statement yang sudah ditutup
+        statements.removeIf(KendaliQuery::tertutup);
+        statements.add(stmt);
+        if (dibatalkan) {
+            // batal() terjadi di antara cek awal dan prepareStatement
+            stmt.close();
+            throw new SQLException("Query dibatalkan");
+        }
+    }
+
+    private static void cancel(Statement stmt) {
+        try {
+            if (!stmt.isClosed()) {
+                stmt.cancel();
+            }
+        } catch (SQLException e) {
+            System.err.println("⚠️ Gagal membatalkan query: " + e.getMessage());
+        }
+    }
+
+    private static boolean tertutup(Statement stmt) {
+        try {
+            return stmt.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package aplikasi.pembayaran.spp.controller;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache hasil laporan untuk LaporanController (dipakai bersama semua form).
+ *
+ * tanggal_bayar selalu diisi waktu input, jadi laporan range tanggal yang
+ * berakhir sebelum hari ini tidak akan berubah lagi: entry "tertutup" ini
+ * disimpan selamanya dan bisa dipersist ke disk. Entry yang masih terbuka
+ * (range yang mencakup hari ini, laporan per bulan_tahun)
+ * dibuang saat ada pembayaran baru lewat {@link #onPembayaranBaru(String)}.
+ *
+ * Persistensi ke disk aktif kalau system property {@code spp.laporan.cache}
+ * berisi path file, misal {@code -Dspp.laporan.cache=laporan-cache.ser}.
+ * Bersama entry-nya disimpan versi change_log terakhir yang sudah diterapkan,
+ * supaya saat start LogPerubahan bisa memutar ulang perubahan dari komputer
+ * lain selama aplikasi ini mati.
+ */
+public final class LaporanCache {
+
+    private static final LaporanCache INSTANCE = new LaporanCache();
+
+    private final Map<String, Object> tertutup = new ConcurrentHashMap<>();
+    private final Map<String, Object> terbuka = new ConcurrentHashMap<>();
+    // bulan_tahun -> key entry terbuka yang bergantung pada periode tsb
+    private final Map<String, String> kunciPeriode = new ConcurrentHashMap<>();
+
+    private final AtomicLong hit = new AtomicLong();
+    private final AtomicLong miss = new AtomicLong();
+    private final AtomicLong invalidasi = new AtomicLong();
+
+    private final File fileCache;
+    private volatile boolean kotor = false;
+    // Versi change_log terakhir yang sudah diterapkan ke cache ini (-1 = tidak diketahui)
+    private volatile long versiLog = -1;
+    private volatile long versiLogWaktu = 0;
+    private final AtomicBoolean sudahDiperingatkan = new AtomicBoolean();
+
+    private LaporanCache() {
+        String path = System.getProperty("spp.laporan.cache");
+        fileCache = (path == null || path.trim().isEmpty()) ? null : new File(path.trim());
+        if (fileCache != null) {
+            muatDariDisk();
+            Runtime.getRuntime().addShutdownHook(new Thread(this::simpanKeDisk, "laporan-cache-save"));
+        }
+    }
+
+    public static LaporanCache getInstance() {
+        return INSTANCE;
+    }
+
+    // ===== KEY BUILDER =====
+
+    public static String keyPeriode(String jenis, String bulanTahun) {
+        return jenis + "|periode|" + bulanTahun;
+    }
+
+    public static String keyRange(String jenis, PeriodeFilter periode) {
+        return jenis + "|range|" + periode;
+    }
+
+    /**
+     * Range yang berakhir paling lambat hari ini 00:00 sudah tidak bisa
+     * bertambah transaksi baru
+     */
+    public static boolean isTertutup(PeriodeFilter periode) {
+        return !periode.getAkhir().isAfter(LocalDate.now().atStartOfDay());
+    }
+
+    // ===== GET / PUT =====
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key) {
+        Object value = tertutup.get(key);
+        if (value == null) {
+            value = terbuka.get(key);
+        }
+        if (value != null) {
+            hit.incrementAndGet();
+        } else {
+            miss.incrementAndGet();
+        }
+        return (T) value;
+    }
+
+    /**
+     * Simpan hasil untuk range tanggal, otomatis tertutup/terbuka
+     */
+    public void putRange(String key, PeriodeFilter periode, Object value) {
+        if (isTertutup(periode)) {
+            cekPoller();
+            tertutup.put(key, value);
+            kotor = true;
+        } else {
+            terbuka.put(key, value);
+        }
+    }
+
+    /**
+     * Simpan hasil per bulan_tahun (selalu terbuka, dibuang kalau ada
+     * pembayaran baru untuk periode yang sama)
+     */
+    public void putPeriode(String key, String bulanTahun, Object value) {
+        terbuka.put(key, value);
+        kunciPeriode.put(key, bulanTahun);
+    }
+
+    /**
+     * Simpan entry terbuka biasa (dibuang setiap ada pembayaran baru)
+     */
+    public void putTerbuka(String key, Object value) {
+        terbuka.put(key, value);
+    }
+
+    // ===== INVALIDASI =====
+
+    /**
+     * Dipanggil setelah pembayaran baru tersimpan. Yang dibuang hanya:
+     * range yang masih terbuka, laporan untuk bulan_tahun yang sama,
+     * dan entry terbuka biasa.
+     */
+    public void onPembayaranBaru(String bulanTahun) {
+        int dibuang = 0;
+        for (String key : terbuka.keySet()) {
+            String periode = kunciPeriode.get(key);
+            if (periode == null || periode.equals(bulanTahun)) {
+                terbuka.remove(key);
+                kunciPeriode.remove(key);
+                dibuang++;
+            }
+        }
+        invalidasi.addAndGet(dibuang);
+    }
+
+    /**
+     * Buang semua entry terbuka (misal status pembayaran diubah)
+     */
+    public void invalidateTerbuka() {
+        invalidasi.addAndGet(terbuka.size());
+        terbuka.clear();
+        kunciPeriode.clear();
+    }
+
+    /**
+     * Buang semua termasuk entry tertutup (misal data pembayaran lama dikoreksi)
+     */
+    public void clear() {
+        invalidasi.addAndGet(terbuka.size() + tertutup.size());
+        terbuka.clear();
+        kunciPeriode.clear();
+        tertutup.clear();
+        kotor = true;
+    }
+
+    // ===== VERSI CHANGE_LOG =====
+
+    /**
+     * @return versi change_log terakhir yang sudah diterapkan, -1 kalau tidak diketahui
+     *         (belum pernah poll atau file cache format lama)
+     */
+    public long getVersiLog() {
+        return versiLog;
+    }
+
+    /**
+     * @return waktu (epoch ms) versi change_log di atas dicatat
+     */
+    public long getVersiLogWaktu() {
+        return versiLogWaktu;
+    }
+
+    /**
+     * Dipanggil poller setelah semua perubahan sampai versi ini diterapkan
+     */
+    public void setVersiLog(long versi) {
+        versiLog = versi;
+        versiLogWaktu = System.currentTimeMillis();
+        kotor = true;
+    }
+
+    // ===== METRIK =====
+
+    public long getHit() {
+        return hit.get();
+    }
+
+    public long getMiss() {
+        return miss.get();
+    }
+
+    public double getHitRate() {
+        long total = hit.get() + miss.get();
+        return total == 0 ? 0 : (double) hit.get() / total;
+    }
+
+    public String getStatistik() {
+        return String.format("hit=%d miss=%d hitRate=%.1f%% tertutup=%d terbuka=%d invalidasi=%d",
+                hit.get(), miss.get(), getHitRate() * 100, tertutup.size(), terbuka.size(), invalidasi.get());
+    }
+
+    /**
+     * @return jumlah entry tertutup (termasuk yang dimuat dari disk)
+     */
+    public int getJumlahTertutup() {
+        return tertutup.size();
+    }
+
+    // ===== PERSISTENSI =====
+
+    @SuppressWarnings("unchecked")
+    /**
+     * Entry tertutup hanya dibuang lewat LogPerubahan; tanpa poller, pembayaran
+     * mundur dari komputer lain tidak pernah sampai ke cache ini
+     */
+    private void cekPoller() {
+        if (!LogPerubahan.isAktif() && sudahDiperingatkan.compareAndSet(false, true)) {
+            System.err.println("❌ Cache laporan tertutup aktif tanpa poller change_log (LogPerubahan.start() "
+                    + "belum dipanggil), laporan bisa basi karena perubahan dari komputer lain");
+        }
+    }
+
+    private void muatDariDisk() {
+        if (!fileCache.isFile()) {
+            return;
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(fileCache))) {
+            Map<String, Object> data = (Map<String, Object>) in.readObject();
+            tertutup.putAll(data);
+            try {
+                versiLog = in.readLong();
+                versiLogWaktu = in.readLong();
+            } catch (EOFException e) {
+                // File format lama tanpa versi change_log, dicek ulang oleh LogPerubahan
+                versiLog = -1;
+            }
+            System.out.println("✅ Cache laporan dimuat: " + data.size() + " entry dari " + fileCache.getName());
+        } catch (Exception e) {
+            System.err.println("❌ Error muat cache laporan: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Simpan entry tertutup ke disk (hanya kalau persistensi aktif)
+     */
+    public synchronized void simpanKeDisk() {
+        if (fileCache == null || !kotor) {
+            return;
+        }
+        Map<String, Object> data = new HashMap<>();
+        for (Map.Entry<String, Object> e : tertutup.entrySet()) {
+            if (e.getValue() instanceof Serializable) {
+                data.put(e.getKey(), e.getValue());
+            }
+        }
+        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(fileCache))) {
+            out.writeObject(data);
+            out.writeLong(versiLog);
+            out.writeLong(versiLogWaktu);
+            kotor = false;
+            System.out.println("💾 Cache laporan disimpan: " + data.size() + " entry");
+        } catch (Exception e) {
+            System.err.println("❌ Error simpan cache laporan: " + e.getMessage());
+        }
+    }
+}
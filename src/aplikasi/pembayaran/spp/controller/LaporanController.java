@@ -1,15 +1,20 @@
 package aplikasi.pembayaran.spp.controller;
 
 import aplikasi.pembayaran.spp.model.Koneksi;
+import aplikasi.pembayaran.spp.model.KolektibilitasKelas;
+import aplikasi.pembayaran.spp.model.LaporanArtifact;
+import aplikasi.pembayaran.spp.model.RingkasanLaporan;
+import aplikasi.pembayaran.spp.model.TabelTransaksi;
 import java.sql.*;
 import java.util.*;
 
 public class LaporanController {
     
-    // Get laporan berdasarkan periode (bulan-tahun)
-    public Map<String, Object> getLaporanByPeriode(String bulanTahun) {
-        Map<String, Object> laporan = new HashMap<>();
-        String query = "SELECT " +
+    // Cache hasil laporan, dipakai bersama semua instance (lihat LaporanCache)
+    private final LaporanCache cache = LaporanCache.getInstance();
+    
+    // Query laporan public supaya QueryPlanTest meng-EXPLAIN SQL yang sama persis
+    public static final String SUMMARY_SELECT = "SELECT " +
                       "COUNT(*) as total_transaksi, " +
                       "SUM(jumlah_bayar) as total_pemasukan, " +
                       "AVG(jumlah_bayar) as rata_rata, " +
@@ -20,57 +25,339 @@ public class LaporanController {
                       "COUNT(CASE WHEN metode_pembayaran = 'Transfer' THEN 1 END) as jumlah_transfer, " +
                       "COUNT(CASE WHEN metode_pembayaran = 'Kartu Debit' THEN 1 END) as jumlah_kartu, " +
                       "COUNT(CASE WHEN status_pembayaran = 'Lunas' THEN 1 END) as jumlah_lunas " +
-                      "FROM pembayaran " +
-                      "WHERE bulan_tahun = ?";
+                      "FROM pembayaran ";
+    
+    // Urutan kolom sama dengan kolom export Excel (buatExporter)
+    public static final String DETAIL_SELECT = "SELECT id_transaksi, nis_siswa, nama_siswa, bulan_tahun, " +
+                      "tanggal_bayar, jumlah_bayar, metode_pembayaran, " +
+                      "status_pembayaran " +
+                      "FROM pembayaran ";
+    
+    // Checksum per baris dijumlahkan, urutan baris tidak berpengaruh
+    public static final String SIDIK_SELECT = "SELECT COUNT(*), " +
+                      "COALESCE(SUM(CRC32(CONCAT_WS('|', id_transaksi, tanggal_bayar, jumlah_bayar, " +
+                      "metode_pembayaran, status_pembayaran))), 0) " +
+                      "FROM pembayaran WHERE ";
+    
+    private static final String DETAIL_KOLOM = "p.id_transaksi, p.nis_siswa, p.nama_siswa, p.bulan_tahun, " +
+                      "p.tanggal_bayar, p.jumlah_bayar, p.metode_pembayaran, p.status_pembayaran";
+    
+    // Get laporan berdasarkan periode (bulan-tahun)
+    public Map<String, Object> getLaporanByPeriode(String bulanTahun) {
+        String key = LaporanCache.keyPeriode("laporan", bulanTahun);
+        Map<String, Object> cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
         
-        try (Connection conn = Koneksi.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-            
-            stmt.setString(1, bulanTahun);
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                laporan.put("total_transaksi", rs.getInt("total_transaksi"));
-                laporan.put("total_pemasukan", rs.getDouble("total_pemasukan"));
-                laporan.put("rata_rata", rs.getDouble("rata_rata"));
-                laporan.put("total_cash", rs.getDouble("total_cash"));
-                laporan.put("total_transfer", rs.getDouble("total_transfer"));
-                laporan.put("total_kartu", rs.getDouble("total_kartu"));
-                laporan.put("jumlah_cash", rs.getInt("jumlah_cash"));
-                laporan.put("jumlah_transfer", rs.getInt("jumlah_transfer"));
-                laporan.put("jumlah_kartu", rs.getInt("jumlah_kartu"));
-                laporan.put("jumlah_lunas", rs.getInt("jumlah_lunas"));
-            }
-            
+        try {
+            Map<String, Object> laporan = querySummary("WHERE bulan_tahun = ?", bulanTahun);
+            cache.putPeriode(key, bulanTahun, laporan);
+            return laporan;
         } catch (SQLException e) {
             System.err.println("Error getting laporan: " + e.getMessage());
+            return new HashMap<>();
+        }
+    }
+    
+    /**
+     * Ringkasan beberapa periode sekaligus (misal tabel "Semua" periode di dashboard).
+     * Periode yang belum ada di cache di-query lewat satu koneksi yang sama.
+     */
+    public Map<String, Map<String, Object>> getLaporanPerPeriode(List<String> periods) {
+        Map<String, Map<String, Object>> hasil = new LinkedHashMap<>();
+        List<String> belum = new ArrayList<>();
+        for (String bulanTahun : periods) {
+            Map<String, Object> cached = cache.get(LaporanCache.keyPeriode("laporan", bulanTahun));
+            if (cached != null) {
+                hasil.put(bulanTahun, cached);
+            } else {
+                hasil.put(bulanTahun, null);
+                belum.add(bulanTahun);
+            }
+        }
+        if (belum.isEmpty()) {
+            return hasil;
         }
         
-        return laporan;
+        try (Connection conn = Koneksi.openConnection()) {
+            for (String bulanTahun : belum) {
+                Map<String, Object> laporan = querySummary(conn, "WHERE bulan_tahun = ?", bulanTahun);
+                cache.putPeriode(LaporanCache.keyPeriode("laporan", bulanTahun), bulanTahun, laporan);
+                hasil.put(bulanTahun, laporan);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting laporan: " + e.getMessage());
+        }
+        hasil.values().removeIf(Objects::isNull);
+        return hasil;
     }
     
     // Get laporan berdasarkan range tanggal
     public Map<String, Object> getLaporanByDateRange(java.util.Date startDate, java.util.Date endDate) {
-        Map<String, Object> laporan = new HashMap<>();
-        String query = "SELECT " +
+        PeriodeFilter periode = PeriodeFilter.rentang(startDate, endDate);
+        String key = LaporanCache.keyRange("laporan", periode);
+        Map<String, Object> cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        
+        try {
+            Map<String, Object> laporan = querySummary("WHERE " + periode.predikat(), periode);
+            cache.putRange(key, periode, laporan);
+            return laporan;
+        } catch (SQLException e) {
+            System.err.println("Error getting laporan: " + e.getMessage());
+            return new HashMap<>();
+        }
+    }
+    
+    // Get detail transaksi untuk periode tertentu
+    public TabelTransaksi getDetailTransaksi(String bulanTahun) {
+        String key = LaporanCache.keyPeriode("tabel", bulanTahun);
+        TabelTransaksi cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        
+        try {
+            TabelTransaksi transaksi = queryDetail(
+                    "WHERE bulan_tahun = ? ORDER BY tanggal_bayar DESC", bulanTahun);
+            cache.putPeriode(key, bulanTahun, transaksi);
+            return transaksi;
+        } catch (SQLException e) {
+            System.err.println("Error getting detail transaksi: " + e.getMessage());
+            return new TabelTransaksi();
+        }
+    }
+    
+    // Get detail transaksi berdasarkan range tanggal
+    public TabelTransaksi getDetailTransaksiByDateRange(java.util.Date startDate, java.util.Date endDate) {
+        PeriodeFilter periode = PeriodeFilter.rentang(startDate, endDate);
+        String key = LaporanCache.keyRange("tabel", periode);
+        TabelTransaksi cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        
+        try {
+            TabelTransaksi transaksi = queryDetail(
+                    "WHERE " + periode.predikat() + " ORDER BY tanggal_bayar DESC", periode);
+            cache.putRange(key, periode, transaksi);
+            return transaksi;
+        } catch (SQLException e) {
+            System.err.println("Error getting detail transaksi: " + e.getMessage());
+            return new TabelTransaksi();
+        }
+    }
+    
+    // Ringkasan + detail satu periode sekaligus (satu query, satu kali baca)
+    public HasilLaporan getLaporanLengkap(String bulanTahun) {
+        String keyLaporan = LaporanCache.keyPeriode("ringkasan", bulanTahun);
+        String keyDetail = LaporanCache.keyPeriode("tabel", bulanTahun);
+        RingkasanLaporan ringkasan = cache.get(keyLaporan);
+        TabelTransaksi detail = cache.get(keyDetail);
+        if (ringkasan != null && detail != null) {
+            return new HasilLaporan(ringkasan, detail);
+        }
+        
+        try (Connection conn = Koneksi.openConnection()) {
+            HasilLaporan hasil = queryLengkap(conn, "WHERE bulan_tahun = ? ORDER BY tanggal_bayar DESC", bulanTahun);
+            cache.putPeriode(keyLaporan, bulanTahun, hasil.getRingkasan());
+            cache.putPeriode(keyDetail, bulanTahun, hasil.getDetail());
+            return hasil;
+        } catch (SQLException e) {
+            System.err.println("Error getting laporan: " + e.getMessage());
+            return new HasilLaporan(new RingkasanLaporan(), new TabelTransaksi());
+        }
+    }
+    
+    // Ringkasan + detail range tanggal sekaligus (satu query, satu kali baca)
+    public HasilLaporan getLaporanLengkapByDateRange(java.util.Date startDate, java.util.Date endDate) {
+        PeriodeFilter periode = PeriodeFilter.rentang(startDate, endDate);
+        String keyLaporan = LaporanCache.keyRange("ringkasan", periode);
+        String keyDetail = LaporanCache.keyRange("tabel", periode);
+        RingkasanLaporan ringkasan = cache.get(keyLaporan);
+        TabelTransaksi detail = cache.get(keyDetail);
+        if (ringkasan != null && detail != null) {
+            return new HasilLaporan(ringkasan, detail);
+        }
+        
+        try (Connection conn = Koneksi.openConnection()) {
+            HasilLaporan hasil = queryLengkap(conn, "WHERE " + periode.predikat() + " ORDER BY tanggal_bayar DESC", periode);
+            cache.putRange(keyLaporan, periode, hasil.getRingkasan());
+            cache.putRange(keyDetail, periode, hasil.getDetail());
+            return hasil;
+        } catch (SQLException e) {
+            System.err.println("Error getting laporan: " + e.getMessage());
+            return new HasilLaporan(new RingkasanLaporan(), new TabelTransaksi());
+        }
+    }
+    
+    // Detail transaksi per halaman (keyset), untuk tabel yang dimuat saat di-scroll
+    public TransaksiPager getDetailTransaksiPager(String bulanTahun) {
+        return new TransaksiPager(DETAIL_KOLOM, null, "p.bulan_tahun = ?", bulanTahun);
+    }
+    
+    public TransaksiPager getDetailTransaksiPagerByDateRange(java.util.Date startDate, java.util.Date endDate) {
+        PeriodeFilter periode = PeriodeFilter.rentang(startDate, endDate);
+        return new TransaksiPager(DETAIL_KOLOM, null, periode.predikat("p"), periode);
+    }
+    
+    // Statistik cache laporan (hit/miss) untuk monitoring
+    public String getCacheStatistik() {
+        return cache.getStatistik();
+    }
+    
+    // Rekap per kelas untuk range tanggal (jumlah transaksi, siswa, pemasukan)
+    public List<Map<String, Object>> getRekapPerKelasByDateRange(java.util.Date startDate, java.util.Date endDate) {
+        PeriodeFilter periode = PeriodeFilter.rentang(startDate, endDate);
+        String key = LaporanCache.keyRange("kelas", periode);
+        List<Map<String, Object>> cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        
+        try (Connection conn = Koneksi.openConnection()) {
+            List<Map<String, Object>> rekap = queryPerKelas(conn, periode);
+            cache.putRange(key, periode, rekap);
+            return rekap;
+        } catch (SQLException e) {
+            System.err.println("Error getting rekap per kelas: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Kolektibilitas SPP per kelas untuk satu bulan: siswa aktif, siswa lunas,
+     * target dan terkumpul, diambil dengan satu query GROUP BY kelas.
+     * Hasil bergantung pada data siswa juga, jadi selalu disimpan sebagai entry
+     * terbuka (dibuang saat ada pembayaran baru atau data siswa berubah).
+     */
+    public List<KolektibilitasKelas> getKolektibilitasPerKelas(java.time.YearMonth bulan) {
+        PeriodeFilter periode = PeriodeFilter.bulan(bulan);
+        String key = LaporanCache.keyRange("kolektibilitas", periode);
+        List<KolektibilitasKelas> cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        String query = "SELECT s.kelas, " +
+                      "COUNT(*) as siswa_aktif, " +
+                      "SUM(CASE WHEN b.jumlah_lunas > 0 THEN 1 ELSE 0 END) as siswa_lunas, " +
+                      "SUM(s.nominal_spp - COALESCE(s.total_potongan, 0)) as target, " +
+                      "COALESCE(SUM(b.total_bayar), 0) as terkumpul " +
+                      "FROM siswa s LEFT JOIN (" +
+                      "  SELECT p.nis_siswa, SUM(p.jumlah_bayar) as total_bayar, " +
+                      "  COUNT(CASE WHEN p.status_pembayaran = 'Lunas' THEN 1 END) as jumlah_lunas " +
+                      "  FROM pembayaran p WHERE " + periode.predikat("p") + " " +
+                      "  GROUP BY p.nis_siswa" +
+                      ") b ON b.nis_siswa = s.nis " +
+                      "WHERE s.status_siswa = 'Aktif' " +
+                      "GROUP BY s.kelas ORDER BY s.kelas";
+
+        List<KolektibilitasKelas> hasil = new ArrayList<>();
+        // Koneksi sendiri: dipanggil dari background, koneksi shared tidak boleh ditutup
+        try (Connection conn = Koneksi.openConnection();
+             PreparedStatement stmt = KendaliQuery.siapkan(conn, query, KendaliQuery.Jenis.DASHBOARD)) {
+            periode.bind(stmt, 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    hasil.add(new KolektibilitasKelas(
+                        rs.getString("kelas"),
+                        rs.getInt("siswa_aktif"),
+                        rs.getInt("siswa_lunas"),
+                        rs.getDouble("target"),
+                        rs.getDouble("terkumpul")
+                    ));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error getting kolektibilitas per kelas: " + e.getMessage());
+            return new ArrayList<>();
+        }
+
+        List<KolektibilitasKelas> rekap = Collections.unmodifiableList(hasil);
+        cache.putTerbuka(key, rekap);
+        return rekap;
+    }
+
+    /**
+     * Generate laporan lengkap (ringkasan, detail, per kelas) untuk satu range tanggal.
+     * Dipakai LaporanScheduler dengan koneksi miliknya sendiri.
+     */
+    public LaporanArtifact buatArtifact(Connection conn, String jenis, String label,
+                                        java.time.LocalDate mulai, java.time.LocalDate akhir) throws SQLException {
+        PeriodeFilter periode = PeriodeFilter.rentang(mulai, akhir);
+        LaporanArtifact artifact = new LaporanArtifact(jenis, label, mulai, akhir);
+        // Sidik diambil sebelum data: write di antaranya membuat laporan ini dianggap basi, bukan sebaliknya
+        artifact.setSidikData(getSidikData(conn, mulai, akhir));
+        HasilLaporan hasil = queryLengkap(conn, "WHERE " + periode.predikat() + " ORDER BY tanggal_bayar DESC", periode);
+        artifact.setRingkasan(hasil.getRingkasan());
+        artifact.setDetail(hasil.getDetail());
+        artifact.setPerKelas(queryPerKelas(conn, periode));
+        
+        // Range ini sudah tertutup, sekalian isi cache supaya form langsung kebagian
+        cache.putRange(LaporanCache.keyRange("ringkasan", periode), periode, artifact.getRingkasan());
+        cache.putRange(LaporanCache.keyRange("tabel", periode), periode, artifact.getDetail());
+        cache.putRange(LaporanCache.keyRange("kelas", periode), periode, artifact.getPerKelas());
+        return artifact;
+    }
+    
+    /**
+     * Sidik data pembayaran satu range tanggal (jumlah baris + checksum isi).
+     * Berubah kalau ada transaksi ditambah, dihapus, atau status/jumlahnya dikoreksi,
+     * jadi laporan tersimpan bisa dicek masih cocok tanpa membaca ulang detailnya.
+     */
+    public String getSidikData(Connection conn, java.time.LocalDate mulai, java.time.LocalDate akhir) throws SQLException {
+        PeriodeFilter periode = PeriodeFilter.rentang(mulai, akhir);
+        try (PreparedStatement stmt = KendaliQuery.siapkan(conn, SIDIK_SELECT + periode.predikat(), KendaliQuery.Jenis.LAPORAN)) {
+            periode.bind(stmt, 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) + ":" + rs.getString(2) : "0:0";
+            }
+        }
+    }
+    
+    private List<Map<String, Object>> queryPerKelas(Connection conn, PeriodeFilter periode) throws SQLException {
+        List<Map<String, Object>> rekap = new ArrayList<>();
+        String query = "SELECT COALESCE(s.kelas, '-') as kelas, " +
                       "COUNT(*) as total_transaksi, " +
-                      "SUM(jumlah_bayar) as total_pemasukan, " +
-                      "AVG(jumlah_bayar) as rata_rata, " +
-                      "SUM(CASE WHEN metode_pembayaran = 'Cash' THEN jumlah_bayar ELSE 0 END) as total_cash, " +
-                      "SUM(CASE WHEN metode_pembayaran = 'Transfer' THEN jumlah_bayar ELSE 0 END) as total_transfer, " +
-                      "SUM(CASE WHEN metode_pembayaran = 'Kartu Debit' THEN jumlah_bayar ELSE 0 END) as total_kartu, " +
-                      "COUNT(CASE WHEN metode_pembayaran = 'Cash' THEN 1 END) as jumlah_cash, " +
-                      "COUNT(CASE WHEN metode_pembayaran = 'Transfer' THEN 1 END) as jumlah_transfer, " +
-                      "COUNT(CASE WHEN metode_pembayaran = 'Kartu Debit' THEN 1 END) as jumlah_kartu, " +
-                      "COUNT(CASE WHEN status_pembayaran = 'Lunas' THEN 1 END) as jumlah_lunas " +
-                      "FROM pembayaran " +
-                      "WHERE DATE(tanggal_bayar) BETWEEN ? AND ?";
+                      "COUNT(DISTINCT p.nis_siswa) as jumlah_siswa, " +
+                      "SUM(p.jumlah_bayar) as total_pemasukan " +
+                      "FROM pembayaran p LEFT JOIN siswa s ON s.nis = p.nis_siswa " +
+                      "WHERE " + periode.predikat("p") + " " +
+                      "GROUP BY COALESCE(s.kelas, '-') " +
+                      "ORDER BY kelas";
         
-        try (Connection conn = Koneksi.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
+        try (PreparedStatement stmt = KendaliQuery.siapkan(conn, query, KendaliQuery.Jenis.LAPORAN)) {
+            periode.bind(stmt, 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Map<String, Object> row = new HashMap<>();
+                    row.put("kelas", rs.getString("kelas"));
+                    row.put("total_transaksi", rs.getInt("total_transaksi"));
+                    row.put("jumlah_siswa", rs.getInt("jumlah_siswa"));
+                    row.put("total_pemasukan", rs.getDouble("total_pemasukan"));
+                    rekap.add(Collections.unmodifiableMap(row));
+                }
+            }
+        }
+        return Collections.unmodifiableList(rekap);
+    }
+    
+    private Map<String, Object> querySummary(String where, Object... params) throws SQLException {
+        try (Connection conn = Koneksi.openConnection()) {
+            return querySummary(conn, where, params);
+        }
+    }
+    
+    private Map<String, Object> querySummary(Connection conn, String where, Object... params) throws SQLException {
+        Map<String, Object> laporan = new HashMap<>();
+        
+        try (PreparedStatement stmt = KendaliQuery.siapkan(conn, SUMMARY_SELECT + where, KendaliQuery.Jenis.LAPORAN)) {
             
-            stmt.setDate(1, new java.sql.Date(startDate.getTime()));
-            stmt.setDate(2, new java.sql.Date(endDate.getTime()));
+            PeriodeFilter.bindParams(stmt, params);
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
@@ -85,105 +372,153 @@ public class LaporanController {
                 laporan.put("jumlah_kartu", rs.getInt("jumlah_kartu"));
                 laporan.put("jumlah_lunas", rs.getInt("jumlah_lunas"));
             }
-            
-        } catch (SQLException e) {
-            System.err.println("Error getting laporan: " + e.getMessage());
         }
         
-        return laporan;
+        // Read-only karena instance ini dibagi lewat cache
+        return Collections.unmodifiableMap(laporan);
     }
     
-    // Get detail transaksi untuk periode tertentu
-    public List<Map<String, Object>> getDetailTransaksi(String bulanTahun) {
-        List<Map<String, Object>> transaksiList = new ArrayList<>();
-        String query = "SELECT id_transaksi, nis_siswa, nama_siswa, " +
-                      "tanggal_bayar, jumlah_bayar, metode_pembayaran, " +
-                      "status_pembayaran, keterangan " +
-                      "FROM pembayaran " +
-                      "WHERE bulan_tahun = ? " +
-                      "ORDER BY tanggal_bayar DESC";
-        
-        try (Connection conn = Koneksi.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-            
-            stmt.setString(1, bulanTahun);
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                Map<String, Object> transaksi = new HashMap<>();
-                transaksi.put("id_transaksi", rs.getString("id_transaksi"));
-                transaksi.put("nis_siswa", rs.getString("nis_siswa"));
-                transaksi.put("nama_siswa", rs.getString("nama_siswa"));
-                transaksi.put("tanggal_bayar", rs.getTimestamp("tanggal_bayar"));
-                transaksi.put("jumlah_bayar", rs.getDouble("jumlah_bayar"));
-                transaksi.put("metode_pembayaran", rs.getString("metode_pembayaran"));
-                transaksi.put("status_pembayaran", rs.getString("status_pembayaran"));
-                transaksi.put("keterangan", rs.getString("keterangan"));
-                transaksiList.add(transaksi);
+    private TabelTransaksi queryDetail(String whereOrder, Object... params) throws SQLException {
+        try (Connection conn = Koneksi.openConnection()) {
+            return queryDetail(conn, whereOrder, params);
+        }
+    }
+    
+    private TabelTransaksi queryDetail(Connection conn, String whereOrder, Object... params) throws SQLException {
+        TabelTransaksi tabel = new TabelTransaksi();
+        streamTransaksi(conn, whereOrder, params, rs -> tambahBaris(tabel, rs));
+        return tabel.rapikan();
+    }
+    
+    /**
+     * Penerima baris transaksi saat query detail di-stream. Kolom yang tersedia
+     * sama dengan DETAIL_SELECT; jangan panggil rs.next() di dalamnya.
+     */
+    public interface PenerimaTransaksi {
+        void terima(ResultSet rs) throws SQLException;
+    }
+    
+    /**
+     * Baca baris detail transaksi satu kali jalan dan teruskan setiap baris ke
+     * semua penerima, misal ringkasan + tabel detail sekaligus.
+     */
+    public void streamTransaksi(String whereOrder, Object[] params, PenerimaTransaksi... penerima) throws SQLException {
+        try (Connection conn = Koneksi.openConnection()) {
+            streamTransaksi(conn, whereOrder, params, penerima);
+        }
+    }
+    
+    public void streamTransaksi(Connection conn, String whereOrder, Object[] params,
+                                PenerimaTransaksi... penerima) throws SQLException {
+        try (PreparedStatement stmt = KendaliQuery.siapkan(conn, DETAIL_SELECT + whereOrder, KendaliQuery.Jenis.LAPORAN)) {
+            PeriodeFilter.bindParams(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    for (PenerimaTransaksi p : penerima) {
+                        p.terima(rs);
+                    }
+                }
             }
-            
-        } catch (SQLException e) {
-            System.err.println("Error getting detail transaksi: " + e.getMessage());
         }
-        
-        return transaksiList;
     }
     
-    // Get detail transaksi berdasarkan range tanggal
-    public List<Map<String, Object>> getDetailTransaksiByDateRange(java.util.Date startDate, java.util.Date endDate) {
-        List<Map<String, Object>> transaksiList = new ArrayList<>();
-        String query = "SELECT id_transaksi, nis_siswa, nama_siswa, bulan_tahun, " +
-                      "tanggal_bayar, jumlah_bayar, metode_pembayaran, " +
-                      "status_pembayaran, keterangan " +
-                      "FROM pembayaran " +
-                      "WHERE DATE(tanggal_bayar) BETWEEN ? AND ? " +
-                      "ORDER BY tanggal_bayar DESC";
+    private static void tambahBaris(TabelTransaksi tabel, ResultSet rs) throws SQLException {
+        Timestamp tanggal = rs.getTimestamp("tanggal_bayar");
+        tabel.tambah(rs.getString("id_transaksi"),
+                rs.getString("nis_siswa"),
+                rs.getString("nama_siswa"),
+                rs.getString("bulan_tahun"),
+                tanggal == null ? 0L : tanggal.getTime(),
+                rs.getDouble("jumlah_bayar"),
+                rs.getString("metode_pembayaran"),
+                rs.getString("status_pembayaran"));
+    }
+    
+    private static void tambahRingkasan(RingkasanLaporan ringkasan, ResultSet rs) throws SQLException {
+        ringkasan.tambah(rs.getDouble("jumlah_bayar"), rs.getString("metode_pembayaran"),
+                rs.getString("status_pembayaran"));
+    }
+    
+    /**
+     * Ringkasan + detail dari satu kali stream
+     */
+    public static class HasilLaporan {
+        private final RingkasanLaporan ringkasan;
+        private final TabelTransaksi detail;
         
-        try (Connection conn = Koneksi.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-            
-            stmt.setDate(1, new java.sql.Date(startDate.getTime()));
-            stmt.setDate(2, new java.sql.Date(endDate.getTime()));
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                Map<String, Object> transaksi = new HashMap<>();
-                transaksi.put("id_transaksi", rs.getString("id_transaksi"));
-                transaksi.put("nis_siswa", rs.getString("nis_siswa"));
-                transaksi.put("nama_siswa", rs.getString("nama_siswa"));
-                transaksi.put("bulan_tahun", rs.getString("bulan_tahun"));
-                transaksi.put("tanggal_bayar", rs.getTimestamp("tanggal_bayar"));
-                transaksi.put("jumlah_bayar", rs.getDouble("jumlah_bayar"));
-                transaksi.put("metode_pembayaran", rs.getString("metode_pembayaran"));
-                transaksi.put("status_pembayaran", rs.getString("status_pembayaran"));
-                transaksi.put("keterangan", rs.getString("keterangan"));
-                transaksiList.add(transaksi);
-            }
-            
-        } catch (SQLException e) {
-            System.err.println("Error getting detail transaksi: " + e.getMessage());
+        HasilLaporan(RingkasanLaporan ringkasan, TabelTransaksi detail) {
+            this.ringkasan = ringkasan;
+            this.detail = detail;
         }
         
-        return transaksiList;
+        public RingkasanLaporan getRingkasan() {
+            return ringkasan;
+        }
+        
+        public TabelTransaksi getDetail() {
+            return detail;
+        }
+    }
+    
+    private HasilLaporan queryLengkap(Connection conn, String whereOrder, Object... params) throws SQLException {
+        RingkasanLaporan ringkasan = new RingkasanLaporan();
+        TabelTransaksi detail = new TabelTransaksi();
+        streamTransaksi(conn, whereOrder, params,
+                rs -> tambahRingkasan(ringkasan, rs),
+                rs -> tambahBaris(detail, rs));
+        return new HasilLaporan(ringkasan, detail.rapikan());
+    }
+    
+    // Export detail transaksi satu periode ke Excel (streaming dari cursor JDBC)
+    public int exportDetailTransaksi(String bulanTahun, java.io.File file) throws SQLException, java.io.IOException {
+        String query = DETAIL_SELECT +
+                      "WHERE bulan_tahun = ? " +
+                      "ORDER BY tanggal_bayar DESC";
+        return buatExporter("Periode: " + bulanTahun).exportQuery(query, file, bulanTahun);
+    }
+    
+    // Export detail transaksi range tanggal ke Excel (streaming dari cursor JDBC)
+    public int exportDetailTransaksiByDateRange(java.util.Date startDate, java.util.Date endDate, java.io.File file)
+            throws SQLException, java.io.IOException {
+        PeriodeFilter periode = PeriodeFilter.rentang(startDate, endDate);
+        String query = DETAIL_SELECT +
+                      "WHERE " + periode.predikat() + " " +
+                      "ORDER BY tanggal_bayar DESC";
+        java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("dd/MM/yyyy");
+        return buatExporter("Periode: " + sdf.format(startDate) + " - " + sdf.format(endDate))
+                .exportQuery(query, file, periode);
+    }
+    
+    private ExcelExporter buatExporter(String infoPeriode) {
+        return new ExcelExporter("Laporan Keuangan", "LAPORAN KEUANGAN SPP")
+                .info(infoPeriode)
+                .kolom("ID Transaksi", ExcelExporter.Tipe.TEKS, 18)
+                .kolom("NIS", ExcelExporter.Tipe.TEKS, 14)
+                .kolom("Nama Siswa", ExcelExporter.Tipe.TEKS, 30)
+                .kolom("Periode", ExcelExporter.Tipe.TEKS, 30)
+                .kolom("Tanggal", ExcelExporter.Tipe.TANGGAL, 18)
+                .kolom("Jumlah", ExcelExporter.Tipe.RUPIAH, 18)
+                .kolom("Metode", ExcelExporter.Tipe.TEKS, 14)
+                .kolom("Status", ExcelExporter.Tipe.TEKS, 14);
     }
     
     // Get list bulan-tahun yang tersedia untuk laporan
+    // (CacheQuery: dibuang otomatis setiap ada write ke tabel pembayaran)
     public List<String> getAvailablePeriods() {
-        List<String> periods = new ArrayList<>();
         String query = "SELECT DISTINCT bulan_tahun FROM pembayaran ORDER BY bulan_tahun DESC";
         
-        try (Connection conn = Koneksi.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-            
-            while (rs.next()) {
-                periods.add(rs.getString("bulan_tahun"));
-            }
+        try {
+            return CacheQuery.getInstance().ambil(Koneksi.getConnection(), KendaliQuery.Jenis.DASHBOARD, query, rs -> {
+                List<String> periods = new ArrayList<>();
+                while (rs.next()) {
+                    periods.add(rs.getString("bulan_tahun"));
+                }
+                return Collections.unmodifiableList(periods);
+            });
             
         } catch (SQLException e) {
             System.err.println("Error getting periods: " + e.getMessage());
+            return new ArrayList<>();
         }
-        
-        return periods;
     }
 }
\ No newline at end of file
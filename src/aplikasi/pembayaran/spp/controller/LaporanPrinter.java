@@ -0,0 +1,226 @@
+package aplikasi.pembayaran.spp.controller;
+
+import aplikasi.pembayaran.spp.model.Koneksi;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.print.PageFormat;
+import java.awt.print.Printable;
+import java.awt.print.PrinterException;
+import java.awt.print.PrinterJob;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.text.NumberFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import javax.print.attribute.PrintRequestAttributeSet;
+
+/**
+ * Engine cetak laporan detail transaksi.
+ *
+ * Baris diambil dari TransaksiPager per halaman kertas (tidak lewat JTable),
+ * jadi laporan sebulan penuh bisa dicetak tanpa memuat semua baris ke memori.
+ * Setiap halaman punya header, subtotal halaman dan nomor halaman; halaman
+ * terakhir ditutup dengan total keseluruhan.
+ *
+ * Kolom pager harus sama dengan LaporanController.getDetailTransaksiPager:
+ * id, nis, nama, periode, tanggal, jumlah, metode, status.
+ */
+public class LaporanPrinter implements Printable {
+
+    private static final String[] JUDUL_KOLOM = {"No", "Tanggal", "ID Transaksi", "NIS", "Nama Siswa", "Metode", "Status", "Jumlah"};
+    // Lebar relatif kolom, total 100
+    private static final int[] LEBAR_KOLOM = {5, 14, 15, 10, 24, 10, 9, 13};
+    private static final int TINGGI_BARIS = 14;
+    private static final int TINGGI_HEADER = 70;
+    private static final int TINGGI_FOOTER = 50;
+
+    private final String judul;
+    private final String info;
+    private final TransaksiPager pager;
+
+    private final NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("id", "ID"));
+    private final SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy HH:mm");
+    private final String dicetakPada = new SimpleDateFormat("dd/MM/yyyy HH:mm").format(new Date());
+
+    private Connection conn;
+
+    // Posisi awal setiap halaman kertas, supaya halaman yang diminta ulang bisa diambil lagi
+    private final List<TransaksiPager.Cursor> awalHalaman = new ArrayList<>();
+    private final List<Double> totalSebelum = new ArrayList<>();
+    private final List<Integer> barisSebelum = new ArrayList<>();
+    private int halamanTerakhir = -1; // -1 = belum diketahui
+
+    // Halaman yang terakhir diambil (PrinterJob memanggil print() beberapa kali per halaman)
+    private int indeksCache = -1;
+    private TransaksiPager.Halaman cache;
+
+    public LaporanPrinter(String judul, String info, TransaksiPager pager) {
+        this.judul = judul;
+        this.info = info;
+        this.pager = pager;
+        awalHalaman.add(null);
+        totalSebelum.add(0.0);
+        barisSebelum.add(0);
+    }
+
+    /**
+     * Jalankan job cetak dengan satu koneksi database untuk semua halaman.
+     * Dipanggil dari thread background (bukan EDT).
+     */
+    public void cetak(PrinterJob job, PrintRequestAttributeSet attributes) throws PrinterException, SQLException {
+        try (Connection koneksi = Koneksi.openConnection()) {
+            this.conn = koneksi;
+            job.setPrintable(this);
+            job.print(attributes);
+        } finally {
+            this.conn = null;
+        }
+    }
+
+    @Override
+    public int print(Graphics graphics, PageFormat pageFormat, int pageIndex) throws PrinterException {
+        if (pageIndex >= awalHalaman.size() || (halamanTerakhir >= 0 && pageIndex > halamanTerakhir)) {
+            return NO_SUCH_PAGE;
+        }
+
+        int barisPerHalaman = Math.max(1,
+                (int) ((pageFormat.getImageableHeight() - TINGGI_HEADER - TINGGI_FOOTER) / TINGGI_BARIS));
+        TransaksiPager.Halaman halaman = ambilHalaman(pageIndex, barisPerHalaman);
+
+        double subtotal = 0;
+        for (Object[] row : halaman.getBaris()) {
+            subtotal += angka(row[5]);
+        }
+        boolean terakhir = !halaman.isAdaLagi();
+        if (pageIndex + 1 == awalHalaman.size()) {
+            if (terakhir) {
+                halamanTerakhir = pageIndex;
+            } else {
+                awalHalaman.add(halaman.getAkhir());
+                totalSebelum.add(totalSebelum.get(pageIndex) + subtotal);
+                barisSebelum.add(barisSebelum.get(pageIndex) + halaman.getBaris().size());
+            }
+        }
+
+        Graphics2D g = (Graphics2D) graphics;
+        g.translate(pageFormat.getImageableX(), pageFormat.getImageableY());
+        int lebar = (int) pageFormat.getImageableWidth();
+        int tinggi = (int) pageFormat.getImageableHeight();
+        g.setColor(Color.BLACK);
+
+        // ===== HEADER =====
+        g.setFont(new Font("SansSerif", Font.BOLD, 12));
+        g.drawString(judul, 0, 14);
+        g.setFont(new Font("SansSerif", Font.PLAIN, 8));
+        g.drawString(info, 0, 28);
+        g.drawString("Dicetak: " + dicetakPada, 0, 40);
+
+        int y = TINGGI_HEADER - 14;
+        g.setFont(new Font("SansSerif", Font.BOLD, 8));
+        tulisBaris(g, JUDUL_KOLOM, lebar, y);
+        g.drawLine(0, y + 4, lebar, y + 4);
+        y += TINGGI_BARIS;
+
+        // ===== DATA =====
+        g.setFont(new Font("SansSerif", Font.PLAIN, 8));
+        int nomor = barisSebelum.get(pageIndex);
+        for (Object[] row : halaman.getBaris()) {
+            nomor++;
+            tulisBaris(g, new String[]{
+                String.valueOf(nomor),
+                row[4] == null ? "-" : sdf.format((Date) row[4]),
+                teks(row[0]),
+                teks(row[1]),
+                teks(row[2]),
+                teks(row[6]),
+                teks(row[7]),
+                currencyFormat.format(angka(row[5]))
+            }, lebar, y);
+            y += TINGGI_BARIS;
+        }
+        if (halaman.getBaris().isEmpty() && pageIndex == 0) {
+            g.drawString("Tidak ada transaksi pada periode ini", 0, y);
+            y += TINGGI_BARIS;
+        }
+
+        // ===== SUBTOTAL & TOTAL =====
+        g.drawLine(0, y - 10, lebar, y - 10);
+        g.setFont(new Font("SansSerif", Font.BOLD, 8));
+        tulisKanan(g, "Subtotal halaman: " + currencyFormat.format(subtotal), lebar, y + 2);
+        if (terakhir) {
+            double total = totalSebelum.get(pageIndex) + subtotal;
+            tulisKanan(g, "TOTAL KESELURUHAN (" + nomor + " transaksi): " + currencyFormat.format(total), lebar, y + 16);
+        } else {
+            tulisKanan(g, "Total s/d halaman ini: " + currencyFormat.format(totalSebelum.get(pageIndex) + subtotal), lebar, y + 16);
+        }
+
+        // ===== FOOTER =====
+        g.setFont(new Font("SansSerif", Font.PLAIN, 7));
+        g.drawLine(0, tinggi - 14, lebar, tinggi - 14);
+        g.drawString("Sistem Pembayaran SPP", 0, tinggi - 4);
+        tulisKanan(g, "Halaman " + (pageIndex + 1), lebar, tinggi - 4);
+
+        return PAGE_EXISTS;
+    }
+
+    private TransaksiPager.Halaman ambilHalaman(int pageIndex, int barisPerHalaman) throws PrinterException {
+        if (pageIndex == indeksCache && cache != null) {
+            return cache;
+        }
+        try {
+            TransaksiPager.Cursor awal = awalHalaman.get(pageIndex);
+            cache = conn != null
+                    ? pager.ambil(conn, awal, barisPerHalaman)
+                    : pager.ambil(awal, barisPerHalaman);
+            indeksCache = pageIndex;
+            return cache;
+        } catch (SQLException e) {
+            throw new PrinterException("Gagal mengambil data halaman " + (pageIndex + 1) + ": " + e.getMessage());
+        }
+    }
+
+    private void tulisBaris(Graphics2D g, String[] isi, int lebar, int y) {
+        FontMetrics fm = g.getFontMetrics();
+        int x = 0;
+        for (int i = 0; i < isi.length; i++) {
+            int lebarKolom = lebar * LEBAR_KOLOM[i] / 100;
+            String teks = potong(isi[i], fm, lebarKolom - 4);
+            if (i == isi.length - 1) {
+                // Kolom jumlah rata kanan
+                g.drawString(teks, x + lebarKolom - fm.stringWidth(teks), y);
+            } else {
+                g.drawString(teks, x, y);
+            }
+            x += lebarKolom;
+        }
+    }
+
+    private void tulisKanan(Graphics2D g, String teks, int lebar, int y) {
+        g.drawString(teks, lebar - g.getFontMetrics().stringWidth(teks), y);
+    }
+
+    private static String potong(String teks, FontMetrics fm, int maks) {
+        if (fm.stringWidth(teks) <= maks) {
+            return teks;
+        }
+        while (teks.length() > 1 && fm.stringWidth(teks + "…") > maks) {
+            teks = teks.substring(0, teks.length() - 1);
+        }
+        return teks + "…";
+    }
+
+    private static String teks(Object value) {
+        return value == null ? "-" : value.toString();
+    }
+
+    private static double angka(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : 0.0;
+    }
+}
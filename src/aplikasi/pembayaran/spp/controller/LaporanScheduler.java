@@ -0,0 +1,379 @@
+package aplikasi.pembayaran.spp.controller;
+
+import aplikasi.pembayaran.spp.model.Koneksi;
+import aplikasi.pembayaran.spp.model.LaporanArtifact;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduler laporan terjadwal.
+ *
+ * Setiap hari jam 00:05 (dan sekali saat aplikasi start, untuk mengejar
+ * laporan yang terlewat karena aplikasi tidak jalan, maksimal
+ * {@value #MAKS_HARI_KEJAR} hari ke belakang) men-generate laporan harian
+ * sampai kemarin dan bulan lalu: ringkasan, detail dan rekap per kelas.
+ * Hasilnya disimpan sebagai file .ser (dibuka instan di FormLaporanKeuangan)
+ * dan .xlsx di folder {@code spp.laporan.dir} (default: "laporan").
+ *
+ * Setiap laporan menyimpan sidik data pembayaran range-nya. Pembayaran mundur
+ * dan koreksi status lewat {@link #tandaiBerubah(LocalDate)} langsung membuat
+ * ulang laporan yang terkena; perubahan dari komputer lain ketahuan saat
+ * laporan dibuka lewat {@link #muatTerbaru(File)}.
+ */
+public final class LaporanScheduler {
+
+    private static final LocalTime JAM_JALAN = LocalTime.of(0, 5);
+    // Batas laporan harian yang dikejar saat start setelah aplikasi lama tidak jalan
+    private static final int MAKS_HARI_KEJAR = 31;
+    private static final String[] NAMA_BULAN = {
+        "Januari", "Februari", "Maret", "April", "Mei", "Juni",
+        "Juli", "Agustus", "September", "Oktober", "November", "Desember"
+    };
+
+    // Header file .ser, dinaikkan kalau isi LaporanArtifact berubah tidak kompatibel
+    private static final String HEADER = "SPP-LAPORAN";
+    private static final int FORMAT = 3;
+
+    // Baris sheet Ringkasan: key RingkasanLaporan.toMap() -> label
+    private static final String[][] RINGKASAN_XLSX = {
+        {"total_transaksi", "Total Transaksi"},
+        {"total_pemasukan", "Total Pemasukan"},
+        {"rata_rata", "Rata-rata Pembayaran"},
+        {"jumlah_lunas", "Transaksi Lunas"},
+        {"total_cash", "Pemasukan Cash"},
+        {"jumlah_cash", "Transaksi Cash"},
+        {"total_transfer", "Pemasukan Transfer"},
+        {"jumlah_transfer", "Transaksi Transfer"},
+        {"total_kartu", "Pemasukan Kartu Debit"},
+        {"jumlah_kartu", "Transaksi Kartu Debit"}
+    };
+
+    private static ScheduledExecutorService executor;
+
+    private LaporanScheduler() {
+    }
+
+    public static File getFolder() {
+        return new File(System.getProperty("spp.laporan.dir", "laporan"));
+    }
+
+    /**
+     * Mulai scheduler (dipanggil sekali saat aplikasi start, lihat SplashScreen)
+     */
+    public static synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "laporan-scheduler");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+
+        LocalDateTime sekarang = LocalDateTime.now();
+        LocalDateTime berikutnya = sekarang.toLocalDate().atTime(JAM_JALAN);
+        if (!berikutnya.isAfter(sekarang)) {
+            berikutnya = berikutnya.plusDays(1);
+        }
+        long delay = Duration.between(sekarang, berikutnya).toMillis();
+
+        // Kejar laporan yang belum ada, lalu jadwalkan tiap hari
+        executor.execute(LaporanScheduler::jalankan);
+        executor.scheduleAtFixedRate(LaporanScheduler::jalankan, delay,
+                TimeUnit.DAYS.toMillis(1), TimeUnit.MILLISECONDS);
+        System.out.println("✅ Scheduler laporan aktif, jadwal berikutnya: " + berikutnya);
+    }
+
+    public static synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Generate laporan harian yang terlewat sampai kemarin dan laporan bulan lalu
+     * kalau belum ada di disk
+     */
+    static void jalankan() {
+        LocalDate kemarin = LocalDate.now().minusDays(1);
+        YearMonth bulanLalu = YearMonth.now().minusMonths(1);
+
+        File folder = getFolder();
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+            System.err.println("❌ Folder laporan tidak bisa dibuat: " + folder.getAbsolutePath());
+            return;
+        }
+
+        LaporanController controller = new LaporanController();
+        try (Connection conn = Koneksi.openConnection()) {
+            // Aplikasi bisa tidak jalan beberapa hari (libur, akhir pekan): kejar semua hari sejak laporan harian terakhir
+            LocalDate terakhir = getHarianTerakhir(folder);
+            // Laporan kemarin selalu dicek (format lama dibuat ulang)
+            LocalDate dari = terakhir == null || !terakhir.isBefore(kemarin) ? kemarin : terakhir.plusDays(1);
+            if (dari.isBefore(kemarin.minusDays(MAKS_HARI_KEJAR - 1))) {
+                dari = kemarin.minusDays(MAKS_HARI_KEJAR - 1);
+            }
+            DateTimeFormatter formatLabel = DateTimeFormatter.ofPattern("dd MMMM yyyy", new Locale("id", "ID"));
+            for (LocalDate hari = dari; !hari.isAfter(kemarin); hari = hari.plusDays(1)) {
+                String namaHarian = "harian_" + hari;
+                if (!sudahAda(new File(folder, namaHarian + ".ser"))) {
+                    simpan(controller.buatArtifact(conn, LaporanArtifact.HARIAN, hari.format(formatLabel), hari, hari),
+                            folder, namaHarian);
+                }
+            }
+
+            String namaBulanan = "bulanan_" + bulanLalu;
+            if (!sudahAda(new File(folder, namaBulanan + ".ser"))) {
+                String label = NAMA_BULAN[bulanLalu.getMonthValue() - 1] + " " + bulanLalu.getYear();
+                simpan(controller.buatArtifact(conn, LaporanArtifact.BULANAN, label,
+                        bulanLalu.atDay(1), bulanLalu.atEndOfMonth()), folder, namaBulanan);
+            }
+
+            // Rekap bulan lalu untuk laporan perbandingan periode (FormStatistik)
+            new RekapBulananController().pastikanRekap(conn, bulanLalu, bulanLalu);
+        } catch (SQLException | IOException e) {
+            System.err.println("❌ Error generate laporan terjadwal: " + e.getMessage());
+        } catch (RuntimeException e) {
+            // Jangan sampai scheduler berhenti karena satu error
+            System.err.println("❌ Error generate laporan terjadwal: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Tanggal laporan harian terbaru di folder, null kalau belum ada
+     */
+    private static LocalDate getHarianTerakhir(File folder) {
+        File[] files = folder.listFiles((dir, name) -> name.startsWith("harian_") && name.endsWith(".ser"));
+        if (files == null) {
+            return null;
+        }
+        LocalDate terakhir = null;
+        for (File file : files) {
+            String nama = file.getName();
+            try {
+                LocalDate tanggal = LocalDate.parse(nama.substring("harian_".length(), nama.length() - ".ser".length()));
+                if (terakhir == null || tanggal.isAfter(terakhir)) {
+                    terakhir = tanggal;
+                }
+            } catch (java.time.format.DateTimeParseException e) {
+                // nama file bukan buatan scheduler
+            }
+        }
+        return terakhir;
+    }
+
+    /**
+     * File laporan ada dan formatnya masih terbaca (format lama dibuat ulang).
+     * Cukup baca header-nya, isi laporan tidak perlu di-deserialize.
+     */
+    private static boolean sudahAda(File file) {
+        if (!file.exists()) {
+            return false;
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(file))) {
+            if (bacaFormat(in) == FORMAT) {
+                return true;
+            }
+        } catch (IOException e) {
+            // file rusak / format lama tanpa header
+        }
+        System.out.println("ℹ️ Laporan " + file.getName() + " format lama, dibuat ulang");
+        return false;
+    }
+
+    private static int bacaFormat(ObjectInputStream in) throws IOException {
+        return HEADER.equals(in.readUTF()) ? in.readInt() : -1;
+    }
+
+    /**
+     * Pembayaran pada tanggal ini ditambah mundur atau dikoreksi: laporan harian
+     * dan bulanan yang mencakupnya (kalau sudah pernah dibuat) dibuat ulang di background
+     */
+    public static void tandaiBerubah(LocalDate tanggal) {
+        File folder = getFolder();
+        File[] terkena = {
+            new File(folder, "harian_" + tanggal + ".ser"),
+            new File(folder, "bulanan_" + YearMonth.from(tanggal) + ".ser")
+        };
+        jalankanDiLatar(() -> {
+            try (Connection conn = Koneksi.openConnection()) {
+                for (File file : terkena) {
+                    if (file.exists()) {
+                        segarkan(conn, file);
+                    }
+                }
+            } catch (SQLException | IOException e) {
+                System.err.println("❌ Error membuat ulang laporan " + tanggal + ": " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Muat laporan tersimpan, dibuat ulang dulu kalau data pembayaran di
+     * range-nya sudah berubah. Kalau database tidak bisa dihubungi, laporan
+     * tersimpan dikembalikan apa adanya.
+     */
+    public static LaporanArtifact muatTerbaru(File file) throws IOException {
+        try (Connection conn = Koneksi.openConnection()) {
+            return segarkan(conn, file);
+        } catch (SQLException e) {
+            System.err.println("⚠️ Laporan " + file.getName() + " tidak bisa dicek ke database: " + e.getMessage());
+            return muat(file);
+        }
+    }
+
+    private static synchronized LaporanArtifact segarkan(Connection conn, File file) throws IOException, SQLException {
+        LaporanArtifact artifact = muat(file);
+        LaporanController controller = new LaporanController();
+        String sidik = controller.getSidikData(conn, artifact.getTanggalMulai(), artifact.getTanggalAkhir());
+        if (sidik.equals(artifact.getSidikData())) {
+            return artifact;
+        }
+        System.out.println("🔄 Laporan " + file.getName() + " sudah tidak cocok dengan database, dibuat ulang");
+        LaporanArtifact baru = controller.buatArtifact(conn, artifact.getJenis(), artifact.getLabel(),
+                artifact.getTanggalMulai(), artifact.getTanggalAkhir());
+        simpan(baru, file.getParentFile(), file.getName().replaceFirst("\\.ser$", ""));
+        return baru;
+    }
+
+    private static synchronized void jalankanDiLatar(Runnable tugas) {
+        if (executor != null) {
+            executor.execute(tugas);
+        } else {
+            Thread t = new Thread(tugas, "laporan-buat-ulang");
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    private static synchronized void simpan(LaporanArtifact artifact, File folder, String nama) throws IOException {
+        // .ser ditulis ke file sementara lalu di-rename, jadi tidak pernah setengah jadi
+        File tmp = new File(folder, nama + ".ser.tmp");
+        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(tmp))) {
+            out.writeUTF(HEADER);
+            out.writeInt(FORMAT);
+            out.writeObject(artifact);
+        }
+        File target = new File(folder, nama + ".ser");
+        // renameTo gagal di Windows kalau target sudah ada (laporan yang dibuat ulang)
+        try {
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        // XLSX untuk dibuka di Excel; gagal di sini tidak membatalkan laporan .ser
+        ExcelExporter ringkasan = new ExcelExporter("Ringkasan", "LAPORAN KEUANGAN SPP - " + artifact.getLabel().toUpperCase())
+                .info("Laporan " + artifact.getJenis() + ": " + artifact.getTanggalMulai() + " s/d " + artifact.getTanggalAkhir())
+                .info("Dibuat: " + artifact.getDibuatPada().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")))
+                .kolom("Keterangan", ExcelExporter.Tipe.TEKS, 28)
+                .kolom("Nominal", ExcelExporter.Tipe.RUPIAH, 20)
+                .kolom("Jumlah", ExcelExporter.Tipe.ANGKA, 12);
+        ExcelExporter detail = new ExcelExporter("Detail", "DETAIL TRANSAKSI")
+                .kolom("ID Transaksi", ExcelExporter.Tipe.TEKS, 18)
+                .kolom("NIS", ExcelExporter.Tipe.TEKS, 14)
+                .kolom("Nama Siswa", ExcelExporter.Tipe.TEKS, 30)
+                .kolom("Periode", ExcelExporter.Tipe.TEKS, 30)
+                .kolom("Tanggal", ExcelExporter.Tipe.TANGGAL, 18)
+                .kolom("Jumlah", ExcelExporter.Tipe.RUPIAH, 18)
+                .kolom("Metode", ExcelExporter.Tipe.TEKS, 14)
+                .kolom("Status", ExcelExporter.Tipe.TEKS, 14);
+        ExcelExporter perKelas = new ExcelExporter("Per Kelas", "REKAP PER KELAS")
+                .kolom("Kelas", ExcelExporter.Tipe.TEKS, 16)
+                .kolom("Jumlah Transaksi", ExcelExporter.Tipe.ANGKA, 18)
+                .kolom("Jumlah Siswa", ExcelExporter.Tipe.ANGKA, 16)
+                .kolom("Total Pemasukan", ExcelExporter.Tipe.RUPIAH, 20);
+
+        // Nilai rupiah di kolom Nominal, banyaknya transaksi di kolom Jumlah
+        java.util.Map<String, Object> ringkasanMap = artifact.getRingkasan().toMap();
+        List<java.util.Map<String, Object>> barisRingkasan = new ArrayList<>();
+        for (String[] baris : RINGKASAN_XLSX) {
+            java.util.Map<String, Object> isi = new java.util.HashMap<>();
+            isi.put("keterangan", baris[1]);
+            isi.put(baris[0].startsWith("jumlah_") || baris[0].equals("total_transaksi") ? "jumlah" : "nominal",
+                    ringkasanMap.get(baris[0]));
+            barisRingkasan.add(isi);
+        }
+
+        try {
+            ExcelExporter.exportBeberapaSheet(new File(folder, nama + ".xlsx"),
+                    new ExcelExporter[]{ringkasan, detail, perKelas},
+                    new ExcelExporter.SumberData[]{
+                        ExcelExporter.dariListMap(barisRingkasan, "keterangan", "nominal", "jumlah"),
+                        ExcelExporter.dariTabelTransaksi(artifact.getDetail()),
+                        ExcelExporter.dariListMap(artifact.getPerKelas(), "kelas", "total_transaksi",
+                                "jumlah_siswa", "total_pemasukan")
+                    });
+        } catch (IOException | RuntimeException | LinkageError e) {
+            System.err.println("⚠️ XLSX laporan " + nama + " gagal dibuat: " + e.getMessage());
+        }
+
+        System.out.println("✅ Laporan terjadwal dibuat: " + artifact + " (" + artifact.getDetail().size() + " transaksi)");
+    }
+
+    /**
+     * Daftar laporan tersimpan, terbaru dulu
+     */
+    public static List<File> getDaftarLaporan() {
+        File[] files = getFolder().listFiles((dir, name) -> name.endsWith(".ser"));
+        if (files == null) {
+            return new ArrayList<>();
+        }
+        List<File> daftar = new ArrayList<>(Arrays.asList(files));
+        daftar.sort(Comparator.comparingLong(File::lastModified).reversed());
+        return daftar;
+    }
+
+    public static LaporanArtifact muat(File file) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(file))) {
+            int format;
+            try {
+                format = bacaFormat(in);
+            } catch (java.io.EOFException e) {
+                // Laporan lama tanpa header: isinya langsung objek LaporanArtifact
+                return muatTanpaHeader(file);
+            }
+            if (format != FORMAT) {
+                throw new IOException("Format laporan tidak dikenali: " + file.getName());
+            }
+            return (LaporanArtifact) in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Format laporan tidak dikenali: " + file.getName(), e);
+        }
+    }
+
+    private static LaporanArtifact muatTanpaHeader(File file) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(file))) {
+            return (LaporanArtifact) in.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Format laporan tidak dikenali: " + file.getName(), e);
+        }
+    }
+}
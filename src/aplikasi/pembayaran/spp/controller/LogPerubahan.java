@@ -0,0 +1,307 @@
+package aplikasi.pembayaran.spp.controller;
+
+import aplikasi.pembayaran.spp.model.Koneksi;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invalidasi cache antar komputer lewat tabel change_log.
+ *
+ * Beberapa aplikasi (meja TU, bendahara, Kepsek) memakai satu database, jadi
+ * cache di memori satu komputer bisa basi karena write dari komputer lain.
+ * Setiap write di controller mencatat (entitas, kunci) ke change_log; kolom
+ * versi (AUTO_INCREMENT) jadi urutan global perubahan. Poller di background
+ * cukup menjalankan satu range query "versi &gt; terakhir" di primary key setiap
+ * interval (-Dspp.changelog.interval=&lt;detik&gt;, default 10) lalu membuang
+ * entry cache yang berubah saja. Catatan milik komputer sendiri dilewati karena
+ * cache lokalnya sudah dibuang saat write.
+ *
+ * Nilai AUTO_INCREMENT dibagikan sebelum commit, jadi transaksi yang lebih
+ * lambat commit bisa muncul dengan versi di bawah versi terakhir yang sudah
+ * dibaca. Karena itu setiap poll membaca ulang {@value #JENDELA} versi terakhir
+ * dan melewati versi yang sudah pernah diproses.
+ *
+ * Versi terakhir yang diterapkan ikut disimpan bersama cache laporan di disk
+ * (LaporanCache). Saat start, perubahan sejak versi itu diputar ulang supaya
+ * entry tertutup dari disk tidak basi; kalau catatannya mungkin sudah dihapus
+ * (cache lebih tua dari masa simpan), entry dari disk dibuang.
+ */
+public final class LogPerubahan {
+
+    /** Kunci untuk perubahan yang tidak bisa dipersempit (buang semua cache entitas itu) */
+    public static final String SEMUA = "*";
+
+    private static final long INTERVAL_DETIK = Long.getLong("spp.changelog.interval", 10);
+    private static final int BATAS_BARIS = 500;
+    // Versi di bawah versi terakhir yang dibaca ulang tiap poll (harus lebih kecil dari BATAS_BARIS)
+    private static final int JENDELA = 100;
+    // Catatan lebih tua dari ini dihapus; komputer yang tertinggal lebih lama membuang semua cache
+    private static final long SIMPAN_JAM = 24;
+
+    // Identitas aplikasi ini, supaya catatan sendiri tidak diproses ulang
+    private static final String KLIEN = UUID.randomUUID().toString();
+
+    private static ScheduledExecutorService executor;
+    private static Connection koneksiPoller;
+    private static long versiTerakhir = -1;
+    // Versi di dalam jendela yang sudah diproses, supaya tidak diterapkan dua kali
+    private static final TreeSet<Long> sudahDiproses = new TreeSet<>();
+    private static long terakhirBerhasil;
+    private static long terakhirBersih;
+
+    private LogPerubahan() {
+    }
+
+    /**
+     * Catat perubahan setelah write berhasil. Gagal mencatat tidak menggagalkan
+     * write-nya; komputer lain tetap kebagian data baru lewat TTL cache.
+     */
+    public static void catat(Connection conn, DataVersi.Tabel entitas, String kunci) {
+        String sql = "INSERT INTO change_log (entitas, kunci, klien) VALUES (?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, entitas.name());
+            stmt.setString(2, kunci == null ? SEMUA : kunci);
+            stmt.setString(3, KLIEN);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("⚠️ Gagal mencatat change_log " + entitas + "/" + kunci + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Mulai poller (dipanggil sekali saat aplikasi start, lihat SplashScreen)
+     */
+    public static synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "change-log-poller");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(LogPerubahan::poll, 0, INTERVAL_DETIK, TimeUnit.SECONDS);
+        System.out.println("✅ Poller change_log aktif, interval " + INTERVAL_DETIK + " detik");
+    }
+
+    public static synchronized boolean isAktif() {
+        return executor != null;
+    }
+
+    private static void poll() {
+        try {
+            Connection conn = getKoneksiPoller();
+            if (versiTerakhir < 0) {
+                mulai(conn);
+            } else if (System.currentTimeMillis() - terakhirBerhasil > TimeUnit.HOURS.toMillis(SIMPAN_JAM)) {
+                // Terlalu lama tidak poll (misal laptop sleep), catatan mungkin sudah dihapus
+                System.out.println("⚠️ Poller change_log tertinggal, semua cache dibuang");
+                lompatKeTerbaru(conn);
+                bersihkanSemuaCache();
+            } else {
+                terapkanSemua(conn);
+            }
+            LaporanCache.getInstance().setVersiLog(versiTerakhir);
+            terakhirBerhasil = System.currentTimeMillis();
+            hapusCatatanLama(conn);
+        } catch (SQLException e) {
+            System.err.println("⚠️ Poll change_log gagal: " + e.getMessage());
+            tutupKoneksiPoller();
+        } catch (RuntimeException e) {
+            // Jangan sampai exception menghentikan jadwal poller
+            System.err.println("⚠️ Error poller change_log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Start: lanjutkan dari versi yang tersimpan bersama cache laporan di disk
+     * kalau catatan sejak versi itu pasti masih ada, selain itu mulai dari versi
+     * terbaru (cache lain di memori masih kosong, jadi sudah pasti segar).
+     */
+    private static void mulai(Connection conn) throws SQLException {
+        LaporanCache cache = LaporanCache.getInstance();
+        long tersimpan = cache.getVersiLog();
+        long umur = System.currentTimeMillis() - cache.getVersiLogWaktu();
+
+        if (tersimpan >= 0 && umur < TimeUnit.HOURS.toMillis(SIMPAN_JAM)) {
+            System.out.println("🔄 Memutar ulang change_log sejak versi " + tersimpan);
+            versiTerakhir = tersimpan;
+            terapkanSemua(conn);
+        } else {
+            if (cache.getJumlahTertutup() > 0) {
+                // Catatan sejak cache disimpan mungkin sudah dihapus, entry dari disk tidak bisa dipercaya
+                System.out.println("⚠️ Cache laporan di disk lebih tua dari change_log, dibuang");
+                cache.clear();
+            }
+            lompatKeTerbaru(conn);
+        }
+    }
+
+    private static void terapkanSemua(Connection conn) throws SQLException {
+        int jumlah;
+        do {
+            jumlah = ambil(conn, true);
+        } while (jumlah == BATAS_BARIS);
+    }
+
+    // Lewati semua catatan yang ada sekarang, tapi tandai jendela terakhir sebagai sudah diproses
+    private static void lompatKeTerbaru(Connection conn) throws SQLException {
+        sudahDiproses.clear();
+        versiTerakhir = versiMaks(conn);
+        ambil(conn, false);
+    }
+
+    // Satu range query di primary key, hasilnya digabung per entitas lalu diterapkan sekali
+    private static int ambil(Connection conn, boolean terapkan) throws SQLException {
+        String sql = "SELECT versi, entitas, kunci, klien FROM change_log WHERE versi > ? ORDER BY versi LIMIT " + BATAS_BARIS;
+        Map<DataVersi.Tabel, Set<String>> berubah = new EnumMap<>(DataVersi.Tabel.class);
+        Set<Long> baru = new HashSet<>();
+        int jumlah = 0;
+        long versi = versiTerakhir;
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, Math.max(0, versiTerakhir - JENDELA));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    jumlah++;
+                    long v = rs.getLong("versi");
+                    versi = Math.max(versi, v);
+                    if (sudahDiproses.contains(v) || !baru.add(v) || !terapkan || KLIEN.equals(rs.getString("klien"))) {
+                        continue;
+                    }
+                    try {
+                        DataVersi.Tabel entitas = DataVersi.Tabel.valueOf(rs.getString("entitas"));
+                        berubah.computeIfAbsent(entitas, k -> new HashSet<>()).add(rs.getString("kunci"));
+                    } catch (IllegalArgumentException e) {
+                        // Entitas dari versi aplikasi lain, tidak ada cache-nya di sini
+                    }
+                }
+            }
+        }
+
+        if (!berubah.isEmpty()) {
+            terapkan(berubah);
+        }
+        // Baru ditandai setelah diterapkan, kalau query gagal di tengah semuanya dibaca ulang
+        sudahDiproses.addAll(baru);
+        versiTerakhir = versi;
+        sudahDiproses.headSet(versiTerakhir - JENDELA, true).clear();
+        return jumlah;
+    }
+
+    private static void terapkan(Map<DataVersi.Tabel, Set<String>> berubah) {
+        System.out.println("🔄 Perubahan dari komputer lain: " + berubah);
+        Set<String> kelas = berubah.get(DataVersi.Tabel.KELAS);
+        if (kelas != null) {
+            DataVersi.naik(DataVersi.Tabel.KELAS);
+            muatUlangReferensiKelas();
+        }
+
+        Set<String> siswa = berubah.get(DataVersi.Tabel.SISWA);
+        if (siswa != null) {
+            LaporanCache.getInstance().invalidateTerbuka();
+            DataVersi.naik(DataVersi.Tabel.SISWA);
+            if (kelas == null && !siswa.contains(SEMUA)) {
+                // Cukup ganti baris siswa yang berubah di cache
+                SiswaController.perbaruiCache(siswa);
+            } else {
+                // Versi KELAS/SISWA naik, cache siswa dimuat ulang penuh saat dibaca
+                SiswaController.invalidateCache();
+            }
+        }
+
+        Set<String> pembayaran = berubah.get(DataVersi.Tabel.PEMBAYARAN);
+        if (pembayaran != null) {
+            if (pembayaran.contains(SEMUA)) {
+                LaporanCache.getInstance().clear();
+            } else {
+                for (String bulanTahun : pembayaran) {
+                    LaporanCache.getInstance().onPembayaranBaru(bulanTahun);
+                }
+            }
+            DataVersi.naik(DataVersi.Tabel.PEMBAYARAN);
+        }
+
+        if (berubah.containsKey(DataVersi.Tabel.USERS)) {
+            // Statistik user di CacheQuery ikut versi USERS
+            DataVersi.naik(DataVersi.Tabel.USERS);
+        }
+
+        DashboardStatsService.getInstance().invalidate();
+    }
+
+    private static void bersihkanSemuaCache() {
+        LaporanCache.getInstance().clear();
+        DashboardStatsService.getInstance().invalidate();
+        SiswaController.invalidateCache();
+        muatUlangReferensiKelas();
+        for (DataVersi.Tabel tabel : DataVersi.Tabel.values()) {
+            DataVersi.naik(tabel);
+        }
+    }
+
+    private static void muatUlangReferensiKelas() {
+        try {
+            ReferensiKelas.getInstance().muatUlang();
+        } catch (SQLException e) {
+            ReferensiKelas.getInstance().invalidate();
+        }
+    }
+
+    private static long versiMaks(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(versi), 0) FROM change_log")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    // Sekali per jam, hapus catatan yang sudah lewat masa simpan (semua komputer boleh, hasilnya sama)
+    private static void hapusCatatanLama(Connection conn) throws SQLException {
+        long sekarang = System.currentTimeMillis();
+        if (sekarang - terakhirBersih < TimeUnit.HOURS.toMillis(1)) {
+            return;
+        }
+        terakhirBersih = sekarang;
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "DELETE FROM change_log WHERE dibuat < NOW() - INTERVAL ? HOUR")) {
+            stmt.setLong(1, SIMPAN_JAM);
+            int dihapus = stmt.executeUpdate();
+            if (dihapus > 0) {
+                System.out.println("🧹 " + dihapus + " catatan change_log lama dihapus");
+            }
+        }
+    }
+
+    // Koneksi sendiri supaya poll tidak antri di koneksi utama yang dipakai UI
+    private static Connection getKoneksiPoller() throws SQLException {
+        if (koneksiPoller == null || koneksiPoller.isClosed()) {
+            koneksiPoller = Koneksi.openConnection();
+        }
+        return koneksiPoller;
+    }
+
+    private static void tutupKoneksiPoller() {
+        if (koneksiPoller != null) {
+            try {
+                koneksiPoller.close();
+            } catch (SQLException e) {
+                // koneksi memang sudah bermasalah
+            }
+            koneksiPoller = null;
+        }
+    }
+}
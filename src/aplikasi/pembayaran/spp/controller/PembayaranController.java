@@ -11,9 +11,11 @@ import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -42,7 +44,7 @@ public class PembayaranController {
         }
 
         // Permission check - hanya TU dan Bendahara yang bisa input
-        if (!hasInputPermission(currentUserRole)) {
+        if (!SesiLogin.boleh(currentUserRole, SesiLogin.Izin.INPUT_PEMBAYARAN)) {
             JOptionPane.showMessageDialog(null, "Anda tidak memiliki akses untuk input pembayaran!", "Akses Ditolak", JOptionPane.WARNING_MESSAGE);
             return false;
         }
@@ -83,6 +85,20 @@ public class PembayaranController {
 
             if (result > 0) {
                 System.out.println("✅ Pembayaran berhasil diinput: " + pembayaran.getIdTransaksi());
+                // Tanggal bayar mundur (sebelum hari ini) mengubah range yang sudah tertutup
+                boolean mundur = pembayaran.getTanggalBayar().isBefore(LocalDate.now().atStartOfDay());
+                if (mundur) {
+                    LaporanCache.getInstance().clear();
+                    RekapBulananController.invalidate(java.time.YearMonth.from(pembayaran.getTanggalBayar()));
+                    LaporanScheduler.tandaiBerubah(pembayaran.getTanggalBayar().toLocalDate());
+                } else {
+                    LaporanCache.getInstance().onPembayaranBaru(pembayaran.getBulanTahun());
+                }
+                DashboardStatsService.getInstance().invalidate();
+                DataVersi.naik(DataVersi.Tabel.PEMBAYARAN);
+                // Komputer lain membuang cache laporan yang sama (kunci = bulan_tahun)
+                LogPerubahan.catat(conn, DataVersi.Tabel.PEMBAYARAN,
+                        mundur ? LogPerubahan.SEMUA : pembayaran.getBulanTahun());
                 JOptionPane.showMessageDialog(null,
                     "Pembayaran berhasil diinput!\nID Transaksi: " + pembayaran.getIdTransaksi(),
                     "Sukses", JOptionPane.INFORMATION_MESSAGE);
@@ -103,33 +119,36 @@ public class PembayaranController {
     }
 
     /**
-     * Get semua pembayaran
+     * Total pemasukan per bulan untuk grafik & statistik (FormStatistik).
+     * Dijumlahkan di database dengan filter range tanggal_bayar, jadi yang
+     * dibawa ke aplikasi cuma satu baris per bulan. Dipanggil dari background thread.
+     *
+     * @param periode range tanggal, null = semua data
      */
-    public List<Pembayaran> getAllPembayaran(String currentUserRole) {
-        List<Pembayaran> pembayaranList = new ArrayList<>();
-        if (conn == null) return pembayaranList;
-
-        if (!hasReadPermission(currentUserRole)) {
-            JOptionPane.showMessageDialog(null, "Anda tidak memiliki akses untuk melihat data pembayaran!", "Akses Ditolak", JOptionPane.WARNING_MESSAGE);
-            return pembayaranList;
+    public Map<YearMonth, Double> getPemasukanPerBulan(String currentUserRole, PeriodeFilter periode) throws SQLException {
+        Map<YearMonth, Double> hasil = new LinkedHashMap<>();
+        if (!SesiLogin.boleh(currentUserRole, SesiLogin.Izin.LIHAT_PEMBAYARAN)) {
+            System.err.println("⚠️ Role " + currentUserRole + " tidak boleh melihat data pembayaran");
+            return hasil;
         }
 
-        String sql = "SELECT * FROM pembayaran ORDER BY tanggal_bayar DESC";
+        String sql = "SELECT YEAR(tanggal_bayar), MONTH(tanggal_bayar), SUM(jumlah_bayar) FROM pembayaran " +
+                     (periode != null ? "WHERE " + periode.predikat() + " " : "") +
+                     "GROUP BY YEAR(tanggal_bayar), MONTH(tanggal_bayar) " +
+                     "ORDER BY YEAR(tanggal_bayar), MONTH(tanggal_bayar)";
 
-        try (PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-
-            while (rs.next()) {
-                pembayaranList.add(createPembayaranFromResultSet(rs));
+        try (Connection koneksi = Koneksi.openConnection();
+             PreparedStatement pstmt = KendaliQuery.siapkan(koneksi, sql, KendaliQuery.Jenis.LAPORAN)) {
+            if (periode != null) {
+                periode.bind(pstmt, 1);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    hasil.put(YearMonth.of(rs.getInt(1), rs.getInt(2)), rs.getDouble(3));
+                }
             }
-            System.out.println("✅ Loaded " + pembayaranList.size() + " pembayaran records");
-
-        } catch (SQLException e) {
-            System.err.println("❌ Error get all pembayaran: " + e.getMessage());
-            JOptionPane.showMessageDialog(null, "Error mengambil data pembayaran: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
-
-        return pembayaranList;
+        return hasil;
     }
 
     /**
@@ -183,7 +202,7 @@ public class PembayaranController {
     public boolean updateStatusPembayaran(String idTransaksi, String statusBaru, String currentUserRole) {
         if (conn == null) return false;
 
-        if (!hasUpdatePermission(currentUserRole)) {
+        if (!SesiLogin.boleh(currentUserRole, SesiLogin.Izin.UBAH_PEMBAYARAN)) {
             JOptionPane.showMessageDialog(null, "Anda tidak memiliki akses untuk mengupdate status pembayaran!", "Akses Ditolak", JOptionPane.WARNING_MESSAGE);
             return false;
         }
@@ -198,6 +217,16 @@ public class PembayaranController {
 
             if (result > 0) {
                 System.out.println("✅ Status pembayaran diupdate: " + idTransaksi + " -> " + statusBaru);
+                // Status transaksi lama bisa berubah, jadi entry tertutup juga ikut dibuang
+                LaporanCache.getInstance().clear();
+                DashboardStatsService.getInstance().invalidate();
+                DataVersi.naik(DataVersi.Tabel.PEMBAYARAN);
+                LogPerubahan.catat(conn, DataVersi.Tabel.PEMBAYARAN, LogPerubahan.SEMUA);
+                // Laporan terjadwal yang memuat transaksi ini ikut dibuat ulang
+                Pembayaran p = getPembayaranById(idTransaksi);
+                if (p != null && p.getTanggalBayar() != null) {
+                    LaporanScheduler.tandaiBerubah(p.getTanggalBayar().toLocalDate());
+                }
                 JOptionPane.showMessageDialog(null, "Status pembayaran berhasil diupdate!", "Sukses", JOptionPane.INFORMATION_MESSAGE);
                 return true;
             } else {
@@ -281,27 +310,6 @@ public class PembayaranController {
         return true;
     }
 
-    /**
-     * Check input permission
-     */
-    private boolean hasInputPermission(String role) {
-        return role != null && (role.equals("TU") || role.equals("Bendahara") || role.equals("Admin"));
-    }
-
-    /**
-     * Check read permission
-     */
-    private boolean hasReadPermission(String role) {
-        return role != null && (role.equals("Kepsek") || role.equals("Bendahara") || role.equals("TU") || role.equals("Siswa") || role.equals("Admin"));
-    }
-
-    /**
-     * Check update permission
-     */
-    private boolean hasUpdatePermission(String role) {
-        return role != null && (role.equals("Bendahara") || role.equals("TU") || role.equals("Admin"));
-    }
-
     /**
      * Get statistik pembayaran untuk dashboard (safe, using try-with-resources)
      */
@@ -314,27 +322,35 @@ public class PembayaranController {
 
         try {
             // Total transaksi hari ini
-            String sqlHariIni = "SELECT COUNT(*) FROM pembayaran WHERE DATE(tanggal_bayar) = CURDATE()";
-            try (PreparedStatement pstmt1 = conn.prepareStatement(sqlHariIni);
-                 ResultSet rs1 = pstmt1.executeQuery()) {
-                rs1.next();
-                stats[0] = String.valueOf(rs1.getInt(1));
+            PeriodeFilter hariIni = PeriodeFilter.hariIni();
+            String sqlHariIni = "SELECT COUNT(*) FROM pembayaran WHERE " + hariIni.predikat();
+            try (PreparedStatement pstmt1 = conn.prepareStatement(sqlHariIni)) {
+                hariIni.bind(pstmt1, 1);
+                try (ResultSet rs1 = pstmt1.executeQuery()) {
+                    rs1.next();
+                    stats[0] = String.valueOf(rs1.getInt(1));
+                }
             }
 
             // Total pemasukan hari ini
-            String sqlPemasukan = "SELECT COALESCE(SUM(jumlah_bayar), 0) FROM pembayaran WHERE DATE(tanggal_bayar) = CURDATE()";
-            try (PreparedStatement pstmt2 = conn.prepareStatement(sqlPemasukan);
-                 ResultSet rs2 = pstmt2.executeQuery()) {
-                rs2.next();
-                stats[1] = String.format("Rp %.0f", rs2.getDouble(1));
+            String sqlPemasukan = "SELECT COALESCE(SUM(jumlah_bayar), 0) FROM pembayaran WHERE " + hariIni.predikat();
+            try (PreparedStatement pstmt2 = conn.prepareStatement(sqlPemasukan)) {
+                hariIni.bind(pstmt2, 1);
+                try (ResultSet rs2 = pstmt2.executeQuery()) {
+                    rs2.next();
+                    stats[1] = String.format("Rp %.0f", rs2.getDouble(1));
+                }
             }
 
             // Total transaksi bulan ini
-            String sqlBulanIni = "SELECT COUNT(*) FROM pembayaran WHERE YEAR(tanggal_bayar) = YEAR(CURDATE()) AND MONTH(tanggal_bayar) = MONTH(CURDATE())";
-            try (PreparedStatement pstmt3 = conn.prepareStatement(sqlBulanIni);
-                 ResultSet rs3 = pstmt3.executeQuery()) {
-                rs3.next();
-                stats[2] = String.valueOf(rs3.getInt(1));
+            PeriodeFilter bulanIni = PeriodeFilter.bulanIni();
+            String sqlBulanIni = "SELECT COUNT(*) FROM pembayaran WHERE " + bulanIni.predikat();
+            try (PreparedStatement pstmt3 = conn.prepareStatement(sqlBulanIni)) {
+                bulanIni.bind(pstmt3, 1);
+                try (ResultSet rs3 = pstmt3.executeQuery()) {
+                    rs3.next();
+                    stats[2] = String.valueOf(rs3.getInt(1));
+                }
             }
 
             // Total siswa dengan tunggakan (using the new accurate method)
@@ -0,0 +1,86 @@
+package aplikasi.pembayaran.spp.controller;
+
+import aplikasi.pembayaran.spp.model.Koneksi;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pencarian histori transaksi.
+ *
+ * Kata kunci dicocokkan lewat FULLTEXT index ft_pembayaran_cari (parser ngram,
+ * kolom id_transaksi, nis_siswa, nama_siswa, bulan_tahun) dengan MATCH ... AGAINST
+ * dalam boolean mode, hasilnya diurutkan berdasarkan skor relevansi dan dibatasi
+ * satu halaman. Berbeda dengan LIKE '%x%' di lima kolom, biayanya tidak ikut naik
+ * seiring bertambahnya isi tabel pembayaran.
+ *
+ * - Kata kunci yang sama dengan status (Lunas / Belum Lunas / Cicilan) dicari
+ *   dengan kesamaan persis lewat idx_pembayaran_status.
+ * - Kata kunci 1 huruf (lebih pendek dari token ngram) dicari sebagai awalan
+ *   ID transaksi / NIS.
+ * - Kalau index belum terpasang (misal server tanpa parser ngram), pakai LIKE lama.
+ */
+public final class PencarianTransaksi {
+
+    static final String KOLOM_FULLTEXT = "p.id_transaksi, p.nis_siswa, p.nama_siswa, p.bulan_tahun";
+
+    // ngram_token_size bawaan MySQL
+    private static final int PANJANG_TOKEN = 2;
+
+    private static final String[] STATUS = {"Lunas", "Belum Lunas", "Cicilan"};
+
+    private PencarianTransaksi() {
+    }
+
+    /**
+     * Pager hasil pencarian untuk KeysetTableModel
+     *
+     * @param kolom     daftar kolom SELECT (alias p untuk pembayaran)
+     * @param join      klausa JOIN tambahan, boleh kosong
+     * @param kataKunci teks dari kotak pencarian (tidak kosong)
+     */
+    public static TransaksiPager pager(String kolom, String join, String kataKunci) {
+        String term = kataKunci.trim();
+
+        for (String status : STATUS) {
+            if (status.equalsIgnoreCase(term)) {
+                return new TransaksiPager(kolom, join, "p.status_pembayaran = ?", status);
+            }
+        }
+
+        if (!Koneksi.isFulltextPembayaranTersedia()) {
+            String pola = "%" + term + "%";
+            return new TransaksiPager(kolom, join,
+                    "p.id_transaksi LIKE ? OR p.nis_siswa LIKE ? OR p.nama_siswa LIKE ? " +
+                    "OR p.bulan_tahun LIKE ? OR p.status_pembayaran LIKE ?",
+                    pola, pola, pola, pola, pola);
+        }
+
+        String against = getBooleanQuery(term);
+        if (against.isEmpty()) {
+            String awalan = escapeLike(term) + "%";
+            return new TransaksiPager(kolom, join, "p.id_transaksi LIKE ? OR p.nis_siswa LIKE ?", awalan, awalan);
+        }
+
+        String match = "MATCH(" + KOLOM_FULLTEXT + ") AGAINST (? IN BOOLEAN MODE)";
+        return new TransaksiPager(kolom, join, match, against).urutRelevansi(match, against);
+    }
+
+    /**
+     * "ahmad  jan" -> "+ahmad +jan". Operator boolean dari input dibuang,
+     * kata yang lebih pendek dari token ngram diabaikan.
+     */
+    public static String getBooleanQuery(String term) {
+        List<String> kata = new ArrayList<>();
+        for (String k : term.replaceAll("[+\\-<>()~*\"@]", " ").trim().split("\\s+")) {
+            if (k.length() >= PANJANG_TOKEN) {
+                kata.add("+" + k);
+            }
+        }
+        return String.join(" ", kata);
+    }
+
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
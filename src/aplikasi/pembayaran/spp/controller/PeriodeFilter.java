@@ -0,0 +1,126 @@
+package aplikasi.pembayaran.spp.controller;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+
+/**
+ * Builder predikat periode untuk kolom tanggal_bayar.
+ *
+ * Semua periode diubah jadi rentang setengah terbuka
+ * {@code tanggal_bayar >= ? AND tanggal_bayar < ?} supaya index
+ * di tanggal_bayar tetap bisa dipakai (beda dengan DATE()/YEAR()/MONTH()
+ * yang membungkus kolom dan memaksa full scan).
+ */
+public final class PeriodeFilter {
+
+    public static final String KOLOM = "tanggal_bayar";
+
+    private final LocalDateTime mulai;
+    private final LocalDateTime akhir;
+
+    private PeriodeFilter(LocalDateTime mulai, LocalDateTime akhir) {
+        this.mulai = mulai;
+        this.akhir = akhir;
+    }
+
+    /**
+     * Satu hari penuh: [tanggal 00:00, tanggal+1 00:00)
+     */
+    public static PeriodeFilter hari(LocalDate tanggal) {
+        return new PeriodeFilter(tanggal.atStartOfDay(), tanggal.plusDays(1).atStartOfDay());
+    }
+
+    public static PeriodeFilter hariIni() {
+        return hari(LocalDate.now());
+    }
+
+    /**
+     * Satu bulan kalender: [tgl 1 bulan ini, tgl 1 bulan berikutnya)
+     */
+    public static PeriodeFilter bulan(YearMonth bulan) {
+        return new PeriodeFilter(bulan.atDay(1).atStartOfDay(), bulan.plusMonths(1).atDay(1).atStartOfDay());
+    }
+
+    public static PeriodeFilter bulanIni() {
+        return bulan(YearMonth.now());
+    }
+
+    /**
+     * Rentang tanggal inklusif (seperti BETWEEN di JDateChooser),
+     * diubah jadi [dari 00:00, sampai+1 00:00)
+     */
+    public static PeriodeFilter rentang(LocalDate dari, LocalDate sampai) {
+        return new PeriodeFilter(dari.atStartOfDay(), sampai.plusDays(1).atStartOfDay());
+    }
+
+    public static PeriodeFilter rentang(java.util.Date dari, java.util.Date sampai) {
+        return rentang(toLocalDate(dari), toLocalDate(sampai));
+    }
+
+    /**
+     * Predikat SQL untuk kolom tanggal_bayar tanpa alias
+     */
+    public String predikat() {
+        return predikat(null);
+    }
+
+    /**
+     * Predikat SQL dengan alias tabel, misal "p" -> p.tanggal_bayar
+     */
+    public String predikat(String alias) {
+        String kolom = (alias == null || alias.isEmpty()) ? KOLOM : alias + "." + KOLOM;
+        return kolom + " >= ? AND " + kolom + " < ?";
+    }
+
+    /**
+     * Isi 2 parameter mulai dari index yang diberikan.
+     * @return index parameter berikutnya
+     */
+    public int bind(PreparedStatement stmt, int index) throws SQLException {
+        stmt.setTimestamp(index, Timestamp.valueOf(mulai));
+        stmt.setTimestamp(index + 1, Timestamp.valueOf(akhir));
+        return index + 2;
+    }
+
+    /**
+     * Isi parameter query berurutan. Param boleh nilai biasa (setObject)
+     * atau PeriodeFilter (mengisi 2 parameter).
+     * @return index parameter berikutnya
+     */
+    public static int bindParams(PreparedStatement stmt, Object... params) throws SQLException {
+        int index = 1;
+        for (Object param : params) {
+            if (param instanceof PeriodeFilter) {
+                index = ((PeriodeFilter) param).bind(stmt, index);
+            } else {
+                stmt.setObject(index++, param);
+            }
+        }
+        return index;
+    }
+
+    public LocalDateTime getMulai() {
+        return mulai;
+    }
+
+    public LocalDateTime getAkhir() {
+        return akhir;
+    }
+
+    private static LocalDate toLocalDate(java.util.Date date) {
+        if (date instanceof java.sql.Date) {
+            return ((java.sql.Date) date).toLocalDate();
+        }
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    @Override
+    public String toString() {
+        return "[" + mulai + ", " + akhir + ")";
+    }
+}
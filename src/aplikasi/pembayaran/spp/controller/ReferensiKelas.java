@@ -0,0 +1,140 @@
+package aplikasi.pembayaran.spp.controller;
+
+import aplikasi.pembayaran.spp.model.Kelas;
+import aplikasi.pembayaran.spp.model.Koneksi;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data referensi kelas (kelas, angkatan, nominal SPP) di memori.
+ *
+ * Daftar kelas hampir tidak pernah berubah tapi dibaca terus oleh combo box
+ * dan filter, jadi isinya disimpan sebagai satu snapshot read-only: dimuat saat
+ * aplikasi start (atau saat pertama dibaca) dan diganti utuh setelah tambah/
+ * update/hapus kelas lewat KelasController. Pembaca tidak pernah melihat
+ * snapshot setengah jadi, dan nominal SPP per (kelas, angkatan) cukup satu
+ * lookup HashMap.
+ */
+public final class ReferensiKelas {
+
+    private static final ReferensiKelas INSTANCE = new ReferensiKelas();
+
+    /**
+     * Satu versi data kelas, read-only setelah dibuat
+     */
+    private static final class Snapshot {
+        final List<Kelas> semua;
+        final List<String> namaKelas;
+        final Map<String, Kelas> perKunci = new HashMap<>();
+
+        Snapshot(List<Kelas> data) {
+            this.semua = Collections.unmodifiableList(data);
+            LinkedHashSet<String> nama = new LinkedHashSet<>();
+            for (Kelas k : data) {
+                perKunci.put(kunci(k.getKelas(), k.getAngkatan()), k);
+                nama.add(k.getKelas());
+            }
+            this.namaKelas = Collections.unmodifiableList(new ArrayList<>(nama));
+        }
+    }
+
+    private volatile Snapshot snapshot;
+
+    private ReferensiKelas() {
+    }
+
+    public static ReferensiKelas getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Muat ulang dari database lalu ganti snapshot sekaligus
+     * (dipanggil saat start dan setelah data kelas berubah)
+     */
+    public void muatUlang() throws SQLException {
+        muat();
+    }
+
+    /**
+     * Buang snapshot, pembacaan berikutnya memuat ulang dari database
+     */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    /**
+     * Semua kelas urut kelas, angkatan. Objek di dalamnya dipakai bersama, hanya untuk dibaca.
+     */
+    public List<Kelas> getSemua() throws SQLException {
+        return getSnapshot().semua;
+    }
+
+    /**
+     * @return kelas untuk (kelas, angkatan) atau null kalau tidak ada
+     */
+    public Kelas get(String kelas, String angkatan) throws SQLException {
+        return getSnapshot().perKunci.get(kunci(kelas, angkatan));
+    }
+
+    /**
+     * Nominal SPP per bulan untuk (kelas, angkatan)
+     * @return nominal atau null kalau kelas tidak terdaftar
+     */
+    public Double getNominalSPP(String kelas, String angkatan) throws SQLException {
+        Kelas k = get(kelas, angkatan);
+        return k != null ? k.getNominalSPP() : null;
+    }
+
+    /**
+     * Nama kelas tanpa duplikat angkatan, urut seperti di tabel kelas
+     */
+    public List<String> getNamaKelas() throws SQLException {
+        return getSnapshot().namaKelas;
+    }
+
+    private Snapshot getSnapshot() throws SQLException {
+        Snapshot s = snapshot;
+        if (s == null) {
+            synchronized (this) {
+                s = snapshot;
+                if (s == null) {
+                    s = muat();
+                }
+            }
+        }
+        return s;
+    }
+
+    private synchronized Snapshot muat() throws SQLException {
+        Snapshot s = new Snapshot(muatSemuaKelas());
+        snapshot = s;
+        System.out.println("🏫 Referensi kelas dimuat: " + s.semua.size() + " kelas");
+        return s;
+    }
+
+    private static List<Kelas> muatSemuaKelas() throws SQLException {
+        List<Kelas> list = new ArrayList<>();
+        String sql = "SELECT kelas, angkatan, nominal_spp FROM kelas ORDER BY kelas, angkatan";
+
+        try (PreparedStatement stmt = KendaliQuery.siapkan(Koneksi.getConnection(), sql, KendaliQuery.Jenis.DASHBOARD);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                list.add(new Kelas(rs.getString("kelas"), rs.getString("angkatan"), rs.getDouble("nominal_spp")));
+            }
+        }
+        return list;
+    }
+
+    private static String kunci(String kelas, String angkatan) {
+        return kelas + '\u0000' + angkatan;
+    }
+}
@@ -0,0 +1,189 @@
+package aplikasi.pembayaran.spp.controller;
+
+import aplikasi.pembayaran.spp.model.Koneksi;
+import aplikasi.pembayaran.spp.model.PerbandinganPeriode;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * RekapBulananController - Handle tabel rekap_bulanan (pemasukan per bulan x kelas x metode)
+ * dan laporan perbandingan periode / year-over-year di atasnya.
+ *
+ * Rekap bulan yang sudah lewat dihitung sekali lalu dipakai terus; bulan yang
+ * sudah dihitung dicatat di rekap_bulanan_status (bulan tanpa transaksi juga
+ * tercatat, jadi tidak dihitung ulang setiap dibaca). Bulan berjalan tidak
+ * pernah disimpan, selalu dihitung langsung di memori saat dibaca.
+ *
+ * Kelas di rekap adalah kelas siswa saat rekap dihitung (pembayaran tidak
+ * menyimpan kelas). Karena itu perubahan data lama (pembayaran mundur, hapus
+ * siswa) dan pindah kelas siswa menghapus rekap bulan terkait supaya dihitung ulang.
+ */
+public class RekapBulananController {
+
+    public static final int MAKS_BULAN = 36;
+
+    // Pemasukan per kelas x metode untuk satu range tanggal_bayar (pakai index)
+    private static final String AGREGAT = "COALESCE(s.kelas, '-'), COALESCE(p.metode_pembayaran, '-'), " +
+            "COUNT(*), SUM(p.jumlah_bayar) " +
+            "FROM pembayaran p LEFT JOIN siswa s ON s.nis = p.nis_siswa WHERE ";
+    private static final String AGREGAT_GROUP = " GROUP BY COALESCE(s.kelas, '-'), COALESCE(p.metode_pembayaran, '-')";
+
+    /**
+     * Perbandingan jumlahBulan bulan sampai bulan akhir (plus 12 bulan sebelumnya
+     * untuk pembanding tahun lalu): bulan yang sudah lewat dari rekap_bulanan
+     * dengan satu query, bulan berjalan dihitung langsung.
+     */
+    public PerbandinganPeriode getPerbandingan(YearMonth akhir, int jumlahBulan) throws SQLException {
+        jumlahBulan = Math.max(1, Math.min(MAKS_BULAN, jumlahBulan));
+        YearMonth mulai = akhir.minusMonths(jumlahBulan - 1);
+        YearMonth mulaiData = PerbandinganPeriode.mulaiData(mulai);
+        YearMonth bulanIni = YearMonth.now();
+        YearMonth akhirTersimpan = akhir.isBefore(bulanIni) ? akhir : bulanIni.minusMonths(1);
+
+        List<Object[]> baris = new ArrayList<>();
+        Set<String> kelas = new TreeSet<>();
+        try (Connection conn = Koneksi.openConnection()) {
+            if (!akhirTersimpan.isBefore(mulaiData)) {
+                pastikanRekap(conn, mulaiData, akhirTersimpan);
+
+                String sql = "SELECT periode, kelas, metode_pembayaran, jumlah_transaksi, total_pemasukan " +
+                             "FROM rekap_bulanan WHERE periode BETWEEN ? AND ?";
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setString(1, mulaiData.toString());
+                    stmt.setString(2, akhirTersimpan.toString());
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            baris.add(new Object[]{
+                                YearMonth.parse(rs.getString("periode")),
+                                rs.getString("kelas"),
+                                rs.getString("metode_pembayaran"),
+                                rs.getInt("jumlah_transaksi"),
+                                rs.getDouble("total_pemasukan")
+                            });
+                            kelas.add(rs.getString("kelas"));
+                        }
+                    }
+                }
+            }
+
+            if (!akhir.isBefore(bulanIni) && !bulanIni.isBefore(mulaiData)) {
+                // Bulan berjalan masih terus bertambah, tidak disimpan ke rekap_bulanan
+                PeriodeFilter periode = PeriodeFilter.bulan(bulanIni);
+                try (PreparedStatement stmt = conn.prepareStatement("SELECT " + AGREGAT + periode.predikat("p") + AGREGAT_GROUP)) {
+                    periode.bind(stmt, 1);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            baris.add(new Object[]{bulanIni, rs.getString(1), rs.getString(2), rs.getInt(3), rs.getDouble(4)});
+                            kelas.add(rs.getString(1));
+                        }
+                    }
+                }
+            }
+        }
+
+        PerbandinganPeriode hasil = new PerbandinganPeriode(mulai, jumlahBulan, new ArrayList<>(kelas));
+        for (Object[] row : baris) {
+            hasil.isi((YearMonth) row[0], (String) row[1], (String) row[2], (Integer) row[3], (Double) row[4]);
+        }
+        return hasil;
+    }
+
+    /**
+     * Hitung rekap bulan yang sudah lewat di rentang ini yang belum pernah dihitung
+     * (bulan berjalan dilewati)
+     */
+    public void pastikanRekap(Connection conn, YearMonth mulai, YearMonth akhir) throws SQLException {
+        Set<String> sudahAda = new HashSet<>();
+        String sql = "SELECT periode FROM rekap_bulanan_status WHERE periode BETWEEN ? AND ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, mulai.toString());
+            stmt.setString(2, akhir.toString());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    sudahAda.add(rs.getString("periode"));
+                }
+            }
+        }
+
+        YearMonth bulanIni = YearMonth.now();
+        for (YearMonth bulan = mulai; !bulan.isAfter(akhir) && bulan.isBefore(bulanIni); bulan = bulan.plusMonths(1)) {
+            if (!sudahAda.contains(bulan.toString())) {
+                hitungUlang(conn, bulan);
+            }
+        }
+    }
+
+    /**
+     * Hitung ulang rekap satu bulan yang sudah lewat dari tabel pembayaran lalu tandai sudah dihitung
+     */
+    public void hitungUlang(Connection conn, YearMonth bulan) throws SQLException {
+        PeriodeFilter periode = PeriodeFilter.bulan(bulan);
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (PreparedStatement tandai = conn.prepareStatement(
+                 "INSERT INTO rekap_bulanan_status (periode) VALUES (?) ON DUPLICATE KEY UPDATE dihitung = CURRENT_TIMESTAMP");
+             PreparedStatement hapus = conn.prepareStatement("DELETE FROM rekap_bulanan WHERE periode = ?");
+             PreparedStatement isi = conn.prepareStatement(
+                 "INSERT INTO rekap_bulanan (periode, kelas, metode_pembayaran, jumlah_transaksi, total_pemasukan) " +
+                 "SELECT ?, " + AGREGAT + periode.predikat("p") + AGREGAT_GROUP)) {
+            // Tanda ditulis duluan: invalidate() dari komputer lain menunggu transaksi ini
+            // selesai lalu menghapusnya, jadi rekap yang basi tidak tertinggal bertanda
+            tandai.setString(1, bulan.toString());
+            tandai.executeUpdate();
+
+            hapus.setString(1, bulan.toString());
+            hapus.executeUpdate();
+
+            isi.setString(1, bulan.toString());
+            periode.bind(isi, 2);
+            isi.executeUpdate();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Buang rekap satu bulan (dipanggil saat data bulan lama berubah)
+     */
+    public static void invalidate(YearMonth bulan) {
+        hapusRekap("DELETE FROM rekap_bulanan_status WHERE periode = ?", bulan.toString());
+    }
+
+    /**
+     * Buang rekap semua bulan yang memuat pembayaran siswa ini (siswa pindah kelas)
+     */
+    public static void invalidateSiswa(String nis) {
+        hapusRekap("DELETE FROM rekap_bulanan_status WHERE periode IN (" +
+                   "SELECT DISTINCT DATE_FORMAT(tanggal_bayar, '%Y-%m') FROM pembayaran WHERE nis_siswa = ?)", nis);
+    }
+
+    /**
+     * Buang semua rekap, misal setelah siswa dihapus (pembayaran ikut terhapus)
+     */
+    public static void invalidateSemua() {
+        hapusRekap("DELETE FROM rekap_bulanan_status");
+    }
+
+    private static void hapusRekap(String sql, Object... params) {
+        try (Connection conn = Koneksi.openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            PeriodeFilter.bindParams(stmt, params);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("❌ Error invalidate rekap bulanan: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package aplikasi.pembayaran.spp.controller;
+
+import aplikasi.pembayaran.spp.model.User;
+
+import java.util.Locale;
+
+/**
+ * Sesi user yang sedang login.
+ *
+ * Dibuat sekali oleh {@link UserController#login(String, String)}: role user
+ * dinormalisasi dan hak aksesnya dihitung jadi satu bitmask. Pengecekan akses
+ * di controller cukup satu operasi AND pada bitmask itu, tanpa query role ke
+ * database dan tanpa perbandingan string role yang tersebar.
+ */
+public final class SesiLogin {
+
+    /**
+     * Hak akses, posisi bit = ordinal (maksimal 64)
+     */
+    public enum Izin {
+        /** Membuat akun user baru */
+        TAMBAH_USER,
+        /** Mengubah profil user lain */
+        UBAH_PROFIL_USER_LAIN,
+        /** Mengaktifkan / menonaktifkan user */
+        AKTIVASI_USER,
+        /** Menghapus user secara permanen */
+        HAPUS_USER,
+        /** Input pembayaran baru */
+        INPUT_PEMBAYARAN,
+        /** Melihat data & statistik pembayaran */
+        LIHAT_PEMBAYARAN,
+        /** Mengubah status pembayaran */
+        UBAH_PEMBAYARAN,
+        /** Melihat tagihan & tunggakan */
+        LIHAT_TAGIHAN,
+        /** Generate tagihan bulanan */
+        GENERATE_TAGIHAN;
+
+        final long bit = 1L << ordinal();
+
+        public long getBit() {
+            return bit;
+        }
+    }
+
+    private static volatile SesiLogin aktif;
+
+    private final String username;
+    private final String namaLengkap;
+    private final String role;
+    private final long izin;
+
+    private SesiLogin(User user) {
+        this.username = user.getUsername();
+        this.namaLengkap = user.getNamaLengkap();
+        this.role = user.getRole();
+        this.izin = izinRole(user.getRole());
+    }
+
+    /**
+     * Mulai sesi baru setelah login berhasil (menggantikan sesi sebelumnya)
+     */
+    static SesiLogin mulai(User user) {
+        SesiLogin sesi = new SesiLogin(user);
+        aktif = sesi;
+        return sesi;
+    }
+
+    /**
+     * Akhiri sesi (logout / kembali ke halaman login)
+     */
+    public static void akhiri() {
+        aktif = null;
+    }
+
+    /**
+     * @return sesi yang sedang aktif atau null kalau belum ada yang login
+     */
+    public static SesiLogin getAktif() {
+        return aktif;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getNamaLengkap() {
+        return namaLengkap;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public boolean punya(Izin izin) {
+        return (this.izin & izin.bit) != 0;
+    }
+
+    /**
+     * Cek izin untuk aksi controller. Kalau ada sesi aktif, bitmask sesi yang
+     * dipakai; role dari parameter hanya dipakai kalau belum ada sesi
+     * (misalnya dari kelas test).
+     */
+    static boolean boleh(String currentUserRole, Izin izin) {
+        SesiLogin sesi = aktif;
+        long bitmask = sesi != null ? sesi.izin : izinRole(currentUserRole);
+        return (bitmask & izin.bit) != 0;
+    }
+
+    /**
+     * Bitmask hak akses per role (tidak case sensitive)
+     */
+    public static long izinRole(String role) {
+        if (role == null) {
+            return 0;
+        }
+        // Bendahara & TU yang mengelola pembayaran dan tagihan
+        long kelolaPembayaran = Izin.INPUT_PEMBAYARAN.bit | Izin.LIHAT_PEMBAYARAN.bit | Izin.UBAH_PEMBAYARAN.bit
+                | Izin.LIHAT_TAGIHAN.bit | Izin.GENERATE_TAGIHAN.bit;
+        switch (role.trim().toLowerCase(Locale.ROOT)) {
+            case "admin":
+                return Izin.TAMBAH_USER.bit | Izin.UBAH_PROFIL_USER_LAIN.bit
+                        | Izin.AKTIVASI_USER.bit | Izin.HAPUS_USER.bit
+                        | Izin.INPUT_PEMBAYARAN.bit | Izin.LIHAT_PEMBAYARAN.bit | Izin.UBAH_PEMBAYARAN.bit;
+            case "tu":
+                return Izin.TAMBAH_USER.bit | Izin.UBAH_PROFIL_USER_LAIN.bit | kelolaPembayaran;
+            case "bendahara":
+                return Izin.AKTIVASI_USER.bit | kelolaPembayaran;
+            case "kepsek":
+                return Izin.AKTIVASI_USER.bit | Izin.LIHAT_PEMBAYARAN.bit | Izin.LIHAT_TAGIHAN.bit;
+            case "siswa":
+                return Izin.LIHAT_PEMBAYARAN.bit | Izin.LIHAT_TAGIHAN.bit;
+            default:
+                return 0;
+        }
+    }
+}
@@ -6,66 +6,220 @@ import aplikasi.pembayaran.spp.model.Koneksi;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
 
+/**
+ * Controller data siswa.
+ *
+ * Semua pembacaan siswa dilayani dari satu cache bersama (read-through): daftar
+ * siswa lengkap dengan status akun login dimuat dengan satu query lalu dipakai
+ * semua form/dashboard. Cache dianggap basi kalau versi SISWA/KELAS di DataVersi
+ * berubah (tambah/update/hapus lewat controller, membuangnya juga secara eksplisit)
+ * atau sudah lewat TTL (-Dspp.siswa.ttl=<detik>, default 60). Perubahan dari
+ * komputer lain datang lewat LogPerubahan, yang hanya mengganti baris siswa
+ * yang berubah; TTL tetap jadi pengaman kalau catatan change_log terlewat.
+ */
 public class SiswaController {
     private Connection conn;
 
+    private static final long CACHE_TTL_MILLIS = Long.getLong("spp.siswa.ttl", 60) * 1000L;
+
+    /**
+     * Isi cache: daftar siswa (read-only, jangan diubah) dan index per NIS
+     */
+    private static final class CacheSiswa {
+        final long versi;
+        final long diambil;
+        final List<Siswa> semua;
+        final Map<String, Siswa> perNis = new HashMap<>();
+
+        CacheSiswa(long versi, List<Siswa> semua) {
+            this(versi, System.currentTimeMillis(), semua);
+        }
+
+        CacheSiswa(long versi, long diambil, List<Siswa> semua) {
+            this.versi = versi;
+            this.diambil = diambil;
+            this.semua = Collections.unmodifiableList(semua);
+            for (Siswa s : semua) {
+                perNis.put(s.getNis(), s);
+            }
+        }
+
+        boolean masihBerlaku(long versiSekarang) {
+            return versi == versiSekarang && System.currentTimeMillis() - diambil < CACHE_TTL_MILLIS;
+        }
+    }
+
+    private static volatile CacheSiswa cache;
+
     public SiswaController() {
         conn = Koneksi.getConnection();
     }
 
-    // ✅ Ambil semua siswa
-    public List<Siswa> getAllSiswa() {
+    /**
+     * Buang cache siswa, pembacaan berikutnya query ulang
+     * (dipanggil setelah tambah/update/hapus siswa dan perubahan akun login siswa)
+     */
+    public static synchronized void invalidateCache() {
+        cache = null;
+    }
+
+    /**
+     * Ganti baris siswa tertentu di cache dengan data terbaru dari database
+     * (siswa yang sudah dihapus dibuang dari cache). Dipakai LogPerubahan untuk
+     * perubahan dari komputer lain; kalau cache belum dimuat tidak ada yang dilakukan.
+     */
+    static synchronized void perbaruiCache(Collection<String> daftarNis) {
+        CacheSiswa c = cache;
+        if (c == null || daftarNis.isEmpty()) {
+            return;
+        }
+        // Versi dibaca sebelum query: write lain selama query bikin cache ini basi lagi
+        long versi = DataVersi.getVersi(DataVersi.Tabel.SISWA, DataVersi.Tabel.KELAS);
+        try {
+            Map<String, Siswa> terbaru = muatSiswa(daftarNis);
+            List<Siswa> list = new ArrayList<>(c.semua.size() + terbaru.size());
+            for (Siswa s : c.semua) {
+                if (!daftarNis.contains(s.getNis())) {
+                    list.add(s);
+                } else {
+                    Siswa baru = terbaru.remove(s.getNis());
+                    if (baru != null) {
+                        list.add(baru);
+                    }
+                }
+            }
+            list.addAll(terbaru.values()); // siswa baru
+            cache = new CacheSiswa(versi, c.diambil, list);
+            System.out.println("👥 Cache siswa diperbarui: " + daftarNis.size() + " NIS");
+        } catch (SQLException e) {
+            System.err.println("⚠️ Gagal memperbarui cache siswa: " + e.getMessage());
+            cache = null;
+        }
+    }
+
+    /**
+     * Daftar siswa bersama dari cache (dimuat ulang kalau basi). Objek Siswa di
+     * dalamnya dipakai bersama, jadi hanya untuk dibaca (misal SiswaIndex).
+     */
+    static List<Siswa> getSemuaSiswa() throws SQLException {
+        return getCache().semua;
+    }
+
+    private static CacheSiswa getCache() throws SQLException {
+        long versi = DataVersi.getVersi(DataVersi.Tabel.SISWA, DataVersi.Tabel.KELAS);
+        CacheSiswa c = cache;
+        if (c != null && c.masihBerlaku(versi)) {
+            return c;
+        }
+        synchronized (SiswaController.class) {
+            c = cache;
+            if (c == null || !c.masihBerlaku(versi)) {
+                c = new CacheSiswa(versi, muatSemuaSiswa());
+                cache = c;
+                System.out.println("👥 Cache siswa dimuat: " + c.semua.size() + " siswa");
+            }
+            return c;
+        }
+    }
+
+    // Satu query: semua siswa + status akun login (LEFT JOIN users)
+    private static List<Siswa> muatSemuaSiswa() throws SQLException {
         List<Siswa> list = new ArrayList<>();
-        String sql = "SELECT * FROM siswa";
+        String sql = "SELECT s.*, (u.username IS NOT NULL) AS punya_akun " +
+                     "FROM siswa s LEFT JOIN users u ON u.username = s.nis";
 
-        try (PreparedStatement stmt = conn.prepareStatement(sql);
+        try (PreparedStatement stmt = KendaliQuery.siapkan(Koneksi.getConnection(), sql, KendaliQuery.Jenis.DASHBOARD);
              ResultSet rs = stmt.executeQuery()) {
 
             while (rs.next()) {
-                Siswa siswa = new Siswa(
-                        rs.getString("nis"),
-                        rs.getString("nama_lengkap"),
-                        rs.getString("kelas"),
-                        rs.getString("tahun_ajaran"),
-                        rs.getString("no_telepon"),
-                        rs.getString("alamat"),
-                        rs.getDouble("nominal_spp"),
-                        0, // total_potongan is always 0 since feature is removed
-                        rs.getString("status_siswa"),
-                        rs.getString("nama_ortu")
-                );
-                list.add(siswa);
+                list.add(bacaSiswa(rs));
             }
+        }
+        return list;
+    }
+
+    // Siswa tertentu saja (by NIS), query yang sama dengan muatSemuaSiswa
+    private static Map<String, Siswa> muatSiswa(Collection<String> daftarNis) throws SQLException {
+        Map<String, Siswa> hasil = new LinkedHashMap<>();
+        StringBuilder sql = new StringBuilder("SELECT s.*, (u.username IS NOT NULL) AS punya_akun " +
+                     "FROM siswa s LEFT JOIN users u ON u.username = s.nis WHERE s.nis IN (");
+        for (int i = 0; i < daftarNis.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
 
+        try (PreparedStatement stmt = KendaliQuery.siapkan(Koneksi.getConnection(), sql.toString(), KendaliQuery.Jenis.DASHBOARD)) {
+            int i = 1;
+            for (String nis : daftarNis) {
+                stmt.setString(i++, nis);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Siswa siswa = bacaSiswa(rs);
+                    hasil.put(siswa.getNis(), siswa);
+                }
+            }
+        }
+        return hasil;
+    }
+
+    private static Siswa bacaSiswa(ResultSet rs) throws SQLException {
+        Siswa siswa = new Siswa(
+                rs.getString("nis"),
+                rs.getString("nama_lengkap"),
+                rs.getString("kelas"),
+                rs.getString("tahun_ajaran"),
+                rs.getString("no_telepon"),
+                rs.getString("alamat"),
+                rs.getDouble("nominal_spp"),
+                0, // total_potongan is always 0 since feature is removed
+                rs.getString("status_siswa"),
+                rs.getString("nama_ortu")
+        );
+        siswa.setPunyaAkun(rs.getBoolean("punya_akun"));
+        return siswa;
+    }
+
+    // Salinan supaya form yang mengubah objek siswa tidak ikut mengubah isi cache
+    private static List<Siswa> salin(List<Siswa> sumber) {
+        List<Siswa> list = new ArrayList<>(sumber.size());
+        for (Siswa s : sumber) {
+            list.add(new Siswa(s));
+        }
+        return list;
+    }
+
+    // ✅ Ambil semua siswa
+    public List<Siswa> getAllSiswa() {
+        try {
+            return salin(getSemuaSiswa());
         } catch (Exception e) {
             e.printStackTrace();
         }
-        return list;
+        return new ArrayList<>();
+    }
+
+    // ✅ Ambil semua siswa + status akun login (isPunyaAkun)
+    // Error dilempar (bukan list kosong) supaya pemanggil bisa membedakan data kosong dan gagal
+    public List<Siswa> getAllSiswaDenganAkun() throws SQLException {
+        return salin(getSemuaSiswa());
     }
 
     // ✅ Cari siswa by NIS
     public Siswa getSiswaByNis(String nis) {
-        String sql = "SELECT * FROM siswa WHERE nis = ?";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, nis);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return new Siswa(
-                        rs.getString("nis"),
-                        rs.getString("nama_lengkap"),
-                        rs.getString("kelas"),
-                        rs.getString("tahun_ajaran"),
-                        rs.getString("no_telepon"),
-                        rs.getString("alamat"),
-                        rs.getDouble("nominal_spp"),
-                        0, // total_potongan is always 0 since feature is removed
-                        rs.getString("status_siswa"),
-                        rs.getString("nama_ortu")
-                );
-            }
+        try {
+            Siswa siswa = getCache().perNis.get(nis);
+            return siswa != null ? new Siswa(siswa) : null;
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -86,7 +240,16 @@ public class SiswaController {
             stmt.setDouble(8, 0); // total_potongan is always 0 since feature is removed
             stmt.setString(9, s.getStatusSiswa());
             stmt.setString(10, s.getNamaOrtu());
-            return stmt.executeUpdate() > 0;
+            boolean berhasil = stmt.executeUpdate() > 0;
+            if (berhasil) {
+                // ✅ Jumlah siswa aktif & target per kelas berubah
+                LaporanCache.getInstance().invalidateTerbuka();
+                DashboardStatsService.getInstance().invalidate();
+                DataVersi.naik(DataVersi.Tabel.SISWA);
+                invalidateCache();
+                LogPerubahan.catat(conn, DataVersi.Tabel.SISWA, s.getNis());
+            }
+            return berhasil;
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -95,6 +258,7 @@ public class SiswaController {
 
     // ✅ Update siswa
     public boolean updateSiswa(Siswa s) {
+        String kelasLama = getKelasSiswa(s.getNis());
         String sql = "UPDATE siswa SET nama_lengkap=?, kelas=?, tahun_ajaran=?, no_telepon=?, alamat=?, nominal_spp=?, total_potongan=0, status_siswa=?, nama_ortu=? WHERE nis=?"; // total_potongan is set to 0 since feature is removed
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, s.getNamaLengkap());
@@ -106,43 +270,75 @@ public class SiswaController {
             stmt.setString(7, s.getStatusSiswa());
             stmt.setString(8, s.getNamaOrtu());
             stmt.setString(9, s.getNis());
-            return stmt.executeUpdate() > 0;
+            boolean berhasil = stmt.executeUpdate() > 0;
+            if (berhasil) {
+                // ✅ Kelas, status atau nominal SPP bisa berubah, rekap kolektibilitas dibuang
+                LaporanCache.getInstance().invalidateTerbuka();
+                if (kelasLama != null && !kelasLama.equals(s.getKelas())) {
+                    // Rekap bulanan dikelompokkan per kelas siswa saat ini
+                    RekapBulananController.invalidateSiswa(s.getNis());
+                }
+                DashboardStatsService.getInstance().invalidate();
+                DataVersi.naik(DataVersi.Tabel.SISWA);
+                invalidateCache();
+                LogPerubahan.catat(conn, DataVersi.Tabel.SISWA, s.getNis());
+            }
+            return berhasil;
         } catch (Exception e) {
             e.printStackTrace();
         }
         return false;
     }
 
+    private String getKelasSiswa(String nis) {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT kelas FROM siswa WHERE nis = ?")) {
+            stmt.setString(1, nis);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Error ambil kelas siswa: " + e.getMessage());
+            return null;
+        }
+    }
+
     // ✅ Hapus siswa
     public boolean hapusSiswa(String nis) {
         String sql = "DELETE FROM siswa WHERE nis=?";
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, nis);
-            return stmt.executeUpdate() > 0;
+            boolean berhasil = stmt.executeUpdate() > 0;
+            if (berhasil) {
+                // ✅ Pembayaran siswa ikut terhapus (ON DELETE CASCADE), cache laporan harus dibuang
+                LaporanCache.getInstance().clear();
+                RekapBulananController.invalidateSemua();
+                DashboardStatsService.getInstance().invalidate();
+                DataVersi.naik(DataVersi.Tabel.SISWA);
+                invalidateCache();
+                LogPerubahan.catat(conn, DataVersi.Tabel.SISWA, nis);
+                LogPerubahan.catat(conn, DataVersi.Tabel.PEMBAYARAN, LogPerubahan.SEMUA);
+            }
+            return berhasil;
         } catch (Exception e) {
             e.printStackTrace();
         }
         return false;
     }
 
-    // Get unique kelas from database
+    // Get unique kelas (referensi kelas + kelas yang masih dipakai siswa, semuanya dari memori)
     public List<String> getUniqueKelas() {
-        List<String> uniqueKelas = new ArrayList<>();
-        String sql = "SELECT DISTINCT kelas FROM siswa ORDER BY kelas";
-
-        try (PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                String kelas = rs.getString("kelas");
+        TreeSet<String> uniqueKelas = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        try {
+            uniqueKelas.addAll(ReferensiKelas.getInstance().getNamaKelas());
+            for (Siswa s : getSemuaSiswa()) {
+                String kelas = s.getKelas();
                 if (kelas != null && !kelas.trim().isEmpty()) {
                     uniqueKelas.add(kelas.trim());
                 }
             }
-
         } catch (Exception e) {
             e.printStackTrace();
         }
-        return uniqueKelas;
+        return new ArrayList<>(uniqueKelas);
     }
 }
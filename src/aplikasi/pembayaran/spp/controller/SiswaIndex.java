@@ -0,0 +1,167 @@
+package aplikasi.pembayaran.spp.controller;
+
+import aplikasi.pembayaran.spp.model.Siswa;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Index pencarian siswa di memori, dipakai bersama semua tabel siswa
+ * (FormDataSiswa, DashboardAdmin, DashboardKepsek).
+ *
+ * Data siswa (termasuk status akun login) diambil dari cache SiswaController lalu diindex:
+ * - trigram dari NIS, nama dan kelas (huruf kecil) -> BitSet posisi siswa
+ * - bitmap per kelas dan per status siswa untuk filter combo box
+ *
+ * Pencarian "contains" cukup meng-AND bitmap trigram kata kunci lalu
+ * mencocokkan ulang kandidatnya, jadi mengetik di kotak cari tidak
+ * menyentuh database. Index dibangun ulang setiap cache siswa dimuat ulang
+ * (versi data siswa/kelas berubah, TTL habis, atau {@link #invalidate()}).
+ */
+public final class SiswaIndex {
+
+    private static final SiswaIndex INSTANCE = new SiswaIndex();
+
+    private static final int N = 3;
+    private static final char PEMISAH = '\u0000'; // supaya trigram tidak melintasi batas kolom
+
+    /**
+     * Satu versi index, read-only setelah dibuat
+     */
+    private static final class Snapshot {
+        final List<Siswa> sumber;
+        final Siswa[] siswa;
+        final String[] teks;
+        final Map<String, BitSet> gram = new HashMap<>();
+        final Map<String, BitSet> perKelas = new HashMap<>();
+        final Map<String, BitSet> perStatus = new HashMap<>();
+
+        Snapshot(List<Siswa> data) {
+            this.sumber = data;
+            this.siswa = data.toArray(new Siswa[0]);
+            this.teks = new String[siswa.length];
+            for (int i = 0; i < siswa.length; i++) {
+                Siswa s = siswa[i];
+                teks[i] = kecil(s.getNis()) + PEMISAH + kecil(s.getNamaLengkap()) + PEMISAH + kecil(s.getKelas());
+                for (int j = 0; j + N <= teks[i].length(); j++) {
+                    String g = teks[i].substring(j, j + N);
+                    if (g.indexOf(PEMISAH) < 0) {
+                        gram.computeIfAbsent(g, k -> new BitSet(siswa.length)).set(i);
+                    }
+                }
+                perKelas.computeIfAbsent(s.getKelas(), k -> new BitSet(siswa.length)).set(i);
+                perStatus.computeIfAbsent(s.getStatusSiswa(), k -> new BitSet(siswa.length)).set(i);
+            }
+        }
+    }
+
+    private volatile Snapshot snapshot;
+    // true untuk index lepas dari dari(List): datanya tetap, tidak ikut cache SiswaController
+    private final boolean tetap;
+
+    private SiswaIndex() {
+        this.tetap = false;
+    }
+
+    private SiswaIndex(List<Siswa> data) {
+        this.tetap = true;
+        this.snapshot = new Snapshot(data);
+    }
+
+    public static SiswaIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Index lepas untuk daftar siswa tertentu (tidak dimuat dari database,
+     * tidak ikut berubah saat cache siswa dimuat ulang)
+     */
+    public static SiswaIndex dari(List<Siswa> data) {
+        return new SiswaIndex(new ArrayList<>(data));
+    }
+
+    /**
+     * Cari siswa berdasarkan kata kunci (NIS / nama / kelas, tidak case sensitive)
+     */
+    public List<Siswa> cari(String kataKunci) throws SQLException {
+        return cari(kataKunci, null, null);
+    }
+
+    /**
+     * @param kataKunci potongan NIS / nama / kelas, kosong = semua
+     * @param kelas     filter kelas, null atau "Semua" = semua kelas
+     * @param status    filter status siswa, null atau "Semua" = semua status
+     * @return siswa yang cocok, urutan sama dengan data asal
+     * @throws SQLException kalau index perlu dibangun dan data siswa gagal dimuat
+     */
+    public List<Siswa> cari(String kataKunci, String kelas, String status) throws SQLException {
+        Snapshot s = getSnapshot();
+        BitSet hasil = new BitSet(s.siswa.length);
+        hasil.set(0, s.siswa.length);
+
+        if (!semua(kelas)) {
+            hasil.and(s.perKelas.getOrDefault(kelas, new BitSet()));
+        }
+        if (!semua(status)) {
+            hasil.and(s.perStatus.getOrDefault(status, new BitSet()));
+        }
+
+        String term = kataKunci == null ? "" : kecil(kataKunci.trim());
+        if (term.length() >= N) {
+            for (int j = 0; j + N <= term.length() && !hasil.isEmpty(); j++) {
+                hasil.and(s.gram.getOrDefault(term.substring(j, j + N), new BitSet()));
+            }
+        }
+
+        List<Siswa> list = new ArrayList<>(hasil.cardinality());
+        for (int i = hasil.nextSetBit(0); i >= 0; i = hasil.nextSetBit(i + 1)) {
+            // Trigram hanya menyaring kandidat, cocokkan ulang (dan kata kunci < 3 huruf)
+            if (term.isEmpty() || s.teks[i].contains(term)) {
+                list.add(s.siswa[i]);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Paksa index dibangun ulang pada pencarian berikutnya
+     * (misal setelah akun login siswa dibuat/dihapus)
+     */
+    public void invalidate() {
+        SiswaController.invalidateCache();
+    }
+
+    private Snapshot getSnapshot() throws SQLException {
+        if (tetap) {
+            return snapshot;
+        }
+        // Cache siswa yang sama = index yang sama, cukup cek identitas list-nya
+        List<Siswa> data = SiswaController.getSemuaSiswa();
+        Snapshot s = snapshot;
+        if (s != null && s.sumber == data) {
+            return s;
+        }
+        synchronized (this) {
+            s = snapshot;
+            if (s == null || s.sumber != data) {
+                s = new Snapshot(data);
+                snapshot = s;
+                System.out.println("🔎 Index siswa dibangun: " + s.siswa.length + " siswa, " + s.gram.size() + " trigram");
+            }
+            return s;
+        }
+    }
+
+    private static boolean semua(String filter) {
+        return filter == null || "Semua".equals(filter);
+    }
+
+    private static String kecil(String s) {
+        return s == null ? "" : s.toLowerCase(Locale.ROOT);
+    }
+}
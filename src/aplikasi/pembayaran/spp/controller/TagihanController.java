@@ -95,7 +95,7 @@ public class TagihanController {
         List<Tagihan> tunggakanList = new ArrayList<>();
         
         // Permission check
-        if (!hasReadPermission(currentUserRole)) {
+        if (!SesiLogin.boleh(currentUserRole, SesiLogin.Izin.LIHAT_TAGIHAN)) {
             JOptionPane.showMessageDialog(null, "Anda tidak memiliki akses untuk melihat data tunggakan!", "Akses Ditolak", JOptionPane.WARNING_MESSAGE);
             return tunggakanList;
         }
@@ -149,7 +149,7 @@ public class TagihanController {
      * Generate tagihan bulanan untuk semua siswa aktif
      */
     public boolean generateTagihanBulanan(String bulanTahun, String currentUserRole) {
-        if (!hasGeneratePermission(currentUserRole)) {
+        if (!SesiLogin.boleh(currentUserRole, SesiLogin.Izin.GENERATE_TAGIHAN)) {
             JOptionPane.showMessageDialog(null, "Anda tidak memiliki akses untuk generate tagihan!", "Akses Ditolak", JOptionPane.WARNING_MESSAGE);
             return false;
         }
@@ -196,17 +196,17 @@ public class TagihanController {
         try {
             // Total siswa aktif
             String sql1 = "SELECT COUNT(*) FROM siswa WHERE status_siswa = 'Aktif'";
-            PreparedStatement pstmt1 = conn.prepareStatement(sql1);
-            ResultSet rs1 = pstmt1.executeQuery();
-            rs1.next();
-            ringkasan[0] = String.valueOf(rs1.getInt(1));
+            int siswaAktif = CacheQuery.getInstance().ambil(conn, KendaliQuery.Jenis.DASHBOARD, sql1,
+                    rs -> rs.next() ? rs.getInt(1) : 0);
+            ringkasan[0] = String.valueOf(siswaAktif);
             
             // Siswa sudah bayar bulan ini
+            PeriodeFilter bulanIni = PeriodeFilter.bulanIni();
             String sql2 = "SELECT COUNT(DISTINCT nis_siswa) FROM pembayaran " +
-                    "WHERE YEAR(tanggal_bayar) = YEAR(CURDATE()) " +
-                    "AND MONTH(tanggal_bayar) = MONTH(CURDATE()) " +
+                    "WHERE " + bulanIni.predikat() + " " +
                     "AND status_pembayaran = 'Lunas'";
             PreparedStatement pstmt2 = conn.prepareStatement(sql2);
+            bulanIni.bind(pstmt2, 1);
             ResultSet rs2 = pstmt2.executeQuery();
             rs2.next();
             ringkasan[1] = String.valueOf(rs2.getInt(1));
@@ -289,18 +289,4 @@ public class TagihanController {
         
         return topTunggakan;
     }
-    
-    /**
-     * Check read permission
-     */
-    private boolean hasReadPermission(String role) {
-        return role.equals("Kepsek") || role.equals("Bendahara") || role.equals("TU") || role.equals("Siswa");
-    }
-    
-    /**
-     * Check generate permission
-     */
-    private boolean hasGeneratePermission(String role) {
-        return role.equals("Bendahara") || role.equals("TU");
-    }
 }
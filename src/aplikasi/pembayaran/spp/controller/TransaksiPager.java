@@ -0,0 +1,220 @@
+package aplikasi.pembayaran.spp.controller;
+
+import aplikasi.pembayaran.spp.model.Koneksi;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keyset pagination untuk tabel pembayaran, urut terbaru dulu
+ * (tanggal_bayar DESC, id_transaksi DESC).
+ *
+ * Halaman berikutnya diambil dengan "WHERE (tanggal_bayar, id_transaksi) < cursor"
+ * lewat index idx_pembayaran_keyset, jadi biayanya sama untuk halaman pertama
+ * maupun halaman ke-10.000 (beda dengan LIMIT/OFFSET yang makin lambat).
+ * Alias tabel pembayaran di query selalu "p".
+ */
+public class TransaksiPager {
+
+    public static final int PAGE_SIZE = 200;
+
+    /**
+     * Posisi baris terakhir dari satu halaman
+     */
+    public static final class Cursor {
+        private final Timestamp tanggal;
+        private final String id;
+
+        public Cursor(Timestamp tanggal, String id) {
+            this.tanggal = tanggal;
+            this.id = id;
+        }
+
+        public Timestamp getTanggal() {
+            return tanggal;
+        }
+
+        public String getId() {
+            return id;
+        }
+    }
+
+    /**
+     * Satu halaman hasil. Setiap baris berisi kolom sesuai urutan SELECT.
+     */
+    public static final class Halaman {
+        private final List<Object[]> baris;
+        private final Cursor akhir;
+        private final boolean adaLagi;
+
+        Halaman(List<Object[]> baris, Cursor akhir, boolean adaLagi) {
+            this.baris = baris;
+            this.akhir = akhir;
+            this.adaLagi = adaLagi;
+        }
+
+        public List<Object[]> getBaris() {
+            return baris;
+        }
+
+        public Cursor getAkhir() {
+            return akhir;
+        }
+
+        public boolean isAdaLagi() {
+            return adaLagi;
+        }
+    }
+
+    private final String kolom;
+    private final String join;
+    private final String where;
+    private final Object[] params;
+    // Mode hasil pencarian: urut relevansi, satu halaman saja (null = keyset biasa)
+    private final String urutan;
+    private final Object[] paramsUrutan;
+
+    /**
+     * @param kolom  daftar kolom SELECT (pakai alias p untuk pembayaran)
+     * @param join   klausa JOIN tambahan, boleh kosong
+     * @param where  kondisi filter tanpa kata WHERE, boleh null
+     * @param params parameter filter (String/angka atau PeriodeFilter)
+     */
+    public TransaksiPager(String kolom, String join, String where, Object... params) {
+        this(kolom, join, where, params, null, new Object[0]);
+    }
+
+    private TransaksiPager(String kolom, String join, String where, Object[] params,
+                           String urutan, Object[] paramsUrutan) {
+        this.kolom = kolom;
+        this.join = join == null ? "" : join;
+        this.where = where;
+        this.params = params;
+        this.urutan = urutan;
+        this.paramsUrutan = paramsUrutan;
+    }
+
+    /**
+     * Versi pager ini untuk hasil pencarian: hanya satu halaman (limit teratas),
+     * diurutkan berdasarkan ekspresi skor (misal MATCH ... AGAINST) lalu transaksi
+     * terbaru. Cursor diabaikan dan tidak ada halaman berikutnya.
+     *
+     * @param urutan       ekspresi skor, makin besar makin relevan
+     * @param paramsUrutan parameter untuk ekspresi skor
+     */
+    public TransaksiPager urutRelevansi(String urutan, Object... paramsUrutan) {
+        return new TransaksiPager(kolom, join, where, params, urutan, paramsUrutan);
+    }
+
+    /**
+     * Ambil satu halaman setelah cursor (null = halaman pertama) dengan koneksi
+     * baru yang langsung ditutup lagi. Untuk banyak halaman berurutan pakai
+     * versi yang menerima Connection.
+     */
+    public Halaman ambil(Cursor setelah, int limit) throws SQLException {
+        try (Connection conn = Koneksi.openConnection()) {
+            return ambil(conn, setelah, limit, KendaliQuery.Jenis.INTERAKTIF);
+        }
+    }
+
+    /**
+     * Sama dengan ambil(Cursor, int) tapi memakai koneksi dari pemanggil,
+     * untuk pembacaan banyak halaman berurutan (misal cetak laporan)
+     */
+    public Halaman ambil(Connection conn, Cursor setelah, int limit) throws SQLException {
+        return ambil(conn, setelah, limit, KendaliQuery.Jenis.LAPORAN);
+    }
+
+    /**
+     * Ambil satu halaman dengan koneksi dari pemanggil dan batas waktu query sesuai jenis
+     * (misal INTERAKTIF untuk tabel yang di-scroll user)
+     */
+    public Halaman ambil(Connection conn, Cursor setelah, int limit, KendaliQuery.Jenis jenis) throws SQLException {
+        if (urutan != null && setelah != null) {
+            return new Halaman(Collections.<Object[]>emptyList(), setelah, false);
+        }
+        try (PreparedStatement stmt = KendaliQuery.siapkan(conn, getSql(setelah), jenis)) {
+            PeriodeFilter.bindParams(stmt, getParams(setelah, limit));
+
+            List<Object[]> baris = new ArrayList<>(limit);
+            Cursor akhir = setelah;
+            boolean adaLagi = false;
+            try (ResultSet rs = stmt.executeQuery()) {
+                int jumlahKolom = rs.getMetaData().getColumnCount() - 2; // tanpa k_tanggal, k_id
+                while (rs.next()) {
+                    if (baris.size() == limit) {
+                        adaLagi = true;
+                        break;
+                    }
+                    Object[] row = new Object[jumlahKolom];
+                    for (int i = 0; i < jumlahKolom; i++) {
+                        row[i] = rs.getObject(i + 1);
+                        // Connector/J 8+ mengembalikan DATETIME sebagai LocalDateTime
+                        if (row[i] instanceof java.time.LocalDateTime) {
+                            row[i] = Timestamp.valueOf((java.time.LocalDateTime) row[i]);
+                        }
+                    }
+                    baris.add(row);
+                    akhir = new Cursor(rs.getTimestamp("k_tanggal"), rs.getString("k_id"));
+                }
+            }
+            return new Halaman(Collections.unmodifiableList(baris), akhir, adaLagi);
+        }
+    }
+
+    /**
+     * SQL satu halaman setelah cursor (null = halaman pertama), juga dipakai
+     * QueryPlanTest untuk EXPLAIN query yang sama persis
+     */
+    public String getSql(Cursor setelah) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(kolom)
+                .append(", p.tanggal_bayar AS k_tanggal, p.id_transaksi AS k_id FROM pembayaran p ")
+                .append(join);
+
+        List<String> kondisi = new ArrayList<>();
+        if (where != null && !where.trim().isEmpty()) {
+            kondisi.add("(" + where + ")");
+        }
+        if (setelah != null && urutan == null) {
+            kondisi.add("(p.tanggal_bayar < ? OR (p.tanggal_bayar = ? AND p.id_transaksi < ?))");
+        }
+        if (!kondisi.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", kondisi));
+        }
+        if (urutan != null) {
+            // Hasil pencarian cukup yang paling relevan, tidak ada halaman berikutnya
+            sql.append(" ORDER BY ").append(urutan).append(" DESC, p.tanggal_bayar DESC, p.id_transaksi DESC LIMIT ?");
+        } else {
+            sql.append(" ORDER BY p.tanggal_bayar DESC, p.id_transaksi DESC LIMIT ?");
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Parameter untuk getSql(setelah) sesuai urutan placeholder,
+     * di-bind dengan PeriodeFilter.bindParams
+     */
+    public Object[] getParams(Cursor setelah, int limit) {
+        List<Object> semua = new ArrayList<>(Arrays.asList(params));
+        if (setelah != null && urutan == null) {
+            semua.add(setelah.tanggal);
+            semua.add(setelah.tanggal);
+            semua.add(setelah.id);
+        }
+        if (urutan != null) {
+            semua.addAll(Arrays.asList(paramsUrutan));
+            semua.add(limit);
+        } else {
+            // Ambil 1 baris lebih untuk tahu apakah masih ada halaman berikutnya
+            semua.add(limit + 1);
+        }
+        return semua.toArray();
+    }
+}
@@ -7,7 +7,10 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import javax.swing.JOptionPane;
 
 /**
@@ -53,6 +56,7 @@ public class UserController {
                 user.setActive(rs.getBoolean("is_active"));
                 
                 System.out.println("✅ Login berhasil: " + user.getNamaLengkap() + " (" + user.getRole() + ")");
+                SesiLogin.mulai(user); // role & hak akses dihitung sekali di sini
                 return user;
             } else {
                 System.out.println("❌ Login gagal: Username atau password salah");
@@ -72,7 +76,7 @@ public class UserController {
      */
     public boolean registerUser(User user, String currentUserRole) {
         // Validasi permission - hanya TU dan Admin yang bisa buat user baru
-        if (!currentUserRole.equals("TU") && !currentUserRole.equals("Admin")) {
+        if (!SesiLogin.boleh(currentUserRole, SesiLogin.Izin.TAMBAH_USER)) {
             JOptionPane.showMessageDialog(null, "Anda tidak memiliki akses untuk menambah user!", "Akses Ditolak", JOptionPane.WARNING_MESSAGE);
             return false;
         }
@@ -85,19 +89,17 @@ public class UserController {
         // Query SQL untuk insert user baru
         String sql = "INSERT INTO users (username, password, role, nama_lengkap, no_telepon, is_active) VALUES (?, ?, ?, ?, ?, ?)";
         
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, user.getUsername());
-            pstmt.setString(2, user.getPassword());
-            pstmt.setString(3, user.getRole());
-            pstmt.setString(4, user.getNamaLengkap());
-            pstmt.setString(5, user.getNoTelepon());
-            pstmt.setBoolean(6, user.isActive());
-            
-            // Execute insert
-            int rowsAffected = pstmt.executeUpdate();
+        try {
+            // Execute insert (lewat CacheQuery supaya cache query tabel users ikut dibuang)
+            int rowsAffected = CacheQuery.getInstance().perbarui(connection, sql,
+                    user.getUsername(), user.getPassword(), user.getRole(),
+                    user.getNamaLengkap(), user.getNoTelepon(), user.isActive());
             
             if (rowsAffected > 0) {
                 System.out.println("✅ User berhasil didaftarkan: " + user.getUsername());
+                catatPerubahanUser(user.getUsername());
+                SiswaIndex.getInstance().invalidate(); // status akun login siswa berubah
+                LogPerubahan.catat(connection, DataVersi.Tabel.SISWA, user.getUsername());
                 JOptionPane.showMessageDialog(null, "User berhasil didaftarkan!", "Sukses", JOptionPane.INFORMATION_MESSAGE);
                 return true;
             }
@@ -119,26 +121,24 @@ public class UserController {
      * Method untuk update profile user
      */
     public boolean updateProfile(User user, String currentUsername) {
-        // Validasi - user hanya bisa update profile sendiri, kecuali TU/Admin
-        if (!user.getUsername().equals(currentUsername) && 
-            !getCurrentUserRole(currentUsername).equals("TU") && 
-            !getCurrentUserRole(currentUsername).equals("Admin")) {
+        // Validasi - user hanya bisa update profile sendiri, kecuali TU/Admin (cek dari sesi login, tanpa query)
+        SesiLogin sesi = SesiLogin.getAktif();
+        boolean bolehUbahUserLain = sesi != null && sesi.getUsername().equals(currentUsername)
+                && sesi.punya(SesiLogin.Izin.UBAH_PROFIL_USER_LAIN);
+        if (!user.getUsername().equals(currentUsername) && !bolehUbahUserLain) {
             JOptionPane.showMessageDialog(null, "Anda hanya bisa update profile sendiri!", "Akses Ditolak", JOptionPane.WARNING_MESSAGE);
             return false;
         }
         
         String sql = "UPDATE users SET nama_lengkap = ?, no_telepon = ?, password = ? WHERE username = ?";
         
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, user.getNamaLengkap());
-            pstmt.setString(2, user.getNoTelepon());
-            pstmt.setString(3, user.getPassword());
-            pstmt.setString(4, user.getUsername());
-            
-            int rowsAffected = pstmt.executeUpdate();
+        try {
+            int rowsAffected = CacheQuery.getInstance().perbarui(connection, sql,
+                    user.getNamaLengkap(), user.getNoTelepon(), user.getPassword(), user.getUsername());
             
             if (rowsAffected > 0) {
                 System.out.println("✅ Profile berhasil diupdate: " + user.getUsername());
+                catatPerubahanUser(user.getUsername());
                 JOptionPane.showMessageDialog(null, "Profile berhasil diupdate!", "Sukses", JOptionPane.INFORMATION_MESSAGE);
                 return true;
             }
@@ -156,13 +156,8 @@ public class UserController {
         System.out.println("🔍 Attempting to activate user: " + username);
         System.out.println("🔍 Current user role: " + currentUserRole);
 
-        // Normalisasi role
-        String normalizedRole = currentUserRole.trim().toLowerCase();
-
         // Admin, Bendahara, dan Kepsek boleh aktifkan user
-        if (!normalizedRole.equals("admin") && 
-            !normalizedRole.equals("bendahara") && 
-            !normalizedRole.equals("kepsek")) {
+        if (!SesiLogin.boleh(currentUserRole, SesiLogin.Izin.AKTIVASI_USER)) {
             JOptionPane.showMessageDialog(null, 
                 "Hanya Admin, Bendahara, atau Kepsek yang bisa mengaktifkan user!", 
                 "Akses Ditolak", JOptionPane.WARNING_MESSAGE);
@@ -171,13 +166,12 @@ public class UserController {
 
         String sql = "UPDATE users SET is_active = TRUE WHERE username = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, username);
-
-            int rowsAffected = pstmt.executeUpdate();
+        try {
+            int rowsAffected = CacheQuery.getInstance().perbarui(connection, sql, username);
 
             if (rowsAffected > 0) {
                 System.out.println("✅ User berhasil diaktifkan kembali: " + username);
+                catatPerubahanUser(username);
                 JOptionPane.showMessageDialog(null, 
                     "User berhasil diaktifkan kembali!", 
                     "Sukses", JOptionPane.INFORMATION_MESSAGE);
@@ -201,13 +195,8 @@ public class UserController {
         System.out.println("🔍 Attempting to deactivate user: " + username);
         System.out.println("🔍 Current user role: " + currentUserRole);
 
-        // Normalisasi role (case insensitive & trim)
-        String normalizedRole = currentUserRole.trim().toLowerCase();
-
         // Admin, Bendahara, dan Kepsek boleh nonaktifkan user
-        if (!normalizedRole.equals("admin") && 
-            !normalizedRole.equals("bendahara") && 
-            !normalizedRole.equals("kepsek")) {
+        if (!SesiLogin.boleh(currentUserRole, SesiLogin.Izin.AKTIVASI_USER)) {
             JOptionPane.showMessageDialog(null, 
                 "Hanya Admin, Bendahara, atau Kepsek yang bisa menonaktifkan user!", 
                 "Akses Ditolak", JOptionPane.WARNING_MESSAGE);
@@ -216,13 +205,12 @@ public class UserController {
 
         String sql = "UPDATE users SET is_active = FALSE WHERE username = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, username);
-
-            int rowsAffected = pstmt.executeUpdate();
+        try {
+            int rowsAffected = CacheQuery.getInstance().perbarui(connection, sql, username);
 
             if (rowsAffected > 0) {
                 System.out.println("✅ User berhasil dinonaktifkan: " + username);
+                catatPerubahanUser(username);
                 JOptionPane.showMessageDialog(null, 
                     "User berhasil dinonaktifkan!", 
                     "Sukses", JOptionPane.INFORMATION_MESSAGE);
@@ -243,11 +231,8 @@ public class UserController {
         System.out.println("🔍 Attempting to DELETE user: " + username);
         System.out.println("🔍 Current user role: " + currentUserRole);
 
-        // Normalisasi role
-        String normalizedRole = currentUserRole.trim().toLowerCase();
-
         // Hanya Admin yang boleh hapus permanent
-        if (!normalizedRole.equals("admin")) {
+        if (!SesiLogin.boleh(currentUserRole, SesiLogin.Izin.HAPUS_USER)) {
             JOptionPane.showMessageDialog(null, 
                 "Hanya Admin yang bisa menghapus user secara permanen!", 
                 "Akses Ditolak", JOptionPane.WARNING_MESSAGE);
@@ -256,13 +241,14 @@ public class UserController {
 
         String sql = "DELETE FROM users WHERE username = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, username);
-
-            int rowsAffected = pstmt.executeUpdate();
+        try {
+            int rowsAffected = CacheQuery.getInstance().perbarui(connection, sql, username);
 
             if (rowsAffected > 0) {
                 System.out.println("✅ User berhasil dihapus: " + username);
+                catatPerubahanUser(username);
+                SiswaIndex.getInstance().invalidate(); // status akun login siswa berubah
+                LogPerubahan.catat(connection, DataVersi.Tabel.SISWA, username);
                 JOptionPane.showMessageDialog(null, 
                     "User berhasil dihapus secara permanen!", 
                     "Sukses", JOptionPane.INFORMATION_MESSAGE);
@@ -418,12 +404,18 @@ public class UserController {
     public void showUserStatistics() {
         String sql = "SELECT role, COUNT(*) as jumlah FROM users WHERE is_active = TRUE GROUP BY role";
         
-        try (PreparedStatement pstmt = connection.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
+        try {
+            Map<String, Integer> perRole = CacheQuery.getInstance().ambil(connection, KendaliQuery.Jenis.DASHBOARD, sql, rs -> {
+                Map<String, Integer> hasil = new LinkedHashMap<>();
+                while (rs.next()) {
+                    hasil.put(rs.getString("role"), rs.getInt("jumlah"));
+                }
+                return Collections.unmodifiableMap(hasil);
+            });
             
             System.out.println("\n=== STATISTIK USER ===");
-            while (rs.next()) {
-                System.out.println(rs.getString("role") + ": " + rs.getInt("jumlah") + " user");
+            for (Map.Entry<String, Integer> entry : perRole.entrySet()) {
+                System.out.println(entry.getKey() + ": " + entry.getValue() + " user");
             }
             System.out.println("=====================\n");
             
@@ -460,24 +452,26 @@ public class UserController {
         return user;
     }
 
+    // Cache query tabel users (statistik user) di komputer ini dan komputer lain ikut basi
+    private void catatPerubahanUser(String username) {
+        DataVersi.naik(DataVersi.Tabel.USERS);
+        LogPerubahan.catat(connection, DataVersi.Tabel.USERS, username);
+    }
+
     /**
      * Method untuk update user
      */
     public boolean updateUser(User user) {
         String sql = "UPDATE users SET password = ?, role = ?, nama_lengkap = ?, no_telepon = ?, is_active = ? WHERE username = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, user.getPassword());
-            pstmt.setString(2, user.getRole());
-            pstmt.setString(3, user.getNamaLengkap());
-            pstmt.setString(4, user.getNoTelepon());
-            pstmt.setBoolean(5, user.isActive());
-            pstmt.setString(6, user.getUsername());
-
-            int rows = pstmt.executeUpdate();
+        try {
+            int rows = CacheQuery.getInstance().perbarui(connection, sql,
+                    user.getPassword(), user.getRole(), user.getNamaLengkap(),
+                    user.getNoTelepon(), user.isActive(), user.getUsername());
             
             if (rows > 0) {
                 System.out.println("✅ User berhasil diupdate: " + user.getUsername());
+                catatPerubahanUser(user.getUsername());
                 return true;
             }
 
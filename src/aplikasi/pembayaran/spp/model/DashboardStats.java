@@ -0,0 +1,94 @@
+package aplikasi.pembayaran.spp.model;
+
+/**
+ * Model DashboardStats - snapshot immutable semua angka kartu dashboard
+ * (Admin, Kepsek, TU). Dibuat oleh DashboardStatsService dan dipakai
+ * bersama semua dashboard yang sedang terbuka.
+ */
+public final class DashboardStats {
+
+    public static final DashboardStats KOSONG = new DashboardStats(0, 0, 0, 0, 0, 0, 0, 0, 0);
+
+    private final double totalSaldo;
+    private final double pemasukanHariIni;
+    private final int transaksiHariIni;
+    private final double pemasukanBulanIni;
+    private final int transaksiBulanIni;
+    private final int transaksiPending;
+    private final int siswaAktif;
+    private final int siswaLunasBulanIni;
+    private final long waktuDiambil;
+
+    public DashboardStats(double totalSaldo, double pemasukanHariIni, int transaksiHariIni,
+                          double pemasukanBulanIni, int transaksiBulanIni, int transaksiPending,
+                          int siswaAktif, int siswaLunasBulanIni, long waktuDiambil) {
+        this.totalSaldo = totalSaldo;
+        this.pemasukanHariIni = pemasukanHariIni;
+        this.transaksiHariIni = transaksiHariIni;
+        this.pemasukanBulanIni = pemasukanBulanIni;
+        this.transaksiBulanIni = transaksiBulanIni;
+        this.transaksiPending = transaksiPending;
+        this.siswaAktif = siswaAktif;
+        this.siswaLunasBulanIni = siswaLunasBulanIni;
+        this.waktuDiambil = waktuDiambil;
+    }
+
+    /**
+     * Total pembayaran berstatus Lunas (saldo kas)
+     */
+    public double getTotalSaldo() {
+        return totalSaldo;
+    }
+
+    public double getPemasukanHariIni() {
+        return pemasukanHariIni;
+    }
+
+    public int getTransaksiHariIni() {
+        return transaksiHariIni;
+    }
+
+    public double getPemasukanBulanIni() {
+        return pemasukanBulanIni;
+    }
+
+    public int getTransaksiBulanIni() {
+        return transaksiBulanIni;
+    }
+
+    /**
+     * Transaksi berstatus Belum Lunas / Cicilan
+     */
+    public int getTransaksiPending() {
+        return transaksiPending;
+    }
+
+    public int getSiswaAktif() {
+        return siswaAktif;
+    }
+
+    public int getSiswaLunasBulanIni() {
+        return siswaLunasBulanIni;
+    }
+
+    /**
+     * Siswa aktif yang belum punya pembayaran Lunas bulan ini
+     */
+    public int getSiswaTunggakan() {
+        return Math.max(0, siswaAktif - siswaLunasBulanIni);
+    }
+
+    /**
+     * Persentase siswa aktif yang sudah lunas bulan ini
+     */
+    public double getPersenPembayaran() {
+        return siswaAktif == 0 ? 0 : (double) siswaLunasBulanIni / siswaAktif * 100;
+    }
+
+    /**
+     * Waktu snapshot diambil (epoch millis)
+     */
+    public long getWaktuDiambil() {
+        return waktuDiambil;
+    }
+}
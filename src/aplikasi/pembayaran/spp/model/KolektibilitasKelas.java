@@ -0,0 +1,64 @@
+package aplikasi.pembayaran.spp.model;
+
+import java.io.Serializable;
+
+/**
+ * Model KolektibilitasKelas - progres penagihan SPP satu kelas dalam satu bulan:
+ * siswa aktif, siswa yang sudah lunas, target (nominal SPP) dan yang terkumpul.
+ */
+public class KolektibilitasKelas implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String kelas;
+    private final int siswaAktif;
+    private final int siswaLunas;
+    private final double target;
+    private final double terkumpul;
+
+    public KolektibilitasKelas(String kelas, int siswaAktif, int siswaLunas, double target, double terkumpul) {
+        this.kelas = kelas;
+        this.siswaAktif = siswaAktif;
+        this.siswaLunas = siswaLunas;
+        this.target = target;
+        this.terkumpul = terkumpul;
+    }
+
+    public String getKelas() {
+        return kelas;
+    }
+
+    public int getSiswaAktif() {
+        return siswaAktif;
+    }
+
+    public int getSiswaLunas() {
+        return siswaLunas;
+    }
+
+    public int getSiswaBelumLunas() {
+        return siswaAktif - siswaLunas;
+    }
+
+    public double getTarget() {
+        return target;
+    }
+
+    public double getTerkumpul() {
+        return terkumpul;
+    }
+
+    /**
+     * Persentase siswa aktif yang sudah lunas bulan ini
+     */
+    public double getPersenLunas() {
+        return siswaAktif == 0 ? 0 : siswaLunas * 100.0 / siswaAktif;
+    }
+
+    /**
+     * Persentase nominal terkumpul dibanding target
+     */
+    public double getPersenTerkumpul() {
+        return target == 0 ? 0 : terkumpul * 100.0 / target;
+    }
+}
@@ -16,6 +16,9 @@ public class Koneksi {
     private static final String URL = "jdbc:mysql://localhost:3306/db_spp";
     private static final String USER = "root";
     private static final String PASS = "";
+
+    // FULLTEXT index pencarian transaksi terpasang (diisi setupDatabase)
+    private static volatile boolean fulltextPembayaran = false;
     
     /**
      * Method untuk mendapatkan koneksi database
@@ -42,6 +45,20 @@ public class Koneksi {
         return conn;
     }
     
+    /**
+     * Buka koneksi baru (bukan koneksi shared) untuk job panjang seperti export
+     * streaming, supaya result set streaming tidak mengunci koneksi utama.
+     * Pemanggil wajib menutup koneksi ini sendiri.
+     */
+    public static Connection openConnection() throws SQLException {
+        try {
+            Class.forName("com.mysql.cj.jdbc.Driver");
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("Driver MySQL tidak ditemukan", e);
+        }
+        return DriverManager.getConnection(URL, USER, PASS);
+    }
+
     /**
      * Method untuk tutup koneksi
      */
@@ -95,11 +112,99 @@ public class Koneksi {
                 }
             }
 
+            // Rekap bulanan (periode x kelas x metode) untuk laporan perbandingan periode
+            String createRekapTable = "CREATE TABLE IF NOT EXISTS rekap_bulanan (" +
+                    "periode CHAR(7) NOT NULL," +
+                    "kelas VARCHAR(20) NOT NULL," +
+                    "metode_pembayaran VARCHAR(20) NOT NULL," +
+                    "jumlah_transaksi INT NOT NULL DEFAULT 0," +
+                    "total_pemasukan DECIMAL(14,2) NOT NULL DEFAULT 0," +
+                    "diperbarui TIMESTAMP NULL DEFAULT CURRENT_TIMESTAMP," +
+                    "PRIMARY KEY (periode, kelas, metode_pembayaran)" +
+                    ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci";
+
+            stmt.executeUpdate(createRekapTable);
+
+            // Bulan yang rekapnya sudah dihitung (termasuk bulan tanpa transaksi)
+            String createRekapStatusTable = "CREATE TABLE IF NOT EXISTS rekap_bulanan_status (" +
+                    "periode CHAR(7) NOT NULL," +
+                    "dihitung TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP," +
+                    "PRIMARY KEY (periode)" +
+                    ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci";
+
+            stmt.executeUpdate(createRekapStatusTable);
+            System.out.println("✅ Tabel rekap_bulanan siap digunakan");
+
+            // Catatan perubahan untuk invalidasi cache antar komputer (LogPerubahan).
+            // Poller membaca "versi > ?" di primary key, index dibuat untuk hapus catatan lama
+            String createChangeLogTable = "CREATE TABLE IF NOT EXISTS change_log (" +
+                    "versi BIGINT NOT NULL AUTO_INCREMENT," +
+                    "entitas VARCHAR(20) NOT NULL," +
+                    "kunci VARCHAR(50) NOT NULL," +
+                    "klien CHAR(36) NOT NULL," +
+                    "dibuat TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP," +
+                    "PRIMARY KEY (versi)," +
+                    "KEY idx_change_log_dibuat (dibuat)" +
+                    ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci";
+
+            stmt.executeUpdate(createChangeLogTable);
+            System.out.println("✅ Tabel change_log siap digunakan");
+
+            // Index untuk query laporan & dashboard (predikat tanggal_bayar >= ? AND < ?)
+            // Kolom tambahan bikin index covering, jadi agregat tidak perlu baca baris tabel
+            ensureIndex(stmt, "pembayaran", "idx_pembayaran_tanggal",
+                    "tanggal_bayar, status_pembayaran, metode_pembayaran, jumlah_bayar, nis_siswa");
+            ensureIndex(stmt, "pembayaran", "idx_pembayaran_periode",
+                    "bulan_tahun, tanggal_bayar, status_pembayaran, metode_pembayaran, jumlah_bayar");
+            ensureIndex(stmt, "pembayaran", "idx_pembayaran_status",
+                    "status_pembayaran, jumlah_bayar");
+            ensureIndex(stmt, "siswa", "idx_siswa_status",
+                    "status_siswa, kelas");
+            // Keyset pagination histori transaksi (TransaksiPager)
+            ensureIndex(stmt, "pembayaran", "idx_pembayaran_keyset",
+                    "tanggal_bayar, id_transaksi");
+            // Pencarian histori transaksi (PencarianTransaksi). Parser ngram supaya
+            // potongan kata / NIS tetap ketemu; server tanpa ngram (MariaDB) pakai LIKE
+            fulltextPembayaran = tambahIndex(stmt, "pembayaran", "ft_pembayaran_cari",
+                    "FULLTEXT INDEX ft_pembayaran_cari (id_transaksi, nis_siswa, nama_siswa, bulan_tahun) WITH PARSER ngram");
+
         } catch (SQLException e) {
             System.out.println("❌ Error setup database: " + e.getMessage());
         }
     }
     
+    /**
+     * Tambah index kalau belum ada (error 1061 = duplicate key name, aman diabaikan)
+     */
+    private static void ensureIndex(Statement stmt, String table, String indexName, String columns) {
+        tambahIndex(stmt, table, indexName, "INDEX " + indexName + " (" + columns + ")");
+    }
+
+    /**
+     * ALTER TABLE ... ADD &lt;definisi&gt;, true kalau index sekarang sudah ada
+     */
+    private static boolean tambahIndex(Statement stmt, String table, String indexName, String definisi) {
+        try {
+            stmt.executeUpdate("ALTER TABLE " + table + " ADD " + definisi);
+            System.out.println("✅ Index " + indexName + " ditambahkan ke tabel " + table);
+            return true;
+        } catch (SQLException e) {
+            if (e.getErrorCode() == 1061) { // MySQL duplicate key name
+                System.out.println("ℹ️ Index " + indexName + " sudah ada di tabel " + table);
+                return true;
+            }
+            System.out.println("⚠️ Gagal menambah index " + indexName + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Apakah FULLTEXT index ft_pembayaran_cari bisa dipakai (setupDatabase sudah jalan dan berhasil)
+     */
+    public static boolean isFulltextPembayaranTersedia() {
+        return fulltextPembayaran;
+    }
+    
     /**
      * Method untuk test koneksi
      */
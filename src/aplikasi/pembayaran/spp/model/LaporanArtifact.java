@@ -0,0 +1,95 @@
+package aplikasi.pembayaran.spp.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Model LaporanArtifact - hasil laporan yang sudah di-generate terjadwal
+ * (harian / bulanan), disimpan ke disk supaya bisa dibuka instan.
+ */
+public class LaporanArtifact implements Serializable {
+
+    private static final long serialVersionUID = 2L;
+
+    public static final String HARIAN = "Harian";
+    public static final String BULANAN = "Bulanan";
+
+    private String jenis;
+    private String label;
+    private LocalDate tanggalMulai;
+    private LocalDate tanggalAkhir; // inklusif
+    private LocalDateTime dibuatPada;
+    private RingkasanLaporan ringkasan;
+    private TabelTransaksi detail;
+    private List<Map<String, Object>> perKelas;
+    // Sidik data pembayaran range ini saat dibuat (null = laporan lama, belum ada sidik)
+    private String sidikData;
+
+    public LaporanArtifact(String jenis, String label, LocalDate tanggalMulai, LocalDate tanggalAkhir) {
+        this.jenis = jenis;
+        this.label = label;
+        this.tanggalMulai = tanggalMulai;
+        this.tanggalAkhir = tanggalAkhir;
+        this.dibuatPada = LocalDateTime.now();
+    }
+
+    public String getJenis() {
+        return jenis;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public LocalDate getTanggalMulai() {
+        return tanggalMulai;
+    }
+
+    public LocalDate getTanggalAkhir() {
+        return tanggalAkhir;
+    }
+
+    public LocalDateTime getDibuatPada() {
+        return dibuatPada;
+    }
+
+    public RingkasanLaporan getRingkasan() {
+        return ringkasan;
+    }
+
+    public void setRingkasan(RingkasanLaporan ringkasan) {
+        this.ringkasan = ringkasan;
+    }
+
+    public TabelTransaksi getDetail() {
+        return detail;
+    }
+
+    public void setDetail(TabelTransaksi detail) {
+        this.detail = detail;
+    }
+
+    public List<Map<String, Object>> getPerKelas() {
+        return perKelas;
+    }
+
+    public void setPerKelas(List<Map<String, Object>> perKelas) {
+        this.perKelas = perKelas;
+    }
+
+    public String getSidikData() {
+        return sidikData;
+    }
+
+    public void setSidikData(String sidikData) {
+        this.sidikData = sidikData;
+    }
+
+    @Override
+    public String toString() {
+        return jenis + " - " + label;
+    }
+}
@@ -0,0 +1,157 @@
+package aplikasi.pembayaran.spp.model;
+
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Model PerbandinganPeriode - pemasukan per bulan x metode x kelas
+ * dari tabel rekap_bulanan, untuk laporan perbandingan antar periode.
+ *
+ * Data disimpan di array padat [periode][metode][kelas], jadi total per bulan,
+ * per metode, per kelas maupun year-over-year dihitung tanpa query lagi.
+ * Selain bulan yang ditampilkan, 12 bulan sebelumnya ikut disimpan sebagai
+ * pembanding tahun lalu. Index periode p di method publik = bulan tampil ke-p.
+ */
+public class PerbandinganPeriode {
+
+    public static final String[] METODE = {"Cash", "Transfer", "Kartu Debit"};
+
+    private static final int BULAN_PEMBANDING = 12;
+
+    private final YearMonth mulai;      // bulan tampil pertama
+    private final int jumlahBulan;      // jumlah bulan tampil
+    private final List<String> kelas;
+    private final Map<String, Integer> indeksKelas = new LinkedHashMap<>();
+    private final double[][][] total;
+    private final int[][][] transaksi;
+
+    public PerbandinganPeriode(YearMonth mulai, int jumlahBulan, List<String> kelas) {
+        this.mulai = mulai;
+        this.jumlahBulan = jumlahBulan;
+        this.kelas = Collections.unmodifiableList(new ArrayList<>(kelas));
+        for (int i = 0; i < kelas.size(); i++) {
+            indeksKelas.put(kelas.get(i), i);
+        }
+        this.total = new double[jumlahBulan + BULAN_PEMBANDING][METODE.length][kelas.size()];
+        this.transaksi = new int[jumlahBulan + BULAN_PEMBANDING][METODE.length][kelas.size()];
+    }
+
+    /**
+     * Bulan pertama data yang perlu diambil (termasuk pembanding tahun lalu)
+     */
+    public static YearMonth mulaiData(YearMonth mulai) {
+        return mulai.minusMonths(BULAN_PEMBANDING);
+    }
+
+    /**
+     * Isi satu baris rekap. Periode di luar rentang atau metode tidak dikenal diabaikan.
+     */
+    public void isi(YearMonth periode, String namaKelas, String metode, int jumlahTransaksi, double pemasukan) {
+        int p = indeksData(periode);
+        int m = indeksMetode(metode);
+        Integer k = indeksKelas.get(namaKelas);
+        if (p < 0 || m < 0 || k == null) {
+            return;
+        }
+        total[p][m][k] += pemasukan;
+        transaksi[p][m][k] += jumlahTransaksi;
+    }
+
+    public int getJumlahBulan() {
+        return jumlahBulan;
+    }
+
+    public YearMonth getPeriode(int p) {
+        return mulai.plusMonths(p);
+    }
+
+    public List<String> getDaftarKelas() {
+        return kelas;
+    }
+
+    // Index di array data (0 = bulan pembanding paling awal), -1 kalau di luar
+    private int indeksData(YearMonth periode) {
+        long selisih = ChronoUnit.MONTHS.between(mulaiData(mulai), periode);
+        return selisih >= 0 && selisih < total.length ? (int) selisih : -1;
+    }
+
+    public static int indeksMetode(String metode) {
+        for (int i = 0; i < METODE.length; i++) {
+            if (METODE[i].equals(metode)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Total pemasukan satu periode. metode/kelas null = semua.
+     */
+    public double getTotal(int p, String metode, String namaKelas) {
+        return jumlahkan(total[p + BULAN_PEMBANDING], metode, namaKelas);
+    }
+
+    public double getTotal(int p) {
+        return getTotal(p, null, null);
+    }
+
+    public int getTransaksi(int p, String metode, String namaKelas) {
+        int[][] data = transaksi[p + BULAN_PEMBANDING];
+        int hasil = 0;
+        for (int m = 0; m < METODE.length; m++) {
+            if (metode != null && !METODE[m].equals(metode)) {
+                continue;
+            }
+            for (int k = 0; k < kelas.size(); k++) {
+                if (namaKelas == null || kelas.get(k).equals(namaKelas)) {
+                    hasil += data[m][k];
+                }
+            }
+        }
+        return hasil;
+    }
+
+    /**
+     * Pemasukan bulan yang sama tahun lalu
+     */
+    public double getTotalTahunLalu(int p, String metode, String namaKelas) {
+        return jumlahkan(total[p], metode, namaKelas);
+    }
+
+    /**
+     * Pemasukan bulan sebelumnya (bulan tampil pertama dibandingkan dengan data pembanding)
+     */
+    public double getTotalBulanLalu(int p, String metode, String namaKelas) {
+        return jumlahkan(total[p + BULAN_PEMBANDING - 1], metode, namaKelas);
+    }
+
+    private double jumlahkan(double[][] data, String metode, String namaKelas) {
+        double hasil = 0;
+        for (int m = 0; m < METODE.length; m++) {
+            if (metode != null && !METODE[m].equals(metode)) {
+                continue;
+            }
+            for (int k = 0; k < kelas.size(); k++) {
+                if (namaKelas == null || kelas.get(k).equals(namaKelas)) {
+                    hasil += data[m][k];
+                }
+            }
+        }
+        return hasil;
+    }
+
+    /**
+     * Persentase perubahan, NaN kalau pembanding nol
+     */
+    public static double persenPerubahan(double sekarang, double pembanding) {
+        if (Double.isNaN(pembanding) || pembanding == 0) {
+            return Double.NaN;
+        }
+        return (sekarang - pembanding) / pembanding * 100.0;
+    }
+}
@@ -0,0 +1,106 @@
+package aplikasi.pembayaran.spp.model;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Model RingkasanLaporan - ringkasan laporan keuangan dengan field bertipe.
+ *
+ * Diisi sambil baris detail di-stream (lihat LaporanController.streamTransaksi),
+ * jadi ringkasan dan detail cukup satu kali baca tabel pembayaran.
+ * Hasil toMap() memakai key yang sama dengan query agregat SUMMARY_SELECT.
+ */
+public class RingkasanLaporan implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private int totalTransaksi;
+    private double totalPemasukan;
+    private double totalCash;
+    private double totalTransfer;
+    private double totalKartu;
+    private int jumlahCash;
+    private int jumlahTransfer;
+    private int jumlahKartu;
+    private int jumlahLunas;
+
+    public void tambah(double jumlah, String metode, String status) {
+        totalTransaksi++;
+        totalPemasukan += jumlah;
+
+        if ("Cash".equals(metode)) {
+            totalCash += jumlah;
+            jumlahCash++;
+        } else if ("Transfer".equals(metode)) {
+            totalTransfer += jumlah;
+            jumlahTransfer++;
+        } else if ("Kartu Debit".equals(metode)) {
+            totalKartu += jumlah;
+            jumlahKartu++;
+        }
+
+        if ("Lunas".equals(status)) {
+            jumlahLunas++;
+        }
+    }
+
+    public int getTotalTransaksi() {
+        return totalTransaksi;
+    }
+
+    public double getTotalPemasukan() {
+        return totalPemasukan;
+    }
+
+    public double getRataRata() {
+        return totalTransaksi == 0 ? 0.0 : totalPemasukan / totalTransaksi;
+    }
+
+    public double getTotalCash() {
+        return totalCash;
+    }
+
+    public double getTotalTransfer() {
+        return totalTransfer;
+    }
+
+    public double getTotalKartu() {
+        return totalKartu;
+    }
+
+    public int getJumlahCash() {
+        return jumlahCash;
+    }
+
+    public int getJumlahTransfer() {
+        return jumlahTransfer;
+    }
+
+    public int getJumlahKartu() {
+        return jumlahKartu;
+    }
+
+    public int getJumlahLunas() {
+        return jumlahLunas;
+    }
+
+    /**
+     * Ringkasan dalam format Map lama (sama dengan getLaporanByPeriode)
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> laporan = new HashMap<>();
+        laporan.put("total_transaksi", totalTransaksi);
+        laporan.put("total_pemasukan", totalPemasukan);
+        laporan.put("rata_rata", getRataRata());
+        laporan.put("total_cash", totalCash);
+        laporan.put("total_transfer", totalTransfer);
+        laporan.put("total_kartu", totalKartu);
+        laporan.put("jumlah_cash", jumlahCash);
+        laporan.put("jumlah_transfer", jumlahTransfer);
+        laporan.put("jumlah_kartu", jumlahKartu);
+        laporan.put("jumlah_lunas", jumlahLunas);
+        return Collections.unmodifiableMap(laporan);
+    }
+}
@@ -19,6 +19,8 @@ public class Siswa {
     private double totalPotongan;
     private String statusSiswa;
     private String namaOrtu;
+    // Sudah punya akun login (username = NIS), diisi dari cache SiswaController
+    private boolean punyaAkun;
 
     // Constructor kosong
     public Siswa() {}
@@ -39,6 +41,13 @@ public class Siswa {
         this.namaOrtu = namaOrtu;
     }
 
+    // Constructor salinan (dipakai cache SiswaController)
+    public Siswa(Siswa lain) {
+        this(lain.nis, lain.namaLengkap, lain.kelas, lain.tahunAjaran, lain.noTelepon, lain.alamat,
+             lain.nominalSPP, lain.totalPotongan, lain.statusSiswa, lain.namaOrtu);
+        this.punyaAkun = lain.punyaAkun;
+    }
+
     // Getters
     public String getNis() { return nis; }
     public String getNamaLengkap() { return namaLengkap; }
@@ -50,6 +59,7 @@ public class Siswa {
     public double getTotalPotongan() { return totalPotongan; }
     public String getStatusSiswa() { return statusSiswa; }
     public String getNamaOrtu() { return namaOrtu; }
+    public boolean isPunyaAkun() { return punyaAkun; }
 
     // Setters
     public void setNis(String nis) { this.nis = nis; }
@@ -62,6 +72,7 @@ public class Siswa {
     public void setTotalPotongan(double totalPotongan) { this.totalPotongan = 0; } // Total potongan is always 0 since feature is removed
     public void setStatusSiswa(String statusSiswa) { this.statusSiswa = statusSiswa; }
     public void setNamaOrtu(String namaOrtu) { this.namaOrtu = namaOrtu != null ? namaOrtu : ""; }
+    public void setPunyaAkun(boolean punyaAkun) { this.punyaAkun = punyaAkun; }
 
     
         /**
@@ -0,0 +1,136 @@
+package aplikasi.pembayaran.spp.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Model TabelTransaksi - detail transaksi laporan dalam bentuk kolom.
+ *
+ * Setiap kolom disimpan di array sendiri: jumlah bayar sebagai double[],
+ * tanggal sebagai epoch millis di long[], sedangkan periode, metode dan
+ * status yang nilainya berulang disimpan sebagai kode ke kamus nilai.
+ * Jauh lebih hemat heap dibanding satu HashMap per transaksi.
+ */
+public class TabelTransaksi implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final int KAPASITAS_AWAL = 64;
+
+    private int jumlahBaris;
+    private String[] idTransaksi = new String[KAPASITAS_AWAL];
+    private String[] nis = new String[KAPASITAS_AWAL];
+    private String[] namaSiswa = new String[KAPASITAS_AWAL];
+    private int[] periode = new int[KAPASITAS_AWAL];
+    private long[] tanggalBayar = new long[KAPASITAS_AWAL];
+    private double[] jumlahBayar = new double[KAPASITAS_AWAL];
+    private byte[] metode = new byte[KAPASITAS_AWAL];
+    private byte[] status = new byte[KAPASITAS_AWAL];
+
+    private final Kamus kamusPeriode = new Kamus();
+    private final Kamus kamusMetode = new Kamus();
+    private final Kamus kamusStatus = new Kamus();
+
+    /**
+     * Tambah satu transaksi di akhir tabel
+     */
+    public void tambah(String id, String nisSiswa, String nama, String bulanTahun,
+                       long tanggalMillis, double jumlah, String metodeBayar, String statusBayar) {
+        if (jumlahBaris == idTransaksi.length) {
+            perbesar(Math.max(KAPASITAS_AWAL, jumlahBaris * 2));
+        }
+        int i = jumlahBaris++;
+        idTransaksi[i] = id;
+        nis[i] = nisSiswa;
+        namaSiswa[i] = nama;
+        periode[i] = kamusPeriode.kode(bulanTahun);
+        tanggalBayar[i] = tanggalMillis;
+        jumlahBayar[i] = jumlah;
+        metode[i] = (byte) kamusMetode.kode(metodeBayar);
+        status[i] = (byte) kamusStatus.kode(statusBayar);
+    }
+
+    /**
+     * Buang kapasitas sisa setelah semua baris ditambahkan
+     */
+    public TabelTransaksi rapikan() {
+        if (jumlahBaris < idTransaksi.length) {
+            perbesar(jumlahBaris);
+        }
+        return this;
+    }
+
+    private void perbesar(int kapasitas) {
+        idTransaksi = Arrays.copyOf(idTransaksi, kapasitas);
+        nis = Arrays.copyOf(nis, kapasitas);
+        namaSiswa = Arrays.copyOf(namaSiswa, kapasitas);
+        periode = Arrays.copyOf(periode, kapasitas);
+        tanggalBayar = Arrays.copyOf(tanggalBayar, kapasitas);
+        jumlahBayar = Arrays.copyOf(jumlahBayar, kapasitas);
+        metode = Arrays.copyOf(metode, kapasitas);
+        status = Arrays.copyOf(status, kapasitas);
+    }
+
+    public int size() {
+        return jumlahBaris;
+    }
+
+    public String getIdTransaksi(int baris) {
+        return idTransaksi[baris];
+    }
+
+    public String getNis(int baris) {
+        return nis[baris];
+    }
+
+    public String getNamaSiswa(int baris) {
+        return namaSiswa[baris];
+    }
+
+    public String getBulanTahun(int baris) {
+        return kamusPeriode.nilai(periode[baris]);
+    }
+
+    public long getTanggalBayar(int baris) {
+        return tanggalBayar[baris];
+    }
+
+    public double getJumlahBayar(int baris) {
+        return jumlahBayar[baris];
+    }
+
+    public String getMetodePembayaran(int baris) {
+        return kamusMetode.nilai(metode[baris] & 0xFF);
+    }
+
+    public String getStatusPembayaran(int baris) {
+        return kamusStatus.nilai(status[baris] & 0xFF);
+    }
+
+    /**
+     * Kamus nilai untuk kolom yang isinya berulang (dictionary encoding)
+     */
+    private static class Kamus implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final List<String> daftar = new ArrayList<>();
+        private final Map<String, Integer> indeks = new HashMap<>();
+
+        int kode(String nilai) {
+            Integer kode = indeks.get(nilai);
+            if (kode == null) {
+                kode = daftar.size();
+                daftar.add(nilai);
+                indeks.put(nilai, kode);
+            }
+            return kode;
+        }
+
+        String nilai(int kode) {
+            return daftar.get(kode);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package aplikasi.pembayaran.spp.test;
+
+import aplikasi.pembayaran.spp.controller.CacheQuery;
+import aplikasi.pembayaran.spp.controller.DataVersi;
+import aplikasi.pembayaran.spp.controller.KendaliQuery;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Test CacheQuery tanpa database: entry basi setelah tabelnya berubah
+ * (DataVersi, invalidate, perbarui) dan entry paling lama tidak dipakai
+ * dibuang duluan saat cache penuh (LRU).
+ */
+public class CacheQueryTest {
+
+    private static final String SQL_USERS = "SELECT COUNT(*) FROM users WHERE role = ?";
+    private static final String SQL_PEMBAYARAN = "SELECT COUNT(*) FROM pembayaran WHERE bulan_tahun = ?";
+
+    private static int gagal = 0;
+    // Jumlah query yang benar-benar dijalankan ke "database"
+    private static int dijalankan = 0;
+
+    public static void main(String[] args) throws SQLException {
+        // Harus diset sebelum kelas CacheQuery dimuat
+        System.setProperty("spp.querycache.maks", "3");
+        System.out.println("=== Testing CacheQuery ===");
+
+        Connection conn = koneksiPalsu();
+        CacheQuery cache = CacheQuery.getInstance();
+
+        // --- Basi karena tabel berubah ---
+        ambil(conn, SQL_USERS, "admin");
+        ambil(conn, SQL_USERS, "admin");
+        cek("Query sama kedua kali diambil dari cache", dijalankan == 1);
+
+        DataVersi.naik(DataVersi.Tabel.USERS);
+        ambil(conn, SQL_USERS, "admin");
+        cek("Versi USERS naik (LogPerubahan) membuat entry users basi", dijalankan == 2);
+
+        cache.invalidate("users");
+        ambil(conn, SQL_USERS, "admin");
+        cek("invalidate(\"users\") membuat entry users basi", dijalankan == 3);
+
+        cache.perbarui(conn, "UPDATE users SET is_active = FALSE WHERE username = ?", "budi");
+        ambil(conn, SQL_USERS, "admin");
+        cek("perbarui() ke tabel users membuat entry users basi", dijalankan == 4);
+
+        ambil(conn, SQL_PEMBAYARAN, "Januari 2025");
+        DataVersi.naik(DataVersi.Tabel.KELAS);
+        ambil(conn, SQL_PEMBAYARAN, "Januari 2025");
+        cek("Perubahan tabel lain tidak membuat entry basi", dijalankan == 5);
+
+        DataVersi.naik(DataVersi.Tabel.PEMBAYARAN);
+        ambil(conn, SQL_PEMBAYARAN, "Januari 2025");
+        cek("Versi PEMBAYARAN naik membuat entry pembayaran basi", dijalankan == 6);
+
+        // --- LRU (maks 3 entry) ---
+        cache.clear();
+        dijalankan = 0;
+        ambil(conn, SQL_PEMBAYARAN, "1");
+        ambil(conn, SQL_PEMBAYARAN, "2");
+        ambil(conn, SQL_PEMBAYARAN, "3");
+        ambil(conn, SQL_PEMBAYARAN, "1");   // 1 jadi paling baru dipakai
+        ambil(conn, SQL_PEMBAYARAN, "4");   // penuh, 2 dibuang
+        cek("Entry masih muat tidak dijalankan ulang", dijalankan == 4);
+
+        ambil(conn, SQL_PEMBAYARAN, "1");
+        ambil(conn, SQL_PEMBAYARAN, "3");
+        cek("Entry yang baru dipakai tetap di cache", dijalankan == 4);
+
+        ambil(conn, SQL_PEMBAYARAN, "2");
+        cek("Entry paling lama tidak dipakai sudah dibuang", dijalankan == 5);
+
+        System.out.println("Statistik: " + cache.getStatistik());
+        if (gagal > 0) {
+            System.out.println("\n❌ " + gagal + " pengecekan gagal");
+            System.exit(1);
+        }
+        System.out.println("\n=== CacheQuery Test Completed ===");
+    }
+
+    private static void ambil(Connection conn, String sql, String param) throws SQLException {
+        CacheQuery.getInstance().ambil(conn, KendaliQuery.Jenis.DASHBOARD, sql, rs -> {
+            dijalankan++;
+            return 0;
+        }, param);
+    }
+
+    private static void cek(String nama, boolean hasil) {
+        if (hasil) {
+            System.out.println("✅ " + nama);
+        } else {
+            System.out.println("❌ " + nama + " (query dijalankan " + dijalankan + "x)");
+            gagal++;
+        }
+    }
+
+    // Connection palsu: executeQuery mengembalikan result set kosong, executeUpdate = 1 baris
+    private static Connection koneksiPalsu() {
+        ResultSet rs = palsu(ResultSet.class, null);
+        PreparedStatement stmt = palsu(PreparedStatement.class, rs);
+        return palsu(Connection.class, stmt);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T palsu(Class<T> jenis, Object anak) {
+        return (T) Proxy.newProxyInstance(CacheQueryTest.class.getClassLoader(), new Class<?>[]{jenis},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "prepareStatement":
+                    case "executeQuery":
+                        return anak;
+                    case "executeUpdate":
+                        return 1;
+                    case "next":
+                        return false;
+                    default:
+                        Class<?> tipe = method.getReturnType();
+                        if (tipe == boolean.class) return false;
+                        if (tipe == int.class) return 0;
+                        if (tipe == long.class) return 0L;
+                        return null;
+                }
+            });
+    }
+}
@@ -0,0 +1,70 @@
+package aplikasi.pembayaran.spp.test;
+
+import aplikasi.pembayaran.spp.controller.LaporanCache;
+import aplikasi.pembayaran.spp.controller.PeriodeFilter;
+
+import java.time.LocalDate;
+
+/**
+ * Test invalidasi LaporanCache saat ada pembayaran baru: hanya entry yang
+ * bisa terpengaruh yang dibuang, entry range tertutup tetap dipakai.
+ */
+public class LaporanCacheTest {
+
+    private static int gagal = 0;
+
+    public static void main(String[] args) {
+        System.out.println("=== Testing LaporanCache.onPembayaranBaru ===");
+
+        LaporanCache cache = LaporanCache.getInstance();
+        LocalDate hariIni = LocalDate.now();
+        PeriodeFilter tertutup = PeriodeFilter.rentang(hariIni.minusDays(30), hariIni.minusDays(1));
+        PeriodeFilter terbuka = PeriodeFilter.rentang(hariIni.minusDays(7), hariIni);
+
+        cek("Range sampai kemarin tertutup", LaporanCache.isTertutup(tertutup));
+        cek("Range sampai hari ini masih terbuka", !LaporanCache.isTertutup(terbuka));
+
+        String kunciJanuari = LaporanCache.keyPeriode("laporan", "Januari 2025");
+        String kunciFebruari = LaporanCache.keyPeriode("laporan", "Februari 2025");
+        String kunciTertutup = LaporanCache.keyRange("ringkasan", tertutup);
+        String kunciTerbuka = LaporanCache.keyRange("ringkasan", terbuka);
+        String kunciBiasa = "test|terbuka";
+
+        cache.putPeriode(kunciJanuari, "Januari 2025", "januari");
+        cache.putPeriode(kunciFebruari, "Februari 2025", "februari");
+        cache.putRange(kunciTertutup, tertutup, "tertutup");
+        cache.putRange(kunciTerbuka, terbuka, "terbuka");
+        cache.putTerbuka(kunciBiasa, "biasa");
+
+        cache.onPembayaranBaru("Januari 2025");
+
+        cek("Laporan periode yang sama dibuang", cache.get(kunciJanuari) == null);
+        cek("Laporan periode lain tetap ada", "februari".equals(cache.get(kunciFebruari)));
+        cek("Range tertutup tetap ada", "tertutup".equals(cache.get(kunciTertutup)));
+        cek("Range terbuka dibuang", cache.get(kunciTerbuka) == null);
+        cek("Entry terbuka biasa dibuang", cache.get(kunciBiasa) == null);
+
+        cache.invalidateTerbuka();
+        cek("invalidateTerbuka membuang semua periode", cache.get(kunciFebruari) == null);
+        cek("invalidateTerbuka tidak menyentuh range tertutup", "tertutup".equals(cache.get(kunciTertutup)));
+
+        cache.clear();
+        cek("clear membuang range tertutup", cache.get(kunciTertutup) == null);
+
+        System.out.println("Statistik: " + cache.getStatistik());
+        if (gagal > 0) {
+            System.out.println("\n❌ " + gagal + " pengecekan gagal");
+            System.exit(1);
+        }
+        System.out.println("\n=== LaporanCache Test Completed ===");
+    }
+
+    private static void cek(String nama, boolean hasil) {
+        if (hasil) {
+            System.out.println("✅ " + nama);
+        } else {
+            System.out.println("❌ " + nama);
+            gagal++;
+        }
+    }
+}
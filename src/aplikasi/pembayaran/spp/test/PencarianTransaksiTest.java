@@ -0,0 +1,40 @@
+package aplikasi.pembayaran.spp.test;
+
+import aplikasi.pembayaran.spp.controller.PencarianTransaksi;
+
+/**
+ * Test kata kunci pencarian transaksi -> query FULLTEXT boolean mode
+ */
+public class PencarianTransaksiTest {
+
+    private static int gagal = 0;
+
+    public static void main(String[] args) {
+        System.out.println("=== Testing PencarianTransaksi.getBooleanQuery ===");
+
+        cek("Satu kata", "ahmad", "+ahmad");
+        cek("Beberapa kata, spasi ganda", "  ahmad   januari ", "+ahmad +januari");
+        cek("Operator boolean dari input dibuang", "+ahmad -budi \"siti\" (jan*) ~x <a> @3",
+            "+ahmad +budi +siti +jan");
+        cek("Kata lebih pendek dari token ngram diabaikan", "a jan b", "+jan");
+        cek("Hanya kata pendek = kosong (pakai pencarian awalan)", "a", "");
+        cek("Hanya operator = kosong", "+-*", "");
+        cek("ID transaksi utuh", "TRX20251012001019539", "+TRX20251012001019539");
+
+        if (gagal > 0) {
+            System.out.println("\n❌ " + gagal + " pengecekan gagal");
+            System.exit(1);
+        }
+        System.out.println("\n=== PencarianTransaksi Test Completed ===");
+    }
+
+    private static void cek(String nama, String input, String diharapkan) {
+        String hasil = PencarianTransaksi.getBooleanQuery(input);
+        if (diharapkan.equals(hasil)) {
+            System.out.println("✅ " + nama);
+        } else {
+            System.out.println("❌ " + nama + " -> \"" + hasil + "\", seharusnya \"" + diharapkan + "\"");
+            gagal++;
+        }
+    }
+}
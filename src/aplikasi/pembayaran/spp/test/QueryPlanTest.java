@@ -0,0 +1,138 @@
+package aplikasi.pembayaran.spp.test;
+
+import aplikasi.pembayaran.spp.controller.DashboardStatsService;
+import aplikasi.pembayaran.spp.controller.LaporanController;
+import aplikasi.pembayaran.spp.controller.PencarianTransaksi;
+import aplikasi.pembayaran.spp.controller.PeriodeFilter;
+import aplikasi.pembayaran.spp.controller.TransaksiPager;
+import aplikasi.pembayaran.spp.model.Koneksi;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Regression test query plan untuk query laporan & dashboard.
+ * Jalankan EXPLAIN untuk setiap query, gagal (exit code 1) kalau ada
+ * yang jatuh ke full table scan (type = ALL).
+ * SQL diambil langsung dari controller (konstanta / builder), bukan disalin,
+ * supaya test ikut berubah kalau query-nya diubah.
+ */
+public class QueryPlanTest {
+
+    private static int gagal = 0;
+
+    public static void main(String[] args) {
+        System.out.println("=== Testing Query Plan (EXPLAIN) ===");
+
+        if (Koneksi.testConnection()) {
+            System.out.println("✅ Database connection successful");
+        } else {
+            System.out.println("❌ Database connection failed");
+            System.exit(1);
+        }
+
+        // Pastikan index sudah terpasang
+        Koneksi.setupDatabase();
+        Connection conn = Koneksi.getConnection();
+
+        PeriodeFilter hariIni = PeriodeFilter.hariIni();
+        PeriodeFilter bulanIni = PeriodeFilter.bulanIni();
+
+        LaporanController laporan = new LaporanController();
+        TransaksiPager.Cursor cursor = new TransaksiPager.Cursor(Timestamp.valueOf("2025-01-01 00:00:00"), "TRX");
+        int limit = TransaksiPager.PAGE_SIZE;
+
+        // LaporanController
+        cekPlan(conn, "Laporan by periode", LaporanController.SUMMARY_SELECT + "WHERE bulan_tahun = ?", "Januari 2025");
+        cekPlan(conn, "Laporan by date range",
+                LaporanController.SUMMARY_SELECT + "WHERE " + bulanIni.predikat(), bulanIni);
+        cekPlan(conn, "Detail transaksi by periode",
+                LaporanController.DETAIL_SELECT + "WHERE bulan_tahun = ? ORDER BY tanggal_bayar DESC", "Januari 2025");
+        cekPlan(conn, "Detail transaksi by date range",
+                LaporanController.DETAIL_SELECT + "WHERE " + bulanIni.predikat() + " ORDER BY tanggal_bayar DESC", bulanIni);
+        cekPlan(conn, "Sidik data laporan tersimpan", LaporanController.SIDIK_SELECT + bulanIni.predikat(), bulanIni);
+        cekPlan(conn, "Available periods", "SELECT DISTINCT bulan_tahun FROM pembayaran ORDER BY bulan_tahun DESC");
+
+        // TransaksiPager (detail laporan & histori transaksi, keyset pagination)
+        TransaksiPager pagerPeriode = laporan.getDetailTransaksiPager("Januari 2025");
+        cekPlan(conn, "Keyset halaman pertama", pagerPeriode.getSql(null), pagerPeriode.getParams(null, limit));
+        cekPlan(conn, "Keyset halaman berikutnya", pagerPeriode.getSql(cursor), pagerPeriode.getParams(cursor, limit));
+        TransaksiPager pagerStatus = PencarianTransaksi.pager("p.id_transaksi", "", "Lunas");
+        cekPlan(conn, "Keyset filter status", pagerStatus.getSql(cursor), pagerStatus.getParams(cursor, limit));
+
+        // PencarianTransaksi (FULLTEXT ngram, hanya kalau index terpasang)
+        if (Koneksi.isFulltextPembayaranTersedia()) {
+            TransaksiPager pagerCari = PencarianTransaksi.pager("p.id_transaksi", "", "ahmad");
+            cekPlan(conn, "Cari transaksi (fulltext)", pagerCari.getSql(null), pagerCari.getParams(null, limit));
+        }
+
+        // DashboardStatsService (satu query, subquery hari & bulan)
+        cekPlan(conn, "Statistik dashboard", DashboardStatsService.getStatsQuery(hariIni, bulanIni), hariIni, bulanIni);
+
+        // PembayaranController.getStatistikPembayaran
+        cekPlan(conn, "Transaksi hari ini", "SELECT COUNT(*) FROM pembayaran WHERE " + hariIni.predikat(), hariIni);
+        cekPlan(conn, "Pemasukan hari ini",
+                "SELECT COALESCE(SUM(jumlah_bayar), 0) FROM pembayaran WHERE " + hariIni.predikat(), hariIni);
+        cekPlan(conn, "Transaksi bulan ini", "SELECT COUNT(*) FROM pembayaran WHERE " + bulanIni.predikat(), bulanIni);
+
+        // RekapBulananController.getPerbandingan (rekap per bulan x kelas x metode)
+        cekPlan(conn, "Rekap bulanan perbandingan",
+                "SELECT periode, kelas, metode_pembayaran, jumlah_transaksi, total_pemasukan " +
+                "FROM rekap_bulanan WHERE periode BETWEEN ? AND ?", "2024-01", "2025-12");
+
+        // LogPerubahan (poller change_log, range di primary key)
+        cekPlan(conn, "Poll change_log",
+                "SELECT versi, entitas, kunci, klien FROM change_log WHERE versi > ? ORDER BY versi LIMIT 500", 0);
+
+        // TagihanController.getRingkasanTagihan / DashboardKepsek
+        cekPlan(conn, "Siswa aktif", "SELECT COUNT(*) FROM siswa WHERE status_siswa = 'Aktif'");
+        cekPlan(conn, "Siswa lunas bulan ini",
+                "SELECT COUNT(DISTINCT nis_siswa) FROM pembayaran WHERE " + bulanIni.predikat() +
+                " AND status_pembayaran = 'Lunas'", bulanIni);
+        cekPlan(conn, "Total saldo", "SELECT SUM(jumlah_bayar) FROM pembayaran WHERE status_pembayaran = 'Lunas'");
+        cekPlan(conn, "Transaksi pending",
+                "SELECT COUNT(*) FROM pembayaran WHERE status_pembayaran IN ('Belum Lunas', 'Cicilan')");
+
+        System.out.println();
+        if (gagal > 0) {
+            System.out.println("❌ " + gagal + " query masih full table scan");
+            System.out.println("\n=== Query Plan Test FAILED ===");
+            System.exit(1);
+        }
+        System.out.println("\n=== Query Plan Test Completed ===");
+    }
+
+    /**
+     * EXPLAIN satu query. Parameter bisa String biasa atau PeriodeFilter.
+     */
+    private static void cekPlan(Connection conn, String nama, String sql, Object... params) {
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + sql)) {
+            PeriodeFilter.bindParams(stmt, params);
+
+            List<String> fullScan = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String type = rs.getString("type");
+                    if ("ALL".equalsIgnoreCase(type)) {
+                        fullScan.add(rs.getString("table"));
+                    }
+                }
+            }
+
+            if (fullScan.isEmpty()) {
+                System.out.println("✅ " + nama);
+            } else {
+                System.out.println("❌ " + nama + " -> full scan di " + fullScan);
+                gagal++;
+            }
+        } catch (SQLException e) {
+            System.out.println("❌ " + nama + " -> error EXPLAIN: " + e.getMessage());
+            gagal++;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package aplikasi.pembayaran.spp.test;
+
+import aplikasi.pembayaran.spp.controller.SesiLogin;
+import aplikasi.pembayaran.spp.controller.SesiLogin.Izin;
+
+/**
+ * Test bitmask hak akses per role (SesiLogin.izinRole)
+ */
+public class SesiLoginTest {
+
+    private static int gagal = 0;
+
+    public static void main(String[] args) {
+        System.out.println("=== Testing SesiLogin.izinRole ===");
+
+        cekIzin("admin", Izin.TAMBAH_USER, Izin.UBAH_PROFIL_USER_LAIN, Izin.AKTIVASI_USER, Izin.HAPUS_USER,
+            Izin.INPUT_PEMBAYARAN, Izin.LIHAT_PEMBAYARAN, Izin.UBAH_PEMBAYARAN);
+        cekIzin("tu", Izin.TAMBAH_USER, Izin.UBAH_PROFIL_USER_LAIN,
+            Izin.INPUT_PEMBAYARAN, Izin.LIHAT_PEMBAYARAN, Izin.UBAH_PEMBAYARAN, Izin.LIHAT_TAGIHAN, Izin.GENERATE_TAGIHAN);
+        cekIzin("kepsek", Izin.AKTIVASI_USER, Izin.LIHAT_PEMBAYARAN, Izin.LIHAT_TAGIHAN);
+        cekIzin("bendahara", Izin.AKTIVASI_USER,
+            Izin.INPUT_PEMBAYARAN, Izin.LIHAT_PEMBAYARAN, Izin.UBAH_PEMBAYARAN, Izin.LIHAT_TAGIHAN, Izin.GENERATE_TAGIHAN);
+        cekIzin("siswa", Izin.LIHAT_PEMBAYARAN, Izin.LIHAT_TAGIHAN);
+        cekIzin("");
+        cekIzin(null);
+
+        cek("Role tidak case sensitive", SesiLogin.izinRole("Admin") == SesiLogin.izinRole("admin")
+            && SesiLogin.izinRole("TU") == SesiLogin.izinRole("tu"));
+        cek("Spasi di sekitar role diabaikan", SesiLogin.izinRole(" Kepsek ") == SesiLogin.izinRole("kepsek"));
+
+        if (gagal > 0) {
+            System.out.println("\n❌ " + gagal + " pengecekan gagal");
+            System.exit(1);
+        }
+        System.out.println("\n=== SesiLogin Test Completed ===");
+    }
+
+    // Role harus punya tepat izin yang disebut, tidak lebih
+    private static void cekIzin(String role, Izin... diharapkan) {
+        long bitmask = SesiLogin.izinRole(role);
+        long seharusnya = 0;
+        for (Izin izin : diharapkan) {
+            seharusnya |= izin.getBit();
+        }
+        cek("Izin role \"" + role + "\"", bitmask == seharusnya);
+    }
+
+    private static void cek(String nama, boolean hasil) {
+        if (hasil) {
+            System.out.println("✅ " + nama);
+        } else {
+            System.out.println("❌ " + nama);
+            gagal++;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package aplikasi.pembayaran.spp.test;
+
+import aplikasi.pembayaran.spp.controller.SiswaIndex;
+import aplikasi.pembayaran.spp.model.Siswa;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Test pencarian SiswaIndex tanpa database: kata kunci lewat trigram
+ * (NIS / nama / kelas, tidak case sensitive) dan filter kelas / status.
+ */
+public class SiswaIndexTest {
+
+    private static int gagal = 0;
+
+    public static void main(String[] args) throws SQLException {
+        System.out.println("=== Testing SiswaIndex ===");
+
+        SiswaIndex index = SiswaIndex.dari(Arrays.asList(
+            siswa("2024001", "Ahmad Rizky Pratama", "X RPL", "Aktif"),
+            siswa("2024002", "Siti Rahma", "X RPL", "Aktif"),
+            siswa("2024003", "Budi Santoso", "XI TKJ", "Aktif"),
+            siswa("2023004", "Rahmat Hidayat", "XI TKJ", "Lulus"),
+            siswa("2023005", "Dewi Ahmad", "XII RPL", "Pindah")
+        ));
+
+        cek("Kata kunci kosong = semua siswa", index.cari(""), "2024001", "2024002", "2024003", "2023004", "2023005");
+        cek("Nama (tidak case sensitive)", index.cari("AHMAD"), "2024001", "2023005");
+        cek("Potongan di tengah nama", index.cari("ahma"), "2024001", "2024002", "2023004", "2023005");
+        cek("NIS", index.cari("2023"), "2023004", "2023005");
+        cek("Kelas", index.cari("tkj"), "2024003", "2023004");
+        cek("Kata kunci < 3 huruf dicocokkan langsung", index.cari("at"), "2024001", "2023004");
+        cek("Trigram tidak melintasi batas kolom", index.cari("0x r"));
+        cek("Tidak ada yang cocok", index.cari("zzz"));
+
+        cek("Filter kelas", index.cari("", "X RPL", null), "2024001", "2024002");
+        cek("Filter status", index.cari(null, "Semua", "Aktif"), "2024001", "2024002", "2024003");
+        cek("Filter kelas + status + kata kunci", index.cari("rahm", "XI TKJ", "Lulus"), "2023004");
+        cek("Filter kelas tidak dikenal", index.cari("", "XII TKJ", null));
+
+        if (gagal > 0) {
+            System.out.println("\n❌ " + gagal + " pengecekan gagal");
+            System.exit(1);
+        }
+        System.out.println("\n=== SiswaIndex Test Completed ===");
+    }
+
+    private static Siswa siswa(String nis, String nama, String kelas, String status) {
+        return new Siswa(nis, nama, kelas, "2024/2025", "", "", 150000, 0, status, "");
+    }
+
+    private static void cek(String nama, List<Siswa> hasil, String... nisDiharapkan) {
+        List<String> nis = new ArrayList<>();
+        for (Siswa s : hasil) {
+            nis.add(s.getNis());
+        }
+        if (nis.equals(Arrays.asList(nisDiharapkan))) {
+            System.out.println("✅ " + nama);
+        } else {
+            System.out.println("❌ " + nama + " -> " + nis + ", seharusnya " + Arrays.toString(nisDiharapkan));
+            gagal++;
+        }
+    }
+}
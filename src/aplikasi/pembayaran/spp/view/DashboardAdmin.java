@@ -5,6 +5,12 @@ import aplikasi.pembayaran.spp.model.Pembayaran;  // Added for dashboard queries
 import aplikasi.pembayaran.spp.controller.UserController;
 import aplikasi.pembayaran.spp.controller.SiswaController;
 import aplikasi.pembayaran.spp.controller.KelasController;
+import aplikasi.pembayaran.spp.controller.DashboardStatsService;
+import aplikasi.pembayaran.spp.controller.DataVersi;
+import aplikasi.pembayaran.spp.model.DashboardStats;
+import aplikasi.pembayaran.spp.controller.TransaksiPager;
+import aplikasi.pembayaran.spp.controller.PencarianTransaksi;
+import aplikasi.pembayaran.spp.controller.SiswaIndex;
 import aplikasi.pembayaran.spp.model.Koneksi;  // Added for direct DB queries
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
@@ -15,6 +21,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import javax.swing.Timer;
 
@@ -62,6 +69,10 @@ public class DashboardAdmin extends JFrame implements ActionListener {
     private JPanel laporanContentPanel;
     private JPanel userContentPanel;
     private JPanel siswaContentPanel;
+    // Pembuat & pelepas panel CardLayout
+    private PanelMalas panelKonten;
+    // Filter tabel siswa: hanya permintaan terakhir yang ditampilkan
+    private final PemuatLatar.Slot slotSiswa = new PemuatLatar.Slot();
     // Table references
     private JTable siswaTable;
     private JTable kelasTable;
@@ -69,6 +80,9 @@ public class DashboardAdmin extends JFrame implements ActionListener {
     private Timer timeUpdateTimer;
     // Timer untuk live search di transaksi panel
     private Timer transaksiSearchTimer;
+    private KeysetTableModel transaksiTableModel;
+    // Refresh kartu & transaksi terbaru hanya kalau pembayaran/siswa berubah
+    private PemantauData pemantauData;
 
     /**
      * Constructor - Setup dashboard untuk Admin
@@ -82,6 +96,8 @@ public class DashboardAdmin extends JFrame implements ActionListener {
         setupUI();
         setupEventHandlers();
         startTimeUpdate();
+        pemantauData = new PemantauData(this::refreshDashboard, DataVersi.Tabel.PEMBAYARAN, DataVersi.Tabel.SISWA);
+        pemantauData.start();
         showDashboardContent(); // Default show dashboard
         System.out.println("💰 Dashboard Admin loaded untuk: " + user.getNamaLengkap());
     }
@@ -218,20 +234,46 @@ public class DashboardAdmin extends JFrame implements ActionListener {
         contentPanel = new JPanel(new CardLayout());
         contentPanel.setBackground(new Color(236, 240, 241)); // Light gray
         contentPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
-        // Create different content panels
-        createDashboardContent();
-        createTransaksiContent();
+        // Panel dibuat (dan datanya dimuat) saat menu pertama kali dibuka,
+        // panel selain dashboard dilepas lagi kalau lama tidak dilihat
+        panelKonten = new PanelMalas(contentPanel);
+        panelKonten.daftar("DASHBOARD", () -> {
+            createDashboardContent();
+            return dashboardContentPanel;
+        });
+        panelKonten.daftar("TRANSAKSI", () -> {
+            createTransaksiContent();
+            return transaksiContentPanel;
+        }, () -> {
+            if (transaksiSearchTimer != null) transaksiSearchTimer.stop();
+            transaksiSearchTimer = null;
+            if (transaksiTableModel != null) transaksiTableModel.tutup();
+            transaksiTableModel = null;
+            transaksiContentPanel = null;
+        });
 //        createPotonganContent();
-        createLaporanContent();
-        createUserContent();
-        createSiswaContent();
-        // Add to CardLayout
-        contentPanel.add(dashboardContentPanel, "DASHBOARD");
-        contentPanel.add(transaksiContentPanel, "TRANSAKSI");
-        contentPanel.add(laporanContentPanel, "LAPORAN");
-        contentPanel.add(userContentPanel, "USER");
-        contentPanel.add(siswaContentPanel, "SISWA");
-        contentPanel.add(createKelasContentPanel(), "KELAS");
+        panelKonten.daftar("LAPORAN", () -> {
+            createLaporanContent();
+            return laporanContentPanel;
+        }, () -> laporanContentPanel = null);
+        panelKonten.daftar("USER", () -> {
+            createUserContent();
+            return userContentPanel;
+        }, () -> {
+            userContentPanel = null;
+            userTable = null;
+            userTableModel = null;
+            lblUserResultCount = null;
+        });
+        panelKonten.daftar("SISWA", () -> {
+            createSiswaContent();
+            return siswaContentPanel;
+        }, () -> {
+            siswaContentPanel = null;
+            siswaTable = null;
+        });
+        panelKonten.daftar("KELAS", this::createKelasContentPanel, () -> kelasTable = null);
+        panelKonten.start();
     }
 
     /**
@@ -249,20 +291,18 @@ public class DashboardAdmin extends JFrame implements ActionListener {
         JPanel statsPanel = new JPanel(new GridLayout(2, 2, 20, 20));
         statsPanel.setOpaque(false);
         // Create stats cards with placeholders - to be updated with real data
-        JPanel saldoCard = createStatsCard("💰 Saldo Kas", "Rp 0", "total saldo sekolah", new Color(46, 204, 113));
-        JPanel pemasukanCard = createStatsCard("📈 Pemasukan Hari Ini", "Rp 0", "dari 0 transaksi", new Color(52, 152, 219));
-        JPanel totalTransaksiCard = createStatsCard("📊 Total Transaksi", "0", "bulan ini", new Color(155, 89, 182));
-        JPanel pendingCard = createStatsCard("⚠️ Transaksi Pending", "0", "perlu review admin", new Color(230, 126, 34));
+        JPanel saldoCard = createStatsCard("💰 Saldo Kas", "...", "Memuat...", new Color(46, 204, 113));
+        JPanel pemasukanCard = createStatsCard("📈 Pemasukan Hari Ini", "...", "Memuat...", new Color(52, 152, 219));
+        JPanel totalTransaksiCard = createStatsCard("📊 Total Transaksi", "...", "Memuat...", new Color(155, 89, 182));
+        JPanel pendingCard = createStatsCard("⚠️ Transaksi Pending", "...", "Memuat...", new Color(230, 126, 34));
 
         statsPanel.add(saldoCard);
         statsPanel.add(pemasukanCard);
         statsPanel.add(totalTransaksiCard);
         statsPanel.add(pendingCard);
 
-        // Load real data for stats cards
-        SwingUtilities.invokeLater(() -> {
-            updateStatsCards(saldoCard, pemasukanCard, totalTransaksiCard, pendingCard);
-        });
+        // Load real data for stats cards (background)
+        updateStatsCards(saldoCard, pemasukanCard, totalTransaksiCard, pendingCard);
         // Recent transactions panel
         JPanel recentTransPanel = new JPanel(new BorderLayout());
         recentTransPanel.setBackground(Color.WHITE);
@@ -300,54 +340,66 @@ public class DashboardAdmin extends JFrame implements ActionListener {
      * Method to load recent transactions from database
      */
     private void loadRecentTransactions(DefaultTableModel tableModel) {
-        try {
-            // Clear existing data
-            tableModel.setRowCount(0);
-
-            // Load recent transactions from database (last 10 transactions)
-            String sql = "SELECT p.id_transaksi, p.tanggal_bayar, p.nis_siswa, s.nama_lengkap, " +
-                         "p.jumlah_bayar, p.status_pembayaran " +
-                         "FROM pembayaran p " +
-                         "JOIN siswa s ON p.nis_siswa = s.nis " +
-                         "ORDER BY p.tanggal_bayar DESC " +
-                         "LIMIT 10";
-
-            try (java.sql.PreparedStatement stmt = Koneksi.getConnection().prepareStatement(sql);
-                 java.sql.ResultSet rs = stmt.executeQuery()) {
-
-                while (rs.next()) {
-                    String waktu = rs.getTimestamp("tanggal_bayar").toString().substring(11, 16); // Extract time HH:MM
-                    String nis = rs.getString("nis_siswa");
-                    String nama = rs.getString("nama_lengkap");
-                    double jumlah = rs.getDouble("jumlah_bayar");
-                    String status = rs.getString("status_pembayaran");
-
-                    String statusDisplay;
-                    switch (status) {
-                        case "Lunas":
-                            statusDisplay = "✅ Berhasil";
-                            break;
-                        case "Cicilan":
-                            statusDisplay = "⏳ Cicilan";
-                            break;
-                        default:
-                            statusDisplay = "⚠️ " + status;
-                    }
-
-                    Object[] row = {
-                        waktu,
-                        nis,
-                        nama,
-                        "Rp " + String.format("%.0f", jumlah),
-                        statusDisplay
-                    };
+        PemuatLatar.muat("transaksi terbaru", this::getRecentTransactionRows,
+                rows -> isiTabel(tableModel, rows), null);
+    }
 
-                    tableModel.addRow(row);
+    /**
+     * Baris 10 transaksi terakhir (dipanggil dari background)
+     */
+    private List<Object[]> getRecentTransactionRows() throws java.sql.SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        // Load recent transactions from database (last 10 transactions)
+        String sql = "SELECT p.id_transaksi, p.tanggal_bayar, p.nis_siswa, s.nama_lengkap, " +
+                     "p.jumlah_bayar, p.status_pembayaran " +
+                     "FROM pembayaran p " +
+                     "JOIN siswa s ON p.nis_siswa = s.nis " +
+                     "ORDER BY p.tanggal_bayar DESC " +
+                     "LIMIT 10";
+
+        try (java.sql.PreparedStatement stmt = Koneksi.getConnection().prepareStatement(sql);
+             java.sql.ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                String waktu = rs.getTimestamp("tanggal_bayar").toString().substring(11, 16); // Extract time HH:MM
+                String nis = rs.getString("nis_siswa");
+                String nama = rs.getString("nama_lengkap");
+                double jumlah = rs.getDouble("jumlah_bayar");
+                String status = rs.getString("status_pembayaran");
+
+                String statusDisplay;
+                switch (status) {
+                    case "Lunas":
+                        statusDisplay = "✅ Berhasil";
+                        break;
+                    case "Cicilan":
+                        statusDisplay = "⏳ Cicilan";
+                        break;
+                    default:
+                        statusDisplay = "⚠️ " + status;
                 }
+
+                Object[] row = {
+                    waktu,
+                    nis,
+                    nama,
+                    "Rp " + String.format("%.0f", jumlah),
+                    statusDisplay
+                };
+
+                rows.add(row);
             }
-        } catch (Exception e) {
-            System.err.println("❌ Error loading recent transactions: " + e.getMessage());
-            e.printStackTrace();
+        }
+        return rows;
+    }
+
+    /**
+     * Ganti isi tabel dengan baris hasil load background
+     */
+    private static void isiTabel(DefaultTableModel tableModel, List<Object[]> rows) {
+        tableModel.setRowCount(0);
+        for (Object[] row : rows) {
+            tableModel.addRow(row);
         }
     }
 
@@ -355,35 +407,19 @@ public class DashboardAdmin extends JFrame implements ActionListener {
      * Method to update stats cards with real data from database
      */
     private void updateStatsCards(JPanel saldoCard, JPanel pemasukanCard, JPanel totalTransaksiCard, JPanel pendingCard) {
-        try {
-            // Update saldo kas
-            String totalSaldo = getTotalSaldo();
-            SwingUtilities.invokeLater(() -> {
-                updateCardValue(saldoCard, "Rp " + totalSaldo, "total saldo sekolah");
-            });
-
-            // Update pemasukan hari ini
-            Object[] todayStats = getPemasukanHariIni();
-            SwingUtilities.invokeLater(() -> {
-                updateCardValue(pemasukanCard, "Rp " + String.valueOf(todayStats[0]), "dari " + String.valueOf(todayStats[1]) + " transaksi");
-            });
-
-            // Update total transaksi bulan ini
-            int totalTransaksiBulan = getTotalTransaksiBulanIni();
-            SwingUtilities.invokeLater(() -> {
-                updateCardValue(totalTransaksiCard, String.valueOf(totalTransaksiBulan), "bulan ini");
-            });
-
-            // Update pending transactions
-            int pendingTransaksi = getTotalTransaksiPending();
-            SwingUtilities.invokeLater(() -> {
-                updateCardValue(pendingCard, String.valueOf(pendingTransaksi), "perlu review admin");
-            });
-
-        } catch (Exception e) {
-            System.err.println("❌ Error updating stats cards: " + e.getMessage());
-            e.printStackTrace();
-        }
+        // Satu snapshot untuk semua kartu (dipakai bersama dashboard lain, lihat DashboardStatsService),
+        // diambil di background lalu ditampilkan di EDT
+        PemuatLatar.muat("statistik dashboard", () -> DashboardStatsService.getInstance().getSnapshot(), stats -> {
+            updateCardValue(saldoCard, "Rp " + String.format("%.0f", stats.getTotalSaldo()), "total saldo sekolah");
+            updateCardValue(pemasukanCard, "Rp " + String.format("%.0f", stats.getPemasukanHariIni()),
+                    "dari " + stats.getTransaksiHariIni() + " transaksi");
+            updateCardValue(totalTransaksiCard, String.valueOf(stats.getTransaksiBulanIni()), "bulan ini");
+            updateCardValue(pendingCard, String.valueOf(stats.getTransaksiPending()), "perlu review admin");
+        }, e -> {
+            for (JPanel card : new JPanel[]{saldoCard, pemasukanCard, totalTransaksiCard, pendingCard}) {
+                updateCardValue(card, "Error", "Gagal memuat data");
+            }
+        });
     }
 
     /**
@@ -412,88 +448,6 @@ public class DashboardAdmin extends JFrame implements ActionListener {
         }
     }
 
-    /**
-     * Method to get total saldo from database
-     */
-    private String getTotalSaldo() {
-        try {
-            // This would be calculated from all payments in the system
-            String sql = "SELECT SUM(jumlah_bayar) as total_saldo FROM pembayaran WHERE status_pembayaran = 'Lunas'";
-            try (java.sql.PreparedStatement stmt = Koneksi.getConnection().prepareStatement(sql);
-                 java.sql.ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    double total = rs.getDouble("total_saldo");
-                    if (rs.wasNull()) total = 0;
-                    return String.format("%.0f", total);
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("❌ Error getting total saldo: " + e.getMessage());
-        }
-        return "0";
-    }
-
-    /**
-     * Method to get pemasukan hari ini
-     */
-    private Object[] getPemasukanHariIni() {
-        try {
-            String sql = "SELECT SUM(jumlah_bayar) as total_hari_ini, COUNT(*) as jumlah_transaksi " +
-                         "FROM pembayaran WHERE DATE(tanggal_bayar) = CURDATE()";
-            try (java.sql.PreparedStatement stmt = Koneksi.getConnection().prepareStatement(sql);
-                 java.sql.ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    double total = rs.getDouble("total_hari_ini");
-                    if (rs.wasNull()) total = 0;
-                    int count = rs.getInt("jumlah_transaksi");
-                    if (rs.wasNull()) count = 0;
-                    return new Object[]{total, count};
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("❌ Error getting pemasukan hari ini: " + e.getMessage());
-        }
-        return new Object[]{0, 0};
-    }
-
-    /**
-     * Method to get total transaksi bulan ini
-     */
-    private int getTotalTransaksiBulanIni() {
-        try {
-            String sql = "SELECT COUNT(*) as total_transaksi " +
-                         "FROM pembayaran WHERE YEAR(tanggal_bayar) = YEAR(CURDATE()) AND MONTH(tanggal_bayar) = MONTH(CURDATE())";
-            try (java.sql.PreparedStatement stmt = Koneksi.getConnection().prepareStatement(sql);
-                 java.sql.ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt("total_transaksi");
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("❌ Error getting total transaksi bulan ini: " + e.getMessage());
-        }
-        return 0;
-    }
-
-    /**
-     * Method to get total pending transactions
-     */
-    private int getTotalTransaksiPending() {
-        try {
-            String sql = "SELECT COUNT(*) as pending_count " +
-                         "FROM pembayaran WHERE status_pembayaran = 'Belum Lunas'";
-            try (java.sql.PreparedStatement stmt = Koneksi.getConnection().prepareStatement(sql);
-                 java.sql.ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt("pending_count");
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("❌ Error getting total pending transaksi: " + e.getMessage());
-        }
-        return 0;
-    }
-
     /**
      * Method untuk refresh dashboard data (stats & recent transactions)
      */
@@ -607,12 +561,10 @@ public class DashboardAdmin extends JFrame implements ActionListener {
             "ID Transaksi", "Tanggal", "NIS", "Nama Siswa", "Bulan SPP",
             "Nominal", "Total Bayar", "Status", "User Input"
         };
-        DefaultTableModel transaksiTableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // All cells are read-only
-            }
-        };
+        // Data dimuat per halaman saat di-scroll (keyset pagination), read-only;
+        // nilai disimpan mentah per kolom dan baru diformat oleh renderer
+        KeysetTableModel transaksiTableModel = new KeysetTableModel(columns, TRANSAKSI_TIPE);
+        this.transaksiTableModel = transaksiTableModel;
 
         JTable transaksiTable = new JTable(transaksiTableModel);
         transaksiTable.setFont(new Font("Arial", Font.PLAIN, 11));
@@ -620,6 +572,15 @@ public class DashboardAdmin extends JFrame implements ActionListener {
         transaksiTable.getTableHeader().setBackground(new Color(46, 204, 113));
         transaksiTable.getTableHeader().setForeground(Color.WHITE);
         transaksiTable.setAutoResizeMode(JTable.AUTO_RESIZE_ALL_COLUMNS);
+        RupiahRenderer rupiahRenderer = new RupiahRenderer();
+        transaksiTable.getColumnModel().getColumn(5).setCellRenderer(rupiahRenderer);
+        transaksiTable.getColumnModel().getColumn(6).setCellRenderer(rupiahRenderer);
+        transaksiTable.getColumnModel().getColumn(7).setCellRenderer(new javax.swing.table.DefaultTableCellRenderer() {
+            @Override
+            protected void setValue(Object value) {
+                setText(value == null ? "" : labelStatusTransaksi((String) value));
+            }
+        });
 
         JScrollPane scrollPane = new JScrollPane(transaksiTable);
         scrollPane.setPreferredSize(new Dimension(0, 400));
@@ -661,109 +622,46 @@ public class DashboardAdmin extends JFrame implements ActionListener {
         transaksiContentPanel.add(scrollPane, BorderLayout.CENTER);
     }
 
+    // Kolom histori transaksi, urutannya sama dengan kolom tabel
+    private static final String TRANSAKSI_KOLOM = "p.id_transaksi, p.tanggal_bayar, p.nis_siswa, s.nama_lengkap, " +
+            "p.bulan_tahun, p.nominal_spp, p.jumlah_bayar, p.status_pembayaran, p.user_input";
+    private static final String TRANSAKSI_JOIN = "JOIN siswa s ON p.nis_siswa = s.nis";
+    private static final Class<?>[] TRANSAKSI_TIPE = {
+        String.class, java.sql.Timestamp.class, String.class, String.class, String.class,
+        Double.class, Double.class, String.class, String.class
+    };
+
     /**
-     * Helper method to load all transactions from database
+     * Helper method to load all transactions from database (per halaman, lihat TransaksiPager)
      */
-    private void loadAllTransaksiData(DefaultTableModel tableModel) {
-        // Clear existing data
-        tableModel.setRowCount(0);
-
-        try {
-            String sql = "SELECT p.*, s.nama_lengkap FROM pembayaran p " +
-                         "JOIN siswa s ON p.nis_siswa = s.nis " +
-                         "ORDER BY p.tanggal_bayar DESC";
-
-            try (java.sql.PreparedStatement stmt = Koneksi.getConnection().prepareStatement(sql);
-                 java.sql.ResultSet rs = stmt.executeQuery()) {
-
-                while (rs.next()) {
-                    // Format the data as needed
-                    String statusDisplay = rs.getString("status_pembayaran");
-                    if ("Lunas".equals(statusDisplay)) {
-                        statusDisplay = "✅ Lunas";
-                    } else if ("Cicilan".equals(statusDisplay)) {
-                        statusDisplay = "⏳ Cicilan";
-                    } else if ("Belum Lunas".equals(statusDisplay)) {
-                        statusDisplay = "⚠️ Belum Lunas";
-                    } else {
-                        statusDisplay = "❓ " + statusDisplay;
-                    }
-
-                    Object[] row = {
-                        rs.getString("id_transaksi"),
-                        rs.getTimestamp("tanggal_bayar").toString(),
-                        rs.getString("nis_siswa"),
-                        rs.getString("nama_lengkap"),
-                        rs.getString("bulan_tahun"),
-                        "Rp " + String.format("%.0f", rs.getDouble("nominal_spp")),
-                        "Rp " + String.format("%.0f", rs.getDouble("jumlah_bayar")),
-                        statusDisplay,
-                        rs.getString("user_input")
-                    };
-                    tableModel.addRow(row);
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("❌ Error loading transaksi: " + e.getMessage());
-            e.printStackTrace();
-        }
+    private void loadAllTransaksiData(KeysetTableModel tableModel) {
+        tableModel.setPager(new TransaksiPager(TRANSAKSI_KOLOM, TRANSAKSI_JOIN, null));
     }
 
     /**
      * Helper method to perform search with delay
      */
-    private void performSearch(String searchTerm, DefaultTableModel tableModel) {
-        // Clear existing data
-        tableModel.setRowCount(0);
-
-        try {
-            String sql = "SELECT p.*, s.nama_lengkap FROM pembayaran p " +
-                         "JOIN siswa s ON p.nis_siswa = s.nis " +
-                         "WHERE p.id_transaksi LIKE ? OR p.nis_siswa LIKE ? OR s.nama_lengkap LIKE ? " +
-                         "OR p.bulan_tahun LIKE ? OR p.status_pembayaran LIKE ? " +
-                         "ORDER BY p.tanggal_bayar DESC";
-
-            try (java.sql.PreparedStatement stmt = Koneksi.getConnection().prepareStatement(sql)) {
-                String searchPattern = "%" + searchTerm + "%";
-                stmt.setString(1, searchPattern);
-                stmt.setString(2, searchPattern);
-                stmt.setString(3, searchPattern);
-                stmt.setString(4, searchPattern);
-                stmt.setString(5, searchPattern);
-
-                try (java.sql.ResultSet rs = stmt.executeQuery()) {
-                    while (rs.next()) {
-                        // Format the data as needed
-                        String statusDisplay = rs.getString("status_pembayaran");
-                        if ("Lunas".equals(statusDisplay)) {
-                            statusDisplay = "✅ Lunas";
-                        } else if ("Cicilan".equals(statusDisplay)) {
-                            statusDisplay = "⏳ Cicilan";
-                        } else if ("Belum Lunas".equals(statusDisplay)) {
-                            statusDisplay = "⚠️ Belum Lunas";
-                        } else {
-                            statusDisplay = "❓ " + statusDisplay;
-                        }
+    private void performSearch(String searchTerm, KeysetTableModel tableModel) {
+        if (searchTerm.isEmpty()) {
+            loadAllTransaksiData(tableModel);
+            return;
+        }
+        // FULLTEXT (ngram) dengan hasil terurut relevansi, lihat PencarianTransaksi
+        tableModel.setPager(PencarianTransaksi.pager(TRANSAKSI_KOLOM, TRANSAKSI_JOIN, searchTerm));
+    }
 
-                        Object[] row = {
-                            rs.getString("id_transaksi"),
-                            rs.getTimestamp("tanggal_bayar").toString(),
-                            rs.getString("nis_siswa"),
-                            rs.getString("nama_lengkap"),
-                            rs.getString("bulan_tahun"),
-                            "Rp " + String.format("%.0f", rs.getDouble("nominal_spp")),
-                            "Rp " + String.format("%.0f", rs.getDouble("jumlah_bayar")),
-                            statusDisplay,
-                            rs.getString("user_input")
-                        };
-                        tableModel.addRow(row);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("❌ Error searching transaksi: " + e.getMessage());
-            e.printStackTrace();
+    /**
+     * Label status transaksi untuk renderer kolom Status
+     */
+    private static String labelStatusTransaksi(String status) {
+        if ("Lunas".equals(status)) {
+            return "✅ Lunas";
+        } else if ("Cicilan".equals(status)) {
+            return "⏳ Cicilan";
+        } else if ("Belum Lunas".equals(status)) {
+            return "⚠️ Belum Lunas";
         }
+        return "❓ " + status;
     }
 
     /**
@@ -834,51 +732,8 @@ public class DashboardAdmin extends JFrame implements ActionListener {
      * Helper method to load detailed payment data from database
      */
     private void loadDetailedPaymentData(DefaultTableModel tableModel) {
-        // Clear existing data
-        tableModel.setRowCount(0);
-
-        try {
-            // Query to get detailed payment information
-            String sql = "SELECT p.*, s.nama_lengkap, s.kelas FROM pembayaran p " +
-                         "JOIN siswa s ON p.nis_siswa = s.nis " +
-                         "ORDER BY p.tanggal_bayar DESC " +
-                         "LIMIT 100"; // Limit to last 100 records for performance
-
-            try (java.sql.PreparedStatement stmt = Koneksi.getConnection().prepareStatement(sql);
-                 java.sql.ResultSet rs = stmt.executeQuery()) {
-
-                while (rs.next()) {
-                    String statusDisplay = rs.getString("status_pembayaran");
-                    if ("Lunas".equals(statusDisplay)) {
-                        statusDisplay = "✅ Lunas";
-                    } else if ("Cicilan".equals(statusDisplay)) {
-                        statusDisplay = "⏳ Cicilan";
-                    } else if ("Belum Lunas".equals(statusDisplay)) {
-                        statusDisplay = "⚠️ Belum Lunas";
-                    } else {
-                        statusDisplay = "❓ " + statusDisplay;
-                    }
-
-                    Object[] row = {
-                        rs.getString("id_transaksi"),
-                        rs.getTimestamp("tanggal_bayar").toString(),
-                        rs.getString("nis_siswa"),
-                        rs.getString("nama_lengkap"),
-                        rs.getString("kelas"),
-                        rs.getString("bulan_tahun"),
-                        "Rp " + String.format("%.0f", rs.getDouble("nominal_spp")),
-                        "Rp " + String.format("%.0f", rs.getDouble("jumlah_bayar")),
-                        statusDisplay,
-                        rs.getString("metode_pembayaran")
-                    };
-
-                    tableModel.addRow(row);
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("❌ Error loading detailed payment data: " + e.getMessage());
-            e.printStackTrace();
-
+        PemuatLatar.muat("detail pembayaran", this::getDetailedPaymentRows,
+                rows -> isiTabel(tableModel, rows), e -> {
             // Add some placeholder data in case of error
             Object[][] reportData = {
                 {"TRX20240401001", "2024-04-01 14:30:25", "2024001", "Ahmad Rizky", "XII IPA 1", "Maret 2024", "Rp 150,000", "Rp 150,000", "✅ Lunas", "Cash"},
@@ -887,11 +742,53 @@ public class DashboardAdmin extends JFrame implements ActionListener {
                 {"TRX20240331001", "2024-03-31 15:45:30", "2024004", "Maya Sari", "X IPS 1", "Maret 2024", "Rp 100,000", "Rp 100,000", "✅ Lunas", "Cash"},
                 {"TRX20240330005", "2024-03-30 10:15:22", "2024005", "Dedi Kurniawan", "XI IPA 2", "Maret 2024", "Rp 130,000", "Rp 80,000", "⏳ Cicilan", "Transfer"},
             };
+            isiTabel(tableModel, java.util.Arrays.asList(reportData));
+        });
+    }
+
+    /**
+     * Baris 100 pembayaran terakhir (dipanggil dari background)
+     */
+    private List<Object[]> getDetailedPaymentRows() throws java.sql.SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        // Query to get detailed payment information
+        String sql = "SELECT p.*, s.nama_lengkap, s.kelas FROM pembayaran p " +
+                     "JOIN siswa s ON p.nis_siswa = s.nis " +
+                     "ORDER BY p.tanggal_bayar DESC " +
+                     "LIMIT 100"; // Limit to last 100 records for performance
+
+        try (java.sql.PreparedStatement stmt = Koneksi.getConnection().prepareStatement(sql);
+             java.sql.ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                String statusDisplay = rs.getString("status_pembayaran");
+                if ("Lunas".equals(statusDisplay)) {
+                    statusDisplay = "✅ Lunas";
+                } else if ("Cicilan".equals(statusDisplay)) {
+                    statusDisplay = "⏳ Cicilan";
+                } else if ("Belum Lunas".equals(statusDisplay)) {
+                    statusDisplay = "⚠️ Belum Lunas";
+                } else {
+                    statusDisplay = "❓ " + statusDisplay;
+                }
 
-            for (Object[] row : reportData) {
-                tableModel.addRow(row);
+                Object[] row = {
+                    rs.getString("id_transaksi"),
+                    rs.getTimestamp("tanggal_bayar").toString(),
+                    rs.getString("nis_siswa"),
+                    rs.getString("nama_lengkap"),
+                    rs.getString("kelas"),
+                    rs.getString("bulan_tahun"),
+                    "Rp " + String.format("%.0f", rs.getDouble("nominal_spp")),
+                    "Rp " + String.format("%.0f", rs.getDouble("jumlah_bayar")),
+                    statusDisplay,
+                    rs.getString("metode_pembayaran")
+                };
+
+                rows.add(row);
             }
         }
+        return rows;
     }
 
     // ========================================
@@ -906,7 +803,13 @@ public class DashboardAdmin extends JFrame implements ActionListener {
             System.err.println("❌ currentUser is null!");
             return;
         }
-        List<User> users = userController.getAllUsers();
+        PemuatLatar.muat("data user", userController::getAllUsers, this::tampilkanUsers, null);
+    }
+
+    private void tampilkanUsers(List<User> users) {
+        if (userTableModel == null) {
+            return; // panel user sudah dilepas sebelum data selesai dimuat
+        }
         userTableModel.setRowCount(0);
         for (User u : users) {
             userTableModel.addRow(new Object[]{
@@ -1264,11 +1167,12 @@ public class DashboardAdmin extends JFrame implements ActionListener {
         siswaSearchPanel.add(new JLabel("Kelas:"));
         JComboBox<String> kelasCombo = new JComboBox<>();
         kelasCombo.addItem("Semua");
-        // Populate kelas combo with actual class names from data
-        List<String> uniqueKelas = siswaController.getUniqueKelas();
-        for (String kelas : uniqueKelas) {
-            kelasCombo.addItem(kelas);
-        }
+        // Populate kelas combo with actual class names from data (background)
+        PemuatLatar.muat("daftar kelas siswa", siswaController::getUniqueKelas, uniqueKelas -> {
+            for (String kelas : uniqueKelas) {
+                kelasCombo.addItem(kelas);
+            }
+        }, null);
         siswaSearchPanel.add(kelasCombo);
         siswaSearchPanel.add(new JLabel("Status:"));
         JComboBox<String> statusSiswaCombo = new JComboBox<>(new String[]{"Semua", "Aktif", "Lulus", "Pindah"});
@@ -1550,14 +1454,29 @@ public class DashboardAdmin extends JFrame implements ActionListener {
      * Method untuk load data siswa ke table
      */
     private void loadSiswaData(DefaultTableModel tableModel) {
-        // Clear existing data
-        tableModel.setRowCount(0);
-        // Get data from controller
-        List<aplikasi.pembayaran.spp.model.Siswa> siswaList = siswaController.getAllSiswa();
-        // Add to table
+        loadFilteredSiswaData(tableModel, "", "Semua", "Semua");
+    }
+
+    /**
+     * Method untuk load data siswa dengan filter ke table
+     */
+    private void loadFilteredSiswaData(DefaultTableModel tableModel, String searchKeyword, String selectedKelas, String selectedStatus) {
+        slotSiswa.muat("data siswa", () -> getSiswaRows(searchKeyword, selectedKelas, selectedStatus),
+                rows -> isiTabel(tableModel, rows), null);
+    }
+
+    /**
+     * Baris tabel siswa sesuai filter (dipanggil dari background)
+     */
+    private List<Object[]> getSiswaRows(String searchKeyword, String selectedKelas, String selectedStatus)
+            throws java.sql.SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        // Filter kata kunci, kelas & status dari index siswa bersama (di memori)
+        List<aplikasi.pembayaran.spp.model.Siswa> siswaList =
+                SiswaIndex.getInstance().cari(searchKeyword, selectedKelas, selectedStatus);
         for (aplikasi.pembayaran.spp.model.Siswa s : siswaList) {
-            // Check if user account exists for this student
-            String loginStatus = userController.isUsernameExists(s.getNis()) ? "✅ Sudah" : "❌ Belum";
+            // Status akun sudah ikut di query siswa (LEFT JOIN users)
+            String loginStatus = s.isPunyaAkun() ? "✅ Sudah" : "❌ Belum";
             Object[] rowData = {
                     s.getNis(),
                     s.getNamaLengkap(),
@@ -1567,41 +1486,9 @@ public class DashboardAdmin extends JFrame implements ActionListener {
                     s.getStatusSiswa(),
                     loginStatus
             };
-            tableModel.addRow(rowData);
-        }
-    }
-
-    /**
-     * Method untuk load data siswa dengan filter ke table
-     */
-    private void loadFilteredSiswaData(DefaultTableModel tableModel, String searchKeyword, String selectedKelas, String selectedStatus) {
-        // Clear existing data
-        tableModel.setRowCount(0);
-        // Get data from controller
-        List<aplikasi.pembayaran.spp.model.Siswa> siswaList = siswaController.getAllSiswa();
-        // Apply filters
-        for (aplikasi.pembayaran.spp.model.Siswa s : siswaList) {
-            boolean matchesSearch = searchKeyword.isEmpty() ||
-                    s.getNis().toLowerCase().contains(searchKeyword) ||
-                    s.getNamaLengkap().toLowerCase().contains(searchKeyword) ||
-                    s.getKelas().toLowerCase().contains(searchKeyword);
-            boolean matchesKelas = "Semua".equals(selectedKelas) || s.getKelas().equals(selectedKelas);
-            boolean matchesStatus = "Semua".equals(selectedStatus) || s.getStatusSiswa().equals(selectedStatus);
-            if (matchesSearch && matchesKelas && matchesStatus) {
-                // Check if user account exists for this student
-                String loginStatus = userController.isUsernameExists(s.getNis()) ? "✅ Sudah" : "❌ Belum";
-                Object[] rowData = {
-                        s.getNis(),
-                        s.getNamaLengkap(),
-                        s.getKelas(),
-                        s.getTahunAjaran(),
-                        String.format("Rp %.0f", s.getNominalSPP()),
-                        s.getStatusSiswa(),
-                        loginStatus
-                };
-                tableModel.addRow(rowData);
-            }
+            rows.add(rowData);
         }
+        return rows;
     }
 
     /**
@@ -1655,14 +1542,7 @@ public class DashboardAdmin extends JFrame implements ActionListener {
             String kelasName = kelasNameObj.toString().trim();
             String angkatan = angkatanObj.toString().trim();
 
-            List<aplikasi.pembayaran.spp.model.Kelas> allKelas = kelasController.getAllKelas();
-            aplikasi.pembayaran.spp.model.Kelas selectedKelas = null;
-            for (aplikasi.pembayaran.spp.model.Kelas k : allKelas) {
-                if (k.getKelas().equals(kelasName) && k.getAngkatan().equals(angkatan)) {
-                    selectedKelas = k;
-                    break;
-                }
-            }
+            aplikasi.pembayaran.spp.model.Kelas selectedKelas = kelasController.getKelas(kelasName, angkatan);
 
             if (selectedKelas == null) {
                 JOptionPane.showMessageDialog(this,
@@ -1779,29 +1659,22 @@ public class DashboardAdmin extends JFrame implements ActionListener {
      * Method untuk load data kelas ke table
      */
     private void loadKelasData(DefaultTableModel tableModel) {
-        // Clear existing data
-        tableModel.setRowCount(0);
-
-        // Get data from controller
-        List<aplikasi.pembayaran.spp.model.Kelas> kelasList = kelasController.getAllKelas();
-
-        // Add to table
-        for (aplikasi.pembayaran.spp.model.Kelas k : kelasList) {
-            Object[] rowData = {
-                k.getKelas(),
-                k.getAngkatan(),
-                String.format("Rp %.0f", k.getNominalSPP())
-            };
-            tableModel.addRow(rowData);
-        }
+        loadFilteredKelasData(tableModel, "", "Semua");
     }
 
     /**
      * Method untuk load data kelas dengan filter ke table
      */
     private void loadFilteredKelasData(DefaultTableModel tableModel, String searchKeyword, String selectedAngkatan) {
-        // Clear existing data
-        tableModel.setRowCount(0);
+        PemuatLatar.muat("data kelas", () -> getKelasRows(searchKeyword, selectedAngkatan),
+                rows -> isiTabel(tableModel, rows), null);
+    }
+
+    /**
+     * Baris tabel kelas sesuai filter (dipanggil dari background)
+     */
+    private List<Object[]> getKelasRows(String searchKeyword, String selectedAngkatan) {
+        List<Object[]> rows = new ArrayList<>();
 
         // Get data from controller
         List<aplikasi.pembayaran.spp.model.Kelas> kelasList = kelasController.getAllKelas();
@@ -1819,9 +1692,10 @@ public class DashboardAdmin extends JFrame implements ActionListener {
                     k.getAngkatan(),
                     String.format("Rp %.0f", k.getNominalSPP())
                 };
-                tableModel.addRow(rowData);
+                rows.add(rowData);
             }
         }
+        return rows;
     }
 
     /**
@@ -1850,15 +1724,8 @@ public class DashboardAdmin extends JFrame implements ActionListener {
         String kelasName = kelasNameObj.toString().trim();
         String angkatan = angkatanObj.toString().trim();
 
-        // Find the full class object in the database
-        List<aplikasi.pembayaran.spp.model.Kelas> allKelas = kelasController.getAllKelas();
-        aplikasi.pembayaran.spp.model.Kelas selectedKelas = null;
-        for (aplikasi.pembayaran.spp.model.Kelas k : allKelas) {
-            if (k.getKelas().equals(kelasName) && k.getAngkatan().equals(angkatan)) {
-                selectedKelas = k;
-                break;
-            }
-        }
+        // Find the full class object (referensi kelas)
+        aplikasi.pembayaran.spp.model.Kelas selectedKelas = kelasController.getKelas(kelasName, angkatan);
 
         if (selectedKelas == null) {
             JOptionPane.showMessageDialog(this,
@@ -1901,14 +1768,7 @@ public class DashboardAdmin extends JFrame implements ActionListener {
         String namaKelas = kelasName;
 
         // Find the full class object to get its ID for deletion
-        List<aplikasi.pembayaran.spp.model.Kelas> allKelas = kelasController.getAllKelas();
-        aplikasi.pembayaran.spp.model.Kelas classToDelete = null;
-        for (aplikasi.pembayaran.spp.model.Kelas k : allKelas) {
-            if (k.getKelas().equals(kelasName) && k.getAngkatan().equals(angkatan)) {
-                classToDelete = k;
-                break;
-            }
-        }
+        aplikasi.pembayaran.spp.model.Kelas classToDelete = kelasController.getKelas(kelasName, angkatan);
 
         if (classToDelete == null) {
             JOptionPane.showMessageDialog(this,
@@ -1997,8 +1857,7 @@ public class DashboardAdmin extends JFrame implements ActionListener {
      * Method untuk switch content panel
      */
     private void showContent(String contentName) {
-        CardLayout cardLayout = (CardLayout) contentPanel.getLayout();
-        cardLayout.show(contentPanel, contentName);
+        panelKonten.tampilkan(contentName);
     }
 
     // Content switcher methods
@@ -2044,6 +1903,9 @@ public class DashboardAdmin extends JFrame implements ActionListener {
         if (confirm == JOptionPane.YES_OPTION) {
             if (timeUpdateTimer != null) timeUpdateTimer.stop();
             if (transaksiSearchTimer != null) transaksiSearchTimer.stop();
+            if (transaksiTableModel != null) transaksiTableModel.tutup();
+            if (pemantauData != null) pemantauData.stop();
+            if (panelKonten != null) panelKonten.stop();
             System.out.println("💰 Admin " + currentUser.getNamaLengkap() + " logout");
             dispose();
             new LoginPage().setVisible(true);
@@ -4,6 +4,10 @@ import aplikasi.pembayaran.spp.controller.LaporanController;
 import aplikasi.pembayaran.spp.controller.PembayaranController;
 import aplikasi.pembayaran.spp.controller.SiswaController;
 import aplikasi.pembayaran.spp.controller.TagihanController;
+import aplikasi.pembayaran.spp.controller.DashboardStatsService;
+import aplikasi.pembayaran.spp.controller.DataVersi;
+import aplikasi.pembayaran.spp.controller.SiswaIndex;
+import aplikasi.pembayaran.spp.controller.KendaliQuery;
 import aplikasi.pembayaran.spp.model.User;
 import aplikasi.pembayaran.spp.controller.UserController;
 import javax.swing.*;
@@ -26,6 +30,7 @@ import java.util.Map;
  * - Lihat statistik pembayaran
  * - Lihat laporan keuangan
  * - Monitor tunggakan siswa
+ * - Kolektibilitas SPP per kelas (siswa lunas & nominal terkumpul vs target)
  * - Lihat data siswa (read-only)
  * - Monitoring sistem pembayaran dan keuangan
  */
@@ -55,6 +60,7 @@ public class DashboardKepsek extends JFrame implements ActionListener {
     private JButton btnDataSiswa;
     private JButton btnTunggakan;
     private JButton btnStatistik;
+    private JButton btnKolektibilitas;
     private JButton btnLogout;
     
     // Content panels (untuk switch content)
@@ -63,11 +69,24 @@ public class DashboardKepsek extends JFrame implements ActionListener {
     private JPanel siswaContentPanel;
     private JPanel tunggakanContentPanel;
     private JPanel statistikContentPanel;
+    private JPanel kolektibilitasContentPanel;
+    
+    // Tabel kolektibilitas per kelas
+    private DefaultTableModel kolektibilitasTableModel;
+    // Pembuat & pelepas panel CardLayout
+    private PanelMalas panelKonten;
+    // Status bayar per NIS untuk tabel siswa (dibuang kalau versi pembayaran naik)
+    private volatile Map<String, String> statusBayarCache;
+    private volatile long statusBayarVersi;
+    // Filter laporan & pencarian siswa: hanya permintaan terakhir yang dipakai
+    private final PemuatLatar.Slot slotLaporan = new PemuatLatar.Slot();
+    private final PemuatLatar.Slot slotSiswa = new PemuatLatar.Slot();
+    private JLabel kolektibilitasInfoLabel;
     
     // Timer untuk update waktu
     private Timer timeUpdateTimer;
-    // Timer untuk update data secara berkala
-    private Timer dataRefreshTimer;
+    // Refresh data hanya kalau pembayaran/siswa/kelas berubah
+    private PemantauData pemantauData;
     // Timer untuk live search di student panel
     private Timer studentSearchTimer;
     
@@ -86,7 +105,7 @@ public class DashboardKepsek extends JFrame implements ActionListener {
         setupUI();
         setupEventHandlers();
         startTimeUpdate();
-        startDataRefreshTimer(); // Start auto-refresh timer
+        startPemantauData(); // Refresh otomatis saat data berubah
         showDashboardContent(); // Default show dashboard
 
         System.out.println("🏫 Dashboard Kepsek loaded untuk: " + user.getNamaLengkap());
@@ -171,6 +190,7 @@ public class DashboardKepsek extends JFrame implements ActionListener {
         btnDataSiswa = createMenuButton("👥 Data Siswa", "Daftar siswa dan status pembayaran");
         btnTunggakan = createMenuButton("⚠️ Monitor Tunggakan", "Siswa dengan tunggakan SPP");
         btnStatistik = createMenuButton("📊 Statistik", "Grafik dan analisis data");
+        btnKolektibilitas = createMenuButton("🏫 Kolektibilitas Kelas", "Progres pembayaran SPP bulan ini per kelas");
         
         // Spacer
         sidebarPanel.add(Box.createVerticalStrut(20));
@@ -241,19 +261,42 @@ public class DashboardKepsek extends JFrame implements ActionListener {
         contentPanel.setBackground(new Color(236, 240, 241)); // Light gray
         contentPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
         
-        // Create different content panels
-        createDashboardContent();
-        createLaporanContent();
-        createSiswaContent();
-        createTunggakanContent();
-        createStatistikContent();
-        
-        // Add to CardLayout
-        contentPanel.add(dashboardContentPanel, "DASHBOARD");
-        contentPanel.add(laporanContentPanel, "LAPORAN");
-        contentPanel.add(siswaContentPanel, "SISWA");
-        contentPanel.add(tunggakanContentPanel, "TUNGGAKAN");
-        contentPanel.add(statistikContentPanel, "STATISTIK");
+        // Panel dibuat (dan datanya dimuat) saat menu pertama kali dibuka,
+        // panel selain dashboard dilepas lagi kalau lama tidak dilihat
+        panelKonten = new PanelMalas(contentPanel);
+        panelKonten.daftar("DASHBOARD", () -> {
+            createDashboardContent();
+            return dashboardContentPanel;
+        });
+        panelKonten.daftar("LAPORAN", () -> {
+            createLaporanContent();
+            return laporanContentPanel;
+        }, () -> laporanContentPanel = null);
+        panelKonten.daftar("SISWA", () -> {
+            createSiswaContent();
+            return siswaContentPanel;
+        }, () -> {
+            if (studentSearchTimer != null) studentSearchTimer.stop();
+            studentSearchTimer = null;
+            siswaContentPanel = null;
+        });
+        panelKonten.daftar("TUNGGAKAN", () -> {
+            createTunggakanContent();
+            return tunggakanContentPanel;
+        }, () -> tunggakanContentPanel = null);
+        panelKonten.daftar("STATISTIK", () -> {
+            createStatistikContent();
+            return statistikContentPanel;
+        }, () -> statistikContentPanel = null);
+        panelKonten.daftar("KOLEKTIBILITAS", () -> {
+            createKolektibilitasContent();
+            return kolektibilitasContentPanel;
+        }, () -> {
+            kolektibilitasContentPanel = null;
+            kolektibilitasTableModel = null;
+            kolektibilitasInfoLabel = null;
+        });
+        panelKonten.start();
     }
     
     /**
@@ -273,7 +316,8 @@ public class DashboardKepsek extends JFrame implements ActionListener {
         JPanel statsPanel = new JPanel(new GridLayout(2, 2, 20, 20));
         statsPanel.setOpaque(false);
 
-        // Create stats cards with real-time data
+        // Placeholder dulu, angka diisi dari background
+        isiStatsCards(statsPanel, "...", "...", "...", "...", "Memuat...");
         updateDashboardStats(statsPanel);
 
         // Recent activities panel
@@ -357,145 +401,40 @@ public class DashboardKepsek extends JFrame implements ActionListener {
     }
 
     /**
-     * Method untuk update dashboard stats dengan data real-time
+     * Method untuk update dashboard stats dengan data real-time.
+     * Snapshot diambil di background; kartu yang sedang tampil tetap ada sampai hasilnya datang.
      */
     private void updateDashboardStats(JPanel statsPanel) {
-        statsPanel.removeAll();
-
-        try {
-            // Get real-time statistics using direct database queries to ensure fresh connections
-            String[] tagihanStats = getTagihanStatsFromDatabase();
-            String[] pembayaranStats = getPembayaranStatsFromDatabase();
-
-            // Total siswa (from tagihan stats)
-            String totalSiswa = tagihanStats[0];
-            // Siswa tunggakan (from tagihan stats)
-            String siswaTunggakan = tagihanStats[2];
-            // Siswa sudah bayar (from tagihan stats)
-            int totalSiswaNum = Integer.parseInt(tagihanStats[0]);
-            int sudahBayarNum = Integer.parseInt(tagihanStats[1]);
-            String siswaSudahBayar = String.valueOf(sudahBayarNum);
-            // Tingkat pembayaran (from tagihan stats)
-            String tingkatPembayaran = tagihanStats[3];
-            // Pemasukan bulan ini (from pembayaran stats)
-            String pemasukanBulanIni = pembayaranStats[1];
-
-            // Create stats cards with real-time data
-            statsPanel.add(createStatsCard("👥 Total Siswa", totalSiswa, "siswa terdaftar", new Color(52, 152, 219)));
-            statsPanel.add(createStatsCard("💰 Pemasukan Bulan Ini", pemasukanBulanIni, "dari pembayaran SPP", new Color(46, 204, 113)));
-            statsPanel.add(createStatsCard("⚠️ Siswa Tunggakan", siswaTunggakan, "siswa belum bayar", new Color(231, 76, 60)));
-            statsPanel.add(createStatsCard("📈 Tingkat Pembayaran", tingkatPembayaran, "persentase pembayaran", new Color(155, 89, 182)));
-        } catch (Exception e) {
-            System.err.println("Error updating dashboard stats: " + e.getMessage());
-            e.printStackTrace(); // Print stack trace for debugging
-            // Add error placeholders
-            statsPanel.add(createStatsCard("👥 Total Siswa", "Error", "Gagal memuat data", new Color(52, 152, 219)));
-            statsPanel.add(createStatsCard("💰 Pemasukan Bulan Ini", "Error", "Gagal memuat data", new Color(46, 204, 113)));
-            statsPanel.add(createStatsCard("⚠️ Siswa Tunggakan", "Error", "Gagal memuat data", new Color(231, 76, 60)));
-            statsPanel.add(createStatsCard("📈 Tingkat Pembayaran", "Error", "Gagal memuat data", new Color(155, 89, 182)));
-        }
-
-        statsPanel.revalidate();
-        statsPanel.repaint();
-    }
-
-    /**
-     * Helper method to get tagihan stats directly from database with fresh connection
-     */
-    private String[] getTagihanStatsFromDatabase() {
-        String[] ringkasan = new String[4];
-
-        try (java.sql.Connection conn = aplikasi.pembayaran.spp.model.Koneksi.getConnection()) {
-            // Total siswa aktif
-            String sql1 = "SELECT COUNT(*) FROM siswa WHERE status_siswa = 'Aktif'";
-            try (java.sql.PreparedStatement pstmt1 = conn.prepareStatement(sql1);
-                 java.sql.ResultSet rs1 = pstmt1.executeQuery()) {
-                rs1.next();
-                ringkasan[0] = String.valueOf(rs1.getInt(1));
-            }
-
-            // Siswa sudah bayar bulan ini
-            String sql2 = "SELECT COUNT(DISTINCT nis_siswa) FROM pembayaran " +
-                    "WHERE YEAR(tanggal_bayar) = YEAR(CURDATE()) " +
-                    "AND MONTH(tanggal_bayar) = MONTH(CURDATE()) " +
-                    "AND status_pembayaran = 'Lunas'";
-            try (java.sql.PreparedStatement pstmt2 = conn.prepareStatement(sql2);
-                 java.sql.ResultSet rs2 = pstmt2.executeQuery()) {
-                rs2.next();
-                ringkasan[1] = String.valueOf(rs2.getInt(1));
-            }
-
-            // Siswa belum bayar
-            int totalSiswa = Integer.parseInt(ringkasan[0]);
-            int sudahBayar = Integer.parseInt(ringkasan[1]);
-            ringkasan[2] = String.valueOf(totalSiswa - sudahBayar);
-
-            // Persentase pembayaran
-            if (totalSiswa > 0) {
-                double persentase = (double) sudahBayar / totalSiswa * 100;
-                ringkasan[3] = String.format("%.1f%%", persentase);
-            } else {
-                ringkasan[3] = "0%";
-            }
-
-        } catch (java.sql.SQLException e) {
-            System.out.println("❌ Error get ringkasan tagihan: " + e.getMessage());
-            e.printStackTrace(); // Print stack trace for debugging
-            ringkasan[0] = "0"; ringkasan[1] = "0"; ringkasan[2] = "0"; ringkasan[3] = "0%";
-        }
-
-        return ringkasan;
+        PemuatLatar.muat("statistik dashboard",
+            () -> DashboardStatsService.getInstance().getSnapshot(),
+            stats -> isiStatsCards(statsPanel,
+                String.valueOf(stats.getSiswaAktif()),
+                String.format("Rp %.0f", stats.getPemasukanBulanIni()),
+                String.valueOf(stats.getSiswaTunggakan()),
+                String.format("%.1f%%", stats.getPersenPembayaran()),
+                null),
+            e -> isiStatsCards(statsPanel, "Error", "Error", "Error", "Error", "Gagal memuat data"));
     }
 
     /**
-     * Helper method to get pembayaran stats directly from database with fresh connection
+     * Isi ulang 4 kartu statistik. keterangan != null menggantikan deskripsi semua kartu
+     * (dipakai untuk placeholder "Memuat..." dan pesan error).
      */
-    private String[] getPembayaranStatsFromDatabase() {
-        String[] stats = new String[4];
-
-        try (java.sql.Connection conn = aplikasi.pembayaran.spp.model.Koneksi.getConnection()) {
-            // Total transaksi hari ini
-            String sqlHariIni = "SELECT COUNT(*) FROM pembayaran WHERE DATE(tanggal_bayar) = CURDATE()";
-            try (java.sql.PreparedStatement pstmt1 = conn.prepareStatement(sqlHariIni);
-                 java.sql.ResultSet rs1 = pstmt1.executeQuery()) {
-                rs1.next();
-                stats[0] = String.valueOf(rs1.getInt(1));
-            }
-
-            // Total pemasukan hari ini
-            String sqlPemasukan = "SELECT COALESCE(SUM(jumlah_bayar), 0) FROM pembayaran WHERE DATE(tanggal_bayar) = CURDATE()";
-            try (java.sql.PreparedStatement pstmt2 = conn.prepareStatement(sqlPemasukan);
-                 java.sql.ResultSet rs2 = pstmt2.executeQuery()) {
-                rs2.next();
-                stats[1] = String.format("Rp %.0f", rs2.getDouble(1));
-            }
-
-            // Total transaksi bulan ini
-            String sqlBulanIni = "SELECT COUNT(*) FROM pembayaran WHERE YEAR(tanggal_bayar) = YEAR(CURDATE()) AND MONTH(tanggal_bayar) = MONTH(CURDATE())";
-            try (java.sql.PreparedStatement pstmt3 = conn.prepareStatement(sqlBulanIni);
-                 java.sql.ResultSet rs3 = pstmt3.executeQuery()) {
-                rs3.next();
-                stats[2] = String.valueOf(rs3.getInt(1));
-            }
-
-            // Transaksi pending/cicilan
-            String sqlPending = "SELECT COUNT(*) FROM pembayaran WHERE status_pembayaran IN ('Belum Lunas', 'Cicilan')";
-            try (java.sql.PreparedStatement pstmt4 = conn.prepareStatement(sqlPending);
-                 java.sql.ResultSet rs4 = pstmt4.executeQuery()) {
-                rs4.next();
-                stats[3] = String.valueOf(rs4.getInt(1));
-            }
-
-        } catch (java.sql.SQLException e) {
-            System.err.println("❌ Error get statistik pembayaran: " + e.getMessage());
-            e.printStackTrace(); // Print stack trace for debugging
-            stats[0] = "0"; stats[1] = "Rp 0"; stats[2] = "0"; stats[3] = "0";
-        }
-
-        return stats;
+    private void isiStatsCards(JPanel statsPanel, String totalSiswa, String pemasukanBulanIni,
+                               String siswaTunggakan, String tingkatPembayaran, String keterangan) {
+        statsPanel.removeAll();
+        statsPanel.add(createStatsCard("👥 Total Siswa", totalSiswa,
+                keterangan != null ? keterangan : "siswa terdaftar", new Color(52, 152, 219)));
+        statsPanel.add(createStatsCard("💰 Pemasukan Bulan Ini", pemasukanBulanIni,
+                keterangan != null ? keterangan : "dari pembayaran SPP", new Color(46, 204, 113)));
+        statsPanel.add(createStatsCard("⚠️ Siswa Tunggakan", siswaTunggakan,
+                keterangan != null ? keterangan : "siswa belum bayar", new Color(231, 76, 60)));
+        statsPanel.add(createStatsCard("📈 Tingkat Pembayaran", tingkatPembayaran,
+                keterangan != null ? keterangan : "persentase pembayaran", new Color(155, 89, 182)));
+        statsPanel.revalidate();
+        statsPanel.repaint();
     }
 
-    
     /**
      * Method untuk membuat laporan content
      */
@@ -516,12 +455,13 @@ public class DashboardKepsek extends JFrame implements ActionListener {
 
         filterPanel.add(new JLabel("Periode:"));
         JComboBox<String> periodCombo = new JComboBox<>();
-        // Load available periods from database using direct access
-        List<String> availablePeriods = getAvailablePeriodsFromDatabase();
-        for (String period : availablePeriods) {
-            periodCombo.addItem(period);
-        }
         periodCombo.addItem("Semua");
+        // Daftar periode dimuat di background, disisipkan sebelum "Semua"
+        PemuatLatar.muat("daftar periode", laporanController::getAvailablePeriods, periods -> {
+            for (int i = 0; i < periods.size(); i++) {
+                periodCombo.insertItemAt(periods.get(i), i);
+            }
+        }, null);
         filterPanel.add(periodCombo);
 
         filterPanel.add(Box.createHorizontalStrut(20));
@@ -577,125 +517,48 @@ public class DashboardKepsek extends JFrame implements ActionListener {
     }
 
     /**
-     * Method untuk update laporan keuangan berdasarkan filter
+     * Method untuk update laporan keuangan berdasarkan filter (query di background)
      */
     private void updateFinancialReport(JTable table, String selectedPeriod, String selectedJenis) {
         DefaultTableModel tableModel = (DefaultTableModel) table.getModel();
-        tableModel.setRowCount(0); // Clear existing data
-
-        try {
-            if ("Semua".equals(selectedPeriod)) {
-                // Get all available periods using direct database access
-                List<String> availablePeriods = getAvailablePeriodsFromDatabase();
-                for (String period : availablePeriods) {
-                    // Get report data for each period with fresh connection
-                    Map<String, Object> laporan = getLaporanByPeriodeFromDatabase(period);
-
-                    // Only add if there's data for this period
-                    if (laporan.get("total_transaksi") != null) {
-                        int totalTransaksi = (Integer) laporan.get("total_transaksi");
-                        double totalPemasukan = laporan.get("total_pemasukan") != null ? (Double) laporan.get("total_pemasukan") : 0.0;
-                        String formattedPemasukan = "Rp " + String.format("%.0f", totalPemasukan);
-
-                        // Calculate student count and payment rate (for demo purposes, use a simple calculation)
-                        int totalSiswa = totalTransaksi > 0 ? totalTransaksi : 0;
-                        String status = totalPemasukan > 0 ? "✅ Lunas" : "⏳ Proses";
-
-                        tableModel.addRow(new Object[]{period, formattedPemasukan, totalSiswa, "100%", status});
-                    }
-                }
-            } else {
-                // Get specific period with fresh connection
-                Map<String, Object> laporan = getLaporanByPeriodeFromDatabase(selectedPeriod);
-
-                if (laporan.get("total_transaksi") != null) {
-                    int totalTransaksi = (Integer) laporan.get("total_transaksi");
-                    double totalPemasukan = laporan.get("total_pemasukan") != null ? (Double) laporan.get("total_pemasukan") : 0.0;
-                    String formattedPemasukan = "Rp " + String.format("%.0f", totalPemasukan);
-
-                    // Calculate student count and payment rate (for demo purposes, use a simple calculation)
-                    int totalSiswa = totalTransaksi > 0 ? totalTransaksi : 0;
-                    String status = totalPemasukan > 0 ? "✅ Lunas" : "⏳ Proses";
-
-                    tableModel.addRow(new Object[]{selectedPeriod, formattedPemasukan, totalSiswa, "100%", status});
-                }
+        slotLaporan.muat("laporan keuangan", () -> getBarisLaporan(selectedPeriod), rows -> {
+            tableModel.setRowCount(0); // Clear existing data
+            for (Object[] row : rows) {
+                tableModel.addRow(row);
             }
-        } catch (Exception e) {
-            System.err.println("Error updating financial report: " + e.getMessage());
-            e.printStackTrace(); // Print stack trace for debugging
-            JOptionPane.showMessageDialog(this, "Error loading financial report: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        }, e -> JOptionPane.showMessageDialog(this, "Error loading financial report: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
     }
 
     /**
-     * Helper method to get available periods directly from database with fresh connection
+     * Baris laporan keuangan untuk satu periode atau semua periode (dipanggil dari background)
      */
-    private List<String> getAvailablePeriodsFromDatabase() {
-        List<String> periods = new ArrayList<>();
-        String query = "SELECT DISTINCT bulan_tahun FROM pembayaran ORDER BY bulan_tahun DESC";
-
-        try (java.sql.Connection conn = aplikasi.pembayaran.spp.model.Koneksi.getConnection();
-             java.sql.Statement stmt = conn.createStatement();
-             java.sql.ResultSet rs = stmt.executeQuery(query)) {
-
-            while (rs.next()) {
-                periods.add(rs.getString("bulan_tahun"));
+    private List<Object[]> getBarisLaporan(String selectedPeriod) {
+        List<String> periods = "Semua".equals(selectedPeriod)
+                ? laporanController.getAvailablePeriods()
+                : java.util.Collections.singletonList(selectedPeriod);
+
+        List<Object[]> rows = new ArrayList<>();
+        Map<String, Map<String, Object>> perPeriode = laporanController.getLaporanPerPeriode(periods);
+        for (Map.Entry<String, Map<String, Object>> entry : perPeriode.entrySet()) {
+            String period = entry.getKey();
+            Map<String, Object> laporan = entry.getValue();
+
+            // Only add if there's data for this period
+            if (laporan.get("total_transaksi") != null) {
+                int totalTransaksi = (Integer) laporan.get("total_transaksi");
+                double totalPemasukan = laporan.get("total_pemasukan") != null ? (Double) laporan.get("total_pemasukan") : 0.0;
+                String formattedPemasukan = "Rp " + String.format("%.0f", totalPemasukan);
+
+                // Calculate student count and payment rate (for demo purposes, use a simple calculation)
+                int totalSiswa = totalTransaksi > 0 ? totalTransaksi : 0;
+                String status = totalPemasukan > 0 ? "✅ Lunas" : "⏳ Proses";
+
+                rows.add(new Object[]{period, formattedPemasukan, totalSiswa, "100%", status});
             }
-
-        } catch (java.sql.SQLException e) {
-            System.err.println("Error getting periods: " + e.getMessage());
-            e.printStackTrace(); // Print stack trace for debugging
         }
-
-        return periods;
+        return rows;
     }
 
-    /**
-     * Helper method to get laporan by periode directly from database with fresh connection
-     */
-    private Map<String, Object> getLaporanByPeriodeFromDatabase(String bulanTahun) {
-        Map<String, Object> laporan = new HashMap<>();
-        String query = "SELECT " +
-                      "COUNT(*) as total_transaksi, " +
-                      "SUM(jumlah_bayar) as total_pemasukan, " +
-                      "AVG(jumlah_bayar) as rata_rata, " +
-                      "SUM(CASE WHEN metode_pembayaran = 'Cash' THEN jumlah_bayar ELSE 0 END) as total_cash, " +
-                      "SUM(CASE WHEN metode_pembayaran = 'Transfer' THEN jumlah_bayar ELSE 0 END) as total_transfer, " +
-                      "SUM(CASE WHEN metode_pembayaran = 'Kartu Debit' THEN jumlah_bayar ELSE 0 END) as total_kartu, " +
-                      "COUNT(CASE WHEN metode_pembayaran = 'Cash' THEN 1 END) as jumlah_cash, " +
-                      "COUNT(CASE WHEN metode_pembayaran = 'Transfer' THEN 1 END) as jumlah_transfer, " +
-                      "COUNT(CASE WHEN metode_pembayaran = 'Kartu Debit' THEN 1 END) as jumlah_kartu, " +
-                      "COUNT(CASE WHEN status_pembayaran = 'Lunas' THEN 1 END) as jumlah_lunas " +
-                      "FROM pembayaran " +
-                      "WHERE bulan_tahun = ?";
-
-        try (java.sql.Connection conn = aplikasi.pembayaran.spp.model.Koneksi.getConnection();
-             java.sql.PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setString(1, bulanTahun);
-            try (java.sql.ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    laporan.put("total_transaksi", rs.getInt("total_transaksi"));
-                    laporan.put("total_pemasukan", rs.getDouble("total_pemasukan"));
-                    laporan.put("rata_rata", rs.getDouble("rata_rata"));
-                    laporan.put("total_cash", rs.getDouble("total_cash"));
-                    laporan.put("total_transfer", rs.getDouble("total_transfer"));
-                    laporan.put("total_kartu", rs.getDouble("total_kartu"));
-                    laporan.put("jumlah_cash", rs.getInt("jumlah_cash"));
-                    laporan.put("jumlah_transfer", rs.getInt("jumlah_transfer"));
-                    laporan.put("jumlah_kartu", rs.getInt("jumlah_kartu"));
-                    laporan.put("jumlah_lunas", rs.getInt("jumlah_lunas"));
-                }
-            }
-
-        } catch (java.sql.SQLException e) {
-            System.err.println("Error getting laporan: " + e.getMessage());
-            e.printStackTrace(); // Print stack trace for debugging
-        }
-
-        return laporan;
-    }
-    
     /**
      * Method untuk membuat siswa content
      */
@@ -784,96 +647,69 @@ public class DashboardKepsek extends JFrame implements ActionListener {
     }
 
     /**
-     * Method untuk update tabel siswa dengan data real-time
+     * Method untuk update tabel siswa dengan data real-time (query di background)
      */
     private void updateSiswaTable(JTable table, String searchTerm) {
         DefaultTableModel tableModel = (DefaultTableModel) table.getModel();
-        tableModel.setRowCount(0); // Clear existing data
-
-        try {
-            // Get all students with direct database access to ensure fresh connection
-            List<aplikasi.pembayaran.spp.model.Siswa> allSiswa = getAllSiswaFromDatabase();
-
-            for (aplikasi.pembayaran.spp.model.Siswa siswa : allSiswa) {
-                // If search term provided, filter results
-                if (searchTerm != null && !searchTerm.isEmpty()) {
-                    if (!siswa.getNis().toLowerCase().contains(searchTerm.toLowerCase()) &&
-                        !siswa.getNamaLengkap().toLowerCase().contains(searchTerm.toLowerCase()) &&
-                        !siswa.getKelas().toLowerCase().contains(searchTerm.toLowerCase())) {
-                        continue;
-                    }
-                }
-
-                // Create fresh PembayaranController to ensure valid connection
-                PembayaranController freshPembayaranController = new PembayaranController();
-
-                // Calculate total payments and determine status
-                List<aplikasi.pembayaran.spp.model.Pembayaran> pembayaranList =
-                    freshPembayaranController.getPembayaranByNIS(siswa.getNis());
-
-                double totalBayar = 0;
-                String statusBayar = "⏳ Belum";
-
-                for (aplikasi.pembayaran.spp.model.Pembayaran pembayaran : pembayaranList) {
-                    if ("Lunas".equals(pembayaran.getStatusPembayaran())) {
-                        totalBayar += pembayaran.getJumlahBayar();
-                        statusBayar = "✅ Lunas";
-                    } else if ("Cicilan".equals(pembayaran.getStatusPembayaran())) {
-                        totalBayar += pembayaran.getJumlahBayar();
-                        statusBayar = "⚠️ Cicilan";
-                    }
-                }
-
-                // Format currency values
-                String sppPerBulan = "Rp " + String.format("%.0f", siswa.getNominalSPP());
-
-                tableModel.addRow(new Object[]{
-                    siswa.getNis(),
-                    siswa.getNamaLengkap(),
-                    siswa.getKelas(),
-                    sppPerBulan,
-                    statusBayar
-                });
+        slotSiswa.muat("data siswa", () -> getBarisSiswa(searchTerm), rows -> {
+            tableModel.setRowCount(0); // Clear existing data
+            for (Object[] row : rows) {
+                tableModel.addRow(row);
             }
-        } catch (Exception e) {
-            System.err.println("Error updating student table: " + e.getMessage());
-            e.printStackTrace(); // Print stack trace for debugging
-            JOptionPane.showMessageDialog(this, "Error loading student data: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        }, e -> JOptionPane.showMessageDialog(this, "Error loading student data: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
     }
 
     /**
-     * Helper method to get all students directly from database with fresh connection
+     * Baris tabel siswa sesuai kata kunci (dipanggil dari background)
      */
-    private List<aplikasi.pembayaran.spp.model.Siswa> getAllSiswaFromDatabase() {
-        List<aplikasi.pembayaran.spp.model.Siswa> list = new ArrayList<>();
-        String sql = "SELECT * FROM siswa";
+    private List<Object[]> getBarisSiswa(String searchTerm) throws java.sql.SQLException {
+        List<Object[]> rows = new ArrayList<>();
+
+        // Kata kunci dicari di index siswa bersama (memori), status bayar satu query per versi data
+        List<aplikasi.pembayaran.spp.model.Siswa> allSiswa = SiswaIndex.getInstance().cari(searchTerm);
+        Map<String, String> statusBayarPerNis = getStatusBayarPerNis();
+
+        for (aplikasi.pembayaran.spp.model.Siswa siswa : allSiswa) {
+            String statusBayar = statusBayarPerNis.getOrDefault(siswa.getNis(), "⏳ Belum");
+
+            // Format currency values
+            String sppPerBulan = "Rp " + String.format("%.0f", siswa.getNominalSPP());
+
+            rows.add(new Object[]{
+                siswa.getNis(),
+                siswa.getNamaLengkap(),
+                siswa.getKelas(),
+                sppPerBulan,
+                statusBayar
+            });
+        }
+        return rows;
+    }
 
-        try (java.sql.Connection conn = aplikasi.pembayaran.spp.model.Koneksi.getConnection();
-             java.sql.PreparedStatement stmt = conn.prepareStatement(sql);
+    /**
+     * Status bayar per NIS untuk tabel siswa, dihitung sekali per versi data pembayaran.
+     * Hasilnya sama dengan perhitungan lama per siswa (loop riwayat Lunas/Cicilan
+     * urut tanggal_bayar DESC, nilai yang terakhir diproses yang dipakai).
+     */
+    private Map<String, String> getStatusBayarPerNis() throws java.sql.SQLException {
+        long versi = DataVersi.getVersi(DataVersi.Tabel.PEMBAYARAN);
+        if (statusBayarCache != null && statusBayarVersi == versi) {
+            return statusBayarCache;
+        }
+        Map<String, String> status = new HashMap<>();
+        String sql = "SELECT nis_siswa, status_pembayaran FROM pembayaran " +
+                     "WHERE status_pembayaran IN ('Lunas', 'Cicilan') ORDER BY tanggal_bayar DESC";
+        try (java.sql.Connection conn = aplikasi.pembayaran.spp.model.Koneksi.openConnection();
+             java.sql.PreparedStatement stmt = KendaliQuery.siapkan(conn, sql, KendaliQuery.Jenis.DASHBOARD);
              java.sql.ResultSet rs = stmt.executeQuery()) {
-
             while (rs.next()) {
-                aplikasi.pembayaran.spp.model.Siswa siswa = new aplikasi.pembayaran.spp.model.Siswa(
-                        rs.getString("nis"),
-                        rs.getString("nama_lengkap"),
-                        rs.getString("kelas"),
-                        rs.getString("tahun_ajaran"),
-                        rs.getString("no_telepon"),
-                        rs.getString("alamat"),
-                        rs.getDouble("nominal_spp"),
-                        0, // total_potongan is always 0 since feature is removed
-                        rs.getString("status_siswa"),
-                        rs.getString("nama_ortu")
-                );
-                list.add(siswa);
+                status.put(rs.getString("nis_siswa"),
+                        "Lunas".equals(rs.getString("status_pembayaran")) ? "✅ Lunas" : "⚠️ Cicilan");
             }
-
-        } catch (java.sql.SQLException e) {
-            System.out.println("❌ Error get all siswa: " + e.getMessage());
-            e.printStackTrace(); // Print stack trace for debugging
         }
-        return list;
+        statusBayarCache = status;
+        statusBayarVersi = versi;
+        return status;
     }
     
     /**
@@ -922,17 +758,11 @@ public class DashboardKepsek extends JFrame implements ActionListener {
     }
 
     /**
-     * Method untuk update tabel tunggakan dengan data real-time
+     * Method untuk update tabel tunggakan dengan data real-time (query di background)
      */
     private void updateTunggakanTable(JTable table, JPanel alertPanel) {
         DefaultTableModel tableModel = (DefaultTableModel) table.getModel();
-        tableModel.setRowCount(0); // Clear existing data
-
-        try {
-            // Instead of using TagihanController, we'll query directly to ensure fresh connection
-            // This bypasses the static connection issue in the controller
-            List<aplikasi.pembayaran.spp.model.Tagihan> tunggakanList = getTunggakanListFromDatabase();
-
+        PemuatLatar.muat("data tunggakan", this::getTunggakanListFromDatabase, tunggakanList -> {
             // Update alert panel with count of students with overdue payments
             String alertText = "  ⚠️ Terdapat " + tunggakanList.size() + " siswa dengan tunggakan SPP!";
             alertPanel.removeAll();
@@ -940,29 +770,13 @@ public class DashboardKepsek extends JFrame implements ActionListener {
             alertPanel.revalidate();
             alertPanel.repaint();
 
-            // Add data to table
+            tableModel.setRowCount(0); // Clear existing data
             for (aplikasi.pembayaran.spp.model.Tagihan tagihan : tunggakanList) {
-                // Format the data to display
                 String jumlahTunggakan = "Rp " + String.format("%.0f", tagihan.getSisaTagihan());
 
-                // Get months the student is overdue for (this would require additional logic to determine the specific months)
-                // For now, using a placeholder
+                // Bulan tunggakan spesifik belum dihitung
                 String bulanTunggak = "Beberapa Bulan";
 
-                // Create fresh PembayaranController for this operation
-                PembayaranController freshPembayaranController = new PembayaranController();
-
-                // Try to get more specific information for the months
-                List<aplikasi.pembayaran.spp.model.Pembayaran> pembayaranList =
-                    freshPembayaranController.getPembayaranByNIS(tagihan.getNisSiswa());
-
-                if (!pembayaranList.isEmpty()) {
-                    // Calculate which months are overdue by checking the payment history
-                    StringBuilder bulanTunggakBuilder = new StringBuilder();
-                    // This is a simplified approach that would need to be enhanced in a real implementation
-                    bulanTunggak = "Beberapa Bulan";
-                }
-
                 tableModel.addRow(new Object[]{
                     tagihan.getNisSiswa(),
                     tagihan.getNamaSiswa(),
@@ -971,11 +785,7 @@ public class DashboardKepsek extends JFrame implements ActionListener {
                     jumlahTunggakan
                 });
             }
-        } catch (Exception e) {
-            System.err.println("Error updating tunggakan table: " + e.getMessage());
-            e.printStackTrace(); // This will help us identify the exact error
-            JOptionPane.showMessageDialog(this, "Error loading overdue data: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        }, e -> JOptionPane.showMessageDialog(this, "Error loading overdue data: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
     }
 
     /**
@@ -1001,7 +811,7 @@ public class DashboardKepsek extends JFrame implements ActionListener {
                 "HAVING sisa_tunggakan > 0 " +
                 "ORDER BY sisa_tunggakan DESC";
 
-        try (java.sql.Connection conn = aplikasi.pembayaran.spp.model.Koneksi.getConnection();
+        try (java.sql.Connection conn = aplikasi.pembayaran.spp.model.Koneksi.openConnection();
              java.sql.PreparedStatement pstmt = conn.prepareStatement(sql);
              java.sql.ResultSet rs = pstmt.executeQuery()) {
 
@@ -1055,6 +865,119 @@ public class DashboardKepsek extends JFrame implements ActionListener {
         statistikContentPanel.add(chartPanel, BorderLayout.CENTER);
     }
     
+    /**
+     * Method untuk membuat content kolektibilitas per kelas
+     */
+    private void createKolektibilitasContent() {
+        kolektibilitasContentPanel = new JPanel(new BorderLayout());
+        kolektibilitasContentPanel.setBackground(new Color(236, 240, 241));
+
+        JLabel titleLabel = new JLabel("🏫 Kolektibilitas SPP Per Kelas");
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 24));
+        titleLabel.setForeground(new Color(52, 73, 94));
+        titleLabel.setBorder(BorderFactory.createEmptyBorder(0, 0, 10, 0));
+
+        kolektibilitasInfoLabel = new JLabel("Memuat...");
+        kolektibilitasInfoLabel.setFont(new Font("Arial", Font.PLAIN, 13));
+        kolektibilitasInfoLabel.setBorder(BorderFactory.createEmptyBorder(0, 0, 10, 0));
+
+        // Kolom angka disimpan sebagai angka supaya sorting per kolom benar
+        String[] columns = {"Kelas", "Siswa Aktif", "Sudah Lunas", "Belum Lunas", "% Lunas", "Target", "Terkumpul", "% Terkumpul"};
+        kolektibilitasTableModel = new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            @Override
+            public Class<?> getColumnClass(int column) {
+                if (column == 0) {
+                    return String.class;
+                }
+                return column <= 3 ? Integer.class : Double.class;
+            }
+        };
+
+        JTable table = new JTable(kolektibilitasTableModel);
+        table.setFont(new Font("Arial", Font.PLAIN, 12));
+        table.setRowHeight(25);
+        table.setAutoCreateRowSorter(true);
+        table.getTableHeader().setBackground(new Color(52, 73, 94));
+        table.getTableHeader().setForeground(Color.WHITE);
+        table.getTableHeader().setFont(new Font("Arial", Font.BOLD, 12));
+
+        javax.swing.table.DefaultTableCellRenderer persenRenderer = new javax.swing.table.DefaultTableCellRenderer() {
+            @Override
+            protected void setValue(Object value) {
+                setText(value == null ? "" : String.format("%.1f%%", (Double) value));
+            }
+        };
+        persenRenderer.setHorizontalAlignment(SwingConstants.RIGHT);
+        RupiahRenderer rupiahRenderer = new RupiahRenderer();
+        table.getColumnModel().getColumn(4).setCellRenderer(persenRenderer);
+        table.getColumnModel().getColumn(5).setCellRenderer(rupiahRenderer);
+        table.getColumnModel().getColumn(6).setCellRenderer(rupiahRenderer);
+        table.getColumnModel().getColumn(7).setCellRenderer(persenRenderer);
+
+        JPanel topPanel = new JPanel(new BorderLayout());
+        topPanel.setOpaque(false);
+        topPanel.add(titleLabel, BorderLayout.NORTH);
+        topPanel.add(kolektibilitasInfoLabel, BorderLayout.CENTER);
+
+        kolektibilitasContentPanel.add(topPanel, BorderLayout.NORTH);
+        kolektibilitasContentPanel.add(new JScrollPane(table), BorderLayout.CENTER);
+    }
+
+    /**
+     * Method untuk update tabel kolektibilitas (satu query grouped, hasil di-cache LaporanController)
+     */
+    private void updateKolektibilitasTable() {
+        java.time.YearMonth bulanIni = java.time.YearMonth.now();
+        PemuatLatar.muat("kolektibilitas kelas",
+            () -> laporanController.getKolektibilitasPerKelas(bulanIni),
+            rekap -> tampilkanKolektibilitas(bulanIni, rekap),
+            e -> {
+                if (kolektibilitasInfoLabel != null) {
+                    kolektibilitasInfoLabel.setText("❌ Gagal memuat data: " + e.getMessage());
+                }
+            });
+    }
+
+    private void tampilkanKolektibilitas(java.time.YearMonth bulanIni, List<aplikasi.pembayaran.spp.model.KolektibilitasKelas> rekap) {
+        if (kolektibilitasTableModel == null) {
+            return; // panel sudah dilepas sebelum data selesai dimuat
+        }
+        kolektibilitasTableModel.setRowCount(0);
+        int totalSiswa = 0;
+        int totalLunas = 0;
+        double totalTarget = 0;
+        double totalTerkumpul = 0;
+        for (aplikasi.pembayaran.spp.model.KolektibilitasKelas k : rekap) {
+            kolektibilitasTableModel.addRow(new Object[]{
+                k.getKelas(),
+                k.getSiswaAktif(),
+                k.getSiswaLunas(),
+                k.getSiswaBelumLunas(),
+                k.getPersenLunas(),
+                k.getTarget(),
+                k.getTerkumpul(),
+                k.getPersenTerkumpul()
+            });
+            totalSiswa += k.getSiswaAktif();
+            totalLunas += k.getSiswaLunas();
+            totalTarget += k.getTarget();
+            totalTerkumpul += k.getTerkumpul();
+        }
+
+        String periode = bulanIni.format(DateTimeFormatter.ofPattern("MM/yyyy"));
+        kolektibilitasInfoLabel.setText(String.format(
+            "Periode %s  •  %d kelas  •  %d/%d siswa lunas (%.1f%%)  •  Terkumpul Rp %,.0f dari Rp %,.0f (%.1f%%)",
+            periode, rekap.size(), totalLunas, totalSiswa,
+            totalSiswa == 0 ? 0 : totalLunas * 100.0 / totalSiswa,
+            totalTerkumpul, totalTarget,
+            totalTarget == 0 ? 0 : totalTerkumpul * 100.0 / totalTarget));
+    }
+
     /**
      * Method untuk membuat placeholder chart
      */
@@ -1110,13 +1033,13 @@ public class DashboardKepsek extends JFrame implements ActionListener {
     }
 
     /**
-     * Method untuk start timer refresh data
+     * Method untuk start pemantau perubahan data (pengganti polling 30 detik):
+     * view aktif di-refresh hanya kalau versi pembayaran/siswa/kelas naik
      */
-    private void startDataRefreshTimer() {
-        dataRefreshTimer = new Timer(30000, e -> { // Refresh every 30 seconds
-            refreshCurrentViewData();
-        });
-        dataRefreshTimer.start();
+    private void startPemantauData() {
+        pemantauData = new PemantauData(this::refreshCurrentViewData,
+                DataVersi.Tabel.PEMBAYARAN, DataVersi.Tabel.SISWA, DataVersi.Tabel.KELAS);
+        pemantauData.start();
     }
     
     /**
@@ -1145,6 +1068,9 @@ public class DashboardKepsek extends JFrame implements ActionListener {
                 break;
             }
         }
+        if (currentComponent == null) {
+            return; // belum ada panel yang dibuka
+        }
 
         try {
             // Update data based on the current view
@@ -1300,6 +1226,9 @@ public class DashboardKepsek extends JFrame implements ActionListener {
                         break;
                     }
                 }
+            } else if (currentComponent == kolektibilitasContentPanel) {
+                // Refresh kolektibilitas (cache sudah dibuang kalau ada pembayaran baru)
+                updateKolektibilitasTable();
             }
         } catch (Exception e) {
             System.err.println("Error during data refresh: " + e.getMessage());
@@ -1313,7 +1242,7 @@ public class DashboardKepsek extends JFrame implements ActionListener {
      */
     private void setActiveButton(JButton activeButton) {
         // Reset all buttons
-        JButton[] buttons = {btnDashboard, btnLaporanKeuangan, btnDataSiswa, btnTunggakan, btnStatistik};
+        JButton[] buttons = {btnDashboard, btnLaporanKeuangan, btnDataSiswa, btnTunggakan, btnStatistik, btnKolektibilitas};
         for (JButton btn : buttons) {
             if (btn != btnLogout) {
                 btn.setBackground(new Color(52, 73, 94));
@@ -1328,8 +1257,7 @@ public class DashboardKepsek extends JFrame implements ActionListener {
      * Method untuk switch content panel
      */
     private void showContent(String contentName) {
-        CardLayout cardLayout = (CardLayout) contentPanel.getLayout();
-        cardLayout.show(contentPanel, contentName);
+        panelKonten.tampilkan(contentName);
     }
     
     // Content switcher methods
@@ -1358,6 +1286,12 @@ public class DashboardKepsek extends JFrame implements ActionListener {
         setActiveButton(btnStatistik);
     }
     
+    private void showKolektibilitasContent() {
+        showContent("KOLEKTIBILITAS");
+        updateKolektibilitasTable();
+        setActiveButton(btnKolektibilitas);
+    }
+    
     /**
      * Method untuk handle logout
      */
@@ -1381,8 +1315,11 @@ public class DashboardKepsek extends JFrame implements ActionListener {
             if (timeUpdateTimer != null) {
                 timeUpdateTimer.stop();
             }
-            if (dataRefreshTimer != null) {
-                dataRefreshTimer.stop();
+            if (pemantauData != null) {
+                pemantauData.stop();
+            }
+            if (panelKonten != null) {
+                panelKonten.stop();
             }
             if (studentSearchTimer != null) {
                 studentSearchTimer.stop();
@@ -1406,6 +1343,8 @@ public class DashboardKepsek extends JFrame implements ActionListener {
             showTunggakanContent();
         } else if (source == btnStatistik) {
             showStatistikContent();
+        } else if (source == btnKolektibilitas) {
+            showKolektibilitasContent();
         } else if (source == btnLogout) {
             handleLogout();
         }
@@ -250,12 +250,12 @@ public class DashboardSiswa extends JFrame {
         JPanel statsPanel = new JPanel(new GridLayout(1, 2, 20, 0));
         statsPanel.setOpaque(false);
 
-        Object[] cards = createStatCard("Bulan Tunggakan", "0", "spp belum dibayar", 
+        Object[] cards = createStatCard("Bulan Tunggakan", "...", "spp belum dibayar", 
             new Color(231, 76, 60), "📅");
         JPanel tunggakanCard = (JPanel) cards[0];
         lblTunggakanCount = (JLabel) cards[1];
 
-        Object[] totalCards = createStatCard("Total Tunggakan", "Rp 0", "jumlah yang harus dibayar", 
+        Object[] totalCards = createStatCard("Total Tunggakan", "...", "jumlah yang harus dibayar", 
             new Color(230, 126, 34), "💰");
         JPanel totalTunggakanCard = (JPanel) totalCards[0];
         lblTotalTunggakan = (JLabel) totalCards[1];
@@ -392,8 +392,18 @@ public class DashboardSiswa extends JFrame {
     }
 
     private void loadTunggakanData() {
-        // Clear existing data
-        tableModel.setRowCount(0);
+        // Riwayat pembayaran diambil di background, tabel & kartu diisi setelah selesai
+        PemuatLatar.muat("tunggakan siswa", this::hitungTunggakan, this::tampilkanTunggakan, e -> {
+            lblTunggakanCount.setText("Error");
+            lblTotalTunggakan.setText("Error");
+        });
+    }
+
+    /**
+     * Daftar bulan yang belum dibayar tahun ini (dipanggil dari background)
+     */
+    private List<Object[]> hitungTunggakan() {
+        List<Object[]> rows = new java.util.ArrayList<>();
 
         // Get current month and year
         LocalDate today = LocalDate.now();
@@ -442,28 +452,33 @@ public class DashboardSiswa extends JFrame {
             "Juli", "Agustus", "September", "Oktober", "November", "Desember"
         };
 
-        // Count total unpaid months and calculate amount
-        int totalUnpaidMonths = 0;
-        double totalTunggakan = 0;
-
         // Add unpaid months to the table
         for (int month = 1; month <= currentMonth; month++) {
             String bulanName = BULAN_ARRAY[month - 1];
             
             if (!bulanLunas.contains(bulanName)) {
-                totalUnpaidMonths++;
-                totalTunggakan += currentSiswa.getNominalSPP();
-
                 Object[] row = {
-                    totalUnpaidMonths,
+                    rows.size() + 1,
                     bulanName,
                     currentYear,
                     "Rp " + String.format("%,.0f", currentSiswa.getNominalSPP()),
                     "Belum Bayar"
                 };
-                tableModel.addRow(row);
+                rows.add(row);
             }
         }
+        return rows;
+    }
+
+    private void tampilkanTunggakan(List<Object[]> rows) {
+        tableModel.setRowCount(0);
+        for (Object[] row : rows) {
+            tableModel.addRow(row);
+        }
+
+        // Count total unpaid months and calculate amount
+        int totalUnpaidMonths = rows.size();
+        double totalTunggakan = totalUnpaidMonths * currentSiswa.getNominalSPP();
 
         // Update stats
         lblTunggakanCount.setText(String.valueOf(totalUnpaidMonths));
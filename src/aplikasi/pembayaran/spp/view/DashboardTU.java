@@ -2,6 +2,8 @@ package aplikasi.pembayaran.spp.view;
 
 import aplikasi.pembayaran.spp.controller.PembayaranController;
 import aplikasi.pembayaran.spp.controller.SiswaController;
+import aplikasi.pembayaran.spp.controller.DashboardStatsService;
+import aplikasi.pembayaran.spp.controller.DataVersi;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -20,6 +22,7 @@ public class DashboardTU extends JFrame {
     private JLabel lblTotalSiswa, lblPemasukanBulan, lblSiswaTunggakan, lblTingkatPembayaran;
     private JLabel timeLabel;
     private Timer timeUpdateTimer;
+    private PemantauData pemantauData;
     
     public DashboardTU(String username) {
         this.currentUsername = username;
@@ -29,6 +32,9 @@ public class DashboardTU extends JFrame {
         initComponents();
         startTimeUpdate();
         loadStatistik();
+        // Statistik dimuat ulang hanya saat pembayaran/siswa berubah
+        pemantauData = new PemantauData(this::loadStatistik, DataVersi.Tabel.PEMBAYARAN, DataVersi.Tabel.SISWA);
+        pemantauData.start();
         
         setVisible(true);
         System.out.println("📊 Dashboard TU loaded untuk: " + username);
@@ -117,10 +123,11 @@ public class DashboardTU extends JFrame {
         statsPanel.setOpaque(false);
         statsPanel.setPreferredSize(new Dimension(0, 140));
         
-        lblTotalSiswa = new JLabel("0");
-        lblPemasukanBulan = new JLabel("Rp 0");
-        lblSiswaTunggakan = new JLabel("0");
-        lblTingkatPembayaran = new JLabel("0%");
+        // Placeholder sampai statistik selesai dimuat di background
+        lblTotalSiswa = new JLabel("...");
+        lblPemasukanBulan = new JLabel("...");
+        lblSiswaTunggakan = new JLabel("...");
+        lblTingkatPembayaran = new JLabel("...");
         
         statsPanel.add(createStatCard("Total Siswa", lblTotalSiswa, "siswa aktif", new Color(52, 152, 219), "👥"));
         statsPanel.add(createStatCard("Pemasukan Bulan Ini", lblPemasukanBulan, "total pemasukan", new Color(46, 204, 113), "💰"));
@@ -254,22 +261,17 @@ public class DashboardTU extends JFrame {
     }
     
     private void loadStatistik() {
-        try {
-            String[] stats = pembayaranController.getStatistikPembayaran();
-            int totalSiswa = siswaController.getAllSiswa().size();
-            
-            lblTotalSiswa.setText(String.valueOf(totalSiswa));
-            lblPemasukanBulan.setText(stats[1]);
-            lblSiswaTunggakan.setText(stats[3]);
-            
-            if (totalSiswa > 0) {
-                int sudahBayar = Integer.parseInt(stats[2]);
-                double persentase = (double) sudahBayar / totalSiswa * 100;
-                lblTingkatPembayaran.setText(String.format("%.1f%%", persentase));
+        // Snapshot bersama semua dashboard, satu query per interval (lihat DashboardStatsService)
+        PemuatLatar.muat("statistik TU", () -> DashboardStatsService.getInstance().getSnapshot(), stats -> {
+            lblTotalSiswa.setText(String.valueOf(stats.getSiswaAktif()));
+            lblPemasukanBulan.setText(String.format("Rp %.0f", stats.getPemasukanBulanIni()));
+            lblSiswaTunggakan.setText(String.valueOf(stats.getSiswaTunggakan()));
+            lblTingkatPembayaran.setText(String.format("%.1f%%", stats.getPersenPembayaran()));
+        }, e -> {
+            for (JLabel label : new JLabel[]{lblTotalSiswa, lblPemasukanBulan, lblSiswaTunggakan, lblTingkatPembayaran}) {
+                label.setText("Error");
             }
-        } catch (Exception e) {
-            System.err.println("Error loading stats: " + e.getMessage());
-        }
+        });
     }
     
     private void startTimeUpdate() {
@@ -304,6 +306,7 @@ public class DashboardTU extends JFrame {
         
         if (confirm == JOptionPane.YES_OPTION) {
             if (timeUpdateTimer != null) timeUpdateTimer.stop();
+            if (pemantauData != null) pemantauData.stop();
             dispose();
             new LoginPage().setVisible(true);
         }
@@ -1,6 +1,7 @@
 package aplikasi.pembayaran.spp.view;
 
 import aplikasi.pembayaran.spp.controller.SiswaController;
+import aplikasi.pembayaran.spp.controller.SiswaIndex;
 import aplikasi.pembayaran.spp.model.Siswa;
 
 import javax.swing.*;
@@ -13,6 +14,7 @@ public class FormDataSiswa extends JFrame {
     // Components
     private JTable tableSiswa;
     private DefaultTableModel tableModel;
+    private final PemuatLatar.Slot slotSiswa = new PemuatLatar.Slot();
     private JTextField txtSearch;
     private JButton btnTambah, btnEdit, btnHapus, btnRefresh, btnKeluar;
     
@@ -66,7 +68,10 @@ public class FormDataSiswa extends JFrame {
         btnRefresh.setBackground(new Color(52, 152, 219));
         btnRefresh.setForeground(Color.WHITE);
         btnRefresh.setFocusPainted(false);
-        btnRefresh.addActionListener(e -> loadDataSiswa());
+        btnRefresh.addActionListener(e -> {
+            SiswaIndex.getInstance().invalidate();
+            loadDataSiswa();
+        });
         panelSearch.add(btnRefresh);
         
         // ===== PANEL TABLE =====
@@ -148,45 +153,20 @@ public class FormDataSiswa extends JFrame {
     
     // Method untuk load data siswa ke table
     private void loadDataSiswa() {
-        tableModel.setRowCount(0); // Clear table
-        
-        List<Siswa> listSiswa = siswaController.getAllSiswa();
-        
-        for (Siswa s : listSiswa) {
-            double sppHarusBayar = s.getNominalSPP(); // Removed potongan calculation
-
-            Object[] row = {
-                s.getNis(),
-                s.getNamaLengkap(),
-                s.getKelas(),
-                s.getTahunAjaran(),
-                String.format("Rp %.0f", s.getNominalSPP()),
-                String.format("Rp %.0f", sppHarusBayar),
-                s.getStatusSiswa()
-            };
-            tableModel.addRow(row);
-        }
-        
-        System.out.println("✅ Loaded " + listSiswa.size() + " siswa data");
+        muatSiswa("");
     }
     
     // Method untuk search siswa
     private void searchSiswa() {
-        String keyword = txtSearch.getText().toLowerCase().trim();
-        
-        if (keyword.isEmpty()) {
-            loadDataSiswa();
-            return;
-        }
-        
-        tableModel.setRowCount(0);
-        List<Siswa> listSiswa = siswaController.getAllSiswa();
-        
-        for (Siswa s : listSiswa) {
-            if (s.getNis().toLowerCase().contains(keyword) ||
-                s.getNamaLengkap().toLowerCase().contains(keyword) ||
-                s.getKelas().toLowerCase().contains(keyword)) {
-                
+        muatSiswa(txtSearch.getText().toLowerCase().trim());
+    }
+    
+    // Cari di index siswa bersama (memori) di background; ketikan baru membatalkan yang lama
+    private void muatSiswa(String keyword) {
+        slotSiswa.muat("data siswa", () -> SiswaIndex.getInstance().cari(keyword), listSiswa -> {
+            tableModel.setRowCount(0); // Clear table
+            
+            for (Siswa s : listSiswa) {
                 double sppHarusBayar = s.getNominalSPP(); // Removed potongan calculation
 
                 Object[] row = {
@@ -200,7 +180,11 @@ public class FormDataSiswa extends JFrame {
                 };
                 tableModel.addRow(row);
             }
-        }
+            
+            if (keyword.isEmpty()) {
+                System.out.println("✅ Loaded " + listSiswa.size() + " siswa data");
+            }
+        }, null);
     }
     
     // Method untuk tambah siswa
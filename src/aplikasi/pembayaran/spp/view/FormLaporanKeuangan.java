@@ -1,12 +1,18 @@
 package aplikasi.pembayaran.spp.view;
 
+import aplikasi.pembayaran.spp.controller.CsvExporter;
 import aplikasi.pembayaran.spp.controller.LaporanController;
+import aplikasi.pembayaran.spp.controller.LaporanPrinter;
+import aplikasi.pembayaran.spp.controller.LaporanScheduler;
+import aplikasi.pembayaran.spp.controller.TransaksiPager;
+import aplikasi.pembayaran.spp.model.LaporanArtifact;
+import aplikasi.pembayaran.spp.model.RingkasanLaporan;
+import aplikasi.pembayaran.spp.model.TabelTransaksi;
 import com.toedter.calendar.JDateChooser;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
@@ -28,7 +34,8 @@ public class FormLaporanKeuangan extends JFrame {
     private JLabel lblJumlahCash, lblJumlahTransfer, lblJumlahKartu;
     
     private JTable tableDetail;
-    private DefaultTableModel tableModel;
+    private TabelTransaksiModel tableModel;
+    private JButton btnCetakLaporan;
     
     private NumberFormat currencyFormat;
     
@@ -153,15 +160,22 @@ public class FormLaporanKeuangan extends JFrame {
         
         JButton btnGenerate = createStyledButton("🔍 Generate Laporan", new Color(46, 204, 113));
         JButton btnCetak = createStyledButton("🖨️ Cetak Laporan", new Color(52, 152, 219));
-//        JButton btnExport = createStyledButton("📄 Export Excel", new Color(241, 196, 15));
+        btnCetakLaporan = btnCetak;
+        JButton btnExport = createStyledButton("📄 Export Excel", new Color(241, 196, 15));
+        JButton btnExportCsv = createStyledButton("🗂️ Export Riwayat CSV", new Color(155, 89, 182));
+        JButton btnTersimpan = createStyledButton("📂 Laporan Tersimpan", new Color(52, 73, 94));
         
         btnGenerate.addActionListener(e -> generateLaporan());
         btnCetak.addActionListener(e -> cetakLaporan());
-//        btnExport.addActionListener(e -> exportToExcel());
+        btnExport.addActionListener(e -> exportToExcel());
+        btnExportCsv.addActionListener(e -> exportRiwayatCsv());
+        btnTersimpan.addActionListener(e -> bukaLaporanTersimpan());
         
         buttonPanel.add(btnGenerate);
+        buttonPanel.add(btnTersimpan);
         buttonPanel.add(btnCetak);
-//        buttonPanel.add(btnExport);
+        buttonPanel.add(btnExport);
+        buttonPanel.add(btnExportCsv);
         
         filterPanel.add(radioPanel, BorderLayout.NORTH);
         filterPanel.add(inputPanel, BorderLayout.CENTER);
@@ -293,13 +307,8 @@ public class FormLaporanKeuangan extends JFrame {
         titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 16));
         titleLabel.setBorder(new EmptyBorder(0, 0, 10, 0));
         
-        String[] columns = {"ID Transaksi", "NIS", "Nama Siswa", "Periode", "Tanggal", "Jumlah", "Metode", "Status"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        // Baca langsung dari TabelTransaksi, format rupiah/tanggal saat sel tampil
+        tableModel = new TabelTransaksiModel(currencyFormat);
         
         tableDetail = new JTable(tableModel);
         tableDetail.setRowHeight(30);
@@ -362,8 +371,7 @@ public class FormLaporanKeuangan extends JFrame {
     }
     
     private void generateLaporan() {
-        Map<String, Object> laporan;
-        List<Map<String, Object>> detailTransaksi;
+        LaporanController.HasilLaporan hasil;
         
         if (rbPeriode.isSelected()) {
             String periode = (String) cbPeriode.getSelectedItem();
@@ -371,78 +379,337 @@ public class FormLaporanKeuangan extends JFrame {
                 JOptionPane.showMessageDialog(this, "Pilih periode terlebih dahulu!", "Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
-            laporan = laporanController.getLaporanByPeriode(periode);
-            detailTransaksi = laporanController.getDetailTransaksi(periode);
+            hasil = laporanController.getLaporanLengkap(periode);
         } else {
             if (dateFrom.getDate() == null || dateTo.getDate() == null) {
                 JOptionPane.showMessageDialog(this, "Pilih tanggal mulai dan akhir!", "Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
-            laporan = laporanController.getLaporanByDateRange(dateFrom.getDate(), dateTo.getDate());
-            detailTransaksi = laporanController.getDetailTransaksiByDateRange(dateFrom.getDate(), dateTo.getDate());
+            hasil = laporanController.getLaporanLengkapByDateRange(dateFrom.getDate(), dateTo.getDate());
         }
         
-        updateSummary(laporan);
-        updateTable(detailTransaksi);
+        // Ringkasan dihitung sambil membaca detail, jadi cukup satu query
+        updateSummary(hasil.getRingkasan());
+        updateTable(hasil.getDetail());
     }
     
-    private void updateSummary(Map<String, Object> laporan) {
-        int totalTransaksi = (int) laporan.getOrDefault("total_transaksi", 0);
-        double totalPemasukan = (double) laporan.getOrDefault("total_pemasukan", 0.0);
-        double rataRata = (double) laporan.getOrDefault("rata_rata", 0.0);
-        
-        double totalCash = (double) laporan.getOrDefault("total_cash", 0.0);
-        double totalTransfer = (double) laporan.getOrDefault("total_transfer", 0.0);
-        double totalKartu = (double) laporan.getOrDefault("total_kartu", 0.0);
+    private void updateSummary(RingkasanLaporan laporan) {
+        lblTotalTransaksi.setText(String.valueOf(laporan.getTotalTransaksi()));
+        lblTotalPemasukan.setText(currencyFormat.format(laporan.getTotalPemasukan()));
+        lblRataRata.setText(currencyFormat.format(laporan.getRataRata()));
         
-        int jumlahCash = (int) laporan.getOrDefault("jumlah_cash", 0);
-        int jumlahTransfer = (int) laporan.getOrDefault("jumlah_transfer", 0);
-        int jumlahKartu = (int) laporan.getOrDefault("jumlah_kartu", 0);
+        lblTotalCash.setText(currencyFormat.format(laporan.getTotalCash()));
+        lblJumlahCash.setText(laporan.getJumlahCash() + " transaksi");
         
-        lblTotalTransaksi.setText(String.valueOf(totalTransaksi));
-        lblTotalPemasukan.setText(currencyFormat.format(totalPemasukan));
-        lblRataRata.setText(currencyFormat.format(rataRata));
+        lblTotalTransfer.setText(currencyFormat.format(laporan.getTotalTransfer()));
+        lblJumlahTransfer.setText(laporan.getJumlahTransfer() + " transaksi");
         
-        lblTotalCash.setText(currencyFormat.format(totalCash));
-        lblJumlahCash.setText(jumlahCash + " transaksi");
+        lblTotalKartu.setText(currencyFormat.format(laporan.getTotalKartu()));
+        lblJumlahKartu.setText(laporan.getJumlahKartu() + " transaksi");
+    }
+    
+    private void updateTable(TabelTransaksi transaksi) {
+        tableModel.setData(transaksi);
+    }
+    
+    // Cetak lewat LaporanPrinter: data diambil per halaman kertas dari database,
+    // bukan dari JTable, dan job cetak jalan di background
+    private void cetakLaporan() {
+        TransaksiPager pager;
+        String info;
+        if (rbPeriode.isSelected()) {
+            String periode = (String) cbPeriode.getSelectedItem();
+            if (periode == null) {
+                JOptionPane.showMessageDialog(this, "Pilih periode terlebih dahulu!", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            pager = laporanController.getDetailTransaksiPager(periode);
+            info = "Periode: " + periode;
+        } else {
+            if (dateFrom.getDate() == null || dateTo.getDate() == null) {
+                JOptionPane.showMessageDialog(this, "Pilih tanggal mulai dan akhir!", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            pager = laporanController.getDetailTransaksiPagerByDateRange(dateFrom.getDate(), dateTo.getDate());
+            SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
+            info = "Periode: " + sdf.format(dateFrom.getDate()) + " - " + sdf.format(dateTo.getDate());
+        }
         
-        lblTotalTransfer.setText(currencyFormat.format(totalTransfer));
-        lblJumlahTransfer.setText(jumlahTransfer + " transaksi");
+        final LaporanPrinter printer = new LaporanPrinter("LAPORAN KEUANGAN SPP", info, pager);
+        final java.awt.print.PrinterJob job = java.awt.print.PrinterJob.getPrinterJob();
+        final javax.print.attribute.PrintRequestAttributeSet attributes =
+            new javax.print.attribute.HashPrintRequestAttributeSet();
+        job.setJobName("Laporan Keuangan SPP");
+        job.setPrintable(printer);
+        // Dialog cetak Java juga punya opsi "Print to file" untuk menyimpan hasil cetak
+        if (!job.printDialog(attributes)) {
+            return;
+        }
         
-        lblTotalKartu.setText(currencyFormat.format(totalKartu));
-        lblJumlahKartu.setText(jumlahKartu + " transaksi");
+        btnCetakLaporan.setEnabled(false);
+        btnCetakLaporan.setText("⏳ Mencetak...");
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                printer.cetak(job, attributes);
+                return null;
+            }
+            
+            @Override
+            protected void done() {
+                btnCetakLaporan.setEnabled(true);
+                btnCetakLaporan.setText("🖨️ Cetak Laporan");
+                try {
+                    get();
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(FormLaporanKeuangan.this,
+                        "Error mencetak laporan: " + cause.getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                    e.printStackTrace();
+                }
+            }
+        }.execute();
     }
     
-    private void updateTable(List<Map<String, Object>> transaksiList) {
-        tableModel.setRowCount(0);
-        SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy HH:mm");
-        
-        for (Map<String, Object> transaksi : transaksiList) {
-            Object[] row = {
-                transaksi.get("id_transaksi"),
-                transaksi.get("nis_siswa"),
-                transaksi.get("nama_siswa"),
-                transaksi.getOrDefault("bulan_tahun", "-"),
-                sdf.format(transaksi.get("tanggal_bayar")),
-                currencyFormat.format(transaksi.get("jumlah_bayar")),
-                transaksi.get("metode_pembayaran"),
-                transaksi.get("status_pembayaran")
-            };
-            tableModel.addRow(row);
+    // Buka laporan harian/bulanan yang sudah di-generate LaporanScheduler
+    // (dicek dulu ke database, dibuat ulang kalau transaksinya sudah berubah)
+    private void bukaLaporanTersimpan() {
+        List<java.io.File> daftar = LaporanScheduler.getDaftarLaporan();
+        if (daftar.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Belum ada laporan tersimpan.\nLaporan dibuat otomatis setiap malam.",
+                "Info", JOptionPane.INFORMATION_MESSAGE);
+            return;
         }
+        
+        String[] pilihan = new String[daftar.size()];
+        for (int i = 0; i < daftar.size(); i++) {
+            pilihan[i] = daftar.get(i).getName().replace(".ser", "");
+        }
+        String dipilih = (String) JOptionPane.showInputDialog(this, "Pilih laporan:", "Laporan Tersimpan",
+            JOptionPane.PLAIN_MESSAGE, null, pilihan, pilihan[0]);
+        if (dipilih == null) {
+            return;
+        }
+        
+        final java.io.File file = daftar.get(Arrays.asList(pilihan).indexOf(dipilih));
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        new SwingWorker<LaporanArtifact, Void>() {
+            @Override
+            protected LaporanArtifact doInBackground() throws Exception {
+                return LaporanScheduler.muatTerbaru(file);
+            }
+            
+            @Override
+            protected void done() {
+                setCursor(Cursor.getDefaultCursor());
+                try {
+                    LaporanArtifact artifact = get();
+                    
+                    rbCustom.setSelected(true);
+                    toggleFilterMode();
+                    dateFrom.setDate(java.sql.Date.valueOf(artifact.getTanggalMulai()));
+                    dateTo.setDate(java.sql.Date.valueOf(artifact.getTanggalAkhir()));
+                    
+                    updateSummary(artifact.getRingkasan());
+                    updateTable(artifact.getDetail());
+                    setTitle("Laporan Keuangan - " + artifact + " (dibuat " +
+                        artifact.getDibuatPada().format(java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")) + ")");
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(FormLaporanKeuangan.this, "Error membuka laporan: " + cause.getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                    e.printStackTrace();
+                }
+            }
+        }.execute();
     }
     
-    private void cetakLaporan() {
-        try {
-            tableDetail.print();
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Error mencetak laporan: " + e.getMessage(), 
-                "Error", JOptionPane.ERROR_MESSAGE);
+    private void exportToExcel() {
+        final String periode = (String) cbPeriode.getSelectedItem();
+        final Date dari = dateFrom.getDate();
+        final Date sampai = dateTo.getDate();
+        final boolean byPeriode = rbPeriode.isSelected();
+        
+        if (byPeriode && periode == null) {
+            JOptionPane.showMessageDialog(this, "Pilih periode terlebih dahulu!", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (!byPeriode && (dari == null || sampai == null)) {
+            JOptionPane.showMessageDialog(this, "Pilih tanggal mulai dan akhir!", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Simpan Laporan Keuangan");
+        String namaFile = byPeriode ? periode.replaceAll("[^A-Za-z0-9]+", "_")
+                : new SimpleDateFormat("yyyyMMdd").format(dari) + "_" + new SimpleDateFormat("yyyyMMdd").format(sampai);
+        fileChooser.setSelectedFile(new java.io.File("Laporan_Keuangan_" + namaFile + ".xlsx"));
+        fileChooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("Excel Files (*.xlsx)", "xlsx"));
+        
+        if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        
+        java.io.File selected = fileChooser.getSelectedFile();
+        if (!selected.getName().toLowerCase().endsWith(".xlsx")) {
+            selected = new java.io.File(selected.getAbsolutePath() + ".xlsx");
         }
+        if (selected.exists()) {
+            int confirm = JOptionPane.showConfirmDialog(this, "File sudah ada. Timpa file?",
+                "Konfirmasi", JOptionPane.YES_NO_OPTION);
+            if (confirm != JOptionPane.YES_OPTION) {
+                return;
+            }
+        }
+        final java.io.File file = selected;
+        
+        // Export jalan di background, baris di-stream langsung dari database
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() throws Exception {
+                return byPeriode
+                    ? laporanController.exportDetailTransaksi(periode, file)
+                    : laporanController.exportDetailTransaksiByDateRange(dari, sampai, file);
+            }
+            
+            @Override
+            protected void done() {
+                setCursor(Cursor.getDefaultCursor());
+                try {
+                    int jumlah = get();
+                    int openFile = JOptionPane.showConfirmDialog(FormLaporanKeuangan.this,
+                        "Export berhasil! (" + jumlah + " transaksi)\n\nFile: " + file.getName() +
+                        "\nLokasi: " + file.getParent() + "\n\nBuka file sekarang?",
+                        "Success", JOptionPane.YES_NO_OPTION, JOptionPane.INFORMATION_MESSAGE);
+                    if (openFile == JOptionPane.YES_OPTION && Desktop.isDesktopSupported()) {
+                        Desktop.getDesktop().open(file);
+                    }
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(FormLaporanKeuangan.this,
+                        "Error saat export data:\n" + cause.getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                    e.printStackTrace();
+                }
+            }
+        }.execute();
     }
     
-    private void exportToExcel() {
-        JOptionPane.showMessageDialog(this, "Fitur export Excel akan segera hadir!", 
-            "Coming Soon", JOptionPane.INFORMATION_MESSAGE);
+    // Export seluruh riwayat pembayaran (semua periode) ke CSV/TSV untuk auditor
+    private void exportRiwayatCsv() {
+        javax.swing.filechooser.FileNameExtensionFilter csvFilter =
+            new javax.swing.filechooser.FileNameExtensionFilter("CSV (*.csv)", "csv");
+        javax.swing.filechooser.FileNameExtensionFilter tsvFilter =
+            new javax.swing.filechooser.FileNameExtensionFilter("TSV (*.tsv)", "tsv");
+        javax.swing.filechooser.FileNameExtensionFilter csvGzFilter =
+            new javax.swing.filechooser.FileNameExtensionFilter("CSV gzip (*.csv.gz)", "gz");
+        javax.swing.filechooser.FileNameExtensionFilter tsvGzFilter =
+            new javax.swing.filechooser.FileNameExtensionFilter("TSV gzip (*.tsv.gz)", "gz");
+        
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Export Riwayat Pembayaran");
+        fileChooser.setAcceptAllFileFilterUsed(false);
+        fileChooser.addChoosableFileFilter(csvFilter);
+        fileChooser.addChoosableFileFilter(tsvFilter);
+        fileChooser.addChoosableFileFilter(csvGzFilter);
+        fileChooser.addChoosableFileFilter(tsvGzFilter);
+        fileChooser.setFileFilter(csvFilter);
+        fileChooser.setSelectedFile(new java.io.File("Riwayat_Pembayaran_" +
+            new SimpleDateFormat("yyyyMMdd").format(new Date())));
+        
+        if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        
+        javax.swing.filechooser.FileFilter dipilih = fileChooser.getFileFilter();
+        final CsvExporter.Format format = (dipilih == tsvFilter || dipilih == tsvGzFilter)
+            ? CsvExporter.Format.TSV : CsvExporter.Format.CSV;
+        final boolean gzip = dipilih == csvGzFilter || dipilih == tsvGzFilter;
+        String ekstensi = (format == CsvExporter.Format.TSV ? ".tsv" : ".csv") + (gzip ? ".gz" : "");
+        
+        java.io.File selected = fileChooser.getSelectedFile();
+        if (!selected.getName().toLowerCase().endsWith(ekstensi)) {
+            selected = new java.io.File(selected.getAbsolutePath() + ekstensi);
+        }
+        if (selected.exists()) {
+            int confirm = JOptionPane.showConfirmDialog(this, "File sudah ada. Timpa file?",
+                "Konfirmasi", JOptionPane.YES_NO_OPTION);
+            if (confirm != JOptionPane.YES_OPTION) {
+                return;
+            }
+        }
+        final java.io.File file = selected;
+        final CsvExporter exporter = new CsvExporter(format, gzip);
+        
+        // Dialog progress
+        final JDialog dialog = new JDialog(this, "Export Riwayat Pembayaran", false);
+        final JProgressBar progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        progressBar.setIndeterminate(true);
+        final JLabel lblProgress = new JLabel("Menyiapkan export...");
+        lblProgress.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        JButton btnBatal = new JButton("Batal");
+        btnBatal.addActionListener(e -> {
+            exporter.batal();
+            btnBatal.setEnabled(false);
+            lblProgress.setText("Membatalkan...");
+        });
+        
+        JPanel dialogPanel = new JPanel(new BorderLayout(0, 10));
+        dialogPanel.setBorder(new EmptyBorder(15, 20, 15, 20));
+        dialogPanel.add(lblProgress, BorderLayout.NORTH);
+        dialogPanel.add(progressBar, BorderLayout.CENTER);
+        JPanel batalPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 0, 0));
+        batalPanel.add(btnBatal);
+        dialogPanel.add(batalPanel, BorderLayout.SOUTH);
+        dialog.setContentPane(dialogPanel);
+        dialog.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+        dialog.setSize(420, 150);
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
+        
+        new SwingWorker<Long, long[]>() {
+            @Override
+            protected Long doInBackground() throws Exception {
+                return exporter.exportPembayaran(file, (baris, total, barisPerDetik) ->
+                    publish(new long[]{baris, total, (long) barisPerDetik}));
+            }
+            
+            @Override
+            protected void process(List<long[]> chunks) {
+                long[] p = chunks.get(chunks.size() - 1);
+                if (p[1] > 0) {
+                    progressBar.setIndeterminate(false);
+                    progressBar.setValue((int) Math.min(100, p[0] * 100 / p[1]));
+                }
+                lblProgress.setText(String.format("%,d / %,d baris • %,d baris/detik", p[0], p[1], p[2]));
+            }
+            
+            @Override
+            protected void done() {
+                dialog.dispose();
+                try {
+                    long jumlah = get();
+                    JOptionPane.showMessageDialog(FormLaporanKeuangan.this,
+                        "Export berhasil! (" + String.format("%,d", jumlah) + " transaksi)\n\nFile: " +
+                        file.getName() + "\nLokasi: " + file.getParent(),
+                        "Success", JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof java.util.concurrent.CancellationException) {
+                        // File setengah jadi sudah dihapus oleh exporter
+                        JOptionPane.showMessageDialog(FormLaporanKeuangan.this, "Export dibatalkan.",
+                            "Info", JOptionPane.INFORMATION_MESSAGE);
+                        return;
+                    }
+                    JOptionPane.showMessageDialog(FormLaporanKeuangan.this,
+                        "Error saat export riwayat:\n" + cause.getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                    e.printStackTrace();
+                }
+            }
+        }.execute();
     }
 }
\ No newline at end of file
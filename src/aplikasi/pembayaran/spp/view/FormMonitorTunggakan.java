@@ -1,5 +1,6 @@
 package aplikasi.pembayaran.spp.view;
 
+import aplikasi.pembayaran.spp.controller.ExcelExporter;
 import aplikasi.pembayaran.spp.controller.PembayaranController;
 import aplikasi.pembayaran.spp.controller.SiswaController;
 import aplikasi.pembayaran.spp.model.Pembayaran;
@@ -8,7 +9,6 @@ import aplikasi.pembayaran.spp.model.Siswa;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.io.FileOutputStream;
 import java.time.LocalDate;
 import java.util.*;
 import java.util.List;
@@ -534,156 +534,22 @@ public class FormMonitorTunggakan extends JFrame {
     }
     
     private void exportToExcel(java.io.File file) throws Exception {
-        // Import yang diperlukan (tambahkan di bagian atas class):
-        // import org.apache.poi.ss.usermodel.*;
-        // import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-        // import java.io.FileOutputStream;
-
-        org.apache.poi.xssf.usermodel.XSSFWorkbook workbook = new org.apache.poi.xssf.usermodel.XSSFWorkbook();
-        org.apache.poi.ss.usermodel.Sheet sheet = workbook.createSheet("Laporan Tunggakan SPP");
-
-        // ===== STYLE UNTUK HEADER =====
-        org.apache.poi.ss.usermodel.CellStyle headerStyle = workbook.createCellStyle();
-        headerStyle.setFillForegroundColor(org.apache.poi.ss.usermodel.IndexedColors.RED.getIndex());
-        headerStyle.setFillPattern(org.apache.poi.ss.usermodel.FillPatternType.SOLID_FOREGROUND);
-        headerStyle.setAlignment(org.apache.poi.ss.usermodel.HorizontalAlignment.CENTER);
-        headerStyle.setVerticalAlignment(org.apache.poi.ss.usermodel.VerticalAlignment.CENTER);
-        headerStyle.setBorderBottom(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-        headerStyle.setBorderTop(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-        headerStyle.setBorderLeft(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-        headerStyle.setBorderRight(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-
-        org.apache.poi.ss.usermodel.Font headerFont = workbook.createFont();
-        headerFont.setColor(org.apache.poi.ss.usermodel.IndexedColors.WHITE.getIndex());
-        headerFont.setBold(true);
-        headerFont.setFontHeightInPoints((short) 11);
-        headerStyle.setFont(headerFont);
-
-        // ===== STYLE UNTUK TITLE =====
-        org.apache.poi.ss.usermodel.CellStyle titleStyle = workbook.createCellStyle();
-        org.apache.poi.ss.usermodel.Font titleFont = workbook.createFont();
-        titleFont.setBold(true);
-        titleFont.setFontHeightInPoints((short) 16);
-        titleStyle.setFont(titleFont);
-        titleStyle.setAlignment(org.apache.poi.ss.usermodel.HorizontalAlignment.CENTER);
-
-        // ===== STYLE UNTUK DATA =====
-        org.apache.poi.ss.usermodel.CellStyle dataStyle = workbook.createCellStyle();
-        dataStyle.setBorderBottom(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-        dataStyle.setBorderTop(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-        dataStyle.setBorderLeft(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-        dataStyle.setBorderRight(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-        dataStyle.setVerticalAlignment(org.apache.poi.ss.usermodel.VerticalAlignment.CENTER);
-
-        // ===== STYLE UNTUK ANGKA =====
-        org.apache.poi.ss.usermodel.CellStyle currencyStyle = workbook.createCellStyle();
-        currencyStyle.cloneStyleFrom(dataStyle);
-        org.apache.poi.ss.usermodel.DataFormat format = workbook.createDataFormat();
-        currencyStyle.setDataFormat(format.getFormat("Rp #,##0"));
-
-        // ===== STYLE UNTUK STATUS URGENT =====
-        org.apache.poi.ss.usermodel.CellStyle urgentStyle = workbook.createCellStyle();
-        urgentStyle.cloneStyleFrom(dataStyle);
-        urgentStyle.setFillForegroundColor(org.apache.poi.ss.usermodel.IndexedColors.ROSE.getIndex());
-        urgentStyle.setFillPattern(org.apache.poi.ss.usermodel.FillPatternType.SOLID_FOREGROUND);
-        org.apache.poi.ss.usermodel.Font urgentFont = workbook.createFont();
-        urgentFont.setBold(true);
-        urgentFont.setColor(org.apache.poi.ss.usermodel.IndexedColors.RED.getIndex());
-        urgentStyle.setFont(urgentFont);
-
-        int rowNum = 0;
-
-        // ===== TITLE =====
-        org.apache.poi.ss.usermodel.Row titleRow = sheet.createRow(rowNum++);
-        org.apache.poi.ss.usermodel.Cell titleCell = titleRow.createCell(0);
-        titleCell.setCellValue("⚠️ LAPORAN TUNGGAKAN SPP");
-        titleCell.setCellStyle(titleStyle);
-        sheet.addMergedRegion(new org.apache.poi.ss.util.CellRangeAddress(0, 0, 0, 7));
-        titleRow.setHeightInPoints(25);
-
-        // ===== INFO PERIODE =====
-        org.apache.poi.ss.usermodel.Row periodeRow = sheet.createRow(rowNum++);
-        org.apache.poi.ss.usermodel.Cell periodeCell = periodeRow.createCell(0);
         LocalDate today = LocalDate.now();
-        periodeCell.setCellValue("Periode s/d " + BULAN_ARRAY[today.getMonthValue()-1] + " " + today.getYear());
-
-        // ===== STATISTIK =====
-        org.apache.poi.ss.usermodel.Row statsRow = sheet.createRow(rowNum++);
-        statsRow.createCell(0).setCellValue("Jumlah Siswa Tunggakan: " + lblJumlahSiswa.getText());
-
-        org.apache.poi.ss.usermodel.Row nominalRow = sheet.createRow(rowNum++);
-        nominalRow.createCell(0).setCellValue("Total Nominal: " + lblTotalNominal.getText());
-
-        rowNum++; // Baris kosong
-
-        // ===== HEADER TABLE =====
-        org.apache.poi.ss.usermodel.Row headerRow = sheet.createRow(rowNum++);
-        String[] headers = {"NIS", "Nama Lengkap", "Kelas", "Bulan Belum Bayar", 
-                           "Jumlah Bulan", "Nominal/Bulan", "Total Tunggakan", "Status"};
-
-        for (int i = 0; i < headers.length; i++) {
-            org.apache.poi.ss.usermodel.Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(headerStyle);
-        }
-        headerRow.setHeightInPoints(25);
-
-        // ===== DATA ROWS =====
-        for (int i = 0; i < tableModel.getRowCount(); i++) {
-            org.apache.poi.ss.usermodel.Row dataRow = sheet.createRow(rowNum++);
-            dataRow.setHeightInPoints(20);
-
-            for (int j = 0; j < tableModel.getColumnCount(); j++) {
-                org.apache.poi.ss.usermodel.Cell cell = dataRow.createCell(j);
-                Object value = tableModel.getValueAt(i, j);
-
-                if (value != null) {
-                    String strValue = value.toString();
-
-                    // Kolom Nominal/Bulan dan Total Tunggakan (format currency)
-                    if (j == 5 || j == 6) {
-                        try {
-                            // Hapus "Rp" dan parse ke double
-                            String numStr = strValue.replace("Rp", "").replace(".", "").replace(",", ".").trim();
-                            double numValue = Double.parseDouble(numStr);
-                            cell.setCellValue(numValue);
-                            cell.setCellStyle(currencyStyle);
-                        } catch (NumberFormatException e) {
-                            cell.setCellValue(strValue);
-                            cell.setCellStyle(dataStyle);
-                        }
-                    }
-                    // Kolom Status
-                    else if (j == 7) {
-                        cell.setCellValue(strValue);
-                        if (strValue.contains("Urgent")) {
-                            cell.setCellStyle(urgentStyle);
-                        } else {
-                            cell.setCellStyle(dataStyle);
-                        }
-                    }
-                    // Kolom lainnya
-                    else {
-                        cell.setCellValue(strValue);
-                        cell.setCellStyle(dataStyle);
-                    }
-                }
-            }
-        }
-
-        // ===== AUTO SIZE COLUMNS =====
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
-            // Tambah sedikit padding
-            int currentWidth = sheet.getColumnWidth(i);
-            sheet.setColumnWidth(i, currentWidth + 1000);
-        }
-
-        // ===== SIMPAN FILE =====
-        try (FileOutputStream outputStream = new FileOutputStream(file)) {
-            workbook.write(outputStream);
-        }
 
-        workbook.close();
+        // Streaming via SXSSF, style dibuat sekali di ExcelExporter
+        new ExcelExporter("Laporan Tunggakan SPP", "⚠️ LAPORAN TUNGGAKAN SPP")
+                .warnaHeader(org.apache.poi.ss.usermodel.IndexedColors.RED)
+                .info("Periode s/d " + BULAN_ARRAY[today.getMonthValue()-1] + " " + today.getYear())
+                .info("Jumlah Siswa Tunggakan: " + lblJumlahSiswa.getText())
+                .info("Total Nominal: " + lblTotalNominal.getText())
+                .kolom("NIS", ExcelExporter.Tipe.TEKS, 14)
+                .kolom("Nama Lengkap", ExcelExporter.Tipe.TEKS, 30)
+                .kolom("Kelas", ExcelExporter.Tipe.TEKS, 12)
+                .kolom("Bulan Belum Bayar", ExcelExporter.Tipe.TEKS, 45)
+                .kolom("Jumlah Bulan", ExcelExporter.Tipe.TEKS, 14)
+                .kolom("Nominal/Bulan", ExcelExporter.Tipe.RUPIAH, 18)
+                .kolom("Total Tunggakan", ExcelExporter.Tipe.RUPIAH, 20)
+                .kolom(new ExcelExporter.Kolom("Status", ExcelExporter.Tipe.TEKS, 18).sorot("Urgent"))
+                .export(ExcelExporter.dariTableModel(tableModel), file);
     }
 }
\ No newline at end of file
@@ -1,19 +1,20 @@
 package aplikasi.pembayaran.spp.view;
 
 import aplikasi.pembayaran.spp.controller.PembayaranController;
+import aplikasi.pembayaran.spp.controller.PeriodeFilter;
+import aplikasi.pembayaran.spp.controller.RekapBulananController;
 import aplikasi.pembayaran.spp.controller.SiswaController;
-import aplikasi.pembayaran.spp.model.Pembayaran;
+import aplikasi.pembayaran.spp.model.PerbandinganPeriode;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.text.NumberFormat;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class FormStatistik extends JFrame {
     
@@ -24,11 +25,26 @@ public class FormStatistik extends JFrame {
     private JPanel chartPanel;
     private JComboBox<String> cmbPeriode;
     private JLabel lblTotalPemasukan, lblRataRata, lblTertinggi, lblTerendah;
+    // Nomor loadStatistik terakhir, hasil worker yang lebih lama dibuang
+    private int permintaanStatistik = 0;
+    
+    // Perbandingan periode
+    private static final String SEMUA_KELAS = "Semua Kelas";
+    private RekapBulananController rekapController;
+    private PerbandinganPeriode perbandingan;
+    // true selama daftar kelas perbandingan diganti (listener combo tidak perlu menggambar)
+    private boolean isiDaftarKelas = false;
+    private JComboBox<String> cmbJumlahBulan;
+    private JComboBox<String> cmbKelasPerbandingan;
+    private JLabel lblStatusPerbandingan;
+    private javax.swing.table.DefaultTableModel perbandinganTableModel;
+    private JPanel perbandinganChartPanel;
     
     public FormStatistik(String role) {
         this.currentRole = role;
         this.pembayaranController = new PembayaranController();
         this.siswaController = new SiswaController();
+        this.rekapController = new RekapBulananController();
         
         initComponents();
         loadStatistik("Bulan Ini");
@@ -72,7 +88,7 @@ public class FormStatistik extends JFrame {
         return header;
     }
     
-    private JPanel createMainContent() {
+    private JComponent createMainContent() {
         JPanel mainPanel = new JPanel(new BorderLayout(15, 15));
         mainPanel.setBackground(new Color(236, 240, 241));
         mainPanel.setBorder(new EmptyBorder(20, 20, 20, 20));
@@ -88,7 +104,190 @@ public class FormStatistik extends JFrame {
         
         mainPanel.add(splitPane, BorderLayout.CENTER);
         
-        return mainPanel;
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.setFont(new Font("Segoe UI", Font.BOLD, 13));
+        tabs.addTab("📊 Ringkasan", mainPanel);
+        tabs.addTab("📅 Perbandingan Periode", createPerbandinganPanel());
+        
+        // Data perbandingan baru dimuat saat tab pertama kali dibuka
+        tabs.addChangeListener(e -> {
+            if (tabs.getSelectedIndex() == 1 && perbandingan == null) {
+                loadPerbandingan();
+            }
+        });
+        
+        return tabs;
+    }
+    
+    // ===== PERBANDINGAN PERIODE (dari tabel rekap_bulanan) =====
+    
+    private JPanel createPerbandinganPanel() {
+        JPanel panel = new JPanel(new BorderLayout(15, 15));
+        panel.setBackground(new Color(236, 240, 241));
+        panel.setBorder(new EmptyBorder(20, 20, 20, 20));
+        
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 15, 10));
+        filterPanel.setBackground(Color.WHITE);
+        filterPanel.setBorder(BorderFactory.createCompoundBorder(
+            BorderFactory.createLineBorder(new Color(220, 220, 220)),
+            new EmptyBorder(10, 20, 10, 20)
+        ));
+        
+        cmbJumlahBulan = new JComboBox<>(new String[]{"12 Bulan", "24 Bulan", "36 Bulan"});
+        cmbJumlahBulan.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        cmbJumlahBulan.addActionListener(e -> loadPerbandingan());
+        
+        cmbKelasPerbandingan = new JComboBox<>(new String[]{SEMUA_KELAS});
+        cmbKelasPerbandingan.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        cmbKelasPerbandingan.setPreferredSize(new Dimension(150, 30));
+        // Ganti kelas cukup hitung ulang dari data di memori, tanpa query
+        cmbKelasPerbandingan.addActionListener(e -> {
+            if (!isiDaftarKelas) {
+                tampilkanPerbandingan();
+            }
+        });
+        
+        lblStatusPerbandingan = new JLabel(" ");
+        lblStatusPerbandingan.setFont(new Font("Segoe UI", Font.ITALIC, 12));
+        lblStatusPerbandingan.setForeground(new Color(127, 140, 141));
+        
+        JLabel lblBulan = new JLabel("Rentang:");
+        lblBulan.setFont(new Font("Segoe UI", Font.BOLD, 13));
+        JLabel lblKelas = new JLabel("Kelas:");
+        lblKelas.setFont(new Font("Segoe UI", Font.BOLD, 13));
+        
+        filterPanel.add(lblBulan);
+        filterPanel.add(cmbJumlahBulan);
+        filterPanel.add(lblKelas);
+        filterPanel.add(cmbKelasPerbandingan);
+        filterPanel.add(lblStatusPerbandingan);
+        
+        String[] columns = {"Periode", "Transaksi", "Cash", "Transfer", "Kartu Debit", "Total",
+                            "Tahun Lalu", "YoY", "vs Bulan Lalu"};
+        perbandinganTableModel = new javax.swing.table.DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable table = new JTable(perbandinganTableModel);
+        table.setRowHeight(26);
+        table.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        table.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 12));
+        
+        perbandinganChartPanel = new JPanel(new BorderLayout());
+        perbandinganChartPanel.setBackground(Color.WHITE);
+        perbandinganChartPanel.setBorder(BorderFactory.createLineBorder(new Color(220, 220, 220)));
+        
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT, perbandinganChartPanel, new JScrollPane(table));
+        split.setDividerLocation(260);
+        
+        panel.add(filterPanel, BorderLayout.NORTH);
+        panel.add(split, BorderLayout.CENTER);
+        return panel;
+    }
+    
+    private void loadPerbandingan() {
+        final int jumlahBulan = (cmbJumlahBulan.getSelectedIndex() + 1) * 12;
+        lblStatusPerbandingan.setText("Memuat...");
+        cmbJumlahBulan.setEnabled(false);
+        
+        new SwingWorker<PerbandinganPeriode, Void>() {
+            private long mulai;
+            
+            @Override
+            protected PerbandinganPeriode doInBackground() throws Exception {
+                mulai = System.currentTimeMillis();
+                return rekapController.getPerbandingan(YearMonth.now(), jumlahBulan);
+            }
+            
+            @Override
+            protected void done() {
+                cmbJumlahBulan.setEnabled(true);
+                try {
+                    perbandingan = get();
+                    
+                    String kelasDipilih = (String) cmbKelasPerbandingan.getSelectedItem();
+                    DefaultComboBoxModel<String> kelasModel = new DefaultComboBoxModel<>();
+                    kelasModel.addElement(SEMUA_KELAS);
+                    for (String kelas : perbandingan.getDaftarKelas()) {
+                        kelasModel.addElement(kelas);
+                    }
+                    // Listener kelas tidak ikut menggambar saat daftar diganti, cukup sekali di bawah
+                    isiDaftarKelas = true;
+                    try {
+                        cmbKelasPerbandingan.setModel(kelasModel);
+                        cmbKelasPerbandingan.setSelectedItem(kelasDipilih);
+                    } finally {
+                        isiDaftarKelas = false;
+                    }
+                    
+                    tampilkanPerbandingan();
+                    lblStatusPerbandingan.setText("Dimuat dalam " + (System.currentTimeMillis() - mulai) + " ms");
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    lblStatusPerbandingan.setText("Gagal memuat data");
+                    JOptionPane.showMessageDialog(FormStatistik.this,
+                        "Error memuat perbandingan periode:\n" + cause.getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                    e.printStackTrace();
+                }
+            }
+        }.execute();
+    }
+    
+    private void tampilkanPerbandingan() {
+        if (perbandingan == null) {
+            return;
+        }
+        String kelas = (String) cmbKelasPerbandingan.getSelectedItem();
+        if (SEMUA_KELAS.equals(kelas)) {
+            kelas = null;
+        }
+        
+        NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("id", "ID"));
+        DateTimeFormatter formatBulan = DateTimeFormatter.ofPattern("MMM yyyy", new Locale("id", "ID"));
+        
+        int jumlah = perbandingan.getJumlahBulan();
+        String[] label = new String[jumlah];
+        double[] sekarang = new double[jumlah];
+        double[] tahunLalu = new double[jumlah];
+        
+        perbandinganTableModel.setRowCount(0);
+        // Terbaru di atas
+        for (int p = jumlah - 1; p >= 0; p--) {
+            double total = perbandingan.getTotal(p, null, kelas);
+            double totalTahunLalu = perbandingan.getTotalTahunLalu(p, null, kelas);
+            double totalBulanLalu = perbandingan.getTotalBulanLalu(p, null, kelas);
+            
+            label[p] = perbandingan.getPeriode(p).format(formatBulan);
+            sekarang[p] = total;
+            tahunLalu[p] = totalTahunLalu;
+            
+            perbandinganTableModel.addRow(new Object[]{
+                label[p],
+                perbandingan.getTransaksi(p, null, kelas),
+                currencyFormat.format(perbandingan.getTotal(p, "Cash", kelas)),
+                currencyFormat.format(perbandingan.getTotal(p, "Transfer", kelas)),
+                currencyFormat.format(perbandingan.getTotal(p, "Kartu Debit", kelas)),
+                currencyFormat.format(total),
+                currencyFormat.format(totalTahunLalu),
+                formatPersen(PerbandinganPeriode.persenPerubahan(total, totalTahunLalu)),
+                formatPersen(PerbandinganPeriode.persenPerubahan(total, totalBulanLalu))
+            });
+        }
+        
+        perbandinganChartPanel.removeAll();
+        perbandinganChartPanel.add(new PerbandinganChartPanel(label, sekarang, tahunLalu), BorderLayout.CENTER);
+        perbandinganChartPanel.revalidate();
+        perbandinganChartPanel.repaint();
+    }
+    
+    private String formatPersen(double persen) {
+        if (Double.isNaN(persen)) {
+            return "-";
+        }
+        return (persen >= 0 ? "▲ +" : "▼ ") + String.format("%.1f%%", persen);
     }
     
     private JPanel createFilterPanel() {
@@ -246,26 +445,44 @@ public class FormStatistik extends JFrame {
     }
     
     private void loadStatistik(String periode) {
-        try {
-            List<Pembayaran> allPembayaran = pembayaranController.getAllPembayaran(currentRole);
-            List<Pembayaran> filteredData = filterByPeriode(allPembayaran, periode);
-            
-            // Update chart
-            updateChart(filteredData);
-            
-            // Calculate statistics
-            calculateStatistics(filteredData);
+        final int permintaan = ++permintaanStatistik;
+        final PeriodeFilter filter = getFilterPeriode(periode);
+        
+        new SwingWorker<Map<YearMonth, Double>, Void>() {
+            @Override
+            protected Map<YearMonth, Double> doInBackground() throws Exception {
+                return pembayaranController.getPemasukanPerBulan(currentRole, filter);
+            }
             
-        } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, 
-                "Error loading statistik: " + e.getMessage(), 
-                "Error", 
-                JOptionPane.ERROR_MESSAGE);
-        }
+            @Override
+            protected void done() {
+                // Periode sudah diganti lagi selama query jalan, hasil ini tidak dipakai
+                if (permintaan != permintaanStatistik) {
+                    return;
+                }
+                try {
+                    Map<YearMonth, Double> perBulan = get();
+                    
+                    // Update chart
+                    updateChart(perBulan);
+                    
+                    // Calculate statistics
+                    calculateStatistics(perBulan);
+                    
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    e.printStackTrace();
+                    JOptionPane.showMessageDialog(FormStatistik.this, 
+                        "Error loading statistik: " + cause.getMessage(), 
+                        "Error", 
+                        JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
     }
     
-    private List<Pembayaran> filterByPeriode(List<Pembayaran> data, String periode) {
+    // Range tanggal untuk pilihan periode, null = semua data
+    private PeriodeFilter getFilterPeriode(String periode) {
         LocalDate now = LocalDate.now();
         LocalDate startDate;
         
@@ -283,33 +500,20 @@ public class FormStatistik extends JFrame {
                 startDate = now.withDayOfYear(1);
                 break;
             default: // Semua Data
-                return data;
+                return null;
         }
         
-        return data.stream()
-            .filter(p -> {
-                LocalDateTime paymentDate = p.getTanggalBayar();
-                LocalDate paymentLocalDate = paymentDate.toLocalDate();
-                return !paymentLocalDate.isBefore(startDate);
-            })
-            .collect(Collectors.toList());
+        return PeriodeFilter.rentang(startDate, now);
     }
     
-    private void updateChart(List<Pembayaran> data) {
+    private void updateChart(Map<YearMonth, Double> perBulan) {
         chartPanel.removeAll();
         
-        // Group by month
-        Map<String, Double> monthlyData = new TreeMap<>();
-        
-        for (Pembayaran p : data) {
-            try {
-                LocalDateTime date = p.getTanggalBayar();
-                String monthKey = date.format(DateTimeFormatter.ofPattern("MMM yyyy"));
-                
-                monthlyData.merge(monthKey, p.getJumlahBayar(), Double::sum);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
+        // Urut per bulan (bukan urut abjad nama bulan)
+        Map<String, Double> monthlyData = new LinkedHashMap<>();
+        DateTimeFormatter formatBulan = DateTimeFormatter.ofPattern("MMM yyyy");
+        for (Map.Entry<YearMonth, Double> entry : perBulan.entrySet()) {
+            monthlyData.put(entry.getKey().format(formatBulan), entry.getValue());
         }
         
         if (monthlyData.isEmpty()) {
@@ -326,10 +530,10 @@ public class FormStatistik extends JFrame {
         chartPanel.repaint();
     }
     
-    private void calculateStatistics(List<Pembayaran> data) {
+    private void calculateStatistics(Map<YearMonth, Double> monthlyData) {
         NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("id", "ID"));
         
-        if (data.isEmpty()) {
+        if (monthlyData.isEmpty()) {
             lblTotalPemasukan.setText("Rp 0");
             lblRataRata.setText("Rp 0");
             lblTertinggi.setText("Rp 0");
@@ -338,36 +542,22 @@ public class FormStatistik extends JFrame {
         }
         
         // Total pemasukan
-        double total = data.stream().mapToDouble(Pembayaran::getJumlahBayar).sum();
+        double total = monthlyData.values().stream().mapToDouble(Double::doubleValue).sum();
         lblTotalPemasukan.setText(currencyFormat.format(total));
         
-        // Group by month for averages
-        Map<String, Double> monthlyData = new HashMap<>();
-        for (Pembayaran p : data) {
-            try {
-                LocalDateTime date = p.getTanggalBayar();
-                String monthKey = date.format(DateTimeFormatter.ofPattern("yyyy-MM"));
-                monthlyData.merge(monthKey, p.getJumlahBayar(), Double::sum);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        }
-        
         // Rata-rata per bulan
-        if (!monthlyData.isEmpty()) {
-            double average = monthlyData.values().stream()
-                .mapToDouble(Double::doubleValue).average().orElse(0);
-            lblRataRata.setText(currencyFormat.format(average));
-            
-            // Tertinggi dan terendah
-            double max = monthlyData.values().stream()
-                .mapToDouble(Double::doubleValue).max().orElse(0);
-            double min = monthlyData.values().stream()
-                .mapToDouble(Double::doubleValue).min().orElse(0);
-            
-            lblTertinggi.setText(currencyFormat.format(max));
-            lblTerendah.setText(currencyFormat.format(min));
-        }
+        double average = monthlyData.values().stream()
+            .mapToDouble(Double::doubleValue).average().orElse(0);
+        lblRataRata.setText(currencyFormat.format(average));
+        
+        // Tertinggi dan terendah
+        double max = monthlyData.values().stream()
+            .mapToDouble(Double::doubleValue).max().orElse(0);
+        double min = monthlyData.values().stream()
+            .mapToDouble(Double::doubleValue).min().orElse(0);
+        
+        lblTertinggi.setText(currencyFormat.format(max));
+        lblTerendah.setText(currencyFormat.format(min));
     }
     
     // Inner class for bar chart
@@ -431,4 +621,76 @@ public class FormStatistik extends JFrame {
             }
         }
     }
-}
\ No newline at end of file
+    
+    // Grafik perbandingan: batang periode ini vs bulan yang sama tahun lalu
+    private class PerbandinganChartPanel extends JPanel {
+        private final String[] label;
+        private final double[] sekarang;
+        private final double[] tahunLalu;
+        private final double maxValue;
+        
+        public PerbandinganChartPanel(String[] label, double[] sekarang, double[] tahunLalu) {
+            this.label = label;
+            this.sekarang = sekarang;
+            this.tahunLalu = tahunLalu;
+            double max = 1;
+            for (int i = 0; i < label.length; i++) {
+                max = Math.max(max, Math.max(sekarang[i], tahunLalu[i]));
+            }
+            this.maxValue = max;
+            setBackground(Color.WHITE);
+        }
+        
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            Graphics2D g2d = (Graphics2D) g;
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            
+            int width = getWidth();
+            int height = getHeight();
+            int padding = 40;
+            int chartHeight = height - 2 * padding;
+            int slot = Math.max(6, (width - 2 * padding) / Math.max(1, label.length));
+            int barWidth = Math.max(2, (slot - 4) / 2);
+            
+            Color warnaSekarang = new Color(52, 152, 219);
+            Color warnaTahunLalu = new Color(189, 195, 199);
+            
+            // Sumbu
+            g2d.setColor(new Color(189, 195, 199));
+            g2d.drawLine(padding, height - padding, width - padding, height - padding);
+            g2d.drawLine(padding, padding, padding, height - padding);
+            
+            // Legenda
+            g2d.setFont(new Font("Segoe UI", Font.PLAIN, 11));
+            g2d.setColor(warnaSekarang);
+            g2d.fillRect(width - 230, 10, 12, 12);
+            g2d.setColor(warnaTahunLalu);
+            g2d.fillRect(width - 120, 10, 12, 12);
+            g2d.setColor(new Color(44, 62, 80));
+            g2d.drawString("Periode ini", width - 214, 21);
+            g2d.drawString("Tahun lalu", width - 104, 21);
+            
+            // Label bulan cukup sebagian kalau rentangnya panjang
+            int langkahLabel = Math.max(1, label.length / 12);
+            int x = padding + 4;
+            for (int i = 0; i < label.length; i++) {
+                int tinggiLalu = (int) ((tahunLalu[i] / maxValue) * chartHeight);
+                int tinggiSekarang = (int) ((sekarang[i] / maxValue) * chartHeight);
+                
+                g2d.setColor(warnaTahunLalu);
+                g2d.fillRect(x, height - padding - tinggiLalu, barWidth, tinggiLalu);
+                g2d.setColor(warnaSekarang);
+                g2d.fillRect(x + barWidth, height - padding - tinggiSekarang, barWidth, tinggiSekarang);
+                
+                if (i % langkahLabel == 0) {
+                    g2d.setColor(new Color(44, 62, 80));
+                    g2d.setFont(new Font("Segoe UI", Font.PLAIN, 9));
+                    g2d.drawString(label[i], x, height - padding + 14);
+                }
+                x += slot;
+            }
+        }
+    }
+}
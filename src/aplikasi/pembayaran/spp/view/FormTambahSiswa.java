@@ -194,17 +194,14 @@ public class FormTambahSiswa extends JDialog {
     private void updateTahunAjaranFromKelas() {
         String selectedItem = (String) cmbKelas.getSelectedItem();
         if (selectedItem != null) {
-            // Extract kelas name from the selected item (format: "Kelas - Angkatan")
-            String kelasName = selectedItem.split(" - ")[0];
-            
-            // Find the corresponding class in the database
-            List<Kelas> kelasList = kelasController.getAllKelas();
-            for (Kelas k : kelasList) {
-                if (k.getKelas().equals(kelasName)) {
-                    txtTahunAjaran.setText(k.getAngkatan());
-                    txtNominalSPP.setText(String.valueOf(k.getNominalSPP()));
-                    break;
-                }
+            // Selected item format: "Kelas - Angkatan"
+            String[] bagian = selectedItem.split(" - ", 2);
+
+            // Lookup langsung ke referensi kelas (kelas + angkatan)
+            Kelas k = bagian.length == 2 ? kelasController.getKelas(bagian[0], bagian[1]) : null;
+            if (k != null) {
+                txtTahunAjaran.setText(k.getAngkatan());
+                txtNominalSPP.setText(String.valueOf(k.getNominalSPP()));
             }
         }
     }
@@ -0,0 +1,36 @@
+package aplikasi.pembayaran.spp.view;
+
+import java.text.DecimalFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Formatter rupiah bersama ("Rp 1,500,000", sama dengan String.format("Rp %,.0f")).
+ *
+ * Nominal SPP sangat berulang (nominal per kelas, cicilan yang sama), jadi
+ * string hasil format disimpan per nilai bulat. Renderer tabel yang dipanggil
+ * ribuan kali saat scroll cukup mengambil string yang sudah ada.
+ */
+public final class FormatRupiah {
+
+    private static final int MAKS_CACHE = 4096;
+
+    private static final ThreadLocal<DecimalFormat> FORMAT =
+            ThreadLocal.withInitial(() -> new DecimalFormat("#,##0"));
+    private static final ConcurrentMap<Long, String> CACHE = new ConcurrentHashMap<>();
+
+    private FormatRupiah() {
+    }
+
+    public static String format(double nilai) {
+        long bulat = Math.round(nilai);
+        String hasil = CACHE.get(bulat);
+        if (hasil == null) {
+            hasil = "Rp " + FORMAT.get().format(bulat);
+            if (CACHE.size() < MAKS_CACHE) {
+                CACHE.put(bulat, hasil);
+            }
+        }
+        return hasil;
+    }
+}
@@ -0,0 +1,305 @@
+package aplikasi.pembayaran.spp.view;
+
+import aplikasi.pembayaran.spp.controller.KendaliQuery;
+import aplikasi.pembayaran.spp.controller.TransaksiPager;
+import aplikasi.pembayaran.spp.model.Koneksi;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Table model yang memuat data per halaman (TransaksiPager) saat user scroll.
+ *
+ * Hanya MAKS_HALAMAN halaman terakhir yang dipakai disimpan di memori;
+ * halaman yang sudah dibuang dimuat ulang lewat cursor-nya kalau di-scroll lagi.
+ * Query jalan di thread background, semua state model hanya diubah di EDT.
+ *
+ * Setiap halaman disimpan per kolom (lihat {@link Blok}): kolom Double jadi
+ * double[], kolom Timestamp jadi long[], kolom lain Object[] dengan nilai
+ * yang berulang dipakai bersama. Model mengembalikan nilai mentah; format
+ * tampilan (rupiah, status, tanggal) dikerjakan renderer saat sel digambar.
+ *
+ * Ganti pager (pencarian baru) membatalkan query pager lama lewat KendaliQuery:
+ * halaman lama yang masih antre dilewati dan query yang sedang jalan di-cancel.
+ *
+ * Thread loader memakai satu koneksi sendiri untuk semua halaman (bukan koneksi
+ * baru per halaman); kalau koneksinya putus dibuka ulang. Panggil {@link #tutup()}
+ * kalau tabelnya tidak dipakai lagi.
+ */
+public class KeysetTableModel extends AbstractTableModel {
+
+    private static final int MAKS_HALAMAN = 10;
+    private static final int PAGE_SIZE = TransaksiPager.PAGE_SIZE;
+
+    private final String[] kolom;
+    private final Class<?>[] tipe;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "keyset-table-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Koneksi milik thread loader, hanya disentuh dari thread itu
+    private Connection koneksi;
+
+    private TransaksiPager pager;
+    private int generasi = 0;   // naik setiap ganti pager, hasil load lama dibuang
+    private KendaliQuery token = new KendaliQuery(); // dibatalkan setiap ganti pager
+    private int jumlahBaris = 0;
+    private boolean adaLagi = false;
+
+    // Cursor baris terakhir setiap halaman yang pernah dimuat (awal halaman i = cursor i-1)
+    private final List<TransaksiPager.Cursor> cursorAkhir = new ArrayList<>();
+    private final Set<Integer> sedangDimuat = new HashSet<>();
+    private final Map<Integer, Blok> halaman = new LinkedHashMap<Integer, Blok>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Blok> eldest) {
+            return size() > MAKS_HALAMAN;
+        }
+    };
+
+    /**
+     * Satu halaman dalam bentuk kolom. Dibuat di thread loader, setelah itu read-only.
+     */
+    private static final class Blok {
+        final int ukuran;
+        final Object[] kolom; // per kolom: double[], long[] atau Object[]
+
+        Blok(List<Object[]> baris, Class<?>[] tipe) {
+            ukuran = baris.size();
+            kolom = new Object[tipe.length];
+            Map<Object, Object> nilaiSama = new HashMap<>();
+            for (int c = 0; c < tipe.length; c++) {
+                if (tipe[c] == Double.class) {
+                    double[] isi = new double[ukuran];
+                    for (int r = 0; r < ukuran; r++) {
+                        Object v = baris.get(r)[c];
+                        isi[r] = v instanceof Number ? ((Number) v).doubleValue() : Double.NaN;
+                    }
+                    kolom[c] = isi;
+                } else if (tipe[c] == Timestamp.class) {
+                    long[] isi = new long[ukuran];
+                    for (int r = 0; r < ukuran; r++) {
+                        Object v = baris.get(r)[c];
+                        isi[r] = v instanceof java.util.Date ? ((java.util.Date) v).getTime() : Long.MIN_VALUE;
+                    }
+                    kolom[c] = isi;
+                } else {
+                    // Status, bulan, user input dll. banyak yang sama: simpan satu instance saja
+                    Object[] isi = new Object[ukuran];
+                    for (int r = 0; r < ukuran; r++) {
+                        Object v = baris.get(r)[c];
+                        if (v != null) {
+                            Object ada = nilaiSama.putIfAbsent(v, v);
+                            isi[r] = ada != null ? ada : v;
+                        }
+                    }
+                    kolom[c] = isi;
+                }
+            }
+        }
+
+        Object get(int row, int c) {
+            Object isi = kolom[c];
+            if (isi instanceof double[]) {
+                double v = ((double[]) isi)[row];
+                return Double.isNaN(v) ? null : v;
+            }
+            if (isi instanceof long[]) {
+                long v = ((long[]) isi)[row];
+                return v == Long.MIN_VALUE ? null : new Timestamp(v);
+            }
+            return ((Object[]) isi)[row];
+        }
+    }
+
+    /**
+     * @param kolom judul kolom tabel
+     * @param tipe  tipe tiap kolom sesuai urutan SELECT pager
+     *              (Double.class, Timestamp.class atau lainnya)
+     */
+    public KeysetTableModel(String[] kolom, Class<?>[] tipe) {
+        this.kolom = kolom;
+        this.tipe = tipe;
+    }
+
+    /**
+     * Ganti sumber data (misal setelah pencarian) dan muat halaman pertama
+     */
+    public void setPager(TransaksiPager pager) {
+        this.pager = pager;
+        generasi++;
+        token.batal();
+        token = new KendaliQuery();
+        jumlahBaris = 0;
+        adaLagi = false;
+        cursorAkhir.clear();
+        sedangDimuat.clear();
+        halaman.clear();
+        fireTableDataChanged();
+        if (pager != null) {
+            muat(0);
+        }
+    }
+
+    /**
+     * Hentikan loader dan tutup koneksinya (panel dilepas / logout)
+     */
+    public void tutup() {
+        pager = null;
+        generasi++;
+        token.batal();
+        loader.execute(this::tutupKoneksi);
+        loader.shutdown();
+    }
+
+    /**
+     * Muat ulang dari awal dengan pager yang sama
+     */
+    public void refresh() {
+        setPager(pager);
+    }
+
+    @Override
+    public int getRowCount() {
+        return jumlahBaris;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return kolom.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return kolom[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        // Timestamp tetap Object supaya tampil lengkap lewat toString(), bukan DateRenderer
+        return tipe[column] == Double.class ? Double.class : Object.class;
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        int nomorHalaman = row / PAGE_SIZE;
+        Blok data = halaman.get(nomorHalaman);
+
+        // Prefetch halaman berikutnya begitu halaman terakhir mulai terlihat
+        if (adaLagi && nomorHalaman == cursorAkhir.size() - 1) {
+            muat(nomorHalaman + 1);
+        }
+
+        if (data == null) {
+            muat(nomorHalaman);
+            return column == 0 ? "Memuat..." : null;
+        }
+        int offset = row % PAGE_SIZE;
+        return offset < data.ukuran ? data.get(offset, column) : null;
+    }
+
+    private void muat(int nomorHalaman) {
+        // Cursor awal halaman harus sudah diketahui (halaman dimuat berurutan)
+        if (pager == null || nomorHalaman > cursorAkhir.size() || !sedangDimuat.add(nomorHalaman)) {
+            return;
+        }
+        final TransaksiPager sumber = pager;
+        final int gen = generasi;
+        final TransaksiPager.Cursor awal = nomorHalaman == 0 ? null : cursorAkhir.get(nomorHalaman - 1);
+        final KendaliQuery kendali = token;
+
+        loader.execute(() -> {
+            if (kendali.isDibatalkan()) {
+                return; // pager sudah diganti selagi antre
+            }
+            try {
+                TransaksiPager.Halaman hasil = kendali.jalankan(() -> ambil(sumber, awal, kendali));
+                Blok blok = new Blok(hasil.getBaris(), tipe);
+                SwingUtilities.invokeLater(() -> terimaHalaman(gen, nomorHalaman, hasil, blok));
+            } catch (Exception e) {
+                if (kendali.isDibatalkan()) {
+                    return;
+                }
+                System.err.println("❌ Error memuat halaman " + nomorHalaman + ": " + e.getMessage());
+                SwingUtilities.invokeLater(() -> {
+                    if (gen == generasi) {
+                        sedangDimuat.remove(nomorHalaman);
+                    }
+                });
+            }
+        });
+    }
+
+    // Di thread loader. Gagal bukan karena dibatalkan = koneksi dianggap putus
+    // (misal lewat wait_timeout server), dibuka ulang lalu dicoba sekali lagi
+    private TransaksiPager.Halaman ambil(TransaksiPager sumber, TransaksiPager.Cursor awal,
+                                         KendaliQuery kendali) throws SQLException {
+        try {
+            return sumber.ambil(getKoneksi(), awal, PAGE_SIZE, KendaliQuery.Jenis.INTERAKTIF);
+        } catch (SQLException e) {
+            if (kendali.isDibatalkan()) {
+                throw e;
+            }
+            tutupKoneksi();
+            return sumber.ambil(getKoneksi(), awal, PAGE_SIZE, KendaliQuery.Jenis.INTERAKTIF);
+        }
+    }
+
+    private Connection getKoneksi() throws SQLException {
+        if (koneksi == null || koneksi.isClosed()) {
+            koneksi = Koneksi.openConnection();
+        }
+        return koneksi;
+    }
+
+    private void tutupKoneksi() {
+        if (koneksi != null) {
+            try {
+                koneksi.close();
+            } catch (SQLException e) {
+                // koneksi memang sudah bermasalah
+            }
+            koneksi = null;
+        }
+    }
+
+    private void terimaHalaman(int gen, int nomorHalaman, TransaksiPager.Halaman hasil, Blok blok) {
+        if (gen != generasi) {
+            return; // pager sudah diganti
+        }
+        sedangDimuat.remove(nomorHalaman);
+        halaman.put(nomorHalaman, blok);
+
+        int awal = nomorHalaman * PAGE_SIZE;
+        if (nomorHalaman == cursorAkhir.size()) {
+            // Halaman baru: tambah baris di akhir tabel
+            cursorAkhir.add(hasil.getAkhir());
+            adaLagi = hasil.isAdaLagi();
+            if (blok.ukuran > 0) {
+                jumlahBaris = awal + blok.ukuran;
+                fireTableRowsInserted(awal, jumlahBaris - 1);
+            }
+        } else if (blok.ukuran > 0) {
+            // Halaman lama yang dimuat ulang setelah dibuang dari memori
+            fireTableRowsUpdated(awal, Math.min(awal + PAGE_SIZE, jumlahBaris) - 1);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package aplikasi.pembayaran.spp.view;
 
 import aplikasi.pembayaran.spp.model.Koneksi;
+import aplikasi.pembayaran.spp.controller.SesiLogin;
 import aplikasi.pembayaran.spp.controller.UserController;
 import aplikasi.pembayaran.spp.model.User;
 
@@ -22,6 +23,7 @@ public class LoginPage extends JFrame {
 
     public LoginPage() {
         this.userController = new UserController();
+        SesiLogin.akhiri(); // kembali ke halaman login = sesi sebelumnya selesai
 
         setTitle("Login - Aplikasi Pembayaran SPP");
         setSize(900, 550);
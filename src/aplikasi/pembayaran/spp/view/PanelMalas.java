@@ -0,0 +1,126 @@
+package aplikasi.pembayaran.spp.view;
+
+import java.awt.CardLayout;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import javax.swing.JPanel;
+import javax.swing.Timer;
+
+/**
+ * Pengelola panel CardLayout yang dibuat saat pertama kali dibuka.
+ *
+ * Setiap menu mendaftarkan pembuat panelnya di sini; panel (dan query data
+ * di dalamnya) baru dibuat ketika menu itu dibuka lewat {@link #tampilkan(String)}.
+ * Panel yang punya aksi lepas akan dibuang dari CardLayout kalau sudah tidak
+ * dilihat selama waktu idle (-Dspp.panel.idle=<detik>, default 300), lalu
+ * dibuat ulang dengan data baru saat dibuka lagi.
+ */
+public class PanelMalas {
+
+    private static final long IDLE_MILLIS = Long.getLong("spp.panel.idle", 300) * 1000L;
+    private static final int INTERVAL_CEK_MS = 30 * 1000;
+
+    private static class Kartu {
+        final Supplier<JPanel> pembuat;
+        final Runnable lepas;
+        JPanel panel;
+        long terakhirDilihat;
+
+        Kartu(Supplier<JPanel> pembuat, Runnable lepas) {
+            this.pembuat = pembuat;
+            this.lepas = lepas;
+        }
+    }
+
+    private final JPanel container;
+    private final Map<String, Kartu> kartu = new LinkedHashMap<>();
+    private final Timer timer;
+    private String aktif;
+
+    /**
+     * @param container panel dengan CardLayout
+     */
+    public PanelMalas(JPanel container) {
+        this.container = container;
+        this.timer = new Timer(INTERVAL_CEK_MS, e -> lepasPanelIdle());
+    }
+
+    /**
+     * Daftarkan panel yang tidak pernah dilepas (misalnya halaman utama)
+     */
+    public void daftar(String nama, Supplier<JPanel> pembuat) {
+        daftar(nama, pembuat, null);
+    }
+
+    /**
+     * @param pembuat membuat panel beserta isinya, dipanggil saat pertama dibuka
+     * @param lepas   membuang referensi field ke tabel/model panel saat dilepas
+     *                (null = panel tidak pernah dilepas)
+     */
+    public void daftar(String nama, Supplier<JPanel> pembuat, Runnable lepas) {
+        kartu.put(nama, new Kartu(pembuat, lepas));
+    }
+
+    /**
+     * Tampilkan panel, buat dulu kalau belum ada
+     */
+    public void tampilkan(String nama) {
+        Kartu tujuan = kartu.get(nama);
+        if (tujuan == null) {
+            System.err.println("❌ Panel tidak terdaftar: " + nama);
+            return;
+        }
+
+        long sekarang = System.currentTimeMillis();
+        Kartu sebelumnya = aktif != null ? kartu.get(aktif) : null;
+        if (sebelumnya != null) {
+            sebelumnya.terakhirDilihat = sekarang;
+        }
+
+        if (tujuan.panel == null) {
+            tujuan.panel = tujuan.pembuat.get();
+            container.add(tujuan.panel, nama);
+            System.out.println("🧩 Panel " + nama + " dibuat");
+        }
+        tujuan.terakhirDilihat = sekarang;
+        aktif = nama;
+        ((CardLayout) container.getLayout()).show(container, nama);
+    }
+
+    /**
+     * Nama panel yang sedang tampil (null kalau belum ada)
+     */
+    public String getAktif() {
+        return aktif;
+    }
+
+    public void start() {
+        timer.start();
+    }
+
+    public void stop() {
+        timer.stop();
+    }
+
+    private void lepasPanelIdle() {
+        long sekarang = System.currentTimeMillis();
+        boolean adaYangDilepas = false;
+        for (Map.Entry<String, Kartu> entry : kartu.entrySet()) {
+            Kartu k = entry.getValue();
+            if (k.panel == null || k.lepas == null || entry.getKey().equals(aktif)) {
+                continue;
+            }
+            if (sekarang - k.terakhirDilihat >= IDLE_MILLIS) {
+                container.remove(k.panel);
+                k.panel = null;
+                k.lepas.run();
+                adaYangDilepas = true;
+                System.out.println("♻️ Panel " + entry.getKey() + " dilepas (idle)");
+            }
+        }
+        if (adaYangDilepas) {
+            container.revalidate();
+        }
+    }
+}
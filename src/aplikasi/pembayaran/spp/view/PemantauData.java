@@ -0,0 +1,45 @@
+package aplikasi.pembayaran.spp.view;
+
+import aplikasi.pembayaran.spp.controller.DataVersi;
+
+import javax.swing.Timer;
+
+/**
+ * Pengganti timer refresh berkala di dashboard.
+ *
+ * Tiap detik hanya membandingkan nomor versi di DataVersi (tanpa query);
+ * aksi refresh dijalankan di EDT hanya kalau ada tabel yang berubah sejak
+ * pengecekan terakhir.
+ */
+public class PemantauData {
+
+    private static final int INTERVAL_MS = 1000;
+
+    private final DataVersi.Tabel[] tabel;
+    private final Runnable aksi;
+    private final Timer timer;
+    private long versiTerakhir;
+
+    public PemantauData(Runnable aksi, DataVersi.Tabel... tabel) {
+        this.aksi = aksi;
+        this.tabel = tabel;
+        this.versiTerakhir = DataVersi.getVersi(tabel);
+        this.timer = new Timer(INTERVAL_MS, e -> cek());
+    }
+
+    private void cek() {
+        long versi = DataVersi.getVersi(tabel);
+        if (versi != versiTerakhir) {
+            versiTerakhir = versi;
+            aksi.run();
+        }
+    }
+
+    public void start() {
+        timer.start();
+    }
+
+    public void stop() {
+        timer.stop();
+    }
+}
@@ -0,0 +1,100 @@
+package aplikasi.pembayaran.spp.view;
+
+import aplikasi.pembayaran.spp.controller.KendaliQuery;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import javax.swing.SwingWorker;
+
+/**
+ * Pemuat data dashboard di background.
+ *
+ * Dashboard menampilkan layout dan kartu placeholder lebih dulu, lalu setiap
+ * kartu/tabel mendaftarkan satu tugas di sini. Query jalan di luar EDT, hasil
+ * ditampilkan di EDT begitu tugasnya selesai, dan kegagalan satu tugas hanya
+ * mempengaruhi kartu miliknya sendiri.
+ *
+ * Tugas dijalankan berurutan di satu thread supaya dashboard tidak menembakkan
+ * banyak query sekaligus. Ini tidak membuat koneksi shared Koneksi.getConnection()
+ * jadi milik thread ini: EDT dan poller change_log memakainya juga, jadi tugas
+ * di sini tidak boleh menutupnya. Query laporan yang panjang memakai koneksi
+ * sendiri (Koneksi.openConnection()).
+ *
+ * Untuk tabel yang dimuat ulang setiap filter/ketikan berubah pakai {@link Slot}:
+ * hanya permintaan terakhir yang ditampilkan.
+ */
+public final class PemuatLatar {
+
+    private static final ExecutorService ANTRIAN = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "dashboard-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private PemuatLatar() {
+    }
+
+    /**
+     * @param nama   nama tugas untuk log
+     * @param ambil  dijalankan di background (query database)
+     * @param tampil dijalankan di EDT dengan hasil ambil
+     * @param gagal  dijalankan di EDT kalau ambil melempar exception (boleh null)
+     */
+    public static <T> SwingWorker<T, Void> muat(String nama, Callable<T> ambil,
+                                                Consumer<T> tampil, Consumer<Exception> gagal) {
+        SwingWorker<T, Void> worker = new SwingWorker<T, Void>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return ambil.call();
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    tampil.accept(get());
+                } catch (InterruptedException | ExecutionException e) {
+                    Exception sebab = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    System.err.println("❌ Gagal memuat " + nama + ": " + sebab.getMessage());
+                    if (gagal != null) {
+                        gagal.accept(sebab);
+                    }
+                }
+            }
+        };
+        ANTRIAN.execute(worker);
+        return worker;
+    }
+
+    /**
+     * "Yang terbaru menang" untuk satu tabel/kartu. Permintaan baru membatalkan
+     * yang sebelumnya: kalau masih antre dilewati, kalau query-nya sedang jalan
+     * dibatalkan lewat Statement.cancel (KendaliQuery), dan hasilnya tidak pernah
+     * ditampilkan. Hanya dipakai dari EDT.
+     */
+    public static final class Slot {
+        private SwingWorker<?, Void> worker;
+        private KendaliQuery kendali;
+
+        public <T> void muat(String nama, Callable<T> ambil, Consumer<T> tampil, Consumer<Exception> gagal) {
+            batal();
+            KendaliQuery k = new KendaliQuery();
+            kendali = k;
+            worker = PemuatLatar.muat(nama, () -> k.jalankan(ambil), tampil, gagal);
+        }
+
+        public void batal() {
+            if (worker != null) {
+                worker.cancel(false);
+                kendali.batal();
+                worker = null;
+                kendali = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package aplikasi.pembayaran.spp.view;
+
+import javax.swing.SwingConstants;
+import javax.swing.table.DefaultTableCellRenderer;
+
+/**
+ * Renderer kolom nominal: nilai disimpan sebagai angka di model dan baru
+ * diformat (lewat FormatRupiah) saat sel digambar.
+ */
+public class RupiahRenderer extends DefaultTableCellRenderer {
+
+    public RupiahRenderer() {
+        setHorizontalAlignment(SwingConstants.RIGHT);
+    }
+
+    @Override
+    protected void setValue(Object value) {
+        setText(value instanceof Number ? FormatRupiah.format(((Number) value).doubleValue()) : "");
+    }
+}
@@ -1,5 +1,7 @@
 package aplikasi.pembayaran.spp.view;
 
+import aplikasi.pembayaran.spp.controller.LaporanScheduler;
+import aplikasi.pembayaran.spp.controller.LogPerubahan;
 import aplikasi.pembayaran.spp.model.Koneksi;
 import javax.swing.*;
 import java.awt.*;
@@ -267,11 +269,25 @@ public class SplashScreen extends JFrame {
                     case 3:
                         // Initialize database
                         Koneksi.setupDatabase();
+
+                        // Sama dengan AplikasiPembayaranSPP.main: layanan background
+                        // baru jalan setelah tabel pasti ada
+                        if (Koneksi.getConnection() != null) {
+                            // Generate laporan harian/bulanan terjadwal di background
+                            LaporanScheduler.start();
+
+                            // Pantau change_log supaya cache ikut perubahan dari komputer lain
+                            LogPerubahan.start();
+                        }
                         break;
                         
                     case 4:
-                        // Inisialisasi data
-                        Thread.sleep(300);
+                        // Inisialisasi data (referensi kelas)
+                        try {
+                            aplikasi.pembayaran.spp.controller.ReferensiKelas.getInstance().muatUlang();
+                        } catch (Exception e) {
+                            System.err.println("⚠️ Referensi kelas belum dimuat: " + e.getMessage());
+                        }
                         System.out.println("✅ Data initialization complete");
                         break;
                         
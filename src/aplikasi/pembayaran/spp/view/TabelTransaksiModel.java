@@ -0,0 +1,70 @@
+package aplikasi.pembayaran.spp.view;
+
+import aplikasi.pembayaran.spp.model.TabelTransaksi;
+
+import java.text.NumberFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Table model read-only langsung di atas TabelTransaksi (tanpa menyalin ke
+ * Vector seperti DefaultTableModel). Tanggal dan rupiah baru diformat saat
+ * sel ditampilkan, jadi hanya baris yang terlihat yang dikerjakan.
+ */
+public class TabelTransaksiModel extends AbstractTableModel {
+
+    private static final String[] KOLOM = {"ID Transaksi", "NIS", "Nama Siswa", "Periode", "Tanggal", "Jumlah", "Metode", "Status"};
+
+    private final NumberFormat currencyFormat;
+    private final SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy HH:mm");
+    private TabelTransaksi data = new TabelTransaksi();
+
+    public TabelTransaksiModel(NumberFormat currencyFormat) {
+        this.currencyFormat = currencyFormat;
+    }
+
+    public void setData(TabelTransaksi data) {
+        this.data = data == null ? new TabelTransaksi() : data;
+        fireTableDataChanged();
+    }
+
+    public TabelTransaksi getData() {
+        return data;
+    }
+
+    @Override
+    public int getRowCount() {
+        return data.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return KOLOM.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return KOLOM[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        switch (column) {
+            case 0: return data.getIdTransaksi(row);
+            case 1: return data.getNis(row);
+            case 2: return data.getNamaSiswa(row);
+            case 3: return data.getBulanTahun(row) == null ? "-" : data.getBulanTahun(row);
+            case 4: return sdf.format(new Date(data.getTanggalBayar(row)));
+            case 5: return currencyFormat.format(data.getJumlahBayar(row));
+            case 6: return data.getMetodePembayaran(row);
+            case 7: return data.getStatusPembayaran(row);
+            default: return null;
+        }
+    }
+}